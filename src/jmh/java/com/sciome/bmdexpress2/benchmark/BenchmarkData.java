@@ -0,0 +1,215 @@
+package com.sciome.bmdexpress2.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.sciome.bmdexpress2.mvp.model.BMDProject;
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.LogTransformationEnum;
+import com.sciome.bmdexpress2.mvp.model.chip.ChipInfo;
+import com.sciome.bmdexpress2.mvp.model.info.AnalysisInfo;
+import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResult;
+import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResults;
+import com.sciome.bmdexpress2.mvp.model.probe.Probe;
+import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
+import com.sciome.bmdexpress2.mvp.model.probe.Treatment;
+import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
+import com.sciome.bmdexpress2.mvp.model.stat.PowerResult;
+import com.sciome.bmdexpress2.mvp.model.stat.ProbeStatResult;
+import com.sciome.bmdexpress2.mvp.model.stat.StatResult;
+import com.sciome.bmdexpress2.util.prefilter.OneWayANOVAAnalysis;
+
+/*
+ * Synthetic data for the benchmarks, generated from a fixed seed so every run sees the same data. The sizes
+ * follow the example files: a targeted S1500+ panel and a whole genome array, both with 8 doses of 4
+ * replicates in log2 scale. About one probe in ten gets a sigmoid dose response, the rest is noise.
+ */
+public class BenchmarkData
+{
+	public enum Size
+	{
+		S1500(3000), WHOLE_GENOME(45000);
+
+		private final int probes;
+
+		private Size(int probes)
+		{
+			this.probes = probes;
+		}
+
+		public int getProbes()
+		{
+			return probes;
+		}
+	}
+
+	public static final float[]	DOSES		= { 0.0f, 0.1f, 0.3f, 1.0f, 3.0f, 10.0f, 30.0f, 100.0f };
+	public static final int		REPLICATES	= 4;
+	public static final long	SEED		= 20200401L;
+
+	public static DoseResponseExperiment createExperiment(Size size)
+	{
+		Random random = new Random(SEED);
+
+		List<Treatment> treatments = new ArrayList<>();
+		for (int d = 0; d < DOSES.length; d++)
+			for (int r = 0; r < REPLICATES; r++)
+				treatments.add(new Treatment("D" + d + "_R" + (r + 1), DOSES[d]));
+
+		List<ProbeResponse> probeResponses = new ArrayList<>(size.getProbes());
+		for (int i = 0; i < size.getProbes(); i++)
+		{
+			Probe probe = new Probe();
+			probe.setId(getProbeId(i));
+
+			double base = 6.0 + 6.0 * random.nextDouble();
+			boolean responder = random.nextInt(10) == 0;
+			double amplitude = responder ? (random.nextBoolean() ? 1.0 : -1.0) * (1.0 + 2.0 * random.nextDouble())
+					: 0.0;
+			double ec50 = Math.pow(10.0, 2.0 * random.nextDouble() - 0.5);
+
+			List<Float> responses = new ArrayList<>(treatments.size());
+			for (Treatment treatment : treatments)
+			{
+				double dose = treatment.getDose();
+				double mean = base + amplitude * dose / (dose + ec50);
+				responses.add((float) (mean + 0.25 * random.nextGaussian()));
+			}
+
+			ProbeResponse probeResponse = new ProbeResponse();
+			probeResponse.setProbe(probe);
+			probeResponse.setResponses(responses);
+			probeResponses.add(probeResponse);
+		}
+
+		ChipInfo chip = new ChipInfo("Generic");
+		chip.setId("Generic");
+		chip.setProvider("Generic");
+		chip.setSpecies("Generic");
+
+		DoseResponseExperiment experiment = new DoseResponseExperiment();
+		experiment.setName("benchmark_" + size.name().toLowerCase());
+		experiment.setTreatments(treatments);
+		experiment.setProbeResponses(probeResponses);
+		experiment.setChip(chip);
+		experiment.setLogTransformation(LogTransformationEnum.BASE2);
+		experiment.setAnalysisInfo(new AnalysisInfo());
+		experiment.packResponses();
+		return experiment;
+	}
+
+	public static String getProbeId(int i)
+	{
+		return "probe_" + i;
+	}
+
+	/*
+	 * genes are shared by a few probes, like on an array.
+	 */
+	public static String getGeneId(int probeIndex)
+	{
+		return String.valueOf(100000 + probeIndex * 3 / 4);
+	}
+
+	/*
+	 * write the experiment in the tab delimited format that ExperimentFileUtil reads.
+	 */
+	public static void writeExperimentFile(DoseResponseExperiment experiment, File file) throws IOException
+	{
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(file)))
+		{
+			StringBuilder header = new StringBuilder("SampleID");
+			StringBuilder doses = new StringBuilder("Doses");
+			for (Treatment treatment : experiment.getTreatments())
+			{
+				header.append('\t').append(treatment.getName());
+				doses.append('\t').append(treatment.getDose());
+			}
+			writer.write(header.toString());
+			writer.newLine();
+			writer.write(doses.toString());
+			writer.newLine();
+
+			for (ProbeResponse probeResponse : experiment.getProbeResponses())
+			{
+				StringBuilder line = new StringBuilder(probeResponse.getProbe().getId());
+				for (int j = 0; j < probeResponse.getResponseCount(); j++)
+					line.append('\t').append(probeResponse.getResponse(j));
+				writer.write(line.toString());
+				writer.newLine();
+			}
+		}
+	}
+
+	/*
+	 * an unfiltered one-way ANOVA of the experiment.
+	 */
+	public static OneWayANOVAResults createANOVAResults(DoseResponseExperiment experiment)
+	{
+		List<OneWayANOVAResult> resultList = new OneWayANOVAAnalysis().analyzeDoseResponseData(experiment);
+		OneWayANOVAResults results = new OneWayANOVAResults();
+		results.setName(experiment.getName() + "_oneway");
+		results.setDoseResponseExperiement(experiment);
+		results.setOneWayANOVAResults(resultList);
+		results.setAnalysisInfo(new AnalysisInfo());
+		return results;
+	}
+
+	/*
+	 * a bmd result with one power model per probe as the best model. The bmds are spread over the dose range
+	 * so category filters and statistics have something to work with.
+	 */
+	public static BMDResult createBMDResult(DoseResponseExperiment experiment)
+	{
+		Random random = new Random(SEED + 1);
+		List<ProbeStatResult> probeStatResults = new ArrayList<>();
+		for (ProbeResponse probeResponse : experiment.getProbeResponses())
+		{
+			double bmd = Math.pow(10.0, 3.0 * random.nextDouble() - 1.0);
+
+			PowerResult powerResult = new PowerResult();
+			powerResult.setBMD(bmd);
+			powerResult.setBMDL(bmd / (1.5 + random.nextDouble()));
+			powerResult.setBMDU(bmd * (1.5 + random.nextDouble()));
+			powerResult.setFitPValue(random.nextDouble());
+			powerResult.setFitLogLikelihood(-10.0 * random.nextDouble());
+			powerResult.setAIC(20.0 * random.nextDouble());
+			powerResult.setAdverseDirection((short) (random.nextBoolean() ? 1 : -1));
+			powerResult.setCurveParameters(new double[] { 8.0, 0.5, 1.2 });
+			powerResult.setSuccess("true");
+
+			List<StatResult> statResults = new ArrayList<>();
+			statResults.add(powerResult);
+
+			ProbeStatResult probeStatResult = new ProbeStatResult();
+			probeStatResult.setProbeResponse(probeResponse);
+			probeStatResult.setStatResults(statResults);
+			probeStatResult.setBestStatResult(powerResult);
+			probeStatResults.add(probeStatResult);
+		}
+
+		BMDResult bmdResult = new BMDResult();
+		bmdResult.setName(experiment.getName() + "_bmd");
+		bmdResult.setDoseResponseExperiment(experiment);
+		bmdResult.setProbeStatResults(probeStatResults);
+		bmdResult.setAnalysisInfo(new AnalysisInfo());
+		return bmdResult;
+	}
+
+	public static BMDProject createProject(Size size)
+	{
+		DoseResponseExperiment experiment = createExperiment(size);
+
+		BMDProject project = new BMDProject();
+		project.setName("benchmark");
+		project.getDoseResponseExperiments().add(experiment);
+		project.getOneWayANOVAResults().add(createANOVAResults(experiment));
+		project.getbMDResult().add(createBMDResult(experiment));
+		return project;
+	}
+}
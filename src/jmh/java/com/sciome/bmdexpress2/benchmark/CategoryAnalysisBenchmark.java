@@ -0,0 +1,140 @@
+package com.sciome.bmdexpress2.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sciome.bmdexpress2.benchmark.BenchmarkData.Size;
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.category.CategoryAnalysisResults;
+import com.sciome.bmdexpress2.mvp.model.info.AnalysisInfo;
+import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
+import com.sciome.bmdexpress2.shared.CategoryAnalysisEnum;
+import com.sciome.bmdexpress2.util.MatrixData;
+import com.sciome.bmdexpress2.util.categoryanalysis.CategoryAnalysisParameters;
+import com.sciome.bmdexpress2.util.categoryanalysis.CategoryMapTool;
+import com.sciome.bmdexpress2.util.categoryanalysis.defined.DefinedCategoryFileParameters;
+
+/*
+ * A defined category analysis (CategoryMapTool.categoryAnalysis, which ends in termsOut) on a synthetic
+ * annotation graph. Categories are nested like GO terms: the first level has a few large categories, every
+ * level below splits its parents into smaller ones with some genes shared between siblings, so gene
+ * membership overlaps the way it does in the real category files.
+ *
+ * The category map and probe maps are built once in the setup; only the per category statistics are timed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryAnalysisBenchmark
+{
+	private static final int	LEVELS		= 5;
+	private static final int	BRANCHING	= 4;
+	private static final int	ROOTS		= 8;
+
+	@Param({ "S1500", "WHOLE_GENOME" })
+	public Size					size;
+
+	private CategoryMapTool		categoryMapTool;
+
+	@Setup
+	public void setup()
+	{
+		DoseResponseExperiment experiment = BenchmarkData.createExperiment(size);
+		BMDResult bmdResult = BenchmarkData.createBMDResult(experiment);
+
+		Object[][] probeMap = new Object[size.getProbes()][];
+		for (int i = 0; i < size.getProbes(); i++)
+			probeMap[i] = new Object[] { BenchmarkData.getProbeId(i), BenchmarkData.getGeneId(i) };
+
+		DefinedCategoryFileParameters probeFileParameters = new DefinedCategoryFileParameters();
+		probeFileParameters.setFileName("benchmark_probes.txt");
+		probeFileParameters.setUsedColumns(new int[] { 0, 1 });
+		probeFileParameters
+				.setMatrixData(new MatrixData("probes", new String[] { "Probe ID", "Gene ID" }, probeMap));
+
+		DefinedCategoryFileParameters categoryFileParameters = new DefinedCategoryFileParameters();
+		categoryFileParameters.setFileName("benchmark_categories.txt");
+		categoryFileParameters.setUsedColumns(new int[] { 0, 1, 2 });
+		categoryFileParameters.setMatrixData(new MatrixData("categories",
+				new String[] { "Category ID", "Category Name", "Genes" }, createCategories(size)));
+
+		CategoryAnalysisParameters params = new CategoryAnalysisParameters();
+		params.setProbeFileParameters(probeFileParameters);
+		params.setCategoryFileParameters(categoryFileParameters);
+		params.setRemoveBMDGreaterHighDose(true);
+
+		categoryMapTool = new CategoryMapTool(params, bmdResult, CategoryAnalysisEnum.DEFINED, null,
+				new AnalysisInfo());
+	}
+
+	@Benchmark
+	public CategoryAnalysisResults categoryAnalysis()
+	{
+		return categoryMapTool.categoryAnalysis();
+	}
+
+	/*
+	 * rows of category id, name and ';' separated genes.
+	 */
+	private static Object[][] createCategories(Size size)
+	{
+		Random random = new Random(BenchmarkData.SEED);
+		int genes = size.getProbes() * 3 / 4;
+
+		List<Object[]> categories = new ArrayList<>();
+		List<List<String>> level = new ArrayList<>();
+		for (int r = 0; r < ROOTS; r++)
+		{
+			List<String> root = new ArrayList<>();
+			for (int g = r; g < genes; g += ROOTS)
+				root.add(String.valueOf(100000 + g));
+			level.add(root);
+		}
+
+		for (int l = 0; l < LEVELS; l++)
+		{
+			List<List<String>> nextLevel = new ArrayList<>();
+			for (List<String> parent : level)
+			{
+				addCategory(categories, "L" + l, parent);
+				if (parent.size() < 4)
+					continue;
+				for (int b = 0; b < BRANCHING; b++)
+				{
+					List<String> child = new ArrayList<>();
+					for (String gene : parent)
+						// each child gets a share of the parent and a few of its siblings' genes
+						if (random.nextInt(BRANCHING) == b || random.nextInt(20) == 0)
+							child.add(gene);
+					nextLevel.add(child);
+				}
+			}
+			level = nextLevel;
+		}
+
+		return categories.toArray(new Object[categories.size()][]);
+	}
+
+	private static void addCategory(List<Object[]> categories, String levelName, List<String> genes)
+	{
+		String id = "CAT:" + categories.size();
+		categories.add(new Object[] { id, levelName + " category " + categories.size(), String.join(";", genes) });
+	}
+}
@@ -0,0 +1,103 @@
+package com.sciome.bmdexpress2.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sciome.bmdexpress2.benchmark.BenchmarkData.Size;
+import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisDataSet;
+import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisRow;
+import com.sciome.bmdexpress2.mvp.model.ChartKey;
+import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResults;
+import com.sciome.bmdexpress2.mvp.model.prefilter.PrefilterResults;
+import com.sciome.charts.data.ChartDataPack;
+import com.sciome.charts.data.ChartDataPackMaker;
+import com.sciome.filter.DataFilter;
+import com.sciome.filter.DataFilterPack;
+import com.sciome.filter.DataFilterType;
+import com.sciome.filter.NumberFilter;
+
+/*
+ * What the visualizations do on every filter change: run the filter pack over all rows and build the chart
+ * data packs. The data set is an unfiltered one-way ANOVA so every probe is a row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChartDataBenchmark
+{
+	@Param({ "S1500", "WHOLE_GENOME" })
+	public Size								size;
+
+	private OneWayANOVAResults				anovaResults;
+	private List<BMDExpressAnalysisRow>		rows;
+	private DataFilterPack					dataFilterPack;
+	private List<BMDExpressAnalysisDataSet>	dataSets;
+	private Set<ChartKey>					chartKeys;
+	private ChartKey						labelKey;
+
+	@SuppressWarnings("unchecked")
+	@Setup
+	public void setup()
+	{
+		anovaResults = BenchmarkData.createANOVAResults(BenchmarkData.createExperiment(size));
+		// fills the row data
+		anovaResults.getColumnHeader();
+		rows = new ArrayList<>(anovaResults.getAnalysisRows());
+
+		List<DataFilter> dataFilters = new ArrayList<>();
+		dataFilters.add(new NumberFilter(DataFilterType.LESS_THAN, anovaResults,
+				PrefilterResults.UNADJUSTED_PVALUE, Arrays.<Object> asList(0.05, null)));
+		dataFilters.add(new NumberFilter(DataFilterType.BETWEEN, anovaResults, PrefilterResults.FVALUE,
+				Arrays.<Object> asList(1.0, 1000000.0)));
+		dataFilterPack = new DataFilterPack("benchmark", dataFilters, new HashSet<>());
+
+		dataSets = new ArrayList<>();
+		dataSets.add(anovaResults);
+
+		chartKeys = new HashSet<>();
+		chartKeys.add(new ChartKey(PrefilterResults.UNADJUSTED_PVALUE, ChartKey.NEGLOG));
+		chartKeys.add(new ChartKey(PrefilterResults.FVALUE, null));
+		labelKey = new ChartKey(PrefilterResults.PROBE_ID, null);
+	}
+
+	@Benchmark
+	public int passesFilter()
+	{
+		int passed = 0;
+		for (BMDExpressAnalysisRow row : rows)
+			if (dataFilterPack.passesFilter(row))
+				passed++;
+		return passed;
+	}
+
+	@Benchmark
+	public List<ChartDataPack> generateDataPacks()
+	{
+		return new ChartDataPackMaker(dataFilterPack).generateDataPacks(dataSets, chartKeys, null, labelKey);
+	}
+
+	@Benchmark
+	public List<ChartDataPack> generateDataPacksUnfiltered()
+	{
+		return new ChartDataPackMaker(null).generateDataPacks(dataSets, chartKeys, null, labelKey);
+	}
+}
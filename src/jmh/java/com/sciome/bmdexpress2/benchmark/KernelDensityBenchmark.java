@@ -0,0 +1,81 @@
+package com.sciome.bmdexpress2.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sciome.charts.data.KernelDensity;
+
+/*
+ * The kernel density of a BMD like distribution on the density chart grid (499 points), summed directly as
+ * the charts used to and binned with the FFT convolution. The cached estimate is what a redraw costs once
+ * the density was computed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KernelDensityBenchmark
+{
+	private static final int	NUM_X_VALUES	= 500;
+
+	@Param({ "1000", "100000", "1000000" })
+	public int					values;
+
+	private double[]			data;
+	private double				bandwidth;
+	private double				step;
+
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(BenchmarkData.SEED);
+		data = new double[values];
+		double max = 0.0;
+		double sum = 0.0;
+		for (int i = 0; i < values; i++)
+		{
+			// log normal around 1 with a long right tail
+			data[i] = Math.exp(random.nextGaussian());
+			max = Math.max(max, data[i]);
+			sum += data[i];
+		}
+		double mean = sum / values;
+		double squares = 0.0;
+		for (double value : data)
+			squares += (value - mean) * (value - mean);
+		bandwidth = 1.06 * Math.sqrt(squares / (values - 1)) / 10;
+		step = max / NUM_X_VALUES;
+	}
+
+	@Benchmark
+	public double[] direct()
+	{
+		return KernelDensity.computeDirect(data, bandwidth, step, 1, NUM_X_VALUES - 1);
+	}
+
+	@Benchmark
+	public double[] binned()
+	{
+		return KernelDensity.compute(data, bandwidth, step, 1, NUM_X_VALUES - 1);
+	}
+
+	@Benchmark
+	public double[] cached()
+	{
+		return KernelDensity.estimate(data, bandwidth, step, 1, NUM_X_VALUES - 1);
+	}
+}
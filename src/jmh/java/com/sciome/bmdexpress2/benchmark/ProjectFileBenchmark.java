@@ -0,0 +1,108 @@
+package com.sciome.bmdexpress2.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sciome.bmdexpress2.benchmark.BenchmarkData.Size;
+import com.sciome.bmdexpress2.mvp.model.BMDProject;
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.util.ExperimentFileUtil;
+
+/*
+ * Reading an expression file and writing and reading a .bm2 project, with the same streams and buffer sizes
+ * as AnalyzeRunner and DialogWithThreadProcess. The files go to the temp folder, so the scores include the
+ * file system.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectFileBenchmark
+{
+	@Param({ "S1500", "WHOLE_GENOME" })
+	public Size			size;
+
+	private BMDProject	project;
+	private File		experimentFile;
+	private File		projectFile;
+	private File		writeFile;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		project = BenchmarkData.createProject(size);
+
+		experimentFile = File.createTempFile("benchmark", ".txt");
+		BenchmarkData.writeExperimentFile(project.getDoseResponseExperiments().get(0), experimentFile);
+
+		projectFile = File.createTempFile("benchmark", ".bm2");
+		writeProject(project, projectFile);
+
+		writeFile = File.createTempFile("benchmark_write", ".bm2");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		experimentFile.delete();
+		projectFile.delete();
+		writeFile.delete();
+	}
+
+	@Benchmark
+	public DoseResponseExperiment readExperimentFile()
+	{
+		return ExperimentFileUtil.getInstance().readFile(experimentFile);
+	}
+
+	@Benchmark
+	public long writeProject() throws IOException
+	{
+		writeProject(project, writeFile);
+		return writeFile.length();
+	}
+
+	@Benchmark
+	public BMDProject readProject() throws IOException, ClassNotFoundException
+	{
+		FileInputStream fileIn = new FileInputStream(projectFile);
+		BufferedInputStream bIn = new BufferedInputStream(fileIn, 1024 * 2000);
+		try (ObjectInputStream in = new ObjectInputStream(bIn))
+		{
+			return (BMDProject) in.readObject();
+		}
+	}
+
+	private static void writeProject(BMDProject project, File file) throws IOException
+	{
+		FileOutputStream fileOut = new FileOutputStream(file);
+		BufferedOutputStream bout = new BufferedOutputStream(fileOut, 2000 * 1024);
+		try (ObjectOutputStream out = new ObjectOutputStream(bout))
+		{
+			out.writeObject(project);
+		}
+	}
+}
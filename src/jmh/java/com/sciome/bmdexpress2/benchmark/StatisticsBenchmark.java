@@ -0,0 +1,165 @@
+package com.sciome.bmdexpress2.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sciome.bmdexpress2.benchmark.BenchmarkData.Size;
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResult;
+import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
+import com.sciome.bmdexpress2.mvp.model.probe.Treatment;
+import com.sciome.bmdexpress2.util.curvep.CurvePProcessor;
+import com.sciome.bmdexpress2.util.prefilter.OneWayANOVAAnalysis;
+import com.sciome.bmdexpress2.util.prefilter.OnewayAnova;
+import com.sciome.bmdexpress2.util.stat.FalseDiscoveryRate;
+import com.sciome.bmdexpress2.util.stat.FishersExact;
+
+/*
+ * The per probe statistics of the prefilters and the category analysis. Each benchmark covers a whole
+ * experiment so the scores are comparable to what a user waits for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatisticsBenchmark
+{
+	// the gcurvep bootstraps are much slower than the rest, so they run on a fixed sample of probes.
+	private static final int		CURVEP_PROBES	= 200;
+	private static final int		CURVEP_BOOTS	= 100;
+
+	@Param({ "S1500", "WHOLE_GENOME" })
+	public Size						size;
+
+	private DoseResponseExperiment	experiment;
+	private double[]				doses;
+	private double[][]				responses;
+	private double[]				pValues;
+	private int[][]					contingencyTables;
+	private List<Float>				doseVector;
+	private List<List<Float>>		curvePResponses;
+
+	@Setup
+	public void setup()
+	{
+		experiment = BenchmarkData.createExperiment(size);
+
+		List<Treatment> treatments = experiment.getTreatments();
+		doses = new double[treatments.size()];
+		doseVector = new ArrayList<>();
+		for (int i = 0; i < treatments.size(); i++)
+		{
+			doses[i] = treatments.get(i).getDose();
+			doseVector.add(treatments.get(i).getDose());
+		}
+
+		List<ProbeResponse> probeResponses = experiment.getProbeResponses();
+		responses = new double[probeResponses.size()][];
+		for (int i = 0; i < probeResponses.size(); i++)
+		{
+			float[] row = probeResponses.get(i).getResponseArray();
+			responses[i] = new double[row.length];
+			for (int j = 0; j < row.length; j++)
+				responses[i][j] = row[j];
+		}
+
+		List<OneWayANOVAResult> anova = new OneWayANOVAAnalysis().analyzeDoseResponseData(experiment);
+		pValues = new double[anova.size()];
+		for (int i = 0; i < anova.size(); i++)
+			pValues[i] = anova.get(i).getpValue();
+
+		// one 2x2 table per category: genes with a bmd in the category, genes with a bmd, category size and
+		// all annotated genes, as CategoryMapTool.fisherExactTest builds them.
+		Random random = new Random(BenchmarkData.SEED);
+		int allGenes = size.getProbes() * 3 / 4;
+		int changedGenes = allGenes / 10;
+		contingencyTables = new int[size.getProbes() / 2][];
+		for (int i = 0; i < contingencyTables.length; i++)
+		{
+			int categorySize = 5 + random.nextInt(Math.min(500, allGenes / 4));
+			int sub = random.nextInt(Math.min(categorySize, changedGenes) + 1);
+			int a = sub;
+			int b = changedGenes - a;
+			int c = categorySize - a;
+			int d = allGenes - a - b - c;
+			contingencyTables[i] = new int[] { a, b, c, d };
+		}
+
+		curvePResponses = new ArrayList<>();
+		for (int i = 0; i < CURVEP_PROBES; i++)
+			curvePResponses.add(probeResponses.get(i).getResponses());
+	}
+
+	@Benchmark
+	public void onewayAnova(Blackhole blackhole)
+	{
+		OnewayAnova oneway = new OnewayAnova();
+		oneway.setVariablesXX(0, doses);
+		for (double[] row : responses)
+		{
+			oneway.onewayANOVA(row);
+			blackhole.consume(oneway.pValue());
+		}
+	}
+
+	@Benchmark
+	public List<OneWayANOVAResult> oneWayANOVAAnalysis()
+	{
+		return new OneWayANOVAAnalysis().analyzeDoseResponseData(experiment);
+	}
+
+	@Benchmark
+	public double[] falseDiscoveryRate()
+	{
+		return new FalseDiscoveryRate(pValues).falseDiscoveryRate();
+	}
+
+	@Benchmark
+	public void fishersExact(Blackhole blackhole)
+	{
+		for (int[] table : contingencyTables)
+		{
+			FishersExact test = new FishersExact(table[0], table[1], table[2], table[3]);
+			blackhole.consume(test.pLeft());
+			blackhole.consume(test.pRight());
+			blackhole.consume(test.twoTail());
+		}
+	}
+
+	/*
+	 * what the gcurvep analysis does per probe: correct the curve in both directions.
+	 */
+	@Benchmark
+	public void curvePcorr(Blackhole blackhole)
+	{
+		for (List<Float> probeResponses : curvePResponses)
+		{
+			List<Float> averages = CurvePProcessor.calc_WgtAvResponses(doseVector, probeResponses);
+			List<Float> deviations = CurvePProcessor.calc_WgtSdResponses(doseVector, probeResponses);
+			float bmrMinus = CurvePProcessor.calc_PODR_bySD(averages.get(0), deviations.get(0), -1.349f);
+			float bmrPlus = CurvePProcessor.calc_PODR_bySD(averages.get(0), deviations.get(0), 1.349f);
+
+			blackhole.consume(CurvePProcessor.curvePcorr(doseVector, probeResponses, new ArrayList<>(),
+					bmrMinus, -1, CURVEP_BOOTS, 0.05f));
+			blackhole.consume(CurvePProcessor.curvePcorr(doseVector, probeResponses, new ArrayList<>(),
+					bmrPlus, 1, CURVEP_BOOTS, 0.05f));
+		}
+	}
+}
@@ -11,14 +11,22 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FilenameUtils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sciome.bmdexpress2.commandline.config.RunConfig;
+import com.sciome.bmdexpress2.commandline.config.bmds.BMDSBestModelSelectionConfig;
 import com.sciome.bmdexpress2.commandline.config.bmds.BMDSConfig;
 import com.sciome.bmdexpress2.commandline.config.bmds.BMDSModelConfig;
+import com.sciome.bmdexpress2.commandline.config.bmds.BMDSReselectConfig;
 import com.sciome.bmdexpress2.commandline.config.bmds.ExponentialConfig;
 import com.sciome.bmdexpress2.commandline.config.bmds.HillConfig;
 import com.sciome.bmdexpress2.commandline.config.bmds.PolyConfig;
@@ -41,6 +49,7 @@ import com.sciome.bmdexpress2.mvp.model.IStatModelProcessable;
 import com.sciome.bmdexpress2.mvp.model.category.CategoryAnalysisResults;
 import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResults;
 import com.sciome.bmdexpress2.mvp.model.prefilter.OriogenResults;
+import com.sciome.bmdexpress2.mvp.model.prefilter.PrefilterResults;
 import com.sciome.bmdexpress2.mvp.model.prefilter.WilliamsTrendResults;
 import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
 import com.sciome.bmdexpress2.shared.BMDExpressConstants;
@@ -63,6 +72,7 @@ import com.sciome.bmdexpress2.util.categoryanalysis.CategoryAnalysisParameters;
 import com.sciome.bmdexpress2.util.categoryanalysis.IVIVEParameters;
 import com.sciome.bmdexpress2.util.categoryanalysis.defined.DefinedCategoryFileParameters;
 import com.sciome.bmdexpress2.util.curvep.GCurvePInputParameters;
+import com.sciome.bmdexpress2.util.metrics.MetricsRegistry;
 import com.sciome.commons.math.httk.calc.calc_analytic_css.Model;
 import com.sciome.commons.math.httk.model.Compound;
 import com.sciome.commons.math.httk.model.CompoundTable;
@@ -77,11 +87,33 @@ public class AnalyzeRunner
 
 	BMDProject project = new BMDProject();
 
+	// with more than one shard, bmd analyses only fit every shardCount'th probe starting at shardIndex.
+	private int	shardIndex	= 0;
+	private int	shardCount	= 1;
+
 	public void analyze(String configFile) throws Exception
 	{
+		analyze(configFile, 0, 1);
+	}
+
+	/*
+	 * run one shard of the bmd and non parametric analyses in the config. the project is written to a shard
+	 * file next to the bm2 file, to be put together with merge-shards. category analyses and the json export
+	 * need all the probes so they are left for after the merge.
+	 */
+	public void analyze(String configFile, int shardIndex, int shardCount) throws Exception
+	{
+		if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount)
+			throw new IllegalArgumentException("Invalid shard " + shardIndex + "/" + shardCount);
+		this.shardIndex = shardIndex;
+		this.shardCount = shardCount;
 
 		// deserialize the config file that was passed on commandline
 		RunConfig runConfig = getRunConfig(configFile);
+		if (shardCount > 1 && runConfig.getBmdsConfigs() != null)
+			for (BMDSConfig bmdsConfig : runConfig.getBmdsConfigs())
+				ProcessableShard.checkModelSelection(
+						getModelSelectionParameters(bmdsConfig.getBmdsBestModelSelection()));
 
 		// load the project if the file exists.
 		// if overwrite is set to true then don't open it, but rather start fresh
@@ -95,9 +127,11 @@ public class AnalyzeRunner
 			BMDExpressConstants.getInstance(runConfig.getBasePath());
 
 		BMDExpressProperties.getInstance().setIsConsole(true);
+		MetricsRegistry.getInstance().reset();
 
 		if (new File(runConfig.getBm2FileName()).exists() && !runConfig.getOverwrite())
 		{
+			MetricsRegistry.Timer readTimer = MetricsRegistry.getInstance().start("project.read");
 			try
 			{
 				FileInputStream fileIn = new FileInputStream(new File(runConfig.getBm2FileName()));
@@ -116,46 +150,92 @@ public class AnalyzeRunner
 			{
 				c.printStackTrace();
 			}
+			finally
+			{
+				readTimer.stop();
+			}
 		}
 
 		// 1: get all the expression data configs
 		List<ExpressionDataConfig> expressionConfigs = runConfig.getExpressionDataConfigs();
 		if (expressionConfigs != null)
 			for (ExpressionDataConfig expressionConfig : expressionConfigs)
-				doExpressionConfig(expressionConfig);
+			{
+				try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("analyze.expression"))
+				{
+					doExpressionConfig(expressionConfig);
+				}
+			}
 
 		// 2: get all the anova configs
 		List<PrefilterConfig> preFilterConfigs = runConfig.getPreFilterConfigs();
 
 		if (preFilterConfigs != null)
 			for (PrefilterConfig preFilterConfig : preFilterConfigs)
-				doPrefilter(preFilterConfig);
+			{
+				try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("analyze.prefilter"))
+				{
+					doPrefilter(preFilterConfig);
+				}
+			}
 
 		// 3: get all the analysis configs
 		List<BMDSConfig> bmdsConfigs = runConfig.getBmdsConfigs();
 		if (bmdsConfigs != null)
 			for (BMDSConfig bmdsConfig : bmdsConfigs)
-				doBMDSAnalysis(bmdsConfig);
+			{
+				try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("analyze.bmds"))
+				{
+					doBMDSAnalysis(bmdsConfig);
+				}
+			}
+
+		// 3b: reselect best models of the analyses from step 3
+		List<BMDSReselectConfig> reselectConfigs = runConfig.getBmdsReselectConfigs();
+		if (reselectConfigs != null)
+			for (BMDSReselectConfig reselectConfig : reselectConfigs)
+			{
+				try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("analyze.reselect"))
+				{
+					doBMDSReselect(reselectConfig);
+				}
+			}
 
 		// 4: get all the analysis configs
 		List<NonParametricConfig> nonParametricConfigs = runConfig.getNonParametricConfigs();
 		if (nonParametricConfigs != null)
 			for (NonParametricConfig nonPConfig : nonParametricConfigs)
-				doNonParametricAnalysis(nonPConfig);
+			{
+				try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance()
+						.start("analyze.nonparametric"))
+				{
+					doNonParametricAnalysis(nonPConfig);
+				}
+			}
 
 		// 5: get all the category analysis configs
 		List<CategoryConfig> catConfigs = runConfig.getCategoryAnalysisConfigs();
-		if (catConfigs != null)
+		if (catConfigs != null && shardCount > 1)
+			System.out.println("category analyses are skipped when running a shard");
+		else if (catConfigs != null)
 			for (CategoryConfig catConfig : catConfigs)
-				doCatAnalysis(catConfig);
+			{
+				try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("analyze.category"))
+				{
+					doCatAnalysis(catConfig);
+				}
+			}
 
 		// 6. see if this needs exporting to json
-		if (runConfig.getJsonExportFileName() != null)
+		if (runConfig.getJsonExportFileName() != null && shardCount > 1)
+			System.out.println("json export is skipped when running a shard");
+		else if (runConfig.getJsonExportFileName() != null)
 			doJsonExport(runConfig.getJsonExportFileName());
 
+		File selectedFile = new File(getShardFileName(runConfig.getBm2FileName(), shardIndex, shardCount));
+		MetricsRegistry.Timer writeTimer = MetricsRegistry.getInstance().start("project.write");
 		try
 		{
-			File selectedFile = new File(runConfig.getBm2FileName());
 			FileOutputStream fileOut = new FileOutputStream(selectedFile);
 
 			int bufferSize = 2000 * 1024; // make it a 2mb buffer
@@ -170,6 +250,34 @@ public class AnalyzeRunner
 		{
 			i.printStackTrace();
 		}
+		finally
+		{
+			writeTimer.stop();
+		}
+
+		writeProfile(selectedFile, configFile);
+	}
+
+	/*
+	 * write the stage timings of this run next to the bm2 file, e.g. project.bm2 -> project.profile.json
+	 */
+	private void writeProfile(File bm2File, String configFile)
+	{
+		File profileFile = new File(bm2File.getParentFile(),
+				FilenameUtils.removeExtension(bm2File.getName()) + ".profile.json");
+		Map<String, Object> extra = new LinkedHashMap<>();
+		extra.put("version", BMDExpressProperties.getInstance().getVersion());
+		extra.put("configFile", configFile);
+		extra.put("shard", shardIndex + "/" + shardCount);
+		try
+		{
+			MetricsRegistry.getInstance().writeProfile(profileFile, extra);
+			System.out.println("run profile written to " + profileFile.getAbsolutePath());
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
 	}
 
 	// invoke the export to json functionality.
@@ -466,61 +574,8 @@ public class AnalyzeRunner
 			inputParameters.setRho(inputParameters.getNegative());
 
 		// now set up the model selection parameters.
-		ModelSelectionParameters modelSelectionParameters = new ModelSelectionParameters();
-
-		// set up how to use the bmdl and bmdu
-		modelSelectionParameters
-				.setBestModelSelectionBMDLandBMDU(BestModelSelectionBMDLandBMDU.COMPUTE_AND_UTILIZE);
-		if (bmdsConfig.getBmdsBestModelSelection().getBmdlBMDUUse().equals(2))
-			modelSelectionParameters
-					.setBestModelSelectionBMDLandBMDU(BestModelSelectionBMDLandBMDU.COMPUTE_BUT_IGNORE);
-		else if (bmdsConfig.getBmdsBestModelSelection().getBmdlBMDUUse().equals(3))
-			modelSelectionParameters
-					.setBestModelSelectionBMDLandBMDU(BestModelSelectionBMDLandBMDU.DO_NOT_COMPUTE);
-		BestPolyModelTestEnum polyTest = null;
-		if (bmdsConfig.getBmdsBestModelSelection().getBestPolyTest().equals(2))
-			polyTest = BestPolyModelTestEnum.LOWEST_AIC;
-		else if (bmdsConfig.getBmdsBestModelSelection().getBestPolyTest().equals(1))
-			polyTest = BestPolyModelTestEnum.NESTED_CHI_SQUARED;
-		modelSelectionParameters.setBestPolyModelTest(polyTest);
-
-		// set up the pValue
-		modelSelectionParameters.setpValue(bmdsConfig.getBmdsBestModelSelection().getpValueCutoff());
-
-		// set up Flag HIll
-		modelSelectionParameters
-				.setFlagHillModel(bmdsConfig.getBmdsBestModelSelection().getFlagHillWithKParameter());
-
-		FlagHillModelDoseEnum flagHillDose = null;
-		if (bmdsConfig.getBmdsBestModelSelection().getkParameterValue().equals(1))
-			flagHillDose = FlagHillModelDoseEnum.LOWEST_DOSE;
-		else if (bmdsConfig.getBmdsBestModelSelection().getkParameterValue().equals(2))
-			flagHillDose = FlagHillModelDoseEnum.ONE_HALF_OF_LOWEST_DOSE;
-		else if (bmdsConfig.getBmdsBestModelSelection().getkParameterValue().equals(3))
-			flagHillDose = FlagHillModelDoseEnum.ONE_THIRD_OF_LOWEST_DOSE;
-
-		modelSelectionParameters.setFlagHillModelDose(flagHillDose);
-
-		// best model selection with flagged hill model
-		BestModelSelectionWithFlaggedHillModelEnum bestModeSel = null;
-		if (bmdsConfig.getBmdsBestModelSelection().getBestModelSelectionWithFlaggedHill().equals(1))
-			bestModeSel = BestModelSelectionWithFlaggedHillModelEnum.INCLUDE_FLAGGED_HILL;
-		else if (bmdsConfig.getBmdsBestModelSelection().getBestModelSelectionWithFlaggedHill().equals(2))
-			bestModeSel = BestModelSelectionWithFlaggedHillModelEnum.EXCLUDE_FLAGGED_HILL_FROM_BEST;
-		else if (bmdsConfig.getBmdsBestModelSelection().getBestModelSelectionWithFlaggedHill().equals(3))
-			bestModeSel = BestModelSelectionWithFlaggedHillModelEnum.EXCLUDE_ALL_HILL_FROM_BEST;
-		else if (bmdsConfig.getBmdsBestModelSelection().getBestModelSelectionWithFlaggedHill().equals(4))
-			bestModeSel = BestModelSelectionWithFlaggedHillModelEnum.MODIFY_BMD_IF_FLAGGED_HILL_BEST;
-		else if (bmdsConfig.getBmdsBestModelSelection().getBestModelSelectionWithFlaggedHill().equals(5))
-			bestModeSel = BestModelSelectionWithFlaggedHillModelEnum.SELECT_NEXT_BEST_PVALUE_GREATER_OO5;
-
-		modelSelectionParameters.setBestModelSelectionWithFlaggedHill(bestModeSel);
-
-		if (bmdsConfig.getBmdsBestModelSelection().getBestModelSelectionWithFlaggedHill().equals(4))
-			modelSelectionParameters.setModFlaggedHillBMDFractionMinBMD(
-					bmdsConfig.getBmdsBestModelSelection().getModifyFlaggedHillWithFractionMinBMD());
-		else
-			modelSelectionParameters.setModFlaggedHillBMDFractionMinBMD(0.5);
+		ModelSelectionParameters modelSelectionParameters = getModelSelectionParameters(
+				bmdsConfig.getBmdsBestModelSelection());
 
 		// figure out which models are going to be run
 		List<StatModel> modelsToRun = new ArrayList<>();
@@ -594,8 +649,9 @@ public class AnalyzeRunner
 		// for each processable analysis, run the models and select best models.
 		for (IStatModelProcessable processableData : processables)
 		{
-			BMDResult result = new BMDAnalysisRunner().runBMDAnalysis(processableData,
+			BMDResult result = new BMDAnalysisRunner().runBMDAnalysis(getShard(processableData),
 					modelSelectionParameters, modelsToRun, inputParameters, bmdsConfig.getTmpFolder());
+			markShard(result, processableData);
 			if (bmdsConfig.getOutputName() != null)
 				result.setName(bmdsConfig.getOutputName());
 			else
@@ -605,6 +661,131 @@ public class AnalyzeRunner
 
 	}
 
+	/*
+	 * convert the best model selection section of a config to the parameters used by the bmd analysis.
+	 */
+	private ModelSelectionParameters getModelSelectionParameters(BMDSBestModelSelectionConfig bestModelSelection)
+	{
+		ModelSelectionParameters modelSelectionParameters = new ModelSelectionParameters();
+
+		// set up how to use the bmdl and bmdu
+		modelSelectionParameters
+				.setBestModelSelectionBMDLandBMDU(BestModelSelectionBMDLandBMDU.COMPUTE_AND_UTILIZE);
+		if (bestModelSelection.getBmdlBMDUUse().equals(2))
+			modelSelectionParameters
+					.setBestModelSelectionBMDLandBMDU(BestModelSelectionBMDLandBMDU.COMPUTE_BUT_IGNORE);
+		else if (bestModelSelection.getBmdlBMDUUse().equals(3))
+			modelSelectionParameters
+					.setBestModelSelectionBMDLandBMDU(BestModelSelectionBMDLandBMDU.DO_NOT_COMPUTE);
+		BestPolyModelTestEnum polyTest = null;
+		if (bestModelSelection.getBestPolyTest().equals(2))
+			polyTest = BestPolyModelTestEnum.LOWEST_AIC;
+		else if (bestModelSelection.getBestPolyTest().equals(1))
+			polyTest = BestPolyModelTestEnum.NESTED_CHI_SQUARED;
+		modelSelectionParameters.setBestPolyModelTest(polyTest);
+
+		// set up the pValue
+		modelSelectionParameters.setpValue(bestModelSelection.getpValueCutoff());
+
+		// set up Flag HIll
+		modelSelectionParameters.setFlagHillModel(bestModelSelection.getFlagHillWithKParameter());
+
+		FlagHillModelDoseEnum flagHillDose = null;
+		if (bestModelSelection.getkParameterValue().equals(1))
+			flagHillDose = FlagHillModelDoseEnum.LOWEST_DOSE;
+		else if (bestModelSelection.getkParameterValue().equals(2))
+			flagHillDose = FlagHillModelDoseEnum.ONE_HALF_OF_LOWEST_DOSE;
+		else if (bestModelSelection.getkParameterValue().equals(3))
+			flagHillDose = FlagHillModelDoseEnum.ONE_THIRD_OF_LOWEST_DOSE;
+
+		modelSelectionParameters.setFlagHillModelDose(flagHillDose);
+
+		// best model selection with flagged hill model
+		BestModelSelectionWithFlaggedHillModelEnum bestModeSel = null;
+		if (bestModelSelection.getBestModelSelectionWithFlaggedHill().equals(1))
+			bestModeSel = BestModelSelectionWithFlaggedHillModelEnum.INCLUDE_FLAGGED_HILL;
+		else if (bestModelSelection.getBestModelSelectionWithFlaggedHill().equals(2))
+			bestModeSel = BestModelSelectionWithFlaggedHillModelEnum.EXCLUDE_FLAGGED_HILL_FROM_BEST;
+		else if (bestModelSelection.getBestModelSelectionWithFlaggedHill().equals(3))
+			bestModeSel = BestModelSelectionWithFlaggedHillModelEnum.EXCLUDE_ALL_HILL_FROM_BEST;
+		else if (bestModelSelection.getBestModelSelectionWithFlaggedHill().equals(4))
+			bestModeSel = BestModelSelectionWithFlaggedHillModelEnum.MODIFY_BMD_IF_FLAGGED_HILL_BEST;
+		else if (bestModelSelection.getBestModelSelectionWithFlaggedHill().equals(5))
+			bestModeSel = BestModelSelectionWithFlaggedHillModelEnum.SELECT_NEXT_BEST_PVALUE_GREATER_OO5;
+
+		modelSelectionParameters.setBestModelSelectionWithFlaggedHill(bestModeSel);
+
+		if (bestModelSelection.getBestModelSelectionWithFlaggedHill().equals(4))
+			modelSelectionParameters
+					.setModFlaggedHillBMDFractionMinBMD(bestModelSelection.getModifyFlaggedHillWithFractionMinBMD());
+		else
+			modelSelectionParameters.setModFlaggedHillBMDFractionMinBMD(0.5);
+
+		return modelSelectionParameters;
+	}
+
+	/*
+	 * the part of the processable data this process fits.
+	 */
+	private IStatModelProcessable getShard(IStatModelProcessable processableData)
+	{
+		if (shardCount <= 1)
+			return processableData;
+		return new ProcessableShard(processableData, shardIndex, shardCount);
+	}
+
+	/*
+	 * a result computed on a shard lost the link to its prefilter results and needs the shard note so
+	 * merge-shards can find it.
+	 */
+	private void markShard(BMDResult result, IStatModelProcessable processableData)
+	{
+		if (shardCount <= 1 || result == null)
+			return;
+		if (processableData instanceof PrefilterResults)
+			result.setPrefilterResults((PrefilterResults) processableData);
+		result.getAnalysisInfo().getNotes().add(ProcessableShard.getNote(shardIndex, shardCount));
+	}
+
+	/*
+	 * myproject.bm2 -> myproject.shard2of8.bm2
+	 */
+	public static String getShardFileName(String bm2FileName, int shardIndex, int shardCount)
+	{
+		if (shardCount <= 1)
+			return bm2FileName;
+		return FilenameUtils.removeExtension(bm2FileName) + ".shard" + shardIndex + "of" + shardCount + "."
+				+ FilenameUtils.getExtension(bm2FileName);
+	}
+
+	/*
+	 * rerun best model selection on an existing bmd analysis with different selection settings. none of the
+	 * models are fit again.
+	 */
+	private void doBMDSReselect(BMDSReselectConfig reselectConfig)
+	{
+		System.out.println("best model reselection on " + reselectConfig.getInputName());
+
+		BMDResult source = null;
+		for (BMDResult bmdResult : project.getbMDResult())
+			if (bmdResult.getName().equalsIgnoreCase(reselectConfig.getInputName()))
+				source = bmdResult;
+
+		if (source == null)
+		{
+			System.out.println("bmd analysis " + reselectConfig.getInputName() + " not found");
+			return;
+		}
+
+		BMDResult result = new BMDAnalysisRunner().reselectBestModels(source,
+				getModelSelectionParameters(reselectConfig.getBmdsBestModelSelection()));
+		if (reselectConfig.getOutputName() != null)
+			result.setName(reselectConfig.getOutputName());
+		else
+			project.giveBMDAnalysisUniqueName(result, result.getName());
+		project.getbMDResult().add(result);
+	}
+
 	/*
 	 * perform bmd analysis on the data.
 	 */
@@ -660,8 +841,9 @@ public class AnalyzeRunner
 		// for each processable analysis, run the models and select best models.
 		for (IStatModelProcessable processableData : processables)
 		{
-			BMDResult result = new NonParametricAnalysisRunner().runBMDAnalysis(processableData,
+			BMDResult result = new NonParametricAnalysisRunner().runBMDAnalysis(getShard(processableData),
 					inputParameters);
+			markShard(result, processableData);
 
 			if (config.getOutputName() != null)
 				result.setName(config.getOutputName());
@@ -760,7 +942,7 @@ public class AnalyzeRunner
 		System.out.println("Finished " + stdoutInfo);
 	}
 
-	private void doExpressionConfig(ExpressionDataConfig expressionConfig)
+	private void doExpressionConfig(ExpressionDataConfig expressionConfig) throws InterruptedException
 	{
 
 		System.out.println("import expression: " + expressionConfig.getInputFileName());
@@ -769,16 +951,47 @@ public class AnalyzeRunner
 		// in the directory and import it as a doseresponse experiment.
 		if (new File(expressionConfig.getInputFileName()).isDirectory())
 		{
-			for (final File fileEntry : new File(expressionConfig.getInputFileName()).listFiles())
+			List<File> files = new ArrayList<>();
+			for (File fileEntry : new File(expressionConfig.getInputFileName()).listFiles())
+				if (!fileEntry.isDirectory())
+					files.add(fileEntry);
+
+			// the files are independent so import them concurrently, but add them to the project in the
+			// order they were listed. The processors are split between the files and the parsing of each
+			// file, so there are no more threads than processors.
+			int processors = Runtime.getRuntime().availableProcessors();
+			int fileThreads = Math.max(1, Math.min(processors, files.size()));
+			int parseThreads = Math.max(1, processors / fileThreads);
+			List<Future<DoseResponseExperiment>> imports = new ArrayList<>();
+			ExecutorService executor = Executors.newFixedThreadPool(fileThreads);
+			try
+			{
+				for (File fileEntry : files)
+				{
+					// the name stored in project bm2 file should be name of file without the extension
+					String outname = FilenameUtils.removeExtension(fileEntry.getName());
+					imports.add(executor.submit(() -> (new ExpressionImportRunner()).runExpressionImport(
+							fileEntry, expressionConfig.getPlatform(), outname,
+							expressionConfig.getLogTransformation(), parseThreads)));
+				}
+
+				for (int i = 0; i < imports.size(); i++)
+				{
+					try
+					{
+						project.getDoseResponseExperiments().add(imports.get(i).get());
+					}
+					catch (ExecutionException e)
+					{
+						// a project without one of the experiments is not what was asked for.
+						throw new IllegalStateException(
+								"import of " + files.get(i).getAbsolutePath() + " failed", e.getCause());
+					}
+				}
+			}
+			finally
 			{
-				if (fileEntry.isDirectory())
-					continue;
-				// the name stored in project bm2 file should be name of file without the extension
-				String outname = FilenameUtils.removeExtension(fileEntry.getName());
-				project.getDoseResponseExperiments()
-						.add((new ExpressionImportRunner()).runExpressionImport(fileEntry,
-								expressionConfig.getPlatform(), outname,
-								expressionConfig.getLogTransformation()));
+				executor.shutdownNow();
 			}
 
 		}
@@ -25,6 +25,12 @@ public class BMDAnalysisRunner implements IBMDSToolProgress
 				tmpFolder, this);
 	}
 
+	public BMDResult reselectBestModels(BMDResult bmdResult, ModelSelectionParameters modelSelectionParameters)
+	{
+		BMDAnalysisService service = new BMDAnalysisService();
+		return service.reselectBestModels(bmdResult, modelSelectionParameters);
+	}
+
 	@Override
 	public void updateProgress(String label, double value)
 	{
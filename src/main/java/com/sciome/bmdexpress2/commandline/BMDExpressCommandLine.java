@@ -43,12 +43,18 @@ public class BMDExpressCommandLine
 	public final static String	ANALYSIS_GROUP		= "analysis-group";
 	public final static String	ANALYSIS_NAME		= "analysis-name";
 	public final static String	OUTPUT_FILE_NAME	= "output-file-name";
+	public final static String	SHARD				= "shard";
+	public final static String	INPUT_FILES			= "input-files";
+	public final static String	OUTPUT_DIR			= "output-dir";
+	public final static String	THREADS				= "threads";
 
 	public final static String	ANALYZE				= "analyze";
 	public final static String	QUERY				= "query";
 	public final static String	EXPORT				= "export";
 	public final static String	DELETE				= "delete";
 	public final static String	COMBINE				= "combine";
+	public final static String	MERGE_SHARDS		= "merge-shards";
+	public final static String	CONVERT				= "convert";
 	public final static String	VERSION				= "--version";
 
 	// Analysis Group names Current working directory
@@ -66,15 +72,22 @@ public class BMDExpressCommandLine
 
 	Options						queryOptions		= new Options();
 	Options						combineOptions		= new Options();
+	Options						mergeShardsOptions	= new Options();
+	Options						convertOptions		= new Options();
 
 	public static void main(String[] args)
 	{
 
-		new BMDExpressCommandLine().run(args);
+		// scripts running the commands need to see when one failed.
+		if (!new BMDExpressCommandLine().run(args))
+			System.exit(1);
 
 	}
 
-	private void run(String[] args)
+	/*
+	 * returns false when the command failed.
+	 */
+	private boolean run(String[] args)
 	{
 		CommandLineParser parser = new DefaultParser();
 		// Do not invoke the BMDExpress Properties of BMDExpress Constants singlton in this block
@@ -82,6 +95,7 @@ public class BMDExpressCommandLine
 		// the base dir.
 		analyzeOptions
 				.addOption(Option.builder().longOpt(CONFIG_FILE).hasArg().argName("JSON").required().build());
+		analyzeOptions.addOption(Option.builder().longOpt(SHARD).hasArg().argName("INDEX/COUNT").build());
 
 		exportOptions.addOption(
 				Option.builder().longOpt(INPUT_BM2).hasArg().required().argName("BM2FILE").build());
@@ -90,6 +104,7 @@ public class BMDExpressCommandLine
 		exportOptions.addOption(Option.builder().longOpt(ANALYSIS_NAME).hasArg().argName("NAME").build());
 		exportOptions.addOption(
 				Option.builder().longOpt(OUTPUT_FILE_NAME).hasArg().required().argName("OUTPUT").build());
+		exportOptions.addOption(Option.builder().longOpt(OUTPUT_FORMAT).hasArg().argName("FORMAT").build());
 
 		deleteOptions.addOption(
 				Option.builder().longOpt(INPUT_BM2).hasArg().required().argName("BM2FILE").build());
@@ -108,26 +123,48 @@ public class BMDExpressCommandLine
 		combineOptions.addOption(Option.builder().longOpt(INPUT_BM2_FILES).hasArgs().required()
 				.argName("INPUT BM2 FILES").build());
 
+		mergeShardsOptions.addOption(
+				Option.builder().longOpt(OUTPUT_FILE_NAME).hasArg().required().argName("OUTPUT").build());
+		mergeShardsOptions.addOption(Option.builder().longOpt(INPUT_BM2_FILES).hasArgs().required()
+				.argName("INPUT BM2 FILES").build());
+
+		convertOptions.addOption(Option.builder().longOpt(INPUT_FILES).hasArgs().required()
+				.argName("BMDEXPRESS 1.X FILES OR DIRECTORIES").build());
+		convertOptions.addOption(
+				Option.builder().longOpt(OUTPUT_DIR).hasArg().required().argName("OUTPUT DIR").build());
+		convertOptions.addOption(Option.builder().longOpt(THREADS).hasArg().argName("THREADS").build());
+
 		try
 		{
 			if (args.length < 1)
 			{
 				printHelp();
-				return;
+				return true;
 			}
 			String[] theArgs = Arrays.copyOfRange(args, 1, args.length);
 			if (args[0].equals(ANALYZE))
 			{
 				CommandLine cmd = parser.parse(analyzeOptions, theArgs);
 				AnalyzeRunner aRunner = new AnalyzeRunner();
-				aRunner.analyze(cmd.getOptionValue(CONFIG_FILE));
+				if (cmd.hasOption(SHARD))
+				{
+					// e.g. --shard 2/8 fits the third of eight parts of the probes
+					String[] shard = cmd.getOptionValue(SHARD).split("/");
+					if (shard.length != 2)
+						throw new IllegalArgumentException("--" + SHARD + " must look like INDEX/COUNT, e.g. 0/4");
+					aRunner.analyze(cmd.getOptionValue(CONFIG_FILE), Integer.parseInt(shard[0].trim()),
+							Integer.parseInt(shard[1].trim()));
+				}
+				else
+					aRunner.analyze(cmd.getOptionValue(CONFIG_FILE));
 			}
 			else if (args[0].equals(EXPORT))
 			{
 				CommandLine cmd = parser.parse(exportOptions, theArgs);
 				ExportRunner eRunner = new ExportRunner();
 				eRunner.analyze(cmd.getOptionValue(INPUT_BM2), cmd.getOptionValue(OUTPUT_FILE_NAME),
-						cmd.getOptionValue(ANALYSIS_GROUP), cmd.getOptionValue(ANALYSIS_NAME));
+						cmd.getOptionValue(ANALYSIS_GROUP), cmd.getOptionValue(ANALYSIS_NAME),
+						cmd.getOptionValue(OUTPUT_FORMAT, ExportRunner.TSV));
 			}
 			else if (args[0].equals(DELETE))
 			{
@@ -149,6 +186,23 @@ public class BMDExpressCommandLine
 				cRunner.combine(cmd.getOptionValue(OUTPUT_FILE_NAME),
 						Arrays.asList(cmd.getOptionValues(INPUT_BM2_FILES)));
 			}
+			else if (args[0].equals(MERGE_SHARDS))
+			{
+				CommandLine cmd = parser.parse(mergeShardsOptions, theArgs);
+				MergeShardsRunner mRunner = new MergeShardsRunner();
+				mRunner.merge(cmd.getOptionValue(OUTPUT_FILE_NAME),
+						Arrays.asList(cmd.getOptionValues(INPUT_BM2_FILES)));
+			}
+			else if (args[0].equals(CONVERT))
+			{
+				CommandLine cmd = parser.parse(convertOptions, theArgs);
+				ConvertRunner cRunner = new ConvertRunner();
+				// by default convert as many files at a time as there are processors
+				int threads = cmd.hasOption(THREADS) ? Integer.parseInt(cmd.getOptionValue(THREADS).trim())
+						: Runtime.getRuntime().availableProcessors();
+				cRunner.convert(Arrays.asList(cmd.getOptionValues(INPUT_FILES)), cmd.getOptionValue(OUTPUT_DIR),
+						threads);
+			}
 			else if (args[0].equals(VERSION))
 			{
 				System.out.println(BMDExpressProperties.getInstance().getVersion());
@@ -160,7 +214,9 @@ public class BMDExpressCommandLine
 			exp.printStackTrace();
 			System.out.println("Error:" + exp.getMessage());
 			printHelp();
+			return false;
 		}
+		return true;
 
 	}
 
@@ -177,10 +233,14 @@ public class BMDExpressCommandLine
 		formatter.printHelp("bmdexpress2-cmd " + DELETE, "", deleteOptions, "", true);
 		formatter.printHelp("bmdexpress2-cmd " + QUERY, "", queryOptions, "", true);
 		formatter.printHelp("bmdexpress2-cmd " + COMBINE, "", combineOptions, "", true);
+		formatter.printHelp("bmdexpress2-cmd " + MERGE_SHARDS, "", mergeShardsOptions, "", true);
+		formatter.printHelp("bmdexpress2-cmd " + CONVERT, "", convertOptions, "", true);
 
 		// List of group possibilities
 		System.out.println("<GROUP>: " + EXPRESSION + ", " + ONE_WAY_ANOVA + ", " + WILLIAMS + ", " + ORIOGEN
 				+ ", " + BMD_ANALYSIS + ", " + CATEGORICAL);
+		System.out.println("<FORMAT>: " + ExportRunner.TSV + " (default), " + ExportRunner.JSON + ", "
+				+ ExportRunner.JSON_LINES + ", " + ExportRunner.COLUMNAR + " (OUTPUT is a directory)");
 	}
 
 	public void createStrawMan()
@@ -0,0 +1,134 @@
+package com.sciome.bmdexpress2.commandline;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FilenameUtils;
+import org.ciit.io.ProjectReader;
+
+import com.sciome.bmdexpress2.mvp.model.BMDProject;
+import com.sciome.bmdexpress2.shared.BMDExpressConstants;
+import com.sciome.bmdexpress2.util.ConversionUtil;
+
+/*
+ * Converts BMDExpress 1.x project files to .bm2 files. The files are converted by a pool of workers, every
+ * worker reads one legacy file, converts it and writes the project before it takes the next one, so only as
+ * many projects as there are workers are in memory. The processors that are left over convert the tables of
+ * a project in parallel.
+ *
+ * A file is only written when every table of it was converted, and the command fails when any file failed or
+ * two input files would be written to the same output file.
+ */
+public class ConvertRunner
+{
+	public void convert(List<String> inputFiles, String outputDir, int numThreads) throws Exception
+	{
+		List<File> files = new ArrayList<>();
+		for (String inputFile : inputFiles)
+		{
+			File file = new File(inputFile);
+			if (file.isDirectory())
+			{
+				File[] children = file.listFiles();
+				if (children == null)
+					continue;
+				Arrays.sort(children);
+				for (File child : children)
+					if (child.isFile())
+						files.add(child);
+			}
+			else
+				files.add(file);
+		}
+
+		// files with the same name in different directories would overwrite each other's output.
+		Map<String, List<File>> filesByOutput = new LinkedHashMap<>();
+		for (File file : files)
+			filesByOutput.computeIfAbsent(getOutputName(file), name -> new ArrayList<>()).add(file);
+		for (Map.Entry<String, List<File>> entry : filesByOutput.entrySet())
+			if (entry.getValue().size() > 1)
+				throw new IllegalArgumentException(
+						"Convert: " + entry.getValue() + " would all be written to " + entry.getKey());
+
+		File outDir = new File(outputDir);
+		if (!outDir.exists() && !outDir.mkdirs())
+			throw new IOException("Convert: could not create output directory " + outputDir);
+
+		// load the constants before the workers need them.
+		BMDExpressConstants.getInstance();
+
+		int fileThreads = Math.max(1, Math.min(numThreads, files.size()));
+		int tableThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / fileThreads);
+		ExecutorService executor = Executors.newFixedThreadPool(fileThreads);
+		try
+		{
+			List<Future<File>> futures = new ArrayList<>();
+			for (File file : files)
+				futures.add(executor.submit(() -> convertFile(file, outDir, tableThreads)));
+
+			int failed = 0;
+			for (int i = 0; i < futures.size(); i++)
+			{
+				try
+				{
+					System.out.println("Convert: wrote " + futures.get(i).get().getAbsolutePath());
+				}
+				catch (ExecutionException e)
+				{
+					failed++;
+					System.out.println("Convert: failed " + files.get(i).getAbsolutePath() + ": "
+							+ e.getCause().getMessage());
+				}
+			}
+			System.out.println("Convert: " + (files.size() - failed) + " of " + files.size()
+					+ " files converted");
+			if (failed > 0)
+				throw new IllegalStateException("Convert: " + failed + " of " + files.size() + " files failed");
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	private File convertFile(File file, File outDir, int tableThreads) throws Exception
+	{
+		System.out.println("Convert: reading " + file.getAbsolutePath());
+		ProjectReader reader = new ProjectReader(file);
+		if (!reader.read())
+			throw new IOException("not a BMDExpress 1.x project file");
+
+		ConversionUtil conversion = new ConversionUtil();
+		BMDProject project = conversion.convertOldToNew(reader, tableThreads);
+		if (!conversion.getFailedTables().isEmpty())
+			throw new IOException("tables not converted: " + String.join(", ", conversion.getFailedTables()));
+		File projectFile = new File(outDir, getOutputName(file));
+
+		FileOutputStream fileOut = new FileOutputStream(projectFile);
+		int bufferSize = 2000 * 1024; // make it a 2mb buffer
+		BufferedOutputStream bout = new BufferedOutputStream(fileOut, bufferSize);
+		ObjectOutputStream out = new ObjectOutputStream(bout);
+		project.setName(projectFile.getName());
+		out.writeObject(project);
+		out.close();
+		fileOut.close();
+		return projectFile;
+	}
+
+	private static String getOutputName(File file)
+	{
+		return FilenameUtils.removeExtension(file.getName()) + ".bm2";
+	}
+}
@@ -8,25 +8,26 @@ import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisDataSet;
 import com.sciome.bmdexpress2.mvp.model.BMDProject;
-import com.sciome.bmdexpress2.mvp.model.CombinedDataSet;
 import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
-import com.sciome.bmdexpress2.mvp.model.category.CategoryAnalysisResults;
-import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResults;
-import com.sciome.bmdexpress2.mvp.model.prefilter.OriogenResults;
-import com.sciome.bmdexpress2.mvp.model.prefilter.WilliamsTrendResults;
-import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
 import com.sciome.bmdexpress2.service.DataCombinerService;
 import com.sciome.bmdexpress2.service.ProjectNavigationService;
+import com.sciome.bmdexpress2.util.ColumnarWriter;
+import com.sciome.bmdexpress2.util.JSONProjectStreamer;
 
 public class ExportRunner
 {
 
-	BMDProject project = new BMDProject();
+	public static final String	TSV			= "tsv";
+	public static final String	JSON		= "json";
+	public static final String	JSON_LINES	= "jsonl";
+	public static final String	COLUMNAR	= "columnar";
 
-	public void analyze(String inputBM2, String outputFile, String analysisGroup, String analysisName)
+	BMDProject					project		= new BMDProject();
+
+	public void analyze(String inputBM2, String outputFile, String analysisGroup, String analysisName,
+			String outputFormat)
 	{
 
 		if (new File(inputBM2).exists())
@@ -51,163 +52,93 @@ public class ExportRunner
 			}
 		}
 
+		List<BMDExpressAnalysisDataSet> dataSets = getDataSets(analysisGroup, analysisName);
+		File output = new File(outputFile);
 		ProjectNavigationService service = new ProjectNavigationService();
-		DataCombinerService combinerService = new DataCombinerService();
-
-		if (analysisGroup.equals(BMDExpressCommandLine.EXPRESSION))
+		try
 		{
-			if (analysisName == null || analysisName.trim().equals(""))
-			{
-				List<BMDExpressAnalysisDataSet> dataset = new ArrayList<BMDExpressAnalysisDataSet>();
-				for (DoseResponseExperiment experiment : project.getDoseResponseExperiments())
-				{
-					dataset.add(experiment);
-				}
-				CombinedDataSet combinedDataSet = combinerService.combineBMDExpressAnalysisDataSets(dataset);
-				service.exportBMDExpressAnalysisDataSet(combinedDataSet, new File(outputFile));
-			}
-			else
-			{
-				for (DoseResponseExperiment experiment : project.getDoseResponseExperiments())
-				{
-					if (analysisName.equals(experiment.getName()))
-					{
-						service.exportDoseResponseExperiment(experiment, new File(outputFile));
-						break;
-					}
-				}
-			}
+			if (JSON.equals(outputFormat))
+				new JSONProjectStreamer().writeDataSets(project.getName(), dataSets, output, false);
+			else if (JSON_LINES.equals(outputFormat))
+				new JSONProjectStreamer().writeJSONLines(dataSets, output);
+			else if (COLUMNAR.equals(outputFormat))
+				exportToColumnar(dataSets, output);
+			else if (analysisName == null || analysisName.trim().equals(""))
+				service.exportCombinedDataSets(dataSets, output);
+			else if (dataSets.size() > 0 && dataSets.get(0) instanceof DoseResponseExperiment)
+				service.exportDoseResponseExperiment((DoseResponseExperiment) dataSets.get(0), output);
+			else if (dataSets.size() > 0)
+				service.exportBMDExpressAnalysisDataSet(dataSets.get(0), output);
 		}
-		else if (analysisGroup.equals(BMDExpressCommandLine.ONE_WAY_ANOVA))
+		catch (IOException e)
 		{
-			if (analysisName == null || analysisName.trim().equals(""))
-			{
-				List<BMDExpressAnalysisDataSet> dataset = new ArrayList<BMDExpressAnalysisDataSet>();
-				for (OneWayANOVAResults experiment : project.getOneWayANOVAResults())
-				{
-					dataset.add(experiment);
-				}
-				CombinedDataSet combinedDataSet = combinerService.combineBMDExpressAnalysisDataSets(dataset);
-				service.exportBMDExpressAnalysisDataSet(combinedDataSet, new File(outputFile));
-			}
-			else
-			{
-				for (OneWayANOVAResults experiment : project.getOneWayANOVAResults())
-				{
-					if (analysisName.equals(experiment.getName()))
-					{
-						service.exportBMDExpressAnalysisDataSet(experiment, new File(outputFile));
-						break;
-					}
-				}
-			}
+			e.printStackTrace();
 		}
-		else if (analysisGroup.equals(BMDExpressCommandLine.ORIOGEN))
+
+	}
+
+	/*
+	 * write the datasets as one typed, columnar table in the output directory. If there is more than one
+	 * dataset, they are combined with the analysis name in the first column.
+	 */
+	private void exportToColumnar(List<BMDExpressAnalysisDataSet> dataSets, File outputDirectory)
+			throws IOException
+	{
+		DataCombinerService combinerService = new DataCombinerService();
+		ColumnarWriter writer = new ColumnarWriter();
+		long startTime = System.currentTimeMillis();
+		if (dataSets.size() == 1)
+			writer.write(dataSets.get(0).getColumnHeader(), () -> dataSets.get(0).getAnalysisRows().iterator(),
+					outputDirectory);
+		else
 		{
-			if (analysisName == null || analysisName.trim().equals(""))
-			{
-				List<BMDExpressAnalysisDataSet> dataset = new ArrayList<BMDExpressAnalysisDataSet>();
-				for (OriogenResults experiment : project.getOriogenResults())
-				{
-					dataset.add(experiment);
-				}
-				CombinedDataSet combinedDataSet = combinerService.combineBMDExpressAnalysisDataSets(dataset);
-				service.exportBMDExpressAnalysisDataSet(combinedDataSet, new File(outputFile));
-			}
-			else
-			{
-				for (OriogenResults experiment : project.getOriogenResults())
-				{
-					if (analysisName.equals(experiment.getName()))
-					{
-						service.exportBMDExpressAnalysisDataSet(experiment, new File(outputFile));
-						break;
-					}
-				}
-			}
+			List<String> header = combinerService.combineHeaders(dataSets);
+			writer.write(header, () -> combinerService.combinedRowIterator(dataSets, header),
+					outputDirectory);
 		}
+		double seconds = Math.max(System.currentTimeMillis() - startTime, 1) / 1000.0;
+		double megaBytes = writer.getBytesWritten() / (1024.0 * 1024.0);
+		System.out.println(String.format("Wrote %d rows (%.2f MB) to %s in %.2f seconds: %.0f rows/s, %.2f MB/s",
+				writer.getRowsWritten(), megaBytes, outputDirectory.getAbsolutePath(), seconds,
+				writer.getRowsWritten() / seconds, megaBytes / seconds));
+	}
+
+	/*
+	 * get the datasets in the analysis group. If analysisName is given, then only the first dataset with
+	 * that name is returned.
+	 */
+	private List<BMDExpressAnalysisDataSet> getDataSets(String analysisGroup, String analysisName)
+	{
+		List<BMDExpressAnalysisDataSet> groupDataSets = new ArrayList<>();
+		if (analysisGroup.equals(BMDExpressCommandLine.EXPRESSION))
+			groupDataSets.addAll(project.getDoseResponseExperiments());
+		else if (analysisGroup.equals(BMDExpressCommandLine.ONE_WAY_ANOVA))
+			groupDataSets.addAll(project.getOneWayANOVAResults());
+		else if (analysisGroup.equals(BMDExpressCommandLine.ORIOGEN))
+			groupDataSets.addAll(project.getOriogenResults());
 		else if (analysisGroup.equals(BMDExpressCommandLine.WILLIAMS))
-		{
-			if (analysisName == null || analysisName.trim().equals(""))
-			{
-				List<BMDExpressAnalysisDataSet> dataset = new ArrayList<BMDExpressAnalysisDataSet>();
-				for (WilliamsTrendResults experiment : project.getWilliamsTrendResults())
-				{
-					dataset.add(experiment);
-				}
-				CombinedDataSet combinedDataSet = combinerService.combineBMDExpressAnalysisDataSets(dataset);
-				service.exportBMDExpressAnalysisDataSet(combinedDataSet, new File(outputFile));
-			}
-			else
-			{
-				for (WilliamsTrendResults experiment : project.getWilliamsTrendResults())
-				{
-					if (analysisName.equals(experiment.getName()))
-					{
-						service.exportBMDExpressAnalysisDataSet(experiment, new File(outputFile));
-						break;
-					}
-				}
-			}
-		}
+			groupDataSets.addAll(project.getWilliamsTrendResults());
 		else if (analysisGroup.equals(BMDExpressCommandLine.BMD_ANALYSIS))
-		{
-			if (analysisName == null || analysisName.trim().equals(""))
-			{
-				List<BMDExpressAnalysisDataSet> dataset = new ArrayList<BMDExpressAnalysisDataSet>();
-				for (BMDResult experiment : project.getbMDResult())
-				{
-					dataset.add(experiment);
-				}
-				CombinedDataSet combinedDataSet = combinerService.combineBMDExpressAnalysisDataSets(dataset);
-				service.exportBMDExpressAnalysisDataSet(combinedDataSet, new File(outputFile));
-			}
-			else
-			{
-				for (BMDResult experiment : project.getbMDResult())
-				{
-					if (analysisName.equals(experiment.getName()))
-					{
-						service.exportBMDExpressAnalysisDataSet(experiment, new File(outputFile));
-						break;
-					}
-				}
-			}
-		}
+			groupDataSets.addAll(project.getbMDResult());
 		else if (analysisGroup.equals(BMDExpressCommandLine.CATEGORICAL))
-		{
-			if (analysisName == null || analysisName.trim().equals(""))
+			groupDataSets.addAll(project.getCategoryAnalysisResults());
+
+		if (analysisName == null || analysisName.trim().equals(""))
+			return groupDataSets;
+
+		List<BMDExpressAnalysisDataSet> dataSets = new ArrayList<>();
+		for (BMDExpressAnalysisDataSet dataSet : groupDataSets)
+			if (analysisName.equals(dataSet.getName()))
 			{
-				List<BMDExpressAnalysisDataSet> dataset = new ArrayList<BMDExpressAnalysisDataSet>();
-				for (CategoryAnalysisResults experiment : project.getCategoryAnalysisResults())
-				{
-					dataset.add(experiment);
-				}
-				CombinedDataSet combinedDataSet = combinerService.combineBMDExpressAnalysisDataSets(dataset);
-				service.exportBMDExpressAnalysisDataSet(combinedDataSet, new File(outputFile));
+				dataSets.add(dataSet);
+				break;
 			}
-			else
-				for (CategoryAnalysisResults experiment : project.getCategoryAnalysisResults())
-				{
-					if (analysisName.equals(experiment.getName()))
-					{
-						service.exportBMDExpressAnalysisDataSet(experiment, new File(outputFile));
-						break;
-					}
-				}
-		}
-
+		return dataSets;
 	}
 
 	public void exportToJson(BMDProject project, String jsonExportFileName) throws Exception
 	{
-		ObjectMapper mapper = new ObjectMapper();
-
-		/**
-		 * To make the JSON String pretty use the below code
-		 */
-		File testFile = new File(jsonExportFileName);
-		mapper.writerWithDefaultPrettyPrinter().writeValue(testFile, project);
-
+		// stream one dataset at a time rather than binding the whole project to one document.
+		new JSONProjectStreamer().writeProject(project, new File(jsonExportFileName), false);
 	}
 }
@@ -18,10 +18,23 @@ public class ExpressionImportRunner
 
 	public DoseResponseExperiment runExpressionImport(File file, String chipID, String outputName,
 			LogTransformationEnum logtransformation)
+	{
+		return runExpressionImport(file, chipID, outputName, logtransformation,
+				Runtime.getRuntime().availableProcessors());
+	}
+
+	/*
+	 * import the file, parsing it on up to numThreads threads.
+	 */
+	public DoseResponseExperiment runExpressionImport(File file, String chipID, String outputName,
+			LogTransformationEnum logtransformation, int numThreads)
 	{
 		ProjectNavigationService service = new ProjectNavigationService();
 
-		DoseResponseExperiment doseResponseExperiment = ExperimentFileUtil.getInstance().readFile(file);
+		DoseResponseExperiment doseResponseExperiment = ExperimentFileUtil.getInstance().readFile(file, null,
+				numThreads);
+		if (doseResponseExperiment == null)
+			throw new IllegalStateException("could not read expression data from " + file.getAbsolutePath());
 		doseResponseExperiment.setLogTransformation(logtransformation);
 
 		Hashtable<String, Integer> probeHash = new Hashtable<>();
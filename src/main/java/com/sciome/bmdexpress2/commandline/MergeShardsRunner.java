@@ -0,0 +1,216 @@
+package com.sciome.bmdexpress2.commandline;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.sciome.bmdexpress2.mvp.model.BMDProject;
+import com.sciome.bmdexpress2.mvp.model.info.AnalysisInfo;
+import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
+import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
+import com.sciome.bmdexpress2.mvp.model.stat.ProbeStatResult;
+
+/*
+ * Put the partial bm2 files written by "analyze --shard i/N" back together. The first file is the base: its
+ * expression data, prefilter results and unsharded analyses are kept as they are. Each sharded bmd analysis
+ * in it is replaced by one BMDResult holding the probes of all N shards in the original probe order.
+ *
+ * The other files are read one at a time and only their shard results are kept, so memory stays close to
+ * one project plus the merged results.
+ */
+public class MergeShardsRunner
+{
+
+	public void merge(String outputFileName, List<String> shardFiles) throws Exception
+	{
+		System.out.println("Merge shards: base " + shardFiles.get(0));
+		BMDProject project = readProject(shardFiles.get(0));
+
+		// analysis name -> the result of each shard
+		Map<String, BMDResult[]> shardResults = new HashMap<>();
+		addShardResults(project, project, shardResults);
+		for (String shardFile : shardFiles.subList(1, shardFiles.size()))
+		{
+			System.out.println("Merge shards: adding " + shardFile);
+			addShardResults(project, readProject(shardFile), shardResults);
+		}
+
+		for (BMDResult result : project.getbMDResult())
+		{
+			BMDResult[] parts = shardResults.get(result.getName());
+			if (parts == null)
+				continue;
+			for (int i = 0; i < parts.length; i++)
+				if (parts[i] == null)
+					throw new IllegalStateException(
+							"Shard " + i + "/" + parts.length + " of " + result.getName() + " is missing");
+			mergeResult(result, parts);
+			System.out.println("Merge shards: merged " + parts.length + " shards of " + result.getName());
+		}
+
+		File selectedFile = new File(outputFileName);
+		FileOutputStream fileOut = new FileOutputStream(selectedFile);
+
+		int bufferSize = 2000 * 1024; // make it a 2mb buffer
+		BufferedOutputStream bout = new BufferedOutputStream(fileOut, bufferSize);
+		ObjectOutputStream out = new ObjectOutputStream(bout);
+		project.setName(selectedFile.getName());
+		out.writeObject(project);
+		out.close();
+		fileOut.close();
+	}
+
+	/*
+	 * collect the sharded results of shardProject by name. Their probe stat results are pointed at the base
+	 * project's probe responses so nothing else of shardProject has to be kept.
+	 */
+	private void addShardResults(BMDProject base, BMDProject shardProject,
+			Map<String, BMDResult[]> shardResults)
+	{
+		for (BMDResult result : shardProject.getbMDResult())
+		{
+			int[] shard = getShard(result);
+			if (shard == null)
+				continue;
+
+			BMDResult baseResult = findResult(base, result.getName());
+			if (baseResult == null)
+				throw new IllegalStateException(result.getName() + " is not in the first shard file");
+
+			BMDResult[] parts = shardResults.get(result.getName());
+			if (parts == null)
+			{
+				parts = new BMDResult[shard[1]];
+				shardResults.put(result.getName(), parts);
+			}
+			if (parts.length != shard[1])
+				throw new IllegalStateException(result.getName() + " was split into different shard counts");
+			if (parts[shard[0]] != null)
+				throw new IllegalStateException(
+						"Shard " + shard[0] + "/" + shard[1] + " of " + result.getName() + " was given twice");
+
+			if (result != baseResult)
+			{
+				Map<String, ProbeResponse> baseResponses = new HashMap<>();
+				for (ProbeResponse probeResponse : baseResult.getDoseResponseExperiment().getProbeResponses())
+					baseResponses.put(probeResponse.getProbe().getId(), probeResponse);
+				for (ProbeStatResult probeStatResult : result.getProbeStatResults())
+				{
+					ProbeResponse baseResponse = baseResponses
+							.get(probeStatResult.getProbeResponse().getProbe().getId());
+					if (baseResponse == null)
+						throw new IllegalStateException(
+								"Probe " + probeStatResult.getProbeResponse().getProbe().getId() + " of "
+										+ result.getName() + " is not in the first shard file");
+					probeStatResult.setProbeResponse(baseResponse);
+				}
+				// let go of the rest of the shard's project
+				result.setDoseResponseExperiment(null);
+				result.setPrefilterResults(null);
+			}
+			parts[shard[0]] = result;
+		}
+	}
+
+	/*
+	 * shard i holds the probes i, i + N, i + 2N, ... of the original order (see ProcessableShard).
+	 */
+	private void mergeResult(BMDResult result, BMDResult[] parts)
+	{
+		int shardCount = parts.length;
+		int total = 0;
+		for (BMDResult part : parts)
+			total += part.getProbeStatResults().size();
+		for (int i = 0; i < shardCount; i++)
+			if (parts[i].getProbeStatResults().size() != (total - i + shardCount - 1) / shardCount)
+				throw new IllegalStateException("Shard " + i + "/" + shardCount + " of " + result.getName()
+						+ " has the wrong number of probes. Were all shards run on the same data?");
+
+		List<ProbeStatResult> probeStatResults = new ArrayList<>(total);
+		for (int index = 0; index < total; index++)
+			probeStatResults.add(parts[index % shardCount].getProbeStatResults().get(index / shardCount));
+
+		List<Float> wAUC = new ArrayList<>(total);
+		List<Float> logwAUC = new ArrayList<>(total);
+		boolean hasWAUC = true;
+		for (BMDResult part : parts)
+			hasWAUC &= part.getwAUC() != null && part.getLogwAUC() != null;
+		for (int index = 0; index < total && hasWAUC; index++)
+		{
+			wAUC.add(parts[index % shardCount].getwAUC().get(index / shardCount));
+			logwAUC.add(parts[index % shardCount].getLogwAUC().get(index / shardCount));
+		}
+
+		result.setAnalysisInfo(mergeAnalysisInfo(parts));
+		result.setProbeStatResults(probeStatResults);
+		result.setwAUC(hasWAUC ? wAUC : null);
+		result.setLogwAUC(hasWAUC ? logwAUC : null);
+	}
+
+	/*
+	 * notes that are the same in every shard are kept once. the others, like run times, are listed per shard.
+	 */
+	private AnalysisInfo mergeAnalysisInfo(BMDResult[] parts)
+	{
+		Set<String> common = new LinkedHashSet<>(parts[0].getAnalysisInfo().getNotes());
+		for (BMDResult part : parts)
+			common.retainAll(part.getAnalysisInfo().getNotes());
+
+		List<String> notes = new ArrayList<>(common);
+		notes.add("Merged From Shards: " + parts.length);
+		for (int i = 0; i < parts.length; i++)
+			for (String note : parts[i].getAnalysisInfo().getNotes())
+				if (!common.contains(note) && !note.startsWith(ProcessableShard.SHARD_NOTE))
+					notes.add("Shard " + i + " " + note);
+
+		AnalysisInfo analysisInfo = new AnalysisInfo();
+		analysisInfo.setNotes(notes);
+		return analysisInfo;
+	}
+
+	/*
+	 * returns {index, count} from the shard note or null if the result is not a shard.
+	 */
+	private int[] getShard(BMDResult result)
+	{
+		if (result.getAnalysisInfo() == null || result.getAnalysisInfo().getNotes() == null)
+			return null;
+		for (String note : result.getAnalysisInfo().getNotes())
+			if (note.startsWith(ProcessableShard.SHARD_NOTE))
+			{
+				String[] parts = note.substring(ProcessableShard.SHARD_NOTE.length()).split("/");
+				return new int[] { Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()) };
+			}
+		return null;
+	}
+
+	private BMDResult findResult(BMDProject project, String name)
+	{
+		for (BMDResult result : project.getbMDResult())
+			if (result.getName().equals(name))
+				return result;
+		return null;
+	}
+
+	private BMDProject readProject(String fileName) throws Exception
+	{
+		FileInputStream fileIn = new FileInputStream(fileName);
+		BufferedInputStream bIn = new BufferedInputStream(fileIn, 1024 * 2000);
+
+		ObjectInputStream in = new ObjectInputStream(bIn);
+		BMDProject project = (BMDProject) in.readObject();
+		in.close();
+		fileIn.close();
+		return project;
+	}
+}
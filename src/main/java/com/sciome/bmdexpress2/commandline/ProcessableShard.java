@@ -0,0 +1,102 @@
+package com.sciome.bmdexpress2.commandline;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.IStatModelProcessable;
+import com.sciome.bmdexpress2.mvp.model.LogTransformationEnum;
+import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
+import com.sciome.bmdexpress2.util.bmds.ModelSelectionParameters;
+import com.sciome.bmdexpress2.util.bmds.shared.BestModelSelectionWithFlaggedHillModelEnum;
+
+/*
+ * One shard of the probes of a processable data set. Probe i belongs to shard i % shardCount, so the
+ * partition only depends on the probe order of the source and every shard gets a similar mix of probes.
+ * MergeShardsRunner relies on this to put the results back in the original order.
+ *
+ * The best model of a probe only depends on the probe's own fits, so a merged analysis is the same as one run
+ * on all probes. Except for the flagged Hill selections that replace the BMD of flagged Hill best models by a
+ * fraction of the minimum BMD over all probes, a shard only sees its own probes. Those are not allowed.
+ */
+public class ProcessableShard implements IStatModelProcessable
+{
+	public static final String			SHARD_NOTE	= "Shard: ";
+
+	private final IStatModelProcessable	source;
+	private final List<ProbeResponse>	probeResponses;
+
+	public ProcessableShard(IStatModelProcessable source, int shardIndex, int shardCount)
+	{
+		this.source = source;
+
+		List<ProbeResponse> all = source.getProcessableProbeResponses();
+		probeResponses = new ArrayList<>(all.size() / shardCount + 1);
+		for (int i = shardIndex; i < all.size(); i += shardCount)
+			probeResponses.add(all.get(i));
+	}
+
+	/*
+	 * throws if the best model selection needs all probes of the analysis.
+	 */
+	public static void checkModelSelection(ModelSelectionParameters modelSelectionParameters)
+	{
+		BestModelSelectionWithFlaggedHillModelEnum selection = modelSelectionParameters
+				.getBestModelSelectionWithFlaggedHill();
+		if (modelSelectionParameters.isFlagHillModel()
+				&& (selection == BestModelSelectionWithFlaggedHillModelEnum.MODIFY_BMD_IF_FLAGGED_HILL_BEST
+						|| selection == BestModelSelectionWithFlaggedHillModelEnum.SELECT_NEXT_BEST_PVALUE_GREATER_OO5))
+			throw new IllegalArgumentException("Best model selection with flagged Hill " + selection
+					+ " uses the minimum BMD of all probes and can't be run in shards. Run the analysis without"
+					+ " --shard or choose another flagged Hill selection.");
+	}
+
+	/*
+	 * the note added to the analysis info of a result computed on a shard.
+	 */
+	public static String getNote(int shardIndex, int shardCount)
+	{
+		return SHARD_NOTE + shardIndex + "/" + shardCount;
+	}
+
+	public IStatModelProcessable getSource()
+	{
+		return source;
+	}
+
+	@Override
+	public DoseResponseExperiment getProcessableDoseResponseExperiment()
+	{
+		return source.getProcessableDoseResponseExperiment();
+	}
+
+	@Override
+	public List<ProbeResponse> getProcessableProbeResponses()
+	{
+		return probeResponses;
+	}
+
+	@Override
+	public String getParentDataSetName()
+	{
+		return source.getParentDataSetName();
+	}
+
+	@Override
+	public String getDataSetName()
+	{
+		return source.getDataSetName();
+	}
+
+	@Override
+	public LogTransformationEnum getLogTransformation()
+	{
+		return source.getLogTransformation();
+	}
+
+	@Override
+	public String toString()
+	{
+		return source.toString();
+	}
+}
@@ -3,6 +3,7 @@ package com.sciome.bmdexpress2.commandline.config;
 import java.util.List;
 
 import com.sciome.bmdexpress2.commandline.config.bmds.BMDSConfig;
+import com.sciome.bmdexpress2.commandline.config.bmds.BMDSReselectConfig;
 import com.sciome.bmdexpress2.commandline.config.category.CategoryConfig;
 import com.sciome.bmdexpress2.commandline.config.expression.ExpressionDataConfig;
 import com.sciome.bmdexpress2.commandline.config.nonparametric.NonParametricConfig;
@@ -14,6 +15,7 @@ public class RunConfig
 	private List<ExpressionDataConfig>	expressionDataConfigs;
 	private List<PrefilterConfig>		preFilterConfigs;
 	private List<BMDSConfig>			bmdsConfigs;
+	private List<BMDSReselectConfig>	bmdsReselectConfigs;
 	private List<NonParametricConfig>	nonParametricConfigs;
 	private List<CategoryConfig>		categoryAnalysisConfigs;
 
@@ -95,6 +97,16 @@ public class RunConfig
 		this.bmdsConfigs = bmdsConfigs;
 	}
 
+	public List<BMDSReselectConfig> getBmdsReselectConfigs()
+	{
+		return bmdsReselectConfigs;
+	}
+
+	public void setBmdsReselectConfigs(List<BMDSReselectConfig> bmdsReselectConfigs)
+	{
+		this.bmdsReselectConfigs = bmdsReselectConfigs;
+	}
+
 	public List<CategoryConfig> getCategoryAnalysisConfigs()
 	{
 		return categoryAnalysisConfigs;
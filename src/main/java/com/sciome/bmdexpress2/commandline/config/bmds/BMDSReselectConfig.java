@@ -0,0 +1,44 @@
+package com.sciome.bmdexpress2.commandline.config.bmds;
+
+public class BMDSReselectConfig
+{
+
+	// name of the bmd analysis whose best models are reselected.
+	private String							inputName;
+
+	// name of output for the analysis
+	private String							outputName;
+
+	private BMDSBestModelSelectionConfig	bmdsBestModelSelection;
+
+	public String getInputName()
+	{
+		return inputName;
+	}
+
+	public void setInputName(String inputName)
+	{
+		this.inputName = inputName;
+	}
+
+	public String getOutputName()
+	{
+		return outputName;
+	}
+
+	public void setOutputName(String outputName)
+	{
+		this.outputName = outputName;
+	}
+
+	public BMDSBestModelSelectionConfig getBmdsBestModelSelection()
+	{
+		return bmdsBestModelSelection;
+	}
+
+	public void setBmdsBestModelSelection(BMDSBestModelSelectionConfig bmdsBestModelSelection)
+	{
+		this.bmdsBestModelSelection = bmdsBestModelSelection;
+	}
+
+}
@@ -13,6 +13,7 @@ import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResults;
 import com.sciome.bmdexpress2.mvp.model.prefilter.OriogenResults;
 import com.sciome.bmdexpress2.mvp.model.prefilter.WilliamsTrendResults;
 import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
+import com.sciome.bmdexpress2.util.annotation.ReferenceGeneAnnotationPool;
 
 /*
  * hold various experiments and analysis results.
@@ -150,6 +151,14 @@ public class BMDProject implements Serializable
 		for (CategoryAnalysisResults data : categoryAnalysisResults)
 			giveBMDAnalysisUniqueName(data, data.getName(), 1);
 
+		// older files store the annotation of every experiment separately, share it with the other
+		// experiments on the same chip.
+		ReferenceGeneAnnotationPool.getInstance().intern(this);
+
+		// and a ReferenceGeneProbeStatResult for every category a gene is in.
+		for (CategoryAnalysisResults data : categoryAnalysisResults)
+			data.shareReferenceGeneProbeStatResults();
+
 	}
 
 	@SuppressWarnings("unchecked")
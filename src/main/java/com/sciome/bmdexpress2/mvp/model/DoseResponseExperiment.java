@@ -43,6 +43,12 @@ public class DoseResponseExperiment extends BMDExpressAnalysisDataSet
 	// this information is important to know for correctly calculating the fold change
 	private LogTransformationEnum			logTransformation	= LogTransformationEnum.BASE2;
 
+	// row major matrix of every probe's responses. probe i starts at i * treatments.size() and the
+	// ProbeResponses are views into it. it is packed when the experiment is loaded, a repack after the
+	// probe list changed is done under the lock of the experiment so readers on other threads see either
+	// the old or the new matrix, never one that is half bound.
+	private transient volatile float[]		responseMatrix;
+
 	private transient List<String>			columnHeader;
 	private transient List<Object>			columnHeader2;
 	private Long							id;
@@ -87,9 +93,104 @@ public class DoseResponseExperiment extends BMDExpressAnalysisDataSet
 		return probeResponses;
 	}
 
-	public void setProbeResponses(List<ProbeResponse> probeResponses)
+	public synchronized void setProbeResponses(List<ProbeResponse> probeResponses)
 	{
 		this.probeResponses = probeResponses;
+		this.responseMatrix = null;
+	}
+
+	/*
+	 * The responses of all the probes in one row major matrix, in the order of getProbeResponses(). Each row
+	 * has one value per treatment. The matrix is shared with the ProbeResponses so it should not be modified.
+	 * Returns null if the probes do not all have the same number of responses.
+	 */
+	@JsonIgnore
+	public float[] getResponseMatrix()
+	{
+		float[] matrix = responseMatrix;
+		if (isPacked(matrix))
+			return matrix;
+		synchronized (this)
+		{
+			if (!isPacked(responseMatrix))
+				packResponses();
+			return responseMatrix;
+		}
+	}
+
+	/*
+	 * Copy the responses of every probe into one contiguous matrix and turn each ProbeResponse into a view of
+	 * its row. If the probes already are consecutive rows of one matrix (which is what the file importer
+	 * builds) that matrix is adopted without copying. The loaders call this once the probes are read, so the
+	 * experiment is packed before it is shared.
+	 */
+	public synchronized void packResponses()
+	{
+		if (probeResponses == null || probeResponses.isEmpty())
+		{
+			responseMatrix = new float[0];
+			return;
+		}
+
+		if (probeResponses.get(0) == null)
+		{
+			responseMatrix = null;
+			return;
+		}
+		int numColumns = probeResponses.get(0).getResponseCount();
+		float[] candidate = probeResponses.get(0).getResponseMatrix();
+		if (candidate != null && candidate.length == numColumns * probeResponses.size())
+		{
+			if (isPacked(candidate))
+			{
+				responseMatrix = candidate;
+				return;
+			}
+		}
+
+		float[] matrix = new float[numColumns * probeResponses.size()];
+		for (int i = 0; i < probeResponses.size(); i++)
+		{
+			ProbeResponse probeResponse = probeResponses.get(i);
+			// a ragged experiment can't be a matrix. leave the probes with their own arrays.
+			if (probeResponse == null || probeResponse.getResponseMatrix() == null
+					|| probeResponse.getResponseCount() != numColumns)
+			{
+				responseMatrix = null;
+				return;
+			}
+			probeResponse.copyResponses(matrix, i * numColumns);
+		}
+		for (int i = 0; i < probeResponses.size(); i++)
+			probeResponses.get(i).bindResponses(matrix, i * numColumns, numColumns);
+		responseMatrix = matrix;
+	}
+
+	/*
+	 * check that every probe is still the matching row of the matrix. The probe list can be changed by
+	 * callers, so this is verified rather than assumed.
+	 */
+	private boolean isPacked(float[] matrix)
+	{
+		List<ProbeResponse> probeResponses = this.probeResponses;
+		if (matrix == null || probeResponses == null)
+			return false;
+		if (probeResponses.isEmpty())
+			return matrix.length == 0;
+		if (probeResponses.get(0) == null)
+			return false;
+		int numColumns = probeResponses.get(0).getResponseCount();
+		if (matrix.length != numColumns * probeResponses.size())
+			return false;
+		for (int i = 0; i < probeResponses.size(); i++)
+		{
+			ProbeResponse probeResponse = probeResponses.get(i);
+			if (probeResponse == null || probeResponse.getResponseMatrix() != matrix
+					|| probeResponse.getResponseOffset() != i * numColumns
+					|| probeResponse.getResponseCount() != numColumns)
+				return false;
+		}
+		return true;
 	}
 
 	public List<ReferenceGeneAnnotation> getReferenceGeneAnnotations()
@@ -248,6 +349,9 @@ public class DoseResponseExperiment extends BMDExpressAnalysisDataSet
 					.add("Logtransformation set to default of: " + LogTransformationEnum.BASE2);
 		}
 
+		// each probe read its own responses. move them into one matrix.
+		packResponses();
+
 	}
 
 	@Override
@@ -1,6 +1,10 @@
 package com.sciome.bmdexpress2.mvp.model.category;
 
 import java.awt.Color;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
@@ -50,86 +54,98 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 	protected CategoryIdentifier				categoryIdentifier;
 
 	private List<ReferenceGeneProbeStatResult>	referenceGeneProbeStatResults;
-	private Integer								geneAllCountFromExperiment;
-	private Integer								geneAllCount;
-	private Integer								geneCountSignificantANOVA;
-	private Double								percentage;
+
+	/*
+	 * the numbers of the category are kept in one array rather than a boxed Integer or Double each, a
+	 * project holds thousands of categories per analysis. Integers are stored as doubles, which holds them
+	 * exactly. A bit of missing is set for every number that was never set or set to null, so the getters
+	 * still return null for it. .bm2 files still get a field per statistic so older versions can read them,
+	 * see writeObject.
+	 */
+	private double[]							statistics						= new double[STATISTIC_COUNT];
+	private long								missing							= -1L;
+
+	private static final int					GENE_ALL_COUNT_FROM_EXPERIMENT						= 0;
+	private static final int					GENE_ALL_COUNT										= 1;
+	private static final int					GENE_COUNT_SIGNIFICANT_ANOVA						= 2;
+	private static final int					PERCENTAGE											= 3;
 
 	// filter count vars
-	private Integer								genesWithBMDLessEqualHighDose;
-	private Integer								genesWithBMDpValueGreaterEqualValue;
-	private Integer								genesWithBMDBMDLRatioBelowValue;
-	private Integer								genesWithBMDUBMDLRatioBelowValue;
-	private Integer								genesWithBMDUBMDRatioBelowValue;
-	private Integer								genesWithNFoldBelowLowPostiveDoseValue;
-	private Integer								genesWithFoldChangeAboveValue;
-	private Integer								genesWithPrefilterPValueAboveValue;
-	private Integer								genesWithPrefilterAdjustedPValueAboveValue;
-
-	private Integer								genesThatPassedAllFilters;
-
-	private Integer								fishersA;
-	private Integer								fishersB;
-	private Integer								fishersC;
-	private Integer								fishersD;
-	private Double								fishersExactLeftPValue;
-	private Double								fishersExactRightPValue;
-	private Double								fishersExactTwoTailPValue;
+	private static final int					GENES_WITH_BMD_LESS_EQUAL_HIGH_DOSE					= 4;
+	private static final int					GENES_WITH_BMD_P_VALUE_GREATER_EQUAL_VALUE			= 5;
+	private static final int					GENES_WITH_BMD_BMDL_RATIO_BELOW_VALUE				= 6;
+	private static final int					GENES_WITH_BMDU_BMDL_RATIO_BELOW_VALUE				= 7;
+	private static final int					GENES_WITH_BMDU_BMD_RATIO_BELOW_VALUE				= 8;
+	private static final int					GENES_WITH_N_FOLD_BELOW_LOW_POSTIVE_DOSE_VALUE		= 9;
+	private static final int					GENES_WITH_FOLD_CHANGE_ABOVE_VALUE					= 10;
+	private static final int					GENES_WITH_PREFILTER_P_VALUE_ABOVE_VALUE			= 11;
+	private static final int					GENES_WITH_PREFILTER_ADJUSTED_P_VALUE_ABOVE_VALUE	= 12;
+
+	private static final int					GENES_THAT_PASSED_ALL_FILTERS						= 13;
+
+	private static final int					FISHERS_A											= 14;
+	private static final int					FISHERS_B											= 15;
+	private static final int					FISHERS_C											= 16;
+	private static final int					FISHERS_D											= 17;
+	private static final int					FISHERS_EXACT_LEFT_P_VALUE							= 18;
+	private static final int					FISHERS_EXACT_RIGHT_P_VALUE							= 19;
+	private static final int					FISHERS_EXACT_TWO_TAIL_P_VALUE						= 20;
 
 	private String								genesWithConflictingProbeSets	= null;
 
 	// bmd/bmdl/bmdu stats
-	private Double								bmdMean;
-	private Double								bmdMedian;
-	private Double								bmdMinimum;
-	private Double								bmdSD;
-	private Double								bmdWMean;
-	private Double								bmdWSD;
-
-	private Double								bmdlMean;
-	private Double								bmdlMedian;
-	private Double								bmdlMinimum;
-	private Double								bmdlSD;
-	private Double								bmdlWMean;
-	private Double								bmdlWSD;
-
-	private Double								bmduMean;
-	private Double								bmduMedian;
-	private Double								bmduMinimum;
-	private Double								bmduSD;
-	private Double								bmduWMean;
-	private Double								bmduWSD;
+	private static final int					BMD_MEAN											= 21;
+	private static final int					BMD_MEDIAN											= 22;
+	private static final int					BMD_MINIMUM											= 23;
+	private static final int					BMD_SD												= 24;
+	private static final int					BMD_W_MEAN											= 25;
+	private static final int					BMD_W_SD											= 26;
+
+	private static final int					BMDL_MEAN											= 27;
+	private static final int					BMDL_MEDIAN											= 28;
+	private static final int					BMDL_MINIMUM										= 29;
+	private static final int					BMDL_SD												= 30;
+	private static final int					BMDL_W_MEAN											= 31;
+	private static final int					BMDL_W_SD											= 32;
+
+	private static final int					BMDU_MEAN											= 33;
+	private static final int					BMDU_MEDIAN											= 34;
+	private static final int					BMDU_MINIMUM										= 35;
+	private static final int					BMDU_SD												= 36;
+	private static final int					BMDU_W_MEAN											= 37;
+	private static final int					BMDU_W_SD											= 38;
 
 	// percentile fields
-	private Double								fifthPercentileIndex;
-	private Double								bmdFifthPercentileTotalGenes;
+	private static final int					FIFTH_PERCENTILE_INDEX								= 39;
+	private static final int					BMD_FIFTH_PERCENTILE_TOTAL_GENES					= 40;
 
-	private Double								tenthPercentileIndex;
-	private Double								bmdTenthPercentileTotalGenes;
+	private static final int					TENTH_PERCENTILE_INDEX								= 41;
+	private static final int					BMD_TENTH_PERCENTILE_TOTAL_GENES					= 42;
 
-	private Double								genesUpBMDMean;
-	private Double								genesUpBMDMedian;
-	private Double								genesUpBMDSD;
+	private static final int					GENES_UP_BMD_MEAN									= 43;
+	private static final int					GENES_UP_BMD_MEDIAN									= 44;
+	private static final int					GENES_UP_BMD_SD										= 45;
 
-	private Double								genesUpBMDLMean;
-	private Double								genesUpBMDLMedian;
-	private Double								genesUpBMDLSD;
+	private static final int					GENES_UP_BMDL_MEAN									= 46;
+	private static final int					GENES_UP_BMDL_MEDIAN								= 47;
+	private static final int					GENES_UP_BMDL_SD									= 48;
 
-	private Double								genesUpBMDUMean;
-	private Double								genesUpBMDUMedian;
-	private Double								genesUpBMDUSD;
+	private static final int					GENES_UP_BMDU_MEAN									= 49;
+	private static final int					GENES_UP_BMDU_MEDIAN								= 50;
+	private static final int					GENES_UP_BMDU_SD									= 51;
 
-	private Double								genesDownBMDMean;
-	private Double								genesDownBMDMedian;
-	private Double								genesDownBMDSD;
+	private static final int					GENES_DOWN_BMD_MEAN									= 52;
+	private static final int					GENES_DOWN_BMD_MEDIAN								= 53;
+	private static final int					GENES_DOWN_BMD_SD									= 54;
 
-	private Double								genesDownBMDLMean;
-	private Double								genesDownBMDLMedian;
-	private Double								genesDownBMDLSD;
+	private static final int					GENES_DOWN_BMDL_MEAN								= 55;
+	private static final int					GENES_DOWN_BMDL_MEDIAN								= 56;
+	private static final int					GENES_DOWN_BMDL_SD									= 57;
 
-	private Double								genesDownBMDUMean;
-	private Double								genesDownBMDUMedian;
-	private Double								genesDownBMDUSD;
+	private static final int					GENES_DOWN_BMDU_MEAN								= 58;
+	private static final int					GENES_DOWN_BMDU_MEDIAN								= 59;
+	private static final int					GENES_DOWN_BMDU_SD									= 60;
+	private static final int					STATISTIC_COUNT										= 61;
 
 	// statResult counts
 	// could be computed from probestatresult
@@ -143,7 +159,7 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 
 	// converting the object data to row data will require lots of string buffers.
 	// let them all use the same object to reduce instantiation
-	private transient StringBuffer				stringBuffer					= new StringBuffer();
+	private transient StringBuffer				stringBuffer;
 
 	// this is calculated and provides a general direction of the dose response curves
 	private transient AdverseDirectionEnum		overallDirection;
@@ -184,6 +200,133 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 		return stringBuffer;
 	}
 
+	private Double getStatistic(int index)
+	{
+		if ((missing & (1L << index)) != 0)
+			return null;
+		return statistics[index];
+	}
+
+	private Integer getCount(int index)
+	{
+		if ((missing & (1L << index)) != 0)
+			return null;
+		return (int) statistics[index];
+	}
+
+	private void setStatistic(int index, Number value)
+	{
+		if (value == null)
+			missing |= 1L << index;
+		else
+		{
+			statistics[index] = value.doubleValue();
+			missing &= ~(1L << index);
+		}
+	}
+
+	/*
+	 * files written before the statistics were kept in one array have a field per statistic, by these names
+	 * in the order of the indexes.
+	 */
+	private static final String[] LEGACY_FIELDS = {
+			"geneAllCountFromExperiment", "geneAllCount", "geneCountSignificantANOVA", "percentage",
+			"genesWithBMDLessEqualHighDose", "genesWithBMDpValueGreaterEqualValue",
+			"genesWithBMDBMDLRatioBelowValue", "genesWithBMDUBMDLRatioBelowValue",
+			"genesWithBMDUBMDRatioBelowValue", "genesWithNFoldBelowLowPostiveDoseValue",
+			"genesWithFoldChangeAboveValue", "genesWithPrefilterPValueAboveValue",
+			"genesWithPrefilterAdjustedPValueAboveValue", "genesThatPassedAllFilters", "fishersA",
+			"fishersB", "fishersC", "fishersD", "fishersExactLeftPValue", "fishersExactRightPValue",
+			"fishersExactTwoTailPValue", "bmdMean", "bmdMedian", "bmdMinimum", "bmdSD", "bmdWMean", "bmdWSD",
+			"bmdlMean", "bmdlMedian", "bmdlMinimum", "bmdlSD", "bmdlWMean", "bmdlWSD", "bmduMean",
+			"bmduMedian", "bmduMinimum", "bmduSD", "bmduWMean", "bmduWSD", "fifthPercentileIndex",
+			"bmdFifthPercentileTotalGenes", "tenthPercentileIndex", "bmdTenthPercentileTotalGenes",
+			"genesUpBMDMean", "genesUpBMDMedian", "genesUpBMDSD", "genesUpBMDLMean", "genesUpBMDLMedian",
+			"genesUpBMDLSD", "genesUpBMDUMean", "genesUpBMDUMedian", "genesUpBMDUSD", "genesDownBMDMean",
+			"genesDownBMDMedian", "genesDownBMDSD", "genesDownBMDLMean", "genesDownBMDLMedian",
+			"genesDownBMDLSD", "genesDownBMDUMean", "genesDownBMDUMedian", "genesDownBMDUSD" };
+
+	/*
+	 * the fields written to .bm2 files: the ones older versions have, with the statistics as the Integer or
+	 * Double fields they were.
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = createSerialPersistentFields();
+
+	private static ObjectStreamField[] createSerialPersistentFields()
+	{
+		List<ObjectStreamField> fields = new ArrayList<>();
+		fields.add(new ObjectStreamField("id", Long.class));
+		fields.add(new ObjectStreamField("categoryIdentifier", CategoryIdentifier.class));
+		fields.add(new ObjectStreamField("referenceGeneProbeStatResults", List.class));
+		fields.add(new ObjectStreamField("genesWithConflictingProbeSets", String.class));
+		fields.add(new ObjectStreamField("statResultCounts", Map.class));
+		fields.add(new ObjectStreamField("ivive", List.class));
+		for (int i = 0; i < STATISTIC_COUNT; i++)
+			fields.add(new ObjectStreamField(LEGACY_FIELDS[i], isCount(i) ? Integer.class : Double.class));
+		return fields.toArray(new ObjectStreamField[fields.size()]);
+	}
+
+	private static boolean isCount(int index)
+	{
+		return index != PERCENTAGE && index <= FISHERS_D;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException
+	{
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("id", id);
+		fields.put("categoryIdentifier", categoryIdentifier);
+		fields.put("referenceGeneProbeStatResults", referenceGeneProbeStatResults);
+		fields.put("genesWithConflictingProbeSets", genesWithConflictingProbeSets);
+		fields.put("statResultCounts", statResultCounts);
+		fields.put("ivive", ivive);
+		for (int i = 0; i < STATISTIC_COUNT; i++)
+			if (isCount(i))
+				fields.put(LEGACY_FIELDS[i], getCount(i));
+			else
+				fields.put(LEGACY_FIELDS[i], getStatistic(i));
+		out.writeFields();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		ObjectInputStream.GetField fields = in.readFields();
+		id = (Long) fields.get("id", null);
+		categoryIdentifier = (CategoryIdentifier) fields.get("categoryIdentifier", null);
+		referenceGeneProbeStatResults = (List<ReferenceGeneProbeStatResult>) fields
+				.get("referenceGeneProbeStatResults", null);
+		genesWithConflictingProbeSets = (String) fields.get("genesWithConflictingProbeSets", null);
+		statResultCounts = (Map<StatResult, Integer>) fields.get("statResultCounts", null);
+		ivive = (List<IVIVEResult>) fields.get("ivive", null);
+
+		// files of the versions that wrote the array itself
+		double[] packed = (double[]) getStreamField(fields, "statistics");
+		if (packed != null)
+		{
+			statistics = packed;
+			missing = fields.get("missing", -1L);
+			return;
+		}
+
+		statistics = new double[STATISTIC_COUNT];
+		missing = -1L;
+		for (int i = 0; i < STATISTIC_COUNT; i++)
+			setStatistic(i, (Number) getStreamField(fields, LEGACY_FIELDS[i]));
+	}
+
+	private static Object getStreamField(ObjectInputStream.GetField fields, String name) throws IOException
+	{
+		try
+		{
+			return fields.get(name, null);
+		}
+		catch (IllegalArgumentException e) // neither the file nor this version has it
+		{
+			return null;
+		}
+	}
+
 	@JsonIgnore
 	public Long getID()
 	{
@@ -257,6 +400,7 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 	@JsonIgnore
 	public Double getNegLogOfFishers2Tail()
 	{
+		Double fishersExactTwoTailPValue = getStatistic(FISHERS_EXACT_TWO_TAIL_P_VALUE);
 		if (fishersExactTwoTailPValue == null)
 			return null;
 		return NumberManager.negLog10(fishersExactTwoTailPValue);
@@ -264,142 +408,142 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 
 	public Integer getGeneCountSignificantANOVA()
 	{
-		return geneCountSignificantANOVA;
+		return getCount(GENE_COUNT_SIGNIFICANT_ANOVA);
 	}
 
 	public void setGeneCountSignificantANOVA(Integer geneCountSignificantANOVA)
 	{
-		this.geneCountSignificantANOVA = geneCountSignificantANOVA;
+		setStatistic(GENE_COUNT_SIGNIFICANT_ANOVA, geneCountSignificantANOVA);
 	}
 
 	public Integer getGenesWithBMDBMDLRatioBelowValue()
 	{
-		return genesWithBMDBMDLRatioBelowValue;
+		return getCount(GENES_WITH_BMD_BMDL_RATIO_BELOW_VALUE);
 	}
 
 	public void setGenesWithBMDBMDLRatioBelowValue(Integer genesWithBMDBMDLRatioBelowValue)
 	{
-		this.genesWithBMDBMDLRatioBelowValue = genesWithBMDBMDLRatioBelowValue;
+		setStatistic(GENES_WITH_BMD_BMDL_RATIO_BELOW_VALUE, genesWithBMDBMDLRatioBelowValue);
 	}
 
 	public void setGenesWithBMDUBMDLRatioBelowValue(Integer value)
 	{
-		this.genesWithBMDUBMDLRatioBelowValue = value;
+		setStatistic(GENES_WITH_BMDU_BMDL_RATIO_BELOW_VALUE, value);
 	}
 
 	public Integer getGenesWithBMDUBMDLRatioBelowValue()
 	{
-		return genesWithBMDUBMDLRatioBelowValue;
+		return getCount(GENES_WITH_BMDU_BMDL_RATIO_BELOW_VALUE);
 	}
 
 	public void setGenesWithBMDUBMDRatioBelowValue(Integer value)
 	{
-		this.genesWithBMDUBMDRatioBelowValue = value;
+		setStatistic(GENES_WITH_BMDU_BMD_RATIO_BELOW_VALUE, value);
 	}
 
 	public Integer getGenesWithBMDUBMDRatioBelowValue()
 	{
-		return genesWithBMDUBMDRatioBelowValue;
+		return getCount(GENES_WITH_BMDU_BMD_RATIO_BELOW_VALUE);
 	}
 
 	public Integer getGenesWithNFoldBelowLowPostiveDoseValue()
 	{
-		return genesWithNFoldBelowLowPostiveDoseValue;
+		return getCount(GENES_WITH_N_FOLD_BELOW_LOW_POSTIVE_DOSE_VALUE);
 	}
 
 	public void setGenesWithNFoldBelowLowPostiveDoseValue(Integer genesWithNFoldBelowLowPostiveDoseValue)
 	{
-		this.genesWithNFoldBelowLowPostiveDoseValue = genesWithNFoldBelowLowPostiveDoseValue;
+		setStatistic(GENES_WITH_N_FOLD_BELOW_LOW_POSTIVE_DOSE_VALUE, genesWithNFoldBelowLowPostiveDoseValue);
 	}
 
 	public Integer getGenesWithFoldChangeAboveValue()
 	{
-		return genesWithFoldChangeAboveValue;
+		return getCount(GENES_WITH_FOLD_CHANGE_ABOVE_VALUE);
 	}
 
 	public void setGenesWithFoldChangeAboveValue(Integer genesWithFoldChangeAboveValue)
 	{
-		this.genesWithFoldChangeAboveValue = genesWithFoldChangeAboveValue;
+		setStatistic(GENES_WITH_FOLD_CHANGE_ABOVE_VALUE, genesWithFoldChangeAboveValue);
 	}
 
 	public Integer getGenesWithPrefilterPValueAboveValue()
 	{
-		return genesWithPrefilterPValueAboveValue;
+		return getCount(GENES_WITH_PREFILTER_P_VALUE_ABOVE_VALUE);
 	}
 
 	public void setGenesWithPrefilterPValueAboveValue(Integer genesWithPValueAboveValue)
 	{
-		this.genesWithPrefilterPValueAboveValue = genesWithPValueAboveValue;
+		setStatistic(GENES_WITH_PREFILTER_P_VALUE_ABOVE_VALUE, genesWithPValueAboveValue);
 	}
 
 	public Integer getGenesWithPrefilterAdjustedPValueAboveValue()
 	{
-		return genesWithPrefilterAdjustedPValueAboveValue;
+		return getCount(GENES_WITH_PREFILTER_ADJUSTED_P_VALUE_ABOVE_VALUE);
 	}
 
 	public void setGenesWithPrefilterAdjustedPValueAboveValue(Integer genesWithAdjustedPValueAboveValue)
 	{
-		this.genesWithPrefilterAdjustedPValueAboveValue = genesWithAdjustedPValueAboveValue;
+		setStatistic(GENES_WITH_PREFILTER_ADJUSTED_P_VALUE_ABOVE_VALUE, genesWithAdjustedPValueAboveValue);
 	}
 
 	public Double getPercentage()
 	{
-		return percentage;
+		return getStatistic(PERCENTAGE);
 	}
 
 	public Integer getGeneAllCount()
 	{
-		return geneAllCount;
+		return getCount(GENE_ALL_COUNT);
 	}
 
 	public void setGeneAllCount(Integer geneAllCount)
 	{
-		this.geneAllCount = geneAllCount;
+		setStatistic(GENE_ALL_COUNT, geneAllCount);
 	}
 
 	public Integer getGeneAllCountFromExperiment()
 	{
-		return geneAllCountFromExperiment;
+		return getCount(GENE_ALL_COUNT_FROM_EXPERIMENT);
 	}
 
 	public void setGeneAllCountFromExperiment(Integer geneAllCountFromExperiment)
 	{
-		this.geneAllCountFromExperiment = geneAllCountFromExperiment;
+		setStatistic(GENE_ALL_COUNT_FROM_EXPERIMENT, geneAllCountFromExperiment);
 	}
 
 	public void setPercentage(Double percentage)
 	{
-		this.percentage = percentage;
+		setStatistic(PERCENTAGE, percentage);
 	}
 
 	public Double getBmdMean()
 	{
-		return bmdMean;
+		return getStatistic(BMD_MEAN);
 	}
 
 	public void setBmdMean(Double bmdMean)
 	{
-		this.bmdMean = bmdMean;
+		setStatistic(BMD_MEAN, bmdMean);
 	}
 
 	public Double getBmdMedian()
 	{
-		return bmdMedian;
+		return getStatistic(BMD_MEDIAN);
 	}
 
 	public void setBmdMedian(Double bmdMedian)
 	{
-		this.bmdMedian = bmdMedian;
+		setStatistic(BMD_MEDIAN, bmdMedian);
 	}
 
 	public Double getBmdMinimum()
 	{
-		return bmdMinimum;
+		return getStatistic(BMD_MINIMUM);
 	}
 
 	public void setBmdMinimum(Double bmdMinimum)
 	{
-		this.bmdMinimum = bmdMinimum;
+		setStatistic(BMD_MINIMUM, bmdMinimum);
 	}
 
 	@JsonIgnore
@@ -444,6 +588,7 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 
 	public Double getBmdSD()
 	{
+		Double bmdSD = getStatistic(BMD_SD);
 		if (bmdSD != null && bmdSD.isNaN())
 			return null;
 		return bmdSD;
@@ -452,23 +597,24 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 	public void setBmdSD(Double bmdSD)
 	{
 		if (bmdSD != null && bmdSD.isNaN())
-			this.bmdSD = null;
+			setStatistic(BMD_SD, null);
 		else
-			this.bmdSD = bmdSD;
+			setStatistic(BMD_SD, bmdSD);
 	}
 
 	public Double getBmdWMean()
 	{
-		return bmdWMean;
+		return getStatistic(BMD_W_MEAN);
 	}
 
 	public void setBmdWMean(Double bmdWMean)
 	{
-		this.bmdWMean = bmdWMean;
+		setStatistic(BMD_W_MEAN, bmdWMean);
 	}
 
 	public Double getBmdWSD()
 	{
+		Double bmdWSD = getStatistic(BMD_W_SD);
 		if (bmdWSD != null && bmdWSD.isNaN())
 		{
 			return null;
@@ -479,9 +625,9 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 	public void setBmdWSD(Double bmdWSD)
 	{
 		if (bmdWSD != null && bmdWSD.isNaN())
-			this.bmdWSD = null;
+			setStatistic(BMD_W_SD, null);
 		else
-			this.bmdWSD = bmdWSD;
+			setStatistic(BMD_W_SD, bmdWSD);
 	}
 
 	@JsonIgnore
@@ -492,36 +638,37 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 
 	public Double getBmduMean()
 	{
-		return bmduMean;
+		return getStatistic(BMDU_MEAN);
 	}
 
 	public void setBmduMean(Double bmduMean)
 	{
-		this.bmduMean = bmduMean;
+		setStatistic(BMDU_MEAN, bmduMean);
 	}
 
 	public Double getBmduMedian()
 	{
-		return bmduMedian;
+		return getStatistic(BMDU_MEDIAN);
 	}
 
 	public void setBmduMedian(Double bmduMedian)
 	{
-		this.bmduMedian = bmduMedian;
+		setStatistic(BMDU_MEDIAN, bmduMedian);
 	}
 
 	public Double getBmduMinimum()
 	{
-		return bmduMinimum;
+		return getStatistic(BMDU_MINIMUM);
 	}
 
 	public void setBmduMinimum(Double bmduMinimum)
 	{
-		this.bmduMinimum = bmduMinimum;
+		setStatistic(BMDU_MINIMUM, bmduMinimum);
 	}
 
 	public Double getBmduSD()
 	{
+		Double bmduSD = getStatistic(BMDU_SD);
 		if (bmduSD != null && bmduSD.isNaN())
 		{
 			return null;
@@ -532,23 +679,24 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 	public void setBmduSD(Double bmduSD)
 	{
 		if (bmduSD != null && bmduSD.isNaN())
-			this.bmduSD = null;
+			setStatistic(BMDU_SD, null);
 		else
-			this.bmduSD = bmduSD;
+			setStatistic(BMDU_SD, bmduSD);
 	}
 
 	public Double getBmduWMean()
 	{
-		return bmduWMean;
+		return getStatistic(BMDU_W_MEAN);
 	}
 
 	public void setBmduWMean(Double bmduWMean)
 	{
-		this.bmduWMean = bmduWMean;
+		setStatistic(BMDU_W_MEAN, bmduWMean);
 	}
 
 	public Double getBmduWSD()
 	{
+		Double bmduWSD = getStatistic(BMDU_W_SD);
 		if (bmduWSD != null && bmduWSD.isNaN())
 			return null;
 		return bmduWSD;
@@ -557,43 +705,44 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 	public void setBmduWSD(Double bmduWSD)
 	{
 		if (bmduWSD != null && bmduWSD.isNaN())
-			this.bmduWSD = null;
+			setStatistic(BMDU_W_SD, null);
 		else
-			this.bmduWSD = bmduWSD;
+			setStatistic(BMDU_W_SD, bmduWSD);
 	}
 
 	public Double getBmdlMean()
 	{
-		return bmdlMean;
+		return getStatistic(BMDL_MEAN);
 	}
 
 	public void setBmdlMean(Double bmdlMean)
 	{
-		this.bmdlMean = bmdlMean;
+		setStatistic(BMDL_MEAN, bmdlMean);
 	}
 
 	public Double getBmdlMedian()
 	{
-		return bmdlMedian;
+		return getStatistic(BMDL_MEDIAN);
 	}
 
 	public void setBmdlMedian(Double bmdlMedian)
 	{
-		this.bmdlMedian = bmdlMedian;
+		setStatistic(BMDL_MEDIAN, bmdlMedian);
 	}
 
 	public Double getBmdlMinimum()
 	{
-		return bmdlMinimum;
+		return getStatistic(BMDL_MINIMUM);
 	}
 
 	public void setBmdlMinimum(Double bmdlMinimum)
 	{
-		this.bmdlMinimum = bmdlMinimum;
+		setStatistic(BMDL_MINIMUM, bmdlMinimum);
 	}
 
 	public Double getBmdlSD()
 	{
+		Double bmdlSD = getStatistic(BMDL_SD);
 		if (bmdlSD != null && bmdlSD.isNaN())
 		{
 			return null;
@@ -604,23 +753,24 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 	public void setBmdlSD(Double bmdlSD)
 	{
 		if (bmdlSD != null && bmdlSD.isNaN())
-			this.bmdlSD = null;
+			setStatistic(BMDL_SD, null);
 		else
-			this.bmdlSD = bmdlSD;
+			setStatistic(BMDL_SD, bmdlSD);
 	}
 
 	public Double getBmdlWMean()
 	{
-		return bmdlWMean;
+		return getStatistic(BMDL_W_MEAN);
 	}
 
 	public void setBmdlWMean(Double bmdlWMean)
 	{
-		this.bmdlWMean = bmdlWMean;
+		setStatistic(BMDL_W_MEAN, bmdlWMean);
 	}
 
 	public Double getBmdlWSD()
 	{
+		Double bmdlWSD = getStatistic(BMDL_W_SD);
 		if (bmdlWSD != null && bmdlWSD.isNaN())
 			return null;
 		return bmdlWSD;
@@ -629,73 +779,74 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 	public void setBmdlWSD(Double bmdlWSD)
 	{
 		if (bmdlWSD != null && bmdlWSD.isNaN())
-			this.bmdlWSD = null;
+			setStatistic(BMDL_W_SD, null);
 		else
-			this.bmdlWSD = bmdlWSD;
+			setStatistic(BMDL_W_SD, bmdlWSD);
 	}
 
 	public Double getFifthPercentileIndex()
 	{
-		return fifthPercentileIndex;
+		return getStatistic(FIFTH_PERCENTILE_INDEX);
 	}
 
 	public void setFifthPercentileIndex(Double fifthPercentileIndex)
 	{
-		this.fifthPercentileIndex = fifthPercentileIndex;
+		setStatistic(FIFTH_PERCENTILE_INDEX, fifthPercentileIndex);
 	}
 
 	public Double getBmdFifthPercentileTotalGenes()
 	{
-		return bmdFifthPercentileTotalGenes;
+		return getStatistic(BMD_FIFTH_PERCENTILE_TOTAL_GENES);
 	}
 
 	public void setBmdFifthPercentileTotalGenes(Double bmdFifthPercentileTotalGenes)
 	{
-		this.bmdFifthPercentileTotalGenes = bmdFifthPercentileTotalGenes;
+		setStatistic(BMD_FIFTH_PERCENTILE_TOTAL_GENES, bmdFifthPercentileTotalGenes);
 	}
 
 	public Double getTenthPercentileIndex()
 	{
-		return tenthPercentileIndex;
+		return getStatistic(TENTH_PERCENTILE_INDEX);
 	}
 
 	public void setTenthPercentileIndex(Double tenthPercentileIndex)
 	{
-		this.tenthPercentileIndex = tenthPercentileIndex;
+		setStatistic(TENTH_PERCENTILE_INDEX, tenthPercentileIndex);
 	}
 
 	public Double getBmdTenthPercentileTotalGenes()
 	{
-		return bmdTenthPercentileTotalGenes;
+		return getStatistic(BMD_TENTH_PERCENTILE_TOTAL_GENES);
 	}
 
 	public void setBmdTenthPercentileTotalGenes(Double bmdTenthPercentileTotalGenes)
 	{
-		this.bmdTenthPercentileTotalGenes = bmdTenthPercentileTotalGenes;
+		setStatistic(BMD_TENTH_PERCENTILE_TOTAL_GENES, bmdTenthPercentileTotalGenes);
 	}
 
 	public Double getGenesUpBMDMean()
 	{
-		return genesUpBMDMean;
+		return getStatistic(GENES_UP_BMD_MEAN);
 	}
 
 	public void setGenesUpBMDMean(Double genesUpBMDMean)
 	{
-		this.genesUpBMDMean = genesUpBMDMean;
+		setStatistic(GENES_UP_BMD_MEAN, genesUpBMDMean);
 	}
 
 	public Double getGenesUpBMDMedian()
 	{
-		return genesUpBMDMedian;
+		return getStatistic(GENES_UP_BMD_MEDIAN);
 	}
 
 	public void setGenesUpBMDMedian(Double genesUpBMDMedian)
 	{
-		this.genesUpBMDMedian = genesUpBMDMedian;
+		setStatistic(GENES_UP_BMD_MEDIAN, genesUpBMDMedian);
 	}
 
 	public Double getGenesUpBMDSD()
 	{
+		Double genesUpBMDSD = getStatistic(GENES_UP_BMD_SD);
 		if (genesUpBMDSD != null && genesUpBMDSD.isNaN())
 			return null;
 		return genesUpBMDSD;
@@ -703,31 +854,32 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 
 	public void setGenesUpBMDSD(Double genesUpBMDSD)
 	{
-		this.genesUpBMDSD = genesUpBMDSD;
+		setStatistic(GENES_UP_BMD_SD, genesUpBMDSD);
 	}
 
 	public Double getGenesUpBMDLMean()
 	{
-		return genesUpBMDLMean;
+		return getStatistic(GENES_UP_BMDL_MEAN);
 	}
 
 	public void setGenesUpBMDLMean(Double genesUpBMDLMean)
 	{
-		this.genesUpBMDLMean = genesUpBMDLMean;
+		setStatistic(GENES_UP_BMDL_MEAN, genesUpBMDLMean);
 	}
 
 	public Double getGenesUpBMDLMedian()
 	{
-		return genesUpBMDLMedian;
+		return getStatistic(GENES_UP_BMDL_MEDIAN);
 	}
 
 	public void setGenesUpBMDLMedian(Double genesUpBMDLMedian)
 	{
-		this.genesUpBMDLMedian = genesUpBMDLMedian;
+		setStatistic(GENES_UP_BMDL_MEDIAN, genesUpBMDLMedian);
 	}
 
 	public Double getGenesUpBMDLSD()
 	{
+		Double genesUpBMDLSD = getStatistic(GENES_UP_BMDL_SD);
 		if (genesUpBMDLSD != null && genesUpBMDLSD.isNaN())
 			return null;
 		return genesUpBMDLSD;
@@ -735,31 +887,32 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 
 	public void setGenesUpBMDLSD(Double genesUpBMDLSD)
 	{
-		this.genesUpBMDLSD = genesUpBMDLSD;
+		setStatistic(GENES_UP_BMDL_SD, genesUpBMDLSD);
 	}
 
 	public Double getGenesUpBMDUMean()
 	{
-		return genesUpBMDUMean;
+		return getStatistic(GENES_UP_BMDU_MEAN);
 	}
 
 	public void setGenesUpBMDUMean(Double genesUpBMDUMean)
 	{
-		this.genesUpBMDUMean = genesUpBMDUMean;
+		setStatistic(GENES_UP_BMDU_MEAN, genesUpBMDUMean);
 	}
 
 	public Double getGenesUpBMDUMedian()
 	{
-		return genesUpBMDUMedian;
+		return getStatistic(GENES_UP_BMDU_MEDIAN);
 	}
 
 	public void setGenesUpBMDUMedian(Double genesUpBMDUMedian)
 	{
-		this.genesUpBMDUMedian = genesUpBMDUMedian;
+		setStatistic(GENES_UP_BMDU_MEDIAN, genesUpBMDUMedian);
 	}
 
 	public Double getGenesUpBMDUSD()
 	{
+		Double genesUpBMDUSD = getStatistic(GENES_UP_BMDU_SD);
 		if (genesUpBMDUSD != null && genesUpBMDUSD.isNaN())
 			return null;
 		return genesUpBMDUSD;
@@ -767,31 +920,32 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 
 	public void setGenesUpBMDUSD(Double genesUpBMDUSD)
 	{
-		this.genesUpBMDUSD = genesUpBMDUSD;
+		setStatistic(GENES_UP_BMDU_SD, genesUpBMDUSD);
 	}
 
 	public Double getGenesDownBMDMean()
 	{
-		return genesDownBMDMean;
+		return getStatistic(GENES_DOWN_BMD_MEAN);
 	}
 
 	public void setGenesDownBMDMean(Double genesDownBMDMean)
 	{
-		this.genesDownBMDMean = genesDownBMDMean;
+		setStatistic(GENES_DOWN_BMD_MEAN, genesDownBMDMean);
 	}
 
 	public Double getGenesDownBMDMedian()
 	{
-		return genesDownBMDMedian;
+		return getStatistic(GENES_DOWN_BMD_MEDIAN);
 	}
 
 	public void setGenesDownBMDMedian(Double genesDownBMDMedian)
 	{
-		this.genesDownBMDMedian = genesDownBMDMedian;
+		setStatistic(GENES_DOWN_BMD_MEDIAN, genesDownBMDMedian);
 	}
 
 	public Double getGenesDownBMDSD()
 	{
+		Double genesDownBMDSD = getStatistic(GENES_DOWN_BMD_SD);
 		if (genesDownBMDSD != null && genesDownBMDSD.isNaN())
 			return null;
 		return genesDownBMDSD;
@@ -799,31 +953,32 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 
 	public void setGenesDownBMDSD(Double genesDownBMDSD)
 	{
-		this.genesDownBMDSD = genesDownBMDSD;
+		setStatistic(GENES_DOWN_BMD_SD, genesDownBMDSD);
 	}
 
 	public Double getGenesDownBMDLMean()
 	{
-		return genesDownBMDLMean;
+		return getStatistic(GENES_DOWN_BMDL_MEAN);
 	}
 
 	public void setGenesDownBMDLMean(Double genesDownBMDLMean)
 	{
-		this.genesDownBMDLMean = genesDownBMDLMean;
+		setStatistic(GENES_DOWN_BMDL_MEAN, genesDownBMDLMean);
 	}
 
 	public Double getGenesDownBMDLMedian()
 	{
-		return genesDownBMDLMedian;
+		return getStatistic(GENES_DOWN_BMDL_MEDIAN);
 	}
 
 	public void setGenesDownBMDLMedian(Double genesDownBMDLMedian)
 	{
-		this.genesDownBMDLMedian = genesDownBMDLMedian;
+		setStatistic(GENES_DOWN_BMDL_MEDIAN, genesDownBMDLMedian);
 	}
 
 	public Double getGenesDownBMDLSD()
 	{
+		Double genesDownBMDLSD = getStatistic(GENES_DOWN_BMDL_SD);
 		if (genesDownBMDLSD != null && genesDownBMDLSD.isNaN())
 			return null;
 		return genesDownBMDLSD;
@@ -831,31 +986,32 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 
 	public void setGenesDownBMDLSD(Double genesDownBMDLSD)
 	{
-		this.genesDownBMDLSD = genesDownBMDLSD;
+		setStatistic(GENES_DOWN_BMDL_SD, genesDownBMDLSD);
 	}
 
 	public Double getGenesDownBMDUMean()
 	{
-		return genesDownBMDUMean;
+		return getStatistic(GENES_DOWN_BMDU_MEAN);
 	}
 
 	public void setGenesDownBMDUMean(Double genesDownBMDUMean)
 	{
-		this.genesDownBMDUMean = genesDownBMDUMean;
+		setStatistic(GENES_DOWN_BMDU_MEAN, genesDownBMDUMean);
 	}
 
 	public Double getGenesDownBMDUMedian()
 	{
-		return genesDownBMDUMedian;
+		return getStatistic(GENES_DOWN_BMDU_MEDIAN);
 	}
 
 	public void setGenesDownBMDUMedian(Double genesDownBMDUMedian)
 	{
-		this.genesDownBMDUMedian = genesDownBMDUMedian;
+		setStatistic(GENES_DOWN_BMDU_MEDIAN, genesDownBMDUMedian);
 	}
 
 	public Double getGenesDownBMDUSD()
 	{
+		Double genesDownBMDUSD = getStatistic(GENES_DOWN_BMDU_SD);
 		if (genesDownBMDUSD != null && genesDownBMDUSD.isNaN())
 			return null;
 		return genesDownBMDUSD;
@@ -863,7 +1019,7 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 
 	public void setGenesDownBMDUSD(Double genesDownBMDUSD)
 	{
-		this.genesDownBMDUSD = genesDownBMDUSD;
+		setStatistic(GENES_DOWN_BMDU_SD, genesDownBMDUSD);
 	}
 
 	@JsonIgnore
@@ -889,92 +1045,92 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 
 	public Integer getGenesWithBMDLessEqualHighDose()
 	{
-		return genesWithBMDLessEqualHighDose;
+		return getCount(GENES_WITH_BMD_LESS_EQUAL_HIGH_DOSE);
 	}
 
 	public void setGenesWithBMDLessEqualHighDose(Integer genesWithBMDLessEqualHighDose)
 	{
-		this.genesWithBMDLessEqualHighDose = genesWithBMDLessEqualHighDose;
+		setStatistic(GENES_WITH_BMD_LESS_EQUAL_HIGH_DOSE, genesWithBMDLessEqualHighDose);
 	}
 
 	public Integer getGenesWithBMDpValueGreaterEqualValue()
 	{
-		return genesWithBMDpValueGreaterEqualValue;
+		return getCount(GENES_WITH_BMD_P_VALUE_GREATER_EQUAL_VALUE);
 	}
 
 	public void setGenesWithBMDpValueGreaterEqualValue(Integer genesWithBMDpValueGreaterEqualValue)
 	{
-		this.genesWithBMDpValueGreaterEqualValue = genesWithBMDpValueGreaterEqualValue;
+		setStatistic(GENES_WITH_BMD_P_VALUE_GREATER_EQUAL_VALUE, genesWithBMDpValueGreaterEqualValue);
 	}
 
 	public Double getFishersExactLeftPValue()
 	{
-		return fishersExactLeftPValue;
+		return getStatistic(FISHERS_EXACT_LEFT_P_VALUE);
 	}
 
 	public void setFishersExactLeftPValue(Double fishersExactLeftPValue)
 	{
-		this.fishersExactLeftPValue = fishersExactLeftPValue;
+		setStatistic(FISHERS_EXACT_LEFT_P_VALUE, fishersExactLeftPValue);
 	}
 
 	public Integer getFishersA()
 	{
-		return fishersA;
+		return getCount(FISHERS_A);
 	}
 
 	public void setFishersA(Integer a)
 	{
-		this.fishersA = a;
+		setStatistic(FISHERS_A, a);
 	}
 
 	public Integer getFishersB()
 	{
-		return fishersA;
+		return getCount(FISHERS_A);
 	}
 
 	public void setFishersB(Integer b)
 	{
-		this.fishersB = b;
+		setStatistic(FISHERS_B, b);
 	}
 
 	public Integer getFishersC()
 	{
-		return fishersC;
+		return getCount(FISHERS_C);
 	}
 
 	public void setFishersC(Integer c)
 	{
-		this.fishersC = c;
+		setStatistic(FISHERS_C, c);
 	}
 
 	public Integer getFishersD()
 	{
-		return fishersD;
+		return getCount(FISHERS_D);
 	}
 
 	public void setFishersD(Integer d)
 	{
-		this.fishersD = d;
+		setStatistic(FISHERS_D, d);
 	}
 
 	public Double getFishersExactRightPValue()
 	{
-		return fishersExactRightPValue;
+		return getStatistic(FISHERS_EXACT_RIGHT_P_VALUE);
 	}
 
 	public void setFishersExactRightPValue(Double fishersExactRightPValue)
 	{
-		this.fishersExactRightPValue = fishersExactRightPValue;
+		setStatistic(FISHERS_EXACT_RIGHT_P_VALUE, fishersExactRightPValue);
 	}
 
 	public Double getFishersExactTwoTailPValue()
 	{
-		return fishersExactTwoTailPValue;
+		return getStatistic(FISHERS_EXACT_TWO_TAIL_P_VALUE);
 	}
 
 	public void setFishersExactTwoTailPValue(Double fishersExactTwoTailPValue)
 	{
-		this.fishersExactTwoTailPValue = fishersExactTwoTailPValue;
+		setStatistic(FISHERS_EXACT_TWO_TAIL_P_VALUE, fishersExactTwoTailPValue);
 	}
 
 	public List<IVIVEResult> getIvive()
@@ -991,62 +1147,68 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 	@JsonIgnore
 	public Double getBMDUdivBMDLMEDIAN()
 	{
+		Double bmduMedian = getStatistic(BMDU_MEDIAN);
 		if (bmduMedian == null)
 			return null;
 		if (bmduMedian.equals(0.0))
 			return null;
-		return this.bmduMedian / this.bmdlMedian;
+		return bmduMedian / getStatistic(BMDL_MEDIAN);
 	}
 
 	@JsonIgnore
 	public Double getBMDdivBMDLMEDIAN()
 	{
-		if (bmduMedian == null)
+		Double bmdMedian = getStatistic(BMD_MEDIAN);
+		if (getStatistic(BMDU_MEDIAN) == null)
 			return null;
 
 		if (bmdMedian.equals(0.0))
 			return null;
-		return this.bmdMedian / this.bmdlMedian;
+		return bmdMedian / getStatistic(BMDL_MEDIAN);
 	}
 
 	@JsonIgnore
 	public Double getBMDUdivBMDMEDIAN()
 	{
+		Double bmduMedian = getStatistic(BMDU_MEDIAN);
 		if (bmduMedian == null)
 			return null;
 		if (bmduMedian.equals(0.0))
 			return null;
-		return this.bmduMedian / this.bmdMedian;
+		return bmduMedian / getStatistic(BMD_MEDIAN);
 	}
 
 	@JsonIgnore
 	public Double getBMDUdivBMDLMEAN()
 	{
+		Double bmduMean = getStatistic(BMDU_MEAN);
 		if (bmduMean == null)
 			return null;
 		if (bmduMean.equals(0.0))
 			return null;
-		return this.bmduMean / this.bmdlMean;
+		return bmduMean / getStatistic(BMDL_MEAN);
 	}
 
 	@JsonIgnore
 	public Double getBMDdivBMDLMEAN()
 	{
-		if (bmduMean == null)
+		Double bmdMean = getStatistic(BMD_MEAN);
+		if (getStatistic(BMDU_MEAN) == null)
 			return null;
 		if (bmdMean.equals(0.0))
 			return null;
-		return this.bmdMean / this.bmdlMean;
+		return bmdMean / getStatistic(BMDL_MEAN);
 	}
 
 	@JsonIgnore
 	public Double getBMDUdivBMDMEAN()
 	{
+		Double bmduMean = getStatistic(BMDU_MEAN);
 		if (bmduMean == null)
 			return null;
 		if (bmduMean.equals(0.0))
 			return null;
-		return this.bmduMean / this.bmdMean;
+		return bmduMean / getStatistic(BMD_MEAN);
 	}
 
 	@Override
@@ -1075,42 +1237,42 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 		headers.add("All Genes (Expression Data)");
 		headers.add("All Genes (Platform)");
 		headers.add("Input Genes");
-		if (genesWithBMDLessEqualHighDose != null)
+		if (getCount(GENES_WITH_BMD_LESS_EQUAL_HIGH_DOSE) != null)
 		{
 			headers.add("Genes with BMD <= Highest Dose");
 		}
-		if (genesWithBMDpValueGreaterEqualValue != null)
+		if (getCount(GENES_WITH_BMD_P_VALUE_GREATER_EQUAL_VALUE) != null)
 		{
 			headers.add("Genes with BMD p-Value >= ");
 		}
 
-		if (genesWithBMDBMDLRatioBelowValue != null)
+		if (getCount(GENES_WITH_BMD_BMDL_RATIO_BELOW_VALUE) != null)
 		{
 			headers.add("Genes with BMD/BMDL <= ");
 		}
 
-		if (genesWithBMDUBMDRatioBelowValue != null)
+		if (getCount(GENES_WITH_BMDU_BMD_RATIO_BELOW_VALUE) != null)
 		{
 			headers.add("Genes with BMDU/BMD <= ");
 		}
 
-		if (genesWithBMDUBMDLRatioBelowValue != null)
+		if (getCount(GENES_WITH_BMDU_BMDL_RATIO_BELOW_VALUE) != null)
 		{
 			headers.add("Genes with BMDU/BMDL <= ");
 		}
 
-		if (genesWithNFoldBelowLowPostiveDoseValue != null)
+		if (getCount(GENES_WITH_N_FOLD_BELOW_LOW_POSTIVE_DOSE_VALUE) != null)
 		{
 			headers.add("Genes with BMD <= N-Fold Lowest Positive Dose ");
 		}
 
-		if (genesWithFoldChangeAboveValue != null)
+		if (getCount(GENES_WITH_FOLD_CHANGE_ABOVE_VALUE) != null)
 			headers.add("Genes with max Fold Change >=");
 
-		if (genesWithPrefilterPValueAboveValue != null)
+		if (getCount(GENES_WITH_PREFILTER_P_VALUE_ABOVE_VALUE) != null)
 			headers.add("Genes with Prefilter P-Value <=");
 
-		if (genesWithPrefilterAdjustedPValueAboveValue != null)
+		if (getCount(GENES_WITH_PREFILTER_ADJUSTED_P_VALUE_ABOVE_VALUE) != null)
 			headers.add("Genes with Prefilter Adjusted P-Value <=");
 
 		headers.add("Genes That Passed All Filters");
@@ -1242,42 +1404,42 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 		if (row != null)
 			return;
 		row = new ArrayList<>();
-		row.add(this.geneAllCountFromExperiment);
-		row.add(this.geneAllCount);
-		row.add(this.geneCountSignificantANOVA);
-		if (genesWithBMDLessEqualHighDose != null)
-			row.add(this.genesWithBMDLessEqualHighDose);
-		if (genesWithBMDpValueGreaterEqualValue != null)
-			row.add(this.genesWithBMDpValueGreaterEqualValue);
-		if (genesWithBMDBMDLRatioBelowValue != null)
-			row.add(this.genesWithBMDBMDLRatioBelowValue);
-		if (genesWithBMDUBMDRatioBelowValue != null)
-			row.add(this.genesWithBMDUBMDRatioBelowValue);
-		if (genesWithBMDUBMDLRatioBelowValue != null)
-			row.add(this.genesWithBMDUBMDLRatioBelowValue);
-
-		if (genesWithNFoldBelowLowPostiveDoseValue != null)
-			row.add(this.genesWithNFoldBelowLowPostiveDoseValue);
-
-		if (genesWithFoldChangeAboveValue != null)
-			row.add(genesWithFoldChangeAboveValue);
-
-		if (genesWithPrefilterPValueAboveValue != null)
-			row.add(genesWithPrefilterPValueAboveValue);
-
-		if (genesWithPrefilterAdjustedPValueAboveValue != null)
-			row.add(genesWithPrefilterAdjustedPValueAboveValue);
+		row.add(getCount(GENE_ALL_COUNT_FROM_EXPERIMENT));
+		row.add(getCount(GENE_ALL_COUNT));
+		row.add(getCount(GENE_COUNT_SIGNIFICANT_ANOVA));
+		if (getCount(GENES_WITH_BMD_LESS_EQUAL_HIGH_DOSE) != null)
+			row.add(getCount(GENES_WITH_BMD_LESS_EQUAL_HIGH_DOSE));
+		if (getCount(GENES_WITH_BMD_P_VALUE_GREATER_EQUAL_VALUE) != null)
+			row.add(getCount(GENES_WITH_BMD_P_VALUE_GREATER_EQUAL_VALUE));
+		if (getCount(GENES_WITH_BMD_BMDL_RATIO_BELOW_VALUE) != null)
+			row.add(getCount(GENES_WITH_BMD_BMDL_RATIO_BELOW_VALUE));
+		if (getCount(GENES_WITH_BMDU_BMD_RATIO_BELOW_VALUE) != null)
+			row.add(getCount(GENES_WITH_BMDU_BMD_RATIO_BELOW_VALUE));
+		if (getCount(GENES_WITH_BMDU_BMDL_RATIO_BELOW_VALUE) != null)
+			row.add(getCount(GENES_WITH_BMDU_BMDL_RATIO_BELOW_VALUE));
+
+		if (getCount(GENES_WITH_N_FOLD_BELOW_LOW_POSTIVE_DOSE_VALUE) != null)
+			row.add(getCount(GENES_WITH_N_FOLD_BELOW_LOW_POSTIVE_DOSE_VALUE));
+
+		if (getCount(GENES_WITH_FOLD_CHANGE_ABOVE_VALUE) != null)
+			row.add(getCount(GENES_WITH_FOLD_CHANGE_ABOVE_VALUE));
+
+		if (getCount(GENES_WITH_PREFILTER_P_VALUE_ABOVE_VALUE) != null)
+			row.add(getCount(GENES_WITH_PREFILTER_P_VALUE_ABOVE_VALUE));
+
+		if (getCount(GENES_WITH_PREFILTER_ADJUSTED_P_VALUE_ABOVE_VALUE) != null)
+			row.add(getCount(GENES_WITH_PREFILTER_ADJUSTED_P_VALUE_ABOVE_VALUE));
 
 		row.add(getGenesThatPassedAllFilters());
-		row.add(this.fishersA);
-		row.add(this.fishersB);
-		row.add(this.fishersC);
-		row.add(this.fishersD);
-		row.add(this.fishersExactLeftPValue);
-		row.add(this.fishersExactRightPValue);
-		row.add(this.fishersExactTwoTailPValue);
-
-		row.add(this.percentage);
+		row.add(getCount(FISHERS_A));
+		row.add(getCount(FISHERS_B));
+		row.add(getCount(FISHERS_C));
+		row.add(getCount(FISHERS_D));
+		row.add(getStatistic(FISHERS_EXACT_LEFT_P_VALUE));
+		row.add(getStatistic(FISHERS_EXACT_RIGHT_P_VALUE));
+		row.add(getStatistic(FISHERS_EXACT_TWO_TAIL_P_VALUE));
+
+		row.add(getStatistic(PERCENTAGE));
 		row.add(getGenesIds());
 		row.add(getGeneSymbolsPrivate());
 		row.add(getProbeIds());
@@ -1285,31 +1447,31 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 		if (genesWithConflictingProbeSets != null)
 			row.add(grabGenesWithConflictingProbeSets());
 
-		row.add(this.bmdMean);
-		row.add(this.bmdMedian);
-		row.add(this.bmdMinimum);
+		row.add(getStatistic(BMD_MEAN));
+		row.add(getStatistic(BMD_MEDIAN));
+		row.add(getStatistic(BMD_MINIMUM));
 		row.add(this.getBmdSD());
-		row.add(this.bmdWMean);
+		row.add(getStatistic(BMD_W_MEAN));
 		row.add(this.getBmdWSD());
 
-		row.add(this.bmdlMean);
-		row.add(this.bmdlMedian);
-		row.add(this.bmdlMinimum);
+		row.add(getStatistic(BMDL_MEAN));
+		row.add(getStatistic(BMDL_MEDIAN));
+		row.add(getStatistic(BMDL_MINIMUM));
 		row.add(this.getBmdlSD());
-		row.add(this.bmdlWMean);
+		row.add(getStatistic(BMDL_W_MEAN));
 		row.add(this.getBmdlWSD());
 
-		row.add(this.bmduMean);
-		row.add(this.bmduMedian);
-		row.add(this.bmduMinimum);
+		row.add(getStatistic(BMDU_MEAN));
+		row.add(getStatistic(BMDU_MEDIAN));
+		row.add(getStatistic(BMDU_MINIMUM));
 		row.add(this.getBmduSD());
-		row.add(this.bmduWMean);
+		row.add(getStatistic(BMDU_W_MEAN));
 		row.add(this.getBmduWSD());
 
-		row.add(this.fifthPercentileIndex);
-		row.add(this.bmdFifthPercentileTotalGenes);
-		row.add(this.tenthPercentileIndex);
-		row.add(this.bmdTenthPercentileTotalGenes);
+		row.add(getStatistic(FIFTH_PERCENTILE_INDEX));
+		row.add(getStatistic(BMD_FIFTH_PERCENTILE_TOTAL_GENES));
+		row.add(getStatistic(TENTH_PERCENTILE_INDEX));
+		row.add(getStatistic(BMD_TENTH_PERCENTILE_TOTAL_GENES));
 
 		row.add(getBMDList());
 		row.add(getBMDLList());
@@ -1321,14 +1483,14 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 		row.add(getGenesAdverseUpCount());
 		row.add(getGenesUp());
 		row.add(getProbesUp());
-		row.add(this.genesUpBMDMean);
-		row.add(this.genesUpBMDMedian);
+		row.add(getStatistic(GENES_UP_BMD_MEAN));
+		row.add(getStatistic(GENES_UP_BMD_MEDIAN));
 		row.add(this.getGenesUpBMDSD());
-		row.add(this.genesUpBMDLMean);
-		row.add(this.genesUpBMDLMedian);
+		row.add(getStatistic(GENES_UP_BMDL_MEAN));
+		row.add(getStatistic(GENES_UP_BMDL_MEDIAN));
 		row.add(this.getGenesUpBMDLSD());
-		row.add(this.genesUpBMDUMean);
-		row.add(this.genesUpBMDUMedian);
+		row.add(getStatistic(GENES_UP_BMDU_MEAN));
+		row.add(getStatistic(GENES_UP_BMDU_MEDIAN));
 		row.add(this.getGenesUpBMDUSD());
 		row.add(getBMDUp());
 		row.add(getBMDLUp());
@@ -1337,14 +1499,14 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 		row.add(getGenesAdverseDownCount());
 		row.add(getGenesDown());
 		row.add(getProbesDown());
-		row.add((this.genesDownBMDMean));
-		row.add((this.genesDownBMDMedian));
+		row.add((getStatistic(GENES_DOWN_BMD_MEAN)));
+		row.add((getStatistic(GENES_DOWN_BMD_MEDIAN)));
 		row.add((this.getGenesDownBMDSD()));
-		row.add((this.genesDownBMDLMean));
-		row.add((this.genesDownBMDLMedian));
+		row.add((getStatistic(GENES_DOWN_BMDL_MEAN)));
+		row.add((getStatistic(GENES_DOWN_BMDL_MEDIAN)));
 		row.add((this.getGenesDownBMDLSD()));
-		row.add((this.genesDownBMDUMean));
-		row.add((this.genesDownBMDUMedian));
+		row.add((getStatistic(GENES_DOWN_BMDU_MEAN)));
+		row.add((getStatistic(GENES_DOWN_BMDU_MEDIAN)));
 		row.add((this.getGenesDownBMDUSD()));
 		row.add(getBMDDown());
 		row.add(getBMDLDown());
@@ -1416,15 +1578,19 @@ public abstract class CategoryAnalysisResult extends BMDExpressAnalysisRow
 		row.add(this.percentWithOverallDirectionConflict);
 
 		calculate5and10Percentiles();
+
+		// the row holds the strings now, don't keep the buffer of the longest one around.
+		stringBuffer = null;
 	}
 
 	public void setGenesThatPassedAllFilters(Integer number)
 	{
-		genesThatPassedAllFilters = number;
+		setStatistic(GENES_THAT_PASSED_ALL_FILTERS, number);
 	}
 
 	public Integer getGenesThatPassedAllFilters()
 	{
+		Integer genesThatPassedAllFilters = getCount(GENES_THAT_PASSED_ALL_FILTERS);
 
 		if (genesThatPassedAllFilters != null)
 			return genesThatPassedAllFilters;
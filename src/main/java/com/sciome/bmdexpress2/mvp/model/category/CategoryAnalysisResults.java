@@ -6,8 +6,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -16,7 +18,9 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo.Id;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisDataSet;
 import com.sciome.bmdexpress2.mvp.model.info.AnalysisInfo;
+import com.sciome.bmdexpress2.mvp.model.refgene.ReferenceGene;
 import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
+import com.sciome.bmdexpress2.mvp.model.stat.ProbeStatResult;
 
 @JsonTypeInfo(use = Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "@type")
 @JsonIdentityInfo(generator = ObjectIdGenerators.IntSequenceGenerator.class, property = "@ref")
@@ -348,4 +352,58 @@ public class CategoryAnalysisResults extends BMDExpressAnalysisDataSet implement
 		this.categoryAnalsyisResults = deDupList;
 	}
 
+	/*
+	 * a gene is in many categories and every category gets its own ReferenceGeneProbeStatResult for it, with
+	 * the same probes and direction. Let the categories share one, so it is held and written once.
+	 */
+	public void shareReferenceGeneProbeStatResults()
+	{
+		if (categoryAnalsyisResults == null)
+			return;
+
+		Map<ReferenceGene, List<ReferenceGeneProbeStatResult>> shared = new IdentityHashMap<>();
+		for (CategoryAnalysisResult catResult : categoryAnalsyisResults)
+		{
+			List<ReferenceGeneProbeStatResult> refGeneProbeStatResults = catResult
+					.getReferenceGeneProbeStatResults();
+			if (refGeneProbeStatResults == null)
+				continue;
+			for (int i = 0; i < refGeneProbeStatResults.size(); i++)
+			{
+				ReferenceGeneProbeStatResult result = refGeneProbeStatResults.get(i);
+				if (result == null || result.getReferenceGene() == null)
+					continue;
+				List<ReferenceGeneProbeStatResult> candidates = shared.computeIfAbsent(result.getReferenceGene(),
+						k -> new ArrayList<>());
+				ReferenceGeneProbeStatResult same = null;
+				for (ReferenceGeneProbeStatResult candidate : candidates)
+					if (isSame(candidate, result))
+						same = candidate;
+				if (same == null)
+					candidates.add(result);
+				else
+					refGeneProbeStatResults.set(i, same);
+			}
+		}
+	}
+
+	private static boolean isSame(ReferenceGeneProbeStatResult a, ReferenceGeneProbeStatResult b)
+	{
+		if (a == b)
+			return true;
+		if (a.getAdverseDirection() != b.getAdverseDirection()
+				|| !Objects.equals(a.getConflictMinCorrelation(), b.getConflictMinCorrelation()))
+			return false;
+		List<ProbeStatResult> aProbes = a.getProbeStatResults();
+		List<ProbeStatResult> bProbes = b.getProbeStatResults();
+		if (aProbes == null || bProbes == null)
+			return aProbes == bProbes;
+		if (aProbes.size() != bProbes.size())
+			return false;
+		for (int i = 0; i < aProbes.size(); i++)
+			if (aProbes.get(i) != bProbes.get(i))
+				return false;
+		return true;
+	}
+
 }
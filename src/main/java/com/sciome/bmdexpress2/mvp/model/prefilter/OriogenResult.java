@@ -150,28 +150,21 @@ public class OriogenResult extends BMDExpressAnalysisRow implements Serializable
 
 		ReferenceGeneAnnotation refGeneAnnotation = referenceGeneAnnotations
 				.get(probeResponse.getProbe().getId());
-		StringBuffer geneSymbols = new StringBuffer();
-		StringBuffer genes = new StringBuffer();
+		String genes = "";
+		String geneSymbols = "";
 		if (refGeneAnnotation != null)
 		{
-			// get the genes and symboles
+			// the annotation joins its genes and symbols once for every result that shows them
+			genes = refGeneAnnotation.getGeneIdsText();
+			geneSymbols = refGeneAnnotation.getGeneSymbolsText();
 			for (ReferenceGene refGene : refGeneAnnotation.getReferenceGenes())
-			{
-				if (genes.length() > 0)
-				{
-					genes.append(";");
-					geneSymbols.append(";");
-				}
-				genes.append(refGene.getId());
-				geneSymbols.append(refGene.getGeneSymbol());
 				geneSymbolSet.add(refGene.getGeneSymbol());
-			}
 		}
 
-		this.genes = genes.toString();
-		this.geneSymbols = geneSymbols.toString();
-		row.add(genes.toString());
-		row.add(geneSymbols.toString());
+		this.genes = genes;
+		this.geneSymbols = geneSymbols;
+		row.add(genes);
+		row.add(geneSymbols);
 
 		row.add((pValue));
 		row.add((adjustedPValue));
@@ -3,8 +3,11 @@ package com.sciome.bmdexpress2.mvp.model.probe;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -25,18 +28,20 @@ public class ProbeResponse extends BMDExpressAnalysisRow implements Serializable
 
 	private Probe						probe;
 
-	// this is what gets filled with data after deserialization
-	// serializing large lists of responses takes too long which is why
-	// I opted to seralize a byte[] blob instead
+	// a List<Float> view of the responses. It is only created when someone asks for it and does not hold
+	// boxed values.
 	private transient List<Float>		responses;
 
 	// This is what gets persisted because serializing a big list of floats ain't pretty.
+	// It is only filled in while the object is being written.
 	private byte[]						responsesBlob;
 
-	// This array is used for efficiency purposes. Each time a method
-	// needs an array of floats, rather than converting a list to array per call
-	// I'm opting to have the array ready to go up front. uses a more memory, but faster.
-	private transient float[]			responseArray;
+	// The responses live in a primitive array which is usually the row major response matrix owned by the
+	// DoseResponseExperiment. This probe's values are responseMatrix[responseOffset ... responseOffset +
+	// responseCount).
+	private transient float[]			responseMatrix;
+	private transient int				responseOffset;
+	private transient int				responseCount;
 
 	// row data for the table view.
 	@JsonIgnore
@@ -67,62 +72,147 @@ public class ProbeResponse extends BMDExpressAnalysisRow implements Serializable
 
 	public List<Float> getResponses()
 	{
+		if (responses == null && responseMatrix != null)
+			responses = new ResponseList();
 		return responses;
 	}
 
 	public void setResponses(List<Float> responses)
 	{
-		this.responses = responses;
-		// let's store an array so that it is quicker to get this data when needed by bmds models.
-		responseArray = new float[responses.size()];
+		float[] values = new float[responses.size()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = responses.get(i);
+		setResponseArray(values);
+	}
 
-		// while we are at it put these into the byte array for serialization
-		ByteBuffer byteBuffer = ByteBuffer.allocate(Float.BYTES * responses.size());
+	/*
+	 * set the responses straight from a primitive array. The array is kept as is (not copied).
+	 */
+	@JsonIgnore
+	public void setResponseArray(float[] responseArray)
+	{
+		bindResponses(responseArray, 0, responseArray.length);
+	}
 
-		for (int i = 0; i < responses.size(); i++)
-		{
-			responseArray[i] = responses.get(i);
-			byteBuffer.putFloat(i * Float.BYTES, responses.get(i));
-		}
-		responsesBlob = byteBuffer.array();
+	/*
+	 * make this probe a view of count values starting at offset in the given matrix.
+	 */
+	@JsonIgnore
+	public void bindResponses(float[] matrix, int offset, int count)
+	{
+		this.responseMatrix = matrix;
+		this.responseOffset = offset;
+		this.responseCount = count;
+		this.row = null;
 	}
 
 	@JsonIgnore
-	public byte[] getResponsesBlob()
+	public int getResponseCount()
 	{
-		return responsesBlob;
+		return responseCount;
 	}
 
-	public void setResponsesBlob(byte[] responsesBlob)
+	public float getResponse(int index)
+	{
+		if (index < 0 || index >= responseCount)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + responseCount);
+		return responseMatrix[responseOffset + index];
+	}
+
+	/*
+	 * copy the responses into dest starting at destOffset.
+	 */
+	public void copyResponses(float[] dest, int destOffset)
 	{
-		this.responsesBlob = responsesBlob;
+		System.arraycopy(responseMatrix, responseOffset, dest, destOffset, responseCount);
+	}
+
+	/*
+	 * copy the responses into dest and return it. dest is only replaced by a new array when it is null or
+	 * not the number of responses long, so a loop over the probes can keep passing back the array it got
+	 * and only allocates once.
+	 */
+	public float[] copyResponsesInto(float[] dest)
+	{
+		if (dest == null || dest.length != responseCount)
+			dest = new float[responseCount];
+		copyResponses(dest, 0);
+		return dest;
 	}
 
 	@JsonIgnore
-	public float[] getResponseArray()
+	public float[] getResponseMatrix()
 	{
-		return responseArray;
+		return responseMatrix;
+	}
+
+	@JsonIgnore
+	public int getResponseOffset()
+	{
+		return responseOffset;
 	}
 
 	/*
-	 * deserializing this object requires translating the byte array into a list of doses.
+	 * The responses as their own array. When this probe is a view into a shared matrix this is a copy, so
+	 * loops over the probes should use getResponse(int) or copyResponsesInto instead. Do not modify the
+	 * array.
 	 */
-	private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException
+	@JsonIgnore
+	public float[] getResponseArray()
 	{
-		// read the object so that the responsesBlob gets filled up
-		in.defaultReadObject();
+		if (responseMatrix == null)
+			return null;
+		if (responseOffset == 0 && responseMatrix.length == responseCount)
+			return responseMatrix;
+		return Arrays.copyOfRange(responseMatrix, responseOffset, responseOffset + responseCount);
+	}
 
-		// now let's populate the responseArray and responseBuffer with the data.
-		responses = new ArrayList<>();
+	@JsonIgnore
+	public byte[] getResponsesBlob()
+	{
+		if (responseMatrix == null)
+			return null;
+		ByteBuffer byteBuffer = ByteBuffer.allocate(Float.BYTES * responseCount);
+		for (int i = 0; i < responseCount; i++)
+			byteBuffer.putFloat(i * Float.BYTES, responseMatrix[responseOffset + i]);
+		return byteBuffer.array();
+	}
+
+	public void setResponsesBlob(byte[] responsesBlob)
+	{
 		ByteBuffer byteBuffer = ByteBuffer.wrap(responsesBlob);
-		responseArray = new float[responsesBlob.length / 4];
-		for (int i = 0; i < responsesBlob.length; i += Float.BYTES)
+		float[] values = new float[responsesBlob.length / Float.BYTES];
+		for (int i = 0; i < values.length; i++)
+			values[i] = byteBuffer.getFloat(i * Float.BYTES);
+		setResponseArray(values);
+	}
+
+	/*
+	 * the blob only exists while this object is being written.
+	 */
+	private void writeObject(java.io.ObjectOutputStream out) throws IOException
+	{
+		responsesBlob = getResponsesBlob();
+		try
 		{
-			Float response = byteBuffer.getFloat(i);
-			responses.add(response);
-			responseArray[i / 4] = response;
+			out.defaultWriteObject();
 		}
+		finally
+		{
+			responsesBlob = null;
+		}
+	}
 
+	/*
+	 * deserializing this object requires translating the byte array into the response array.
+	 */
+	private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		// read the object so that the responsesBlob gets filled up
+		in.defaultReadObject();
+
+		setResponsesBlob(responsesBlob);
+		responsesBlob = null;
 	}
 
 	@Override
@@ -147,9 +237,9 @@ public class ProbeResponse extends BMDExpressAnalysisRow implements Serializable
 
 		row.add(getProbe().getId());
 
-		for (Float response : responses)
+		for (int i = 0; i < responseCount; i++)
 		{
-			row.add(response);
+			row.add(responseMatrix[responseOffset + i]);
 		}
 
 	}
@@ -166,4 +256,22 @@ public class ProbeResponse extends BMDExpressAnalysisRow implements Serializable
 		return this;
 	}
 
+	/*
+	 * read only List<Float> adapter over the primitive responses.
+	 */
+	private class ResponseList extends AbstractList<Float> implements RandomAccess
+	{
+		@Override
+		public Float get(int index)
+		{
+			return getResponse(index);
+		}
+
+		@Override
+		public int size()
+		{
+			return responseCount;
+		}
+	}
+
 }
@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonTypeInfo.Id;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
@@ -22,6 +23,11 @@ public class ReferenceGeneAnnotation implements Serializable
 	private Probe				probe;
 	private List<ReferenceGene>	referenceGenes;
 
+	// the genes and symbols joined by ";" as the result tables show them. Annotations are shared by the
+	// experiments on a platform, so every row of every analysis uses the same strings.
+	private transient String	geneIdsText;
+	private transient String	geneSymbolsText;
+
 	public Probe getProbe()
 	{
 		return probe;
@@ -40,6 +46,45 @@ public class ReferenceGeneAnnotation implements Serializable
 	public void setReferenceGenes(List<ReferenceGene> referenceGenes)
 	{
 		this.referenceGenes = referenceGenes;
+		geneIdsText = null;
+		geneSymbolsText = null;
+	}
+
+	@JsonIgnore
+	public String getGeneIdsText()
+	{
+		if (geneIdsText == null)
+			joinGenes();
+		return geneIdsText;
+	}
+
+	@JsonIgnore
+	public String getGeneSymbolsText()
+	{
+		if (geneSymbolsText == null)
+			joinGenes();
+		return geneSymbolsText;
+	}
+
+	private void joinGenes()
+	{
+		StringBuilder geneIds = new StringBuilder();
+		StringBuilder geneSymbols = new StringBuilder();
+		if (referenceGenes != null)
+		{
+			for (ReferenceGene refGene : referenceGenes)
+			{
+				if (geneIds.length() > 0)
+				{
+					geneIds.append(";");
+					geneSymbols.append(";");
+				}
+				geneIds.append(refGene.getId());
+				geneSymbols.append(refGene.getGeneSymbol());
+			}
+		}
+		geneSymbolsText = geneSymbols.toString();
+		geneIdsText = geneIds.toString();
 	}
 
 }
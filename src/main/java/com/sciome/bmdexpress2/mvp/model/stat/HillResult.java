@@ -19,6 +19,22 @@ public class HillResult extends StatResult
 		super();
 	}
 
+	// copy a hill result so its bmds can be modified without touching the original.
+	public HillResult(HillResult hillResult)
+	{
+		super();
+		setBMD(hillResult.getBMD());
+		setBMDL(hillResult.getBMDL());
+		setBMDU(hillResult.getBMDU());
+		setFitPValue(hillResult.getFitPValue());
+		setFitLogLikelihood(hillResult.getFitLogLikelihood());
+		setAIC(hillResult.getAIC());
+		setAdverseDirection(hillResult.getAdverseDirection());
+		setCurveParameters(hillResult.getCurveParameters());
+		setSuccess(hillResult.getSuccess());
+		setkFlag(hillResult.getkFlag());
+	}
+
 	public short getkFlag()
 	{
 		return kFlag;
@@ -147,28 +147,23 @@ public class ProbeStatResult extends BMDExpressAnalysisRow implements Serializab
 		ReferenceGeneAnnotation refGeneAnnotation = referenceGeneAnnotations
 				.get(probeResponse.getProbe().getId());
 
-		StringBuffer geneSymbols = new StringBuffer();
-		StringBuffer genes = new StringBuffer();
+		String genes = "";
+		String geneSymbols = "";
 		if (refGeneAnnotation != null)
 		{
-			// get the genes and symboles
+			// the annotation joins its genes and symbols once for every result that shows them
+			genes = refGeneAnnotation.getGeneIdsText();
+			geneSymbols = refGeneAnnotation.getGeneSymbolsText();
 			for (ReferenceGene refGene : refGeneAnnotation.getReferenceGenes())
 			{
-				if (genes.length() > 0)
-				{
-					genes.append(";");
-					geneSymbols.append(";");
-				}
-				genes.append(refGene.getId());
-				geneSymbols.append(refGene.getGeneSymbol());
 				geneSet.add(refGene.getId());
 				geneSymbolSet.add(refGene.getGeneSymbol());
 			}
 		}
-		row.add(genes.toString());
-		row.add(geneSymbols.toString());
-		this.genes = genes.toString();
-		this.geneSymbols = geneSymbols.toString();
+		row.add(genes);
+		row.add(geneSymbols);
+		this.genes = genes;
+		this.geneSymbols = geneSymbols;
 		for (StatResult statResult : statResults)
 		{
 			row.addAll(statResult.getRow());
@@ -1,13 +1,17 @@
 package com.sciome.bmdexpress2.mvp.presenter.annotation;
 
+import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.sciome.bmdexpress2.mvp.model.chip.ChipInfo;
 import com.sciome.bmdexpress2.mvp.presenter.presenterbases.PresenterBase;
 import com.sciome.bmdexpress2.mvp.viewinterface.annotation.IAnnotationUpdateView;
+import com.sciome.bmdexpress2.shared.BMDExpressConstants;
 import com.sciome.bmdexpress2.shared.BMDExpressProperties;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
+import com.sciome.bmdexpress2.util.annotation.AnnotationSync;
 import com.sciome.bmdexpress2.util.annotation.HttpUpdateWork;
 
 import javafx.application.Platform;
@@ -41,11 +45,15 @@ public class AnnotationUpdatePresenter extends PresenterBase<IAnnotationUpdateVi
 			{
 
 				httpUpdateWork.doInBackground();
+				AnnotationSync.SyncReport geneOntologyReport = httpUpdateWork.getGeneOntologyReport();
 
 				Platform.runLater(() ->
 				{
 					chipHash = httpUpdateWork.getChipsHash();
 					getView().updateTableView(httpUpdateWork.getTableData());
+					if (geneOntologyReport.count(AnnotationSync.Status.FAILED) > 0)
+						getView().showUpdateReport("The Gene Ontology annotations could not be updated.",
+								geneOntologyReport.getFailures());
 				});
 
 				return 0;
@@ -58,18 +66,18 @@ public class AnnotationUpdatePresenter extends PresenterBase<IAnnotationUpdateVi
 
 	public void processUpdate(List<Object[]> tableData)
 	{
-		int updateCount = 0;
+		List<String[]> chips = new ArrayList<>();
 		for (int i = 0; i < tableData.size(); i++)
 		{
 			if (((SimpleBooleanProperty) tableData.get(i)[0]).getValue())
 			{
-				updateCount++;
+				chips.add(new String[] { (String) tableData.get(i)[1], (String) tableData.get(i)[3] });
 			}
 		}
-		if (updateCount == 0)
+		if (chips.size() == 0)
 			return;
 
-		final int finalUpdateCount = updateCount;
+		final int fileCount = chips.size() * BMDExpressConstants.getInstance().ANNOTFILES.length;
 
 		Task<Integer> task = new Task<Integer>() {
 			@Override
@@ -80,28 +88,21 @@ public class AnnotationUpdatePresenter extends PresenterBase<IAnnotationUpdateVi
 					getView().beginUpdateProgress();
 				});
 
-				int count = 1;
-				for (int i = 0; i < tableData.size(); i++)
+				// the files of all chips are downloaded at once, progress is counted per file
+				AtomicInteger count = new AtomicInteger();
+				AnnotationSync.SyncReport report = httpUpdateWork.processUpdates(chips, result ->
 				{
-					if (((SimpleBooleanProperty) tableData.get(i)[0]).getValue())
+					final int currentCount = count.incrementAndGet();
+					Platform.runLater(() ->
 					{
-						final int currentRow = i;
-						final int currentCount = count;
-
-						Platform.runLater(() ->
-						{
-							getView().updateProgress("Downloading: " + (String) tableData.get(currentRow)[1],
-									(double) currentCount / (double) finalUpdateCount);
-						});
-						httpUpdateWork.processUpdate((String) tableData.get(i)[1],
-								(String) tableData.get(i)[3]);
-						count++;
-					}
-
-				}
+						getView().updateProgress("Downloading: " + result.getRelativePath(),
+								(double) currentCount / (double) fileCount);
+					});
+				});
 
 				Platform.runLater(() ->
 				{
+					getView().showUpdateReport(report.toString(), report.getFailures());
 					getView().finishUpdate();
 				});
 				return 0;
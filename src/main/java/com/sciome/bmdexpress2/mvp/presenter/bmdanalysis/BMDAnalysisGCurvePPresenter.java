@@ -7,6 +7,7 @@ import com.sciome.bmdexpress2.mvp.model.IStatModelProcessable;
 import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
 import com.sciome.bmdexpress2.mvp.presenter.presenterbases.ServicePresenterBase;
 import com.sciome.bmdexpress2.mvp.viewinterface.bmdanalysis.IBMDAnalysisGCurvePView;
+import com.sciome.bmdexpress2.service.BMDAnalysisService;
 import com.sciome.bmdexpress2.serviceInterface.IBMDAnalysisService;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
 import com.sciome.bmdexpress2.shared.eventbus.analysis.BMDAnalysisDataLoadedEvent;
@@ -14,20 +15,22 @@ import com.sciome.bmdexpress2.shared.eventbus.project.BMDProjectLoadedEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.CloseProjectRequestEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.ShowErrorEvent;
 import com.sciome.bmdexpress2.util.bmds.BMDSTool;
-import com.sciome.bmdexpress2.util.bmds.IBMDSToolProgress;
 import com.sciome.bmdexpress2.util.curvep.GCurvePInputParameters;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJob;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJobGroup;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJobProgress;
 
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 
 public class BMDAnalysisGCurvePPresenter extends
-		ServicePresenterBase<IBMDAnalysisGCurvePView, IBMDAnalysisService> implements IBMDSToolProgress
+		ServicePresenterBase<IBMDAnalysisGCurvePView, IBMDAnalysisService>
+		implements AnalysisJobGroup.GroupListener
 {
 
 	BMDSTool							bMDSTool;
 
 	private List<IStatModelProcessable>	processableDatas;
-	private boolean						cancel	= false;
+	private AnalysisJobGroup			jobGroup;
 	/*
 	 * Constructors
 	 */
@@ -53,107 +56,102 @@ public class BMDAnalysisGCurvePPresenter extends
 
 	}
 
+	/*
+	 * every data set is a single threaded job on the analysis job scheduler.
+	 */
 	@SuppressWarnings("restriction")
 	public void performBMDAnalysisGCurveP(GCurvePInputParameters inputParameters)
 	{
-		cancel = false;
-
-		// send this to the bmdanalysis tool so some progress can be updated.
-		IBMDSToolProgress me = this;
-
-		Task<Integer> task = new Task<Integer>() {
-			@Override
-			protected Integer call() throws Exception
+		jobGroup = new AnalysisJobGroup(this);
+		for (IStatModelProcessable processableData : processableDatas)
+		{
+			IBMDAnalysisService service = new BMDAnalysisService();
+			AnalysisJob job = new AnalysisJob("GCurveP", processableData.getDataSetName(), 1, j ->
 			{
-				for (IStatModelProcessable processableData : processableDatas)
-				{
-					if (cancel)
-						continue;
-					try
-					{
-						BMDResult bMDResults = getService().bmdAnalysisGCurveP(processableData,
-								inputParameters, me);
-
-						// post a the new result set to the event bus
-
-						Platform.runLater(() ->
-						{
-
-							getView().finishedBMDAnalysis();
-							if (bMDResults != null)
-							{
-
-								getEventBus().post(new BMDAnalysisDataLoadedEvent(bMDResults));
-
-							}
+				BMDResult bMDResults = service.bmdAnalysisGCurveP(processableData, inputParameters,
+						new AnalysisJobProgress(j, jobGroup));
 
-						});
-					}
-					catch (Exception exception)
+				// post a the new result set to the event bus
+				if (bMDResults != null && !j.isCancelled())
+				{
+					Platform.runLater(() ->
 					{
-						Platform.runLater(() ->
-						{
-							BMDAnalysisGCurvePPresenter.this.getEventBus()
-									.post(new ShowErrorEvent(exception.toString()));
-
-						});
-						exception.printStackTrace();
-					}
+						getEventBus().post(new BMDAnalysisDataLoadedEvent(bMDResults));
+					});
 				}
-				Platform.runLater(() ->
-				{
-					getView().closeWindow();
-				});
-				return 0;
-			}
-		};
+			}, service::cancel);
+			jobGroup.add(job);
+		}
 
 		getView().startedBMDAnalysis();
-		new Thread(task).start();
+		jobGroup.submit();
 
 	}
 
 	@SuppressWarnings("restriction")
 	@Override
-	public void updateProgress(String label, double value)
+	public void progressChanged(int done, int total, double progress)
 	{
+		// a single data set shows the label of the tool instead, see messageChanged
+		if (total == 1)
+			return;
 		Platform.runLater(() ->
 		{
-			getView().updateProgressBar(label, value);
+			getView().updateProgressBar(done + "/" + total + " data sets done", progress);
 
 		});
 
 	}
 
-	public boolean cancel()
+	@SuppressWarnings("restriction")
+	@Override
+	public void messageChanged(AnalysisJob job, String message)
 	{
-		cancel = true;
-		return getService().cancel();
-
+		// a single data set shows what the tool is doing, several show how many are done.
+		if (jobGroup != null && jobGroup.getJobs().size() == 1)
+		{
+			Platform.runLater(() ->
+			{
+				getView().updateProgressBar(message, job.getProgress());
+			});
+		}
 	}
 
 	@SuppressWarnings("restriction")
 	@Override
-	public void clearProgress()
+	public void allDone(AnalysisJobGroup group)
 	{
 		Platform.runLater(() ->
 		{
+			for (AnalysisJob job : group.getJobs())
+				if (job.getError() != null)
+					getEventBus().post(new ShowErrorEvent(job.getError().toString()));
+			getView().finishedBMDAnalysis();
 			getView().clearProgressBar();
+			getView().closeWindow();
 		});
+	}
+
+	public boolean cancel()
+	{
+		if (jobGroup == null)
+			return false;
+		jobGroup.cancel();
+		return true;
 
 	}
 
 	@Subscribe
 	public void onProjectLoadedEvent(BMDProjectLoadedEvent event)
 	{
-		getService().cancel();
+		cancel();
 		getView().closeWindow();
 	}
 
 	@Subscribe
 	public void onProjectClosedEvent(CloseProjectRequestEvent event)
 	{
-		getService().cancel();
+		cancel();
 		getView().closeWindow();
 	}
 }
@@ -1,45 +1,34 @@
 package com.sciome.bmdexpress2.mvp.presenter.bmdanalysis;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.google.common.eventbus.Subscribe;
 import com.sciome.bmdexpress2.mvp.model.IStatModelProcessable;
 import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
-import com.sciome.bmdexpress2.mvp.model.stat.ExponentialResult;
-import com.sciome.bmdexpress2.mvp.model.stat.HillResult;
-import com.sciome.bmdexpress2.mvp.model.stat.PolyResult;
-import com.sciome.bmdexpress2.mvp.model.stat.PowerResult;
-import com.sciome.bmdexpress2.mvp.model.stat.StatResult;
 import com.sciome.bmdexpress2.mvp.presenter.presenterbases.ServicePresenterBase;
 import com.sciome.bmdexpress2.mvp.viewinterface.bmdanalysis.IBMDAnalysisView;
+import com.sciome.bmdexpress2.service.BMDAnalysisService;
 import com.sciome.bmdexpress2.serviceInterface.IBMDAnalysisService;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
 import com.sciome.bmdexpress2.shared.eventbus.analysis.BMDAnalysisDataLoadedEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.BMDProjectLoadedEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.CloseProjectRequestEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.ShowErrorEvent;
-import com.sciome.bmdexpress2.util.bmds.BMDSTool;
-import com.sciome.bmdexpress2.util.bmds.IBMDSToolProgress;
 import com.sciome.bmdexpress2.util.bmds.ModelInputParameters;
 import com.sciome.bmdexpress2.util.bmds.ModelSelectionParameters;
-import com.sciome.bmdexpress2.util.bmds.shared.ExponentialModel;
-import com.sciome.bmdexpress2.util.bmds.shared.HillModel;
-import com.sciome.bmdexpress2.util.bmds.shared.PolyModel;
-import com.sciome.bmdexpress2.util.bmds.shared.PowerModel;
 import com.sciome.bmdexpress2.util.bmds.shared.StatModel;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJob;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJobGroup;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJobProgress;
 
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 
 public class BMDAnalysisPresenter extends ServicePresenterBase<IBMDAnalysisView, IBMDAnalysisService>
-		implements IBMDSToolProgress
+		implements AnalysisJobGroup.GroupListener
 {
 
-	BMDSTool							bMDSTool;
-
 	private List<IStatModelProcessable>	processableDatas;
-	private boolean						cancel	= false;
+	private AnalysisJobGroup			jobGroup;
 	/*
 	 * Constructors
 	 */
@@ -65,64 +54,42 @@ public class BMDAnalysisPresenter extends ServicePresenterBase<IBMDAnalysisView,
 
 	}
 
+	/*
+	 * every data set is a job on the analysis job scheduler, so a multi data set selection runs side by
+	 * side as far as the cpu budget allows. A job costs the number of fit threads.
+	 */
 	@SuppressWarnings("restriction")
 	public void performBMDAnalysis(ModelInputParameters inputParameters,
 			ModelSelectionParameters modelSelectionParameters, List<StatModel> modelsToRun)
 	{
-		cancel = false;
-
-		// send this to the bmdanalysis tool so some progress can be updated.
-		IBMDSToolProgress me = this;
-
-		Task<Integer> task = new Task<Integer>() {
-			@Override
-			protected Integer call() throws Exception
-			{
-				for (IStatModelProcessable processableData : processableDatas)
-				{
-					if (cancel)
-						continue;
-					try
+		jobGroup = new AnalysisJobGroup(this);
+		for (IStatModelProcessable processableData : processableDatas)
+		{
+			// the service and the input parameters keep the state of the data set being analyzed, so each
+			// job gets its own.
+			IBMDAnalysisService service = new BMDAnalysisService();
+			ModelInputParameters jobInputParameters = inputParameters.copy();
+			AnalysisJob job = new AnalysisJob("BMD Analysis", processableData.getDataSetName(),
+					inputParameters.getNumThreads(), j ->
 					{
-						BMDResult bMDResults = getService().bmdAnalysis(processableData, inputParameters,
-								modelSelectionParameters, modelsToRun, null, me);
+						BMDResult bMDResults = service.bmdAnalysis(processableData, jobInputParameters,
+								modelSelectionParameters, modelsToRun, null,
+								new AnalysisJobProgress(j, jobGroup));
 
 						// post a the new result set to the event bus
-
-						Platform.runLater(() ->
+						if (bMDResults != null && !j.isCancelled())
 						{
-
-							getView().finishedBMDAnalysis();
-							if (bMDResults != null)
+							Platform.runLater(() ->
 							{
-
 								getEventBus().post(new BMDAnalysisDataLoadedEvent(bMDResults));
-
-							}
-
-						});
-					}
-					catch (Exception exception)
-					{
-						Platform.runLater(() ->
-						{
-							BMDAnalysisPresenter.this.getEventBus()
-									.post(new ShowErrorEvent(exception.toString()));
-
-						});
-						exception.printStackTrace();
-					}
-				}
-				Platform.runLater(() ->
-				{
-					getView().closeWindow();
-				});
-				return 0;
-			}
-		};
+							});
+						}
+					}, service::cancel);
+			jobGroup.add(job);
+		}
 
 		getView().startedBMDAnalysis();
-		new Thread(task).start();
+		jobGroup.submit();
 
 	}
 
@@ -130,40 +97,20 @@ public class BMDAnalysisPresenter extends ServicePresenterBase<IBMDAnalysisView,
 			ModelSelectionParameters modelSelectionParameters)
 	{
 
-		// hill model is what this is for.
 		for (IStatModelProcessable processableData : processableDatas)
 		{
-			List<StatModel> modelsToRun = new ArrayList<>();
-			BMDResult bmdResult = new BMDResult((BMDResult) processableData);
-
-			for (StatResult statResult : bmdResult.getProbeStatResults().get(0).getStatResults())
+			// nothing is refit. the new result shares the fitted models with the selected one.
+			BMDResult bmdResult;
+			try
 			{
-				StatModel statModel = null;
-				if (statResult instanceof HillResult)
-					statModel = new HillModel();
-				else if (statResult instanceof PolyResult)
-				{
-					PolyModel pm = new PolyModel();
-					pm.setDegree(((PolyResult) statResult).getDegree());
-					statModel = pm;
-				}
-				else if (statResult instanceof PowerResult)
-					statModel = new PowerModel();
-				else if (statResult instanceof ExponentialResult)
-				{
-					ExponentialModel em = new ExponentialModel();
-					em.setOption(((ExponentialResult) statResult).getOption());
-					statModel = em;
-				}
-				modelsToRun.add(statModel);
+				bmdResult = getService().reselectBestModels((BMDResult) processableData,
+						modelSelectionParameters);
+			}
+			catch (IllegalArgumentException e)
+			{
+				getEventBus().post(new ShowErrorEvent(e.getMessage()));
+				continue;
 			}
-			bMDSTool = new BMDSTool(processableData.getProcessableProbeResponses(),
-					processableData.getProcessableDoseResponseExperiment().getTreatments(), inputParameters,
-					modelSelectionParameters, modelsToRun, this, processableData, null);
-			((BMDResult) processableData).getAnalysisInfo().getNotes().add("Parameter Reselect");
-			// create a shallow clone of the bmdresult
-
-			bMDSTool.selectBestModels(bmdResult);
 
 			// refresh the tabular data inside of bmdresults
 			bmdResult.getColumnHeader();
@@ -176,45 +123,68 @@ public class BMDAnalysisPresenter extends ServicePresenterBase<IBMDAnalysisView,
 
 	@SuppressWarnings("restriction")
 	@Override
-	public void updateProgress(String label, double value)
+	public void progressChanged(int done, int total, double progress)
 	{
+		// a single data set shows the label of the tool instead, see messageChanged
+		if (total == 1)
+			return;
 		Platform.runLater(() ->
 		{
-			getView().updateProgressBar(label, value);
+			getView().updateProgressBar(done + "/" + total + " data sets done", progress);
 
 		});
 
 	}
 
-	public boolean cancel()
+	@SuppressWarnings("restriction")
+	@Override
+	public void messageChanged(AnalysisJob job, String message)
 	{
-		cancel = true;
-		return getService().cancel();
-
+		// a single data set shows what the tool is doing, several show how many are done.
+		if (jobGroup != null && jobGroup.getJobs().size() == 1)
+		{
+			Platform.runLater(() ->
+			{
+				getView().updateProgressBar(message, job.getProgress());
+			});
+		}
 	}
 
 	@SuppressWarnings("restriction")
 	@Override
-	public void clearProgress()
+	public void allDone(AnalysisJobGroup group)
 	{
 		Platform.runLater(() ->
 		{
+			for (AnalysisJob job : group.getJobs())
+				if (job.getError() != null)
+					getEventBus().post(new ShowErrorEvent(job.getError().toString()));
+			getView().finishedBMDAnalysis();
 			getView().clearProgressBar();
+			getView().closeWindow();
 		});
+	}
+
+	public boolean cancel()
+	{
+		if (jobGroup == null)
+			return false;
+		jobGroup.cancel();
+		return true;
 
 	}
 
 	@Subscribe
 	public void onProjectLoadedEvent(BMDProjectLoadedEvent event)
 	{
-		getService().cancel();
+		cancel();
 		getView().closeWindow();
 	}
 
 	@Subscribe
 	public void onProjectClosedEvent(CloseProjectRequestEvent event)
 	{
-		getService().cancel();
+		cancel();
 		getView().closeWindow();
 	}
 }
@@ -17,18 +17,22 @@ import com.sciome.bmdexpress2.shared.eventbus.project.ShowErrorEvent;
 import com.sciome.bmdexpress2.util.categoryanalysis.CategoryAnalysisParameters;
 import com.sciome.bmdexpress2.util.categoryanalysis.GeneLevelUtils;
 import com.sciome.bmdexpress2.util.categoryanalysis.ICategoryMapToolProgress;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJob;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJobGroup;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJobProgress;
 
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 
 public class CategorizationPresenter
 		extends ServicePresenterBase<ICategorizationView, ICategoryAnalysisService>
-		implements ICategoryMapToolProgress
+		implements ICategoryMapToolProgress, AnalysisJobGroup.GroupListener
 {
 	private List<BMDResult>			bmdResults;
 
 	private CategoryAnalysisEnum	catAnalysisEnum;
 
+	private AnalysisJobGroup		jobGroup;
+
 	/*
 	 * Constructors
 	 */
@@ -54,81 +58,71 @@ public class CategorizationPresenter
 
 	}
 
+	/*
+	 * the data sets run one after another in a single job on the analysis job scheduler. They can not run
+	 * side by side because the analyses fill in the shared parameters (the dose range, and the category files
+	 * for gene level).
+	 */
 	@SuppressWarnings("restriction")
 	public void startAnalyses(CategoryAnalysisParameters params)
 	{
-
-		// send this to the bmdanalysis tool so some progress can be updated.
-		ICategoryMapToolProgress me = this;
-
-		Task<Integer> task = new Task<Integer>() {
-			@Override
-			protected Integer call() throws Exception
+		jobGroup = new AnalysisJobGroup(this);
+		String name = bmdResults.size() == 1 ? bmdResults.get(0).getName() : bmdResults.size() + " data sets";
+		AnalysisJob job = new AnalysisJob("Category Analysis (" + catAnalysisEnum + ")", name, 1, j ->
+		{
+			// send this to the category map tool so some progress can be updated.
+			ICategoryMapToolProgress progress = new AnalysisJobProgress(j, jobGroup);
+			for (BMDResult bmdResult : bmdResults)
 			{
+				if (j.isCancelled())
+					break;
+
+				// for gene level analysis, just use the genes as categories
+				// basically recreate the defined pathway
+				if (catAnalysisEnum == CategoryAnalysisEnum.GENE_LEVEL)
+				{
+					params.setCategoryFileParameters(GeneLevelUtils
+							.getCategoryFileParameters(bmdResult.getDoseResponseExperiment()));
+					params.setProbeFileParameters(GeneLevelUtils
+							.getProbeFileParameters(bmdResult.getDoseResponseExperiment()));
+				}
+				Platform.runLater(() ->
+				{
+					getView().startedCategorization();
+				});
 				try
 				{
-					for (BMDResult bmdResult : bmdResults)
+					CategoryAnalysisResults categoryAnalysisResults = getService().categoryAnalysis(params,
+							bmdResult, catAnalysisEnum, progress);
+
+					Platform.runLater(() ->
 					{
 
-						// for gene level analysis, just use the genes as categories
-						// basically recreate the defined pathway
-						if (catAnalysisEnum == CategoryAnalysisEnum.GENE_LEVEL)
-						{
-							params.setCategoryFileParameters(GeneLevelUtils
-									.getCategoryFileParameters(bmdResult.getDoseResponseExperiment()));
-							params.setProbeFileParameters(GeneLevelUtils
-									.getProbeFileParameters(bmdResult.getDoseResponseExperiment()));
-						}
-						Platform.runLater(() ->
+						getView().finishedCategorization();
+						if (categoryAnalysisResults != null && !j.isCancelled())
 						{
-							getView().startedCategorization();
-						});
-						try
-						{
-							CategoryAnalysisResults categoryAnalysisResults = getService()
-									.categoryAnalysis(params, bmdResult, catAnalysisEnum, me);
-
-							Platform.runLater(() ->
-							{
-
-								getView().finishedCategorization();
-								if (categoryAnalysisResults != null)
-								{
 
-									getEventBus().post(
-											new CategoryAnalysisDataLoadedEvent(categoryAnalysisResults));
-
-								}
-
-							});
+							getEventBus().post(new CategoryAnalysisDataLoadedEvent(categoryAnalysisResults));
 
 						}
-						catch (Exception exception)
-						{
-							Platform.runLater(() ->
-							{
-								CategorizationPresenter.this.getEventBus().post(new ShowErrorEvent(
-										"Category Analysis Failure: " + exception.toString()));
-								getView().enableButtons();
-							});
-							exception.printStackTrace();
-						}
-					}
 
-					Platform.runLater(() ->
-					{
-						getView().closeWindow();
 					});
+
 				}
-				catch (Exception e)
+				catch (Exception exception)
 				{
-					e.printStackTrace();
+					Platform.runLater(() ->
+					{
+						CategorizationPresenter.this.getEventBus().post(
+								new ShowErrorEvent("Category Analysis Failure: " + exception.toString()));
+						getView().enableButtons();
+					});
+					exception.printStackTrace();
 				}
-				return 0;
 			}
-		};
-
-		new Thread(task).start();
+		}, null);
+		jobGroup.add(job);
+		jobGroup.submit();
 
 	}
 
@@ -143,6 +137,26 @@ public class CategorizationPresenter
 
 	}
 
+	@Override
+	public void progressChanged(int done, int total, double progress)
+	{
+	}
+
+	@Override
+	public void messageChanged(AnalysisJob job, String message)
+	{
+		updateProgress(message, job.getProgress());
+	}
+
+	@Override
+	public void allDone(AnalysisJobGroup group)
+	{
+		Platform.runLater(() ->
+		{
+			getView().closeWindow();
+		});
+	}
+
 	@Subscribe
 	public void onProjectLoadedEvent(BMDProjectLoadedEvent event)
 	{
@@ -829,9 +829,7 @@ public class ProjectNavigationPresenter
 		for (BMDExpressAnalysisDataSet item : selectedItems)
 			datasets.add(item);
 
-		CombinedDataSet combined = combinerService.combineBMDExpressAnalysisDataSets(datasets);
-
-		getService().exportBMDExpressAnalysisDataSet(combined, selectedFile);
+		getService().exportCombinedDataSets(datasets, selectedFile);
 
 	}
 
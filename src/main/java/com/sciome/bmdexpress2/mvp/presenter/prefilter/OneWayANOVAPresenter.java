@@ -1,6 +1,6 @@
 package com.sciome.bmdexpress2.mvp.presenter.prefilter;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.eventbus.Subscribe;
@@ -8,21 +8,24 @@ import com.sciome.bmdexpress2.mvp.model.IStatModelProcessable;
 import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResults;
 import com.sciome.bmdexpress2.mvp.presenter.presenterbases.ServicePresenterBase;
 import com.sciome.bmdexpress2.mvp.viewinterface.prefilter.IPrefilterView;
+import com.sciome.bmdexpress2.service.PrefilterService;
 import com.sciome.bmdexpress2.serviceInterface.IPrefilterService;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
 import com.sciome.bmdexpress2.shared.eventbus.analysis.OneWayANOVADataLoadedEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.BMDProjectLoadedEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.CloseProjectRequestEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.ShowErrorEvent;
-import com.sciome.commons.interfaces.SimpleProgressUpdater;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJob;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJobGroup;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJobProgress;
 
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 
 //Soure
-public class OneWayANOVAPresenter extends ServicePresenterBase<IPrefilterView, IPrefilterService>  implements SimpleProgressUpdater 
+public class OneWayANOVAPresenter extends ServicePresenterBase<IPrefilterView, IPrefilterService>  implements AnalysisJobGroup.GroupListener 
 {
 	private volatile boolean running = false;
+	private AnalysisJobGroup jobGroup;
 	
 	public OneWayANOVAPresenter(IPrefilterView view, IPrefilterService service, BMDExpressEventBus eventBus)
 	{
@@ -30,58 +33,39 @@ public class OneWayANOVAPresenter extends ServicePresenterBase<IPrefilterView, I
 	}
 
 	/*
-	 * Do multiple one way anova filter calculations
+	 * Do multiple one way anova filter calculations. Every data set is its own job on the analysis job
+	 * scheduler, so they run side by side as far as the cpu budget allows.
 	 */
 	public void performOneWayANOVA(List<IStatModelProcessable> processableData, double pCutOff,
 			boolean multipleTestingCorrection, boolean filterOutControlGenes, boolean useFoldFilter,
-			String loelPValue, String loelFoldChange, String foldFilterValue, String numThreads,
+			String foldFilterValue, String loelPValue, String loelFoldChange, String numThreads,
 			boolean tTest)
 	{
-		SimpleProgressUpdater me = this;
-		Task<Integer> task = new Task<Integer>() {
-			@Override
-			protected Integer call() throws Exception
+		running = true;
+		jobGroup = new AnalysisJobGroup(this);
+		int threads = Integer.valueOf(numThreads);
+		for (IStatModelProcessable data : processableData)
+		{
+			// each job gets its own service, the service keeps the state of the analysis it is running.
+			IPrefilterService service = new PrefilterService();
+			AnalysisJob job = new AnalysisJob("One-way ANOVA", data.getDataSetName(), threads, j ->
 			{
-				running = true;
-				try
-				{
-					for (int i = 0; i < processableData.size(); i++) {
-						if(running) {
-							setDatasetLabel((i + 1) + "/" + processableData.size());
-
-							//Set cancel to be false in case the service was cancelled before
-							getService().start();
-							OneWayANOVAResults result = getService().oneWayANOVAAnalysis(processableData.get(i), pCutOff, multipleTestingCorrection, 
-									filterOutControlGenes, useFoldFilter, Double.valueOf(foldFilterValue), Double.valueOf(loelPValue), 
-									Double.valueOf(loelFoldChange), Integer.valueOf(numThreads), me, tTest);
-							me.setProgress(0);
-
-							Platform.runLater(() ->
-							{
-								getEventBus().post(new OneWayANOVADataLoadedEvent(result));
-							});
-						}
-					}
-				} catch (Exception e) {
-					Platform.runLater(() ->
-					{
-						getEventBus().post(new ShowErrorEvent(e.toString()));
-
-					});
-					e.printStackTrace();
-				}
+				service.start();
+				OneWayANOVAResults result = service.oneWayANOVAAnalysis(data, pCutOff, multipleTestingCorrection, 
+						filterOutControlGenes, useFoldFilter, Double.valueOf(foldFilterValue), Double.valueOf(loelPValue), 
+						Double.valueOf(loelFoldChange), threads, new AnalysisJobProgress(j, jobGroup), tTest);
 
-				//Only close the view if the process was running
-				if(running) {
+				// post the new oneway object to the event bus so folks can do the right thing.
+				if(result != null && !j.isCancelled()) {
 					Platform.runLater(() ->
 					{
-						getView().closeWindow();
+						getEventBus().post(new OneWayANOVADataLoadedEvent(result));
 					});
 				}
-				return 0;
-			}
-		};
-		new Thread(task).start();
+			}, service::cancel);
+			jobGroup.add(job);
+		}
+		jobGroup.submit();
 	}
 
 	/*
@@ -92,48 +76,9 @@ public class OneWayANOVAPresenter extends ServicePresenterBase<IPrefilterView, I
 			String foldFilterValue, String loelPValue, String loelFoldChange, String numThreads,
 			boolean tTest)
 	{
-		SimpleProgressUpdater me = this;
-		Task<Integer> task = new Task<Integer>() {
-			@Override
-			protected Integer call() throws Exception
-			{
-				running = true;
-				try
-				{
-					//Set cancel to be false in case the service was cancelled before
-					getService().start();
-					OneWayANOVAResults oneWayResults = getService().oneWayANOVAAnalysis(processableData, pCutOff, multipleTestingCorrection, 
-																		filterOutControlGenes, useFoldFilter, Double.valueOf(foldFilterValue),
-																		Double.valueOf(loelPValue), Double.valueOf(loelFoldChange), 
-																		Integer.valueOf(numThreads), me, tTest);
-
-					// post the new oneway object to the event bus so folks can do the right thing.
-					if(oneWayResults != null && running) {
-						Platform.runLater(() ->
-						{
-							getEventBus().post(new OneWayANOVADataLoadedEvent(oneWayResults));
-						});
-					}
-				} catch(Exception e) {
-					Platform.runLater(() ->
-					{
-						getEventBus().post(new ShowErrorEvent(e.toString()));
-
-					});
-					e.printStackTrace();
-				}
-				//Only close the view if the process was running
-				if(running) {
-					Platform.runLater(() ->
-					{
-						getView().closeWindow();
-					});
-				}
-				return 0;
-			}
-		};
-
-		new Thread(task).start();
+		performOneWayANOVA(Collections.singletonList(processableData), pCutOff, multipleTestingCorrection,
+				filterOutControlGenes, useFoldFilter, foldFilterValue, loelPValue, loelFoldChange, numThreads,
+				tTest);
 	}
 	
 	public boolean hasStartedTask() {
@@ -141,25 +86,28 @@ public class OneWayANOVAPresenter extends ServicePresenterBase<IPrefilterView, I
 	}
 
 	public void cancel() {
-		setMessage("");
-		setDatasetLabel("");
-		setProgress(0.0);
 		running = false;
-		getService().cancel();
+		if(jobGroup != null) {
+			jobGroup.cancel();
+		}
+		getView().updateMessage("");
+		getView().updateDatasetLabel("");
+		getView().updateProgress(0.0);
 	}
 	
 	@Override
-	public void setProgress(double progress) {
+	public void progressChanged(int done, int total, double progress) {
 		if(running) {
 			Platform.runLater(() ->
 			{
 				getView().updateProgress(progress);
+				getView().updateDatasetLabel(done + "/" + total);
 			});
 		}
 	}
 	
 	@Override
-	public void setMessage(String message) {
+	public void messageChanged(AnalysisJob job, String message) {
 		if(running) {
 			Platform.runLater(() ->
 			{
@@ -168,12 +116,21 @@ public class OneWayANOVAPresenter extends ServicePresenterBase<IPrefilterView, I
 		}
 	}
 	
-	public void setDatasetLabel(String message) {
-		if(running) {
+	@Override
+	public void allDone(AnalysisJobGroup group) {
+		for (AnalysisJob job : group.getJobs()) {
+			if (job.getError() != null) {
+				Platform.runLater(() ->
+				{
+					getEventBus().post(new ShowErrorEvent(job.getError().toString()));
+				});
+			}
+		}
+		//Only close the view if the process was running
+		if(running && group == jobGroup) {
 			Platform.runLater(() ->
 			{
-				getView().updateDatasetLabel(message);
-	
+				getView().closeWindow();
 			});
 		}
 	}
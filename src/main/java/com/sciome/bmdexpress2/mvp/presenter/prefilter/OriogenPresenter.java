@@ -1,5 +1,6 @@
 package com.sciome.bmdexpress2.mvp.presenter.prefilter;
 
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.eventbus.Subscribe;
@@ -7,19 +8,22 @@ import com.sciome.bmdexpress2.mvp.model.IStatModelProcessable;
 import com.sciome.bmdexpress2.mvp.model.prefilter.OriogenResults;
 import com.sciome.bmdexpress2.mvp.presenter.presenterbases.ServicePresenterBase;
 import com.sciome.bmdexpress2.mvp.viewinterface.prefilter.IPrefilterView;
+import com.sciome.bmdexpress2.service.PrefilterService;
 import com.sciome.bmdexpress2.serviceInterface.IPrefilterService;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
 import com.sciome.bmdexpress2.shared.eventbus.analysis.OriogenDataLoadedEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.BMDProjectLoadedEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.CloseProjectRequestEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.ShowErrorEvent;
-import com.sciome.commons.interfaces.SimpleProgressUpdater;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJob;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJobGroup;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJobProgress;
 
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 
-public class OriogenPresenter extends ServicePresenterBase<IPrefilterView, IPrefilterService> implements SimpleProgressUpdater {
+public class OriogenPresenter extends ServicePresenterBase<IPrefilterView, IPrefilterService> implements AnalysisJobGroup.GroupListener {
 	private volatile boolean running = false;
+	private AnalysisJobGroup jobGroup;
 	
 	public OriogenPresenter(IPrefilterView view, IPrefilterService service, BMDExpressEventBus eventBus)
 	{
@@ -27,7 +31,7 @@ public class OriogenPresenter extends ServicePresenterBase<IPrefilterView, IPref
 	}
 
 	/*
-	 * do oriogen filter for multiple data sets
+	 * do oriogen filter for multiple data sets, one job per data set on the analysis job scheduler
 	 */
 	public void performOriogen(List<IStatModelProcessable> processableData, double pCutOff,
 			boolean multipleTestingCorrection, int initialBootstraps, int maxBootstraps, 
@@ -35,52 +39,32 @@ public class OriogenPresenter extends ServicePresenterBase<IPrefilterView, IPref
 			String foldFilterValue, String loelPValue, String loelFoldChange, 
 			String numThreads, boolean tTest)
 	{
-		SimpleProgressUpdater me = this;
-		Task<Integer> task = new Task<Integer>() {
-			@Override
-			protected Integer call() throws Exception
+		running = true;
+		jobGroup = new AnalysisJobGroup(this);
+		int threads = Integer.valueOf(numThreads);
+		for (IStatModelProcessable data : processableData)
+		{
+			// each job gets its own service, the service keeps the state of the analysis it is running.
+			IPrefilterService service = new PrefilterService();
+			AnalysisJob job = new AnalysisJob("Oriogen", data.getDataSetName(), threads, j ->
 			{
-				running = true;
-				try
-				{
-					for(int i = 0; i < processableData.size(); i++) {
-						if(running) {
-							setDatasetLabel((i + 1) + "/" + processableData.size());
+				service.start();
+				OriogenResults result = service.oriogenAnalysis(data, pCutOff, multipleTestingCorrection,
+						initialBootstraps, maxBootstraps, s0Adjustment, filterOutControlGenes, useFoldFilter, 
+						Double.valueOf(foldFilterValue), Double.valueOf(loelPValue), Double.valueOf(loelFoldChange),
+						threads, new AnalysisJobProgress(j, jobGroup), tTest);
 
-							//Set cancel to be false in case the service was cancelled before
-							getService().start();
-							OriogenResults result = getService().oriogenAnalysis(processableData.get(i), pCutOff, multipleTestingCorrection,
-									initialBootstraps, maxBootstraps, s0Adjustment, filterOutControlGenes, useFoldFilter, 
-									Double.valueOf(foldFilterValue), Double.valueOf(loelPValue), Double.valueOf(loelFoldChange),
-									Integer.valueOf(numThreads), me, tTest);
-							me.setProgress(0);
-							Platform.runLater(() ->
-							{
-								getEventBus().post(new OriogenDataLoadedEvent(result));
-							});
-						}
-					}
-				}
-				catch (Exception exception)
-				{
-					Platform.runLater(() ->
-					{
-						getEventBus().post(new ShowErrorEvent(exception.toString()));
-
-					});
-					exception.printStackTrace();
-				}
-				//Only close the view if the process was running
-				if(running) {
+				// post the new oriogen object to the event bus so folks can do the right thing.
+				if(result != null && !j.isCancelled()) {
 					Platform.runLater(() ->
 					{
-						getView().closeWindow();
+						getEventBus().post(new OriogenDataLoadedEvent(result));
 					});
 				}
-				return 0;
-			}
-		};
-		new Thread(task).start();
+			}, service::cancel);
+			jobGroup.add(job);
+		}
+		jobGroup.submit();
 	}
 
 	/*
@@ -90,75 +74,38 @@ public class OriogenPresenter extends ServicePresenterBase<IPrefilterView, IPref
 			int maxBootstraps, float s0Adjustment, boolean filterOutControlGenes, boolean useFoldFilter, String foldFilterValue, String loelPValue, 
 			String loelFoldChange, String numThreads, boolean tTest)
 	{
-		SimpleProgressUpdater me = this;
-		Task<Integer> task = new Task<Integer>() {
-			@Override
-			protected Integer call() throws Exception
-			{
-				running = true;
-				try
-				{
-					//Set cancel to be false in case the service was cancelled before
-					getService().start();
-					OriogenResults oriogenResults = getService().oriogenAnalysis(processableData, pCutOff, multipleTestingCorrection,
-							initialBootstraps, maxBootstraps, s0Adjustment, filterOutControlGenes, useFoldFilter, 
-							Double.valueOf(foldFilterValue), Double.valueOf(loelPValue), Double.valueOf(loelFoldChange),
-							Integer.valueOf(numThreads), me, tTest);
-					
-					// post the new oriogen object to the event bus so folks can do the right thing.
-					if(oriogenResults != null && running) {
-						Platform.runLater(() ->
-						{
-							getEventBus().post(new OriogenDataLoadedEvent(oriogenResults));
-						});
-					}
-				}
-				catch (Exception exception)
-				{
-					Platform.runLater(() ->
-					{
-						getEventBus().post(new ShowErrorEvent(exception.toString()));
-
-					});
-					exception.printStackTrace();
-				}
-				//Only close the view if the process was running
-				if(running) {
-					Platform.runLater(() ->
-					{
-						getView().closeWindow();
-					});
-				}
-				return 0;
-			}
-		};
-		new Thread(task).start();
+		performOriogen(Collections.singletonList(processableData), pCutOff, multipleTestingCorrection, initialBootstraps,
+				maxBootstraps, s0Adjustment, filterOutControlGenes, useFoldFilter, foldFilterValue, loelPValue,
+				loelFoldChange, numThreads, tTest);
 	}
 	
 	public boolean hasStartedTask() {
 		return running;
 	}
-	
+
 	public void cancel() {
-		setMessage("");
-		setDatasetLabel("");
-		setProgress(0.0);
 		running = false;
-		getService().cancel();
+		if(jobGroup != null) {
+			jobGroup.cancel();
+		}
+		getView().updateMessage("");
+		getView().updateDatasetLabel("");
+		getView().updateProgress(0.0);
 	}
 	
 	@Override
-	public void setProgress(double progress) {
+	public void progressChanged(int done, int total, double progress) {
 		if(running) {
 			Platform.runLater(() ->
 			{
 				getView().updateProgress(progress);
+				getView().updateDatasetLabel(done + "/" + total);
 			});
 		}
 	}
 	
 	@Override
-	public void setMessage(String message) {
+	public void messageChanged(AnalysisJob job, String message) {
 		if(running) {
 			Platform.runLater(() ->
 			{
@@ -167,16 +114,26 @@ public class OriogenPresenter extends ServicePresenterBase<IPrefilterView, IPref
 		}
 	}
 	
-	public void setDatasetLabel(String message) {
-		if(running) {
+	@Override
+	public void allDone(AnalysisJobGroup group) {
+		for (AnalysisJob job : group.getJobs()) {
+			if (job.getError() != null) {
+				Platform.runLater(() ->
+				{
+					getEventBus().post(new ShowErrorEvent(job.getError().toString()));
+				});
+			}
+		}
+		//Only close the view if the process was running
+		if(running && group == jobGroup) {
 			Platform.runLater(() ->
 			{
-				getView().updateDatasetLabel(message);
-	
+				getView().closeWindow();
 			});
 		}
 	}
 	
+	
 	@Subscribe
 	public void onProjectLoadedEvent(BMDProjectLoadedEvent event)
 	{
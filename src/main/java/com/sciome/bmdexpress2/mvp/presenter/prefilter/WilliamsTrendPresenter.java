@@ -1,5 +1,6 @@
 package com.sciome.bmdexpress2.mvp.presenter.prefilter;
 
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.eventbus.Subscribe;
@@ -7,19 +8,22 @@ import com.sciome.bmdexpress2.mvp.model.IStatModelProcessable;
 import com.sciome.bmdexpress2.mvp.model.prefilter.WilliamsTrendResults;
 import com.sciome.bmdexpress2.mvp.presenter.presenterbases.ServicePresenterBase;
 import com.sciome.bmdexpress2.mvp.viewinterface.prefilter.IPrefilterView;
+import com.sciome.bmdexpress2.service.PrefilterService;
 import com.sciome.bmdexpress2.serviceInterface.IPrefilterService;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
 import com.sciome.bmdexpress2.shared.eventbus.analysis.WilliamsTrendDataLoadedEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.BMDProjectLoadedEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.CloseProjectRequestEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.ShowErrorEvent;
-import com.sciome.commons.interfaces.SimpleProgressUpdater;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJob;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJobGroup;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJobProgress;
 
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 
-public class WilliamsTrendPresenter extends ServicePresenterBase<IPrefilterView, IPrefilterService> implements SimpleProgressUpdater {
+public class WilliamsTrendPresenter extends ServicePresenterBase<IPrefilterView, IPrefilterService> implements AnalysisJobGroup.GroupListener {
 	private volatile boolean running = false;
+	private AnalysisJobGroup jobGroup;
 	
 	public WilliamsTrendPresenter(IPrefilterView view, IPrefilterService service, BMDExpressEventBus eventBus)
 	{
@@ -27,61 +31,38 @@ public class WilliamsTrendPresenter extends ServicePresenterBase<IPrefilterView,
 	}
 
 	/*
-	 * do williams trend filter for multiple data sets (threaded)
+	 * do williams trend filter for multiple data sets, one job per data set on the analysis job scheduler
 	 */
 	public void performWilliamsTrend(List<IStatModelProcessable> processableData, double pCutOff,
 			boolean multipleTestingCorrection, boolean filterOutControlGenes, boolean useFoldFilter,
 			String foldFilterValue, String numberOfPermutations, String loelPValue, String loelFoldChange,
 			String numThreads, boolean tTest)
 	{
-		SimpleProgressUpdater updater = this;
-
-		Task<Integer> task = new Task<Integer>() {
-			@Override
-			protected Integer call() throws Exception
+		running = true;
+		jobGroup = new AnalysisJobGroup(this);
+		int threads = Integer.valueOf(numThreads);
+		for (IStatModelProcessable data : processableData)
+		{
+			// each job gets its own service, the service keeps the state of the analysis it is running.
+			IPrefilterService service = new PrefilterService();
+			AnalysisJob job = new AnalysisJob("Williams Trend", data.getDataSetName(), threads, j ->
 			{
-				running = true;
-				try
-				{
-					for (int i = 0; i < processableData.size(); i++) {
-						//Create a new updater to keep track of the progress for each data set
-						if(running) {
-							setDatasetLabel(i + "/" + processableData.size());
-							//Set cancel to be false in case the service was cancelled before
-							getService().start();
-							WilliamsTrendResults result = getService().williamsTrendAnalysis(processableData.get(i), pCutOff, multipleTestingCorrection,
-									filterOutControlGenes, useFoldFilter, Double.valueOf(foldFilterValue), Integer.valueOf(numberOfPermutations),
-									Double.valueOf(loelPValue), Double.valueOf(loelFoldChange), Integer.valueOf(numThreads), updater, tTest);
-							//Once the method is finished, set progress to 1
-							updater.setProgress(1);
-							//post the results as they are completed
-							Platform.runLater(() ->
-							{
-								getEventBus().post(new WilliamsTrendDataLoadedEvent(result));
-							});
-						}
-					}
-				}
-				catch (Exception exception)
-				{
-					Platform.runLater(() ->
-					{
-						getEventBus().post(new ShowErrorEvent(exception.toString()));
+				service.start();
+				WilliamsTrendResults result = service.williamsTrendAnalysis(data, pCutOff, multipleTestingCorrection,
+						filterOutControlGenes, useFoldFilter, Double.valueOf(foldFilterValue), Integer.valueOf(numberOfPermutations),
+						Double.valueOf(loelPValue), Double.valueOf(loelFoldChange), threads, new AnalysisJobProgress(j, jobGroup), tTest);
 
-					});
-					exception.printStackTrace();
-				}
-				//Only close the view if the process was running
-				if(running) {
+				// post the new williams object to the event bus so folks can do the right thing.
+				if(result != null && !j.isCancelled()) {
 					Platform.runLater(() ->
 					{
-						getView().closeWindow();
+						getEventBus().post(new WilliamsTrendDataLoadedEvent(result));
 					});
 				}
-				return 0;
-			}
-		};
-		new Thread(task).start();
+			}, service::cancel);
+			jobGroup.add(job);
+		}
+		jobGroup.submit();
 	}
 
 	/*
@@ -92,93 +73,66 @@ public class WilliamsTrendPresenter extends ServicePresenterBase<IPrefilterView,
 			String foldFilterValue, String numberOfPermutations, String loelPValue, String loelFoldChange,
 			String numThreads, boolean tTest)
 	{
-		SimpleProgressUpdater me = this;
-		Task<Integer> task = new Task<Integer>() {
-			@Override
-			protected Integer call() throws Exception
-			{
-				running = true;
-				try
-				{
-					getService().start();
-					WilliamsTrendResults williamsTrendResults = getService().williamsTrendAnalysis(processableData, pCutOff, multipleTestingCorrection,
-							filterOutControlGenes, useFoldFilter, Double.valueOf(foldFilterValue), Integer.valueOf(numberOfPermutations),
-							Double.valueOf(loelPValue), Double.valueOf(loelFoldChange), Integer.valueOf(numThreads), me, tTest);
-					
-					// post the new williams object to the event bus so folks can do the right thing.
-					if(williamsTrendResults != null && running) {
-						Platform.runLater(() ->
-						{
-							getEventBus().post(new WilliamsTrendDataLoadedEvent(williamsTrendResults));
-						});
-					}
-				}
-				catch (Exception exception)
-				{
-					Platform.runLater(() ->
-					{
-						getEventBus().post(new ShowErrorEvent(exception.toString()));
-
-					});
-					exception.printStackTrace();
-				}
-				//Only close the view if the process was running
-				if(running) {
-					Platform.runLater(() ->
-					{
-						getView().closeWindow();
-					});
-				}
-				return 0;
-			}
-		};
-		new Thread(task).start();
+		performWilliamsTrend(Collections.singletonList(processableData), pCutOff, multipleTestingCorrection,
+				filterOutControlGenes, useFoldFilter, foldFilterValue, numberOfPermutations, loelPValue,
+				loelFoldChange, numThreads, tTest);
 	}
 	
 	public boolean hasStartedTask() {
 		return running;
 	}
-	
+
 	public void cancel() {
-		setProgress(0.0);
-		setMessage("");
-		setDatasetLabel("");
 		running = false;
-		getService().cancel();
+		if(jobGroup != null) {
+			jobGroup.cancel();
+		}
+		getView().updateMessage("");
+		getView().updateDatasetLabel("");
+		getView().updateProgress(0.0);
 	}
 	
 	@Override
-	public void setProgress(double progress) {
+	public void progressChanged(int done, int total, double progress) {
 		if(running) {
 			Platform.runLater(() ->
 			{
 				getView().updateProgress(progress);
-	
+				getView().updateDatasetLabel(done + "/" + total);
 			});
 		}
 	}
 	
 	@Override
-	public void setMessage(String message) {
+	public void messageChanged(AnalysisJob job, String message) {
 		if(running) {
 			Platform.runLater(() ->
 			{
 				getView().updateMessage(message);
-	
 			});
 		}
 	}
 	
-	public void setDatasetLabel(String message) {
-		if(running) {
+	@Override
+	public void allDone(AnalysisJobGroup group) {
+		for (AnalysisJob job : group.getJobs()) {
+			if (job.getError() != null) {
+				Platform.runLater(() ->
+				{
+					getEventBus().post(new ShowErrorEvent(job.getError().toString()));
+				});
+			}
+		}
+		//Only close the view if the process was running
+		if(running && group == jobGroup) {
 			Platform.runLater(() ->
 			{
-				getView().updateDatasetLabel(message);
-	
+				getView().closeWindow();
 			});
 		}
 	}
 	
+	
 	@Subscribe
 	public void onProjectLoadedEvent(BMDProjectLoadedEvent event)
 	{
@@ -3,6 +3,8 @@ package com.sciome.bmdexpress2.mvp.presenter.visualization;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import com.google.common.eventbus.Subscribe;
 import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisDataSet;
@@ -13,17 +15,23 @@ import com.sciome.bmdexpress2.mvp.presenter.presenterbases.ServicePresenterBase;
 import com.sciome.bmdexpress2.mvp.viewinterface.visualization.IDataVisualizationView;
 import com.sciome.bmdexpress2.serviceInterface.IVisualizationService;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
+import com.sciome.bmdexpress2.shared.eventbus.project.ShowErrorEvent;
 import com.sciome.bmdexpress2.shared.eventbus.project.GiveMeProjectRequest;
 import com.sciome.bmdexpress2.shared.eventbus.project.HeresYourProjectEvent;
 import com.sciome.bmdexpress2.shared.eventbus.visualizations.ShowBMDAnalysisDataSetVisualizationsEvent;
 import com.sciome.charts.data.ChartDataPack;
 import com.sciome.filter.DataFilterPack;
 
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
 public abstract class DataVisualizationPresenter
 		extends ServicePresenterBase<IDataVisualizationView, IVisualizationService>
 {
 	protected BMDProject	bmdProject	= null;
 	boolean					drawn		= false;
+	// counts the background data pack requests, so the packs of a redraw that was overtaken are dropped.
+	private AtomicInteger	packRequest	= new AtomicInteger();
 
 	public DataVisualizationPresenter(IDataVisualizationView view, IVisualizationService service,
 			BMDExpressEventBus eventBus)
@@ -49,6 +57,41 @@ public abstract class DataVisualizationPresenter
 				label);
 	}
 
+	/*
+	 * make the data packs off the FX thread and hand them to onDone on it. Only the packs of the latest
+	 * request are handed over, so a burst of filter changes draws once with the last filters.
+	 */
+	public void getBMDAnalysisDataSetChartDataPackInBackground(List<BMDExpressAnalysisDataSet> catResults,
+			DataFilterPack pack, Set<ChartKey> useTheseKeysOnly, Set<ChartKey> mathedKeys, ChartKey label,
+			Consumer<List<ChartDataPack>> onDone)
+	{
+		int request = packRequest.incrementAndGet();
+		Task<Integer> task = new Task<Integer>() {
+			@Override
+			protected Integer call() throws Exception
+			{
+				try
+				{
+					List<ChartDataPack> packs = getBMDAnalysisDataSetChartDataPack(catResults, pack,
+							useTheseKeysOnly, mathedKeys, label);
+					Platform.runLater(() -> {
+						if (request == packRequest.get())
+							onDone.accept(packs);
+					});
+				}
+				catch (Exception exception)
+				{
+					Platform.runLater(() -> getEventBus().post(new ShowErrorEvent(exception.toString())));
+					exception.printStackTrace();
+				}
+				return 0;
+			}
+		};
+		Thread thread = new Thread(task);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
 	public abstract List<BMDExpressAnalysisDataSet> getResultsFromProject(
 			List<BMDExpressAnalysisDataSet> exclude);
 
@@ -2,6 +2,7 @@ package com.sciome.bmdexpress2.mvp.presenter.visualization;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisDataSet;
 import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
@@ -11,20 +12,52 @@ import com.sciome.bmdexpress2.mvp.model.pca.PCAResults;
 import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
 import com.sciome.bmdexpress2.mvp.viewinterface.visualization.IDataVisualizationView;
 import com.sciome.bmdexpress2.service.PCAService;
+import com.sciome.bmdexpress2.serviceInterface.IPCAService;
 import com.sciome.bmdexpress2.serviceInterface.IVisualizationService;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
+import com.sciome.bmdexpress2.shared.eventbus.project.ShowErrorEvent;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 
 public class ExpressionDataVisualizationPresenter extends DataVisualizationPresenter {
 
+	private IPCAService pcaService = new PCAService();
+
 	public ExpressionDataVisualizationPresenter(IDataVisualizationView view, IVisualizationService service,
 			BMDExpressEventBus eventBus) {
 		super(view, service, eventBus);
 	}
 
 	public PCAResults calculatePCA(DoseResponseExperiment doseResponseExperiment) {
-		PCAService pcaService = new PCAService();
 		return pcaService.calculatePCA(doseResponseExperiment);
 	}
+
+	public PCAResults getCachedPCA(DoseResponseExperiment doseResponseExperiment) {
+		return pcaService.getCachedPCA(doseResponseExperiment);
+	}
+
+	/*
+	 * calculate the PCA off the FX thread and hand the result to onDone on the FX thread.
+	 */
+	public void calculatePCAInBackground(DoseResponseExperiment doseResponseExperiment,
+			Consumer<PCAResults> onDone) {
+		Task<Integer> task = new Task<Integer>() {
+			@Override
+			protected Integer call() throws Exception {
+				try {
+					PCAResults pcaResults = pcaService.calculatePCA(doseResponseExperiment);
+					Platform.runLater(() -> onDone.accept(pcaResults));
+				}
+				catch (Exception exception) {
+					Platform.runLater(() -> getEventBus().post(new ShowErrorEvent(exception.toString())));
+					exception.printStackTrace();
+				}
+				return 0;
+			}
+		};
+		new Thread(task).start();
+	}
 	
 	public List<BMDExpressAnalysisDataSet> calculateIntensity(DoseResponseExperiment doseResponseExperiment) {
 		List<BMDExpressAnalysisDataSet> intensityResults = new ArrayList<BMDExpressAnalysisDataSet>();
@@ -35,7 +68,7 @@ public class ExpressionDataVisualizationPresenter extends DataVisualizationPrese
 			for(int j = 0; j < doseResponseExperiment.getProbeResponses().size(); j++) {
 				ProbeResponse response = doseResponseExperiment.getProbeResponses().get(j);
 				IntensityResult row = new IntensityResult();
-				row.setResponse((float)((response.getResponses().get(i))));
+				row.setResponse(response.getResponse(i));
 				row.setName(response.getProbe().getId());
 				intensityResultList.add(row);
 			}
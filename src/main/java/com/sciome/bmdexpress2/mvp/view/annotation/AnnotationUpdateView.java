@@ -22,6 +22,8 @@ import javafx.collections.ObservableList;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
@@ -283,6 +285,26 @@ public class AnnotationUpdateView extends BMDExpressViewBase implements IAnnotat
 
 	}
 
+	@Override
+	public void showUpdateReport(String summary, List<String> failures)
+	{
+		Alert alert = new Alert(failures.isEmpty() ? AlertType.INFORMATION : AlertType.WARNING);
+		alert.setTitle("Annotation Update");
+		if (failures.isEmpty())
+		{
+			alert.setHeaderText("The annotations were updated.");
+			alert.setContentText(summary);
+		}
+		else
+		{
+			alert.setHeaderText(failures.size() + " annotation files could not be updated.");
+			alert.setContentText(summary + "\n\n" + String.join("\n", failures));
+		}
+		alert.initOwner(doneButton.getScene().getWindow());
+
+		alert.showAndWait();
+	}
+
 	@Override
 	public void closeWindow()
 	{
@@ -0,0 +1,107 @@
+package com.sciome.bmdexpress2.mvp.view.mainstage;
+
+import com.sciome.bmdexpress2.util.jobs.AnalysisJob;
+import com.sciome.bmdexpress2.util.jobs.AnalysisJobScheduler;
+
+import javafx.beans.property.SimpleStringProperty;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+/*
+ * The analyses that are queued, running or done on the analysis job scheduler. Queued jobs can be moved
+ * ahead and any job that is not done can be cancelled from here, the analysis dialogs do not have to be
+ * open for that.
+ */
+public class AnalysisJobsView extends VBox
+{
+	private TableView<AnalysisJob>	jobsTable	= new TableView<>();
+
+	public AnalysisJobsView()
+	{
+		super(4.0);
+		AnalysisJobScheduler scheduler = AnalysisJobScheduler.getInstance();
+
+		TableColumn<AnalysisJob, String> analysisColumn = new TableColumn<>("Analysis");
+		analysisColumn.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getAnalysis()));
+
+		TableColumn<AnalysisJob, String> nameColumn = new TableColumn<>("Data Set");
+		nameColumn.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getName()));
+
+		TableColumn<AnalysisJob, String> stateColumn = new TableColumn<>("State");
+		stateColumn.setCellValueFactory(cell -> cell.getValue().stateProperty().asString());
+
+		TableColumn<AnalysisJob, Double> progressColumn = new TableColumn<>("Progress");
+		progressColumn.setCellValueFactory(cell -> cell.getValue().progressProperty().asObject());
+		progressColumn.setCellFactory(column -> new TableCell<AnalysisJob, Double>() {
+			private ProgressBar progressBar = new ProgressBar();
+
+			@Override
+			protected void updateItem(Double item, boolean empty)
+			{
+				super.updateItem(item, empty);
+				if (empty || item == null)
+				{
+					setGraphic(null);
+				}
+				else
+				{
+					progressBar.setProgress(item);
+					progressBar.setMaxWidth(Double.MAX_VALUE);
+					setGraphic(progressBar);
+				}
+			}
+		});
+
+		TableColumn<AnalysisJob, String> etaColumn = new TableColumn<>("Time");
+		etaColumn.setCellValueFactory(cell -> cell.getValue().etaProperty());
+
+		TableColumn<AnalysisJob, String> messageColumn = new TableColumn<>("Message");
+		messageColumn.setCellValueFactory(cell -> cell.getValue().messageProperty());
+
+		jobsTable.getColumns().add(analysisColumn);
+		jobsTable.getColumns().add(nameColumn);
+		jobsTable.getColumns().add(stateColumn);
+		jobsTable.getColumns().add(progressColumn);
+		jobsTable.getColumns().add(etaColumn);
+		jobsTable.getColumns().add(messageColumn);
+		jobsTable.setItems(scheduler.getJobs());
+		jobsTable.setPlaceholder(new Label("No analyses"));
+		VBox.setVgrow(jobsTable, Priority.ALWAYS);
+
+		Button cancelButton = new Button("Cancel");
+		cancelButton.setOnAction(e ->
+		{
+			AnalysisJob job = jobsTable.getSelectionModel().getSelectedItem();
+			if (job != null)
+				scheduler.cancel(job);
+		});
+
+		Button raiseButton = new Button("Run Sooner");
+		raiseButton.setOnAction(e ->
+		{
+			AnalysisJob job = jobsTable.getSelectionModel().getSelectedItem();
+			if (job != null)
+				scheduler.raisePriority(job);
+		});
+
+		Button clearButton = new Button("Clear Finished");
+		clearButton.setOnAction(e -> scheduler.clearFinished());
+
+		Label budgetLabel = new Label("CPU budget: " + scheduler.getCpuBudget() + " threads");
+
+		HBox buttons = new HBox(4.0, cancelButton, raiseButton, clearButton, budgetLabel);
+		buttons.setPadding(new Insets(0, 0, 4, 0));
+
+		getChildren().add(new Label("Analysis Jobs"));
+		getChildren().add(jobsTable);
+		getChildren().add(buttons);
+	}
+}
@@ -14,6 +14,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -50,6 +51,7 @@ import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
 import com.sciome.bmdexpress2.util.NumberManager;
 import com.sciome.bmdexpress2.util.prefilter.OnewayAnova;
 import com.sciome.bmdexpress2.util.visualizations.curvefit.BMDoseModel;
+import com.sciome.bmdexpress2.util.visualizations.curvefit.ModelCurveCache;
 import com.sciome.charts.jfree.CustomJFreeLogAxis;
 import com.sciome.charts.jfree.SciomeChartViewer;
 
@@ -141,6 +143,11 @@ public class CurveFitView extends BMDExpressViewBase implements ICurveFitView, I
 	CurveFitPresenter					presenter;
 	private StatResult					theStatResult;
 
+	// points of the model curve between two doses, before it is refined where it bends
+	private static final int			CURVE_RESOLUTION		= 100;
+	// probes before and after the selected one whose curves are sampled ahead
+	private static final int			PRECOMPUTE_NEIGHBOURS	= 10;
+
 	public CurveFitView()
 	{
 		this(BMDExpressEventBus.getInstance());
@@ -226,6 +233,7 @@ public class CurveFitView extends BMDExpressViewBase implements ICurveFitView, I
 		initComponents();
 		getDataSeries();
 		updateGraphs();
+		precomputeCurves();
 
 		chartBox.getChildren().addAll(cP);
 	}
@@ -350,10 +358,10 @@ public class CurveFitView extends BMDExpressViewBase implements ICurveFitView, I
 			if (!probeStatResultMap.containsKey(probeResponse.getProbe()))
 				continue;
 
-			double[] responseDoubles = new double[probeResponse.getResponseArray().length];
-			for (int i = 0; i < probeResponse.getResponseArray().length; i++)
+			double[] responseDoubles = new double[probeResponse.getResponseCount()];
+			for (int i = 0; i < responseDoubles.length; i++)
 			{
-				responseDoubles[i] = probeResponse.getResponseArray()[i];
+				responseDoubles[i] = probeResponse.getResponse(i);
 			}
 			probeResponseMap.put(probeResponse.getProbe(), responseDoubles);
 
@@ -374,6 +382,7 @@ public class CurveFitView extends BMDExpressViewBase implements ICurveFitView, I
 			{
 				setBestModel();
 				updateGraphs();
+				precomputeCurves();
 			}
 		});
 
@@ -698,27 +707,13 @@ public class CurveFitView extends BMDExpressViewBase implements ICurveFitView, I
 		noelSeries = new XYSeries("NOTEL");
 		loelSeries = new XYSeries("LOTEL");
 
-		Set<Double> uniqueDosesSet = new HashSet<>();
-		for (int i = 0; i < doses.length; i++)
-			uniqueDosesSet.add(doses[i]);
-		List<Double> uniqueDoses = new ArrayList<>(uniqueDosesSet);
-		Collections.sort(uniqueDoses);
-		Double prevDose = null;
-		for (Double dose : uniqueDoses)
-		{
-			if (prevDose == null)
-			{
-				prevDose = dose;
-				continue;
-			}
-			// Set up modelSeries from LBUFFER below the minDose to RBUFFER above maxDose
-			double increment = (dose - prevDose) / 1000.0;
-			if (increment > .05 && prevDose < 10.0)
-				increment = .05;
-			for (double counter = prevDose; counter < dose; counter += increment)
-				modelSeries.add(counter, bmdModel.response(counter));
-			prevDose = dose;
-		}
+		// the sampled curve is kept, selecting this model again or toggling the axis back draws it at once
+		ModelCurveCache.Curve curve = ModelCurveCache.getInstance().getCurve(theStatResult, doses,
+				logDosesCheckBox.isSelected(), CURVE_RESOLUTION);
+		if (curve != null)
+			modelSeries = curve.toSeries("Model");
+		else
+			sampleModel();
 
 		// Set up BMD and BMDL and BMDU
 		if (parameters[0] >= minDose && parameters[0] <= maxDose)
@@ -758,6 +753,63 @@ public class CurveFitView extends BMDExpressViewBase implements ICurveFitView, I
 
 	}
 
+	/*
+	 * step through the doses for models the curve cache has no formula for.
+	 */
+	private void sampleModel()
+	{
+		Set<Double> uniqueDosesSet = new HashSet<>();
+		for (int i = 0; i < doses.length; i++)
+			uniqueDosesSet.add(doses[i]);
+		List<Double> uniqueDoses = new ArrayList<>(uniqueDosesSet);
+		Collections.sort(uniqueDoses);
+		Double prevDose = null;
+		for (Double dose : uniqueDoses)
+		{
+			if (prevDose == null)
+			{
+				prevDose = dose;
+				continue;
+			}
+			// Set up modelSeries from LBUFFER below the minDose to RBUFFER above maxDose
+			double increment = (dose - prevDose) / 1000.0;
+			if (increment > .05 && prevDose < 10.0)
+				increment = .05;
+			for (double counter = prevDose; counter < dose; counter += increment)
+				modelSeries.add(counter, bmdModel.response(counter));
+			prevDose = dose;
+		}
+	}
+
+	/*
+	 * sample the curves of the selected probe on both dose axes and the best curves of the probes around it
+	 * in the background, so the next selection finds them in the cache.
+	 */
+	private void precomputeCurves()
+	{
+		int selected = idComboBox.getSelectionModel().getSelectedIndex();
+		if (selected < 0 || probeStatResultMap == null)
+			return;
+		Map<StatResult, double[]> statResults = new LinkedHashMap<>();
+		ProbeStatResult selectedResult = probeStatResultMap.get(idComboBox.getItems().get(selected));
+		if (selectedResult != null)
+			for (StatResult statResult : selectedResult.getStatResults())
+				statResults.put(statResult, doses);
+		for (int offset = 1; offset <= PRECOMPUTE_NEIGHBOURS; offset++)
+		{
+			for (int index : new int[] { selected + offset, selected - offset })
+			{
+				if (index < 0 || index >= idComboBox.getItems().size())
+					continue;
+				ProbeStatResult probeStatResult = probeStatResultMap.get(idComboBox.getItems().get(index));
+				if (probeStatResult != null && probeStatResult.getBestStatResult() != null)
+					statResults.put(probeStatResult.getBestStatResult(), doses);
+			}
+		}
+		boolean logDoses = logDosesCheckBox.isSelected();
+		ModelCurveCache.getInstance().precompute(statResults, CURVE_RESOLUTION, logDoses, !logDoses);
+	}
+
 	/**
 	 * sets the colors used to color the chart series
 	 *
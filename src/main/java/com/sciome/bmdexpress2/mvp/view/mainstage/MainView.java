@@ -37,6 +37,8 @@ public class MainView extends BMDExpressViewBase implements IMainView, Initializ
 	@FXML
 	private VBox		treeViewContainer;
 	@FXML
+	private VBox		jobsContainer;
+	@FXML
 	private Label		projectNameLabel;
 
 	@FXML
@@ -82,6 +84,10 @@ public class MainView extends BMDExpressViewBase implements IMainView, Initializ
 		VBox.setVgrow(treeViewContainer, Priority.ALWAYS);
 		VBox.setVgrow(pv, Priority.ALWAYS);
 
+		AnalysisJobsView jobsView = new AnalysisJobsView();
+		jobsContainer.getChildren().add(jobsView);
+		VBox.setVgrow(jobsView, Priority.ALWAYS);
+
 	}
 
 	@Override
@@ -399,6 +399,14 @@ public class MenuBarView extends BMDExpressViewBase implements IMenuBarView, Ini
 				BMDExpressProperties.getInstance().getVersion());
 	}
 
+	/*
+	 * display the stage timings of this session
+	 */
+	public void handle_diagnostics(ActionEvent event)
+	{
+		BMDExpressInformation.getInstance().showDiagnosticsDialog(this.menuBar.getScene());
+	}
+
 	/*
 	 * display license
 	 */
@@ -16,7 +16,6 @@ import com.sciome.bmdexpress2.service.VisualizationService;
 import com.sciome.bmdexpress2.serviceInterface.IVisualizationService;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
 import com.sciome.charts.SciomeChartBase;
-import com.sciome.charts.data.ChartDataPack;
 import com.sciome.charts.jfree.SciomeAccumulationPlotJFree;
 import com.sciome.charts.jfree.SciomeHistogramJFree;
 import com.sciome.charts.jfree.SciomePieChartJFree;
@@ -158,9 +157,6 @@ public class BMDAnalysisResultsDataVisualizationView extends DataVisualizationVi
 			chartsList.add(chart2);
 		}
 
-		List<ChartDataPack> chartDataPacks = presenter.getBMDAnalysisDataSetChartDataPack(results, pack,
-				getUsedChartKeys(), getMathedChartKeys(), new ChartKey(BMDResult.PROBE_ID, null));
-
 		// add the straggler piechart
 		if (chartKey.equals(DEFAULT_CHARTS))
 		{
@@ -170,7 +166,8 @@ public class BMDAnalysisResultsDataVisualizationView extends DataVisualizationVi
 			chartsList.add(0, pieChart);
 		}
 
-		showCharts(chartDataPacks);
+		presenter.getBMDAnalysisDataSetChartDataPackInBackground(results, pack, getUsedChartKeys(),
+				getMathedChartKeys(), new ChartKey(BMDResult.PROBE_ID, null), this::showCharts);
 
 	}
 
@@ -22,7 +22,6 @@ import com.sciome.bmdexpress2.serviceInterface.IVisualizationService;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
 import com.sciome.bmdexpress2.util.visualizations.curvefit.PathwayCurveViewer;
 import com.sciome.charts.SciomeChartBase;
-import com.sciome.charts.data.ChartDataPack;
 import com.sciome.charts.jfree.SciomeAccumulationPlotJFree;
 import com.sciome.charts.jfree.SciomeBarChartJFree;
 import com.sciome.charts.jfree.SciomeBubbleChartJFree;
@@ -355,11 +354,7 @@ public class CategoryAnalysisDataVisualizationView extends DataVisualizationView
 
 		}
 
-		List<ChartDataPack> chartDataPacks = presenter.getBMDAnalysisDataSetChartDataPack(results, pack,
-				getUsedChartKeys(), getMathedChartKeys(),
-				new ChartKey(CategoryAnalysisResults.CATEGORY_ID, null));
-
-		// add straggler pie charts that need the chartdatapacks as input.
+		// add straggler pie charts.
 		if (chartKey.equals(BEST_MODEL_PIE))
 		{
 			SciomePieChartJFree chart = (SciomePieChartJFree) chartCache.get("PIE-CHART");
@@ -367,7 +362,9 @@ public class CategoryAnalysisDataVisualizationView extends DataVisualizationView
 			chartsList.add(chart);
 		}
 
-		showCharts(chartDataPacks);
+		presenter.getBMDAnalysisDataSetChartDataPackInBackground(results, pack, getUsedChartKeys(),
+				getMathedChartKeys(), new ChartKey(CategoryAnalysisResults.CATEGORY_ID, null),
+				this::showCharts);
 
 	}
 
@@ -14,7 +14,6 @@ import com.sciome.bmdexpress2.service.VisualizationService;
 import com.sciome.bmdexpress2.serviceInterface.IVisualizationService;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
 import com.sciome.charts.SciomeChartBase;
-import com.sciome.charts.data.ChartDataPack;
 import com.sciome.charts.jfree.SciomeDensityChartJFree;
 import com.sciome.charts.jfree.SciomePCAJFree;
 import com.sciome.filter.DataFilterPack;
@@ -70,37 +69,56 @@ public class ExpressionDataVisualizationView extends DataVisualizationView imple
 			SciomeChartBase chart1 = chartCache.get(INTENSITY);
 			chartsList.add(chart1);
 
-			List<ChartDataPack> chartDataPacks = presenter.getBMDAnalysisDataSetChartDataPack(
-					intensityResults, dataFilterPack, getUsedChartKeys(), getMathedChartKeys(),
-					new ChartKey(IntensityResults.RESPONSE, null));
-			showCharts(chartDataPacks);
+			presenter.getBMDAnalysisDataSetChartDataPackInBackground(intensityResults, dataFilterPack,
+					getUsedChartKeys(), getMathedChartKeys(), new ChartKey(IntensityResults.RESPONSE, null),
+					this::showCharts);
 		}
 		else
 		{
-			List<BMDExpressAnalysisDataSet> pcaResults = new ArrayList<BMDExpressAnalysisDataSet>();
-			pcaResults.add(((ExpressionDataVisualizationPresenter) presenter)
-					.calculatePCA((DoseResponseExperiment) results.get(0)));
-
-			SciomeChartBase chart1 = chartCache.get(DEFAULT + "-" + "PC1 V PC2");
-			chartsList.add(chart1);
-			SciomeChartBase chart2 = chartCache.get(DEFAULT + "-" + "PC1 V PC3");
-			chartsList.add(chart2);
-			SciomeChartBase chart3 = chartCache.get(DEFAULT + "-" + "PC1 V PC4");
-			chartsList.add(chart3);
-			SciomeChartBase chart4 = chartCache.get(DEFAULT + "-" + "PC2 V PC3");
-			chartsList.add(chart4);
-			SciomeChartBase chart5 = chartCache.get(DEFAULT + "-" + "PC2 V PC4");
-			chartsList.add(chart5);
-			SciomeChartBase chart6 = chartCache.get(DEFAULT + "-" + "PC3 V PC4");
-			chartsList.add(chart6);
-
-			List<ChartDataPack> chartDataPacks = presenter.getBMDAnalysisDataSetChartDataPack(pcaResults,
-					dataFilterPack, getUsedChartKeys(), getMathedChartKeys(),
-					new ChartKey(PCAResults.DOSAGE, null));
-			showCharts(chartDataPacks);
+			ExpressionDataVisualizationPresenter pcaPresenter = (ExpressionDataVisualizationPresenter) presenter;
+			DoseResponseExperiment experiment = (DoseResponseExperiment) results.get(0);
+			PCAResults cached = pcaPresenter.getCachedPCA(experiment);
+			if (cached != null)
+			{
+				showPCA(cached, dataFilterPack);
+				return;
+			}
+
+			// large experiments take a while, don't freeze the window. the charts show up when it's done.
+			pcaPresenter.calculatePCAInBackground(experiment, pcaResults ->
+			{
+				// the user may have moved on to another experiment or chart in the meantime
+				if (results != null && !results.isEmpty() && results.get(0) == experiment
+						&& !INTENSITY.equals(cBox.getSelectionModel().getSelectedItem()))
+					showPCA(pcaResults, defaultDPack);
+			});
 		}
 	}
 
+	private void showPCA(PCAResults pca, DataFilterPack dataFilterPack)
+	{
+		chartsList = new ArrayList<>();
+		List<BMDExpressAnalysisDataSet> pcaResults = new ArrayList<BMDExpressAnalysisDataSet>();
+		pcaResults.add(pca);
+
+		SciomeChartBase chart1 = chartCache.get(DEFAULT + "-" + "PC1 V PC2");
+		chartsList.add(chart1);
+		SciomeChartBase chart2 = chartCache.get(DEFAULT + "-" + "PC1 V PC3");
+		chartsList.add(chart2);
+		SciomeChartBase chart3 = chartCache.get(DEFAULT + "-" + "PC1 V PC4");
+		chartsList.add(chart3);
+		SciomeChartBase chart4 = chartCache.get(DEFAULT + "-" + "PC2 V PC3");
+		chartsList.add(chart4);
+		SciomeChartBase chart5 = chartCache.get(DEFAULT + "-" + "PC2 V PC4");
+		chartsList.add(chart5);
+		SciomeChartBase chart6 = chartCache.get(DEFAULT + "-" + "PC3 V PC4");
+		chartsList.add(chart6);
+
+		presenter.getBMDAnalysisDataSetChartDataPackInBackground(pcaResults, dataFilterPack,
+				getUsedChartKeys(), getMathedChartKeys(), new ChartKey(PCAResults.DOSAGE, null),
+				this::showCharts);
+	}
+
 	@Override
 	public List<String> getCannedCharts()
 	{
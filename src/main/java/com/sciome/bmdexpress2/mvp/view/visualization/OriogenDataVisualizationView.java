@@ -11,7 +11,6 @@ import com.sciome.bmdexpress2.service.VisualizationService;
 import com.sciome.bmdexpress2.serviceInterface.IVisualizationService;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
 import com.sciome.charts.SciomeChartBase;
-import com.sciome.charts.data.ChartDataPack;
 import com.sciome.charts.jfree.SciomeHistogramJFree;
 import com.sciome.charts.jfree.SciomeScatterChartJFree;
 import com.sciome.charts.venndis.SciomeVennDiagram;
@@ -113,9 +112,8 @@ public class OriogenDataVisualizationView extends DataVisualizationView implemen
 			chartsList.add(chart2);
 		}
 
-		List<ChartDataPack> chartDataPacks = presenter.getBMDAnalysisDataSetChartDataPack(results, pack,
-				getUsedChartKeys(), getMathedChartKeys(), new ChartKey(PrefilterResults.PROBE_ID, null));
-		showCharts(chartDataPacks);
+		presenter.getBMDAnalysisDataSetChartDataPackInBackground(results, pack, getUsedChartKeys(),
+				getMathedChartKeys(), new ChartKey(PrefilterResults.PROBE_ID, null), this::showCharts);
 
 	}
 
@@ -17,6 +17,8 @@ public interface IAnnotationUpdateView
 
 	public void finishUpdate();
 
+	public void showUpdateReport(String summary, List<String> failures);
+
 	public void closeWindow();
 
 }
@@ -28,6 +28,7 @@ import com.sciome.bmdexpress2.util.bmds.BMDSTool;
 import com.sciome.bmdexpress2.util.bmds.IBMDSToolProgress;
 import com.sciome.bmdexpress2.util.bmds.ModelInputParameters;
 import com.sciome.bmdexpress2.util.bmds.ModelSelectionParameters;
+import com.sciome.bmdexpress2.util.bmds.shared.BestPolyModelTestEnum;
 import com.sciome.bmdexpress2.util.bmds.shared.StatModel;
 import com.sciome.bmdexpress2.util.curvep.CurvePProcessor;
 import com.sciome.bmdexpress2.util.curvep.GCurvePInputParameters;
@@ -65,14 +66,58 @@ public class BMDAnalysisService implements IBMDAnalysisService
 		if (processableData instanceof PrefilterResults)
 			bMDResults.setPrefilterResults((PrefilterResults) processableData);
 
-		List<ProbeResponse> responses = processableData.getProcessableProbeResponses();
-		List<Treatment> treatments = doseResponseExperiment.getTreatments();
-		List<ArrayList<Float>> numericMatrix = new ArrayList<ArrayList<Float>>();
+		calculateWAUC(bMDResults, processableData.getProcessableProbeResponses(),
+				doseResponseExperiment.getTreatments());
+
+		// clean up any leftovers from this process
+		bMDSTool.cleanUp();
+		return bMDResults;
+	}
+
+	/*
+	 * Apply new model selection parameters to an existing parametric result without refitting. The new
+	 * result shares the fitted models with the source.
+	 */
+	@Override
+	public BMDResult reselectBestModels(BMDResult bmdResult, ModelSelectionParameters modelSelectionParameters)
+	{
+		long startTime = System.currentTimeMillis();
+		BMDSTool tool = new BMDSTool(bmdResult, modelSelectionParameters);
+		BMDResult reselected = tool.reselectBestModels(bmdResult);
+
+		List<String> notes = reselected.getAnalysisInfo().getNotes();
+		notes.add("Best Models Reselected From: " + bmdResult.getName());
+		if (modelSelectionParameters.getBestPolyModelTest() == BestPolyModelTestEnum.NESTED_CHI_SQUARED)
+		{
+			notes.add(
+					"Best Model Selection: Nested Chi Square to select best poly model followed by lowest AIC");
+			notes.add("Nested Chi Square p-value cutoff: " + modelSelectionParameters.getpValue());
+		}
+		else if (modelSelectionParameters.getBestPolyModelTest() == BestPolyModelTestEnum.LOWEST_AIC)
+		{
+			notes.add("Best Model Selection: Lowest AIC");
+		}
+		notes.add("BMDL and BMDU Model Selection: " + modelSelectionParameters.getBestModelSelectionBMDLandBMDU());
+
+		calculateWAUC(reselected, reselected.getProcessableProbeResponses(),
+				reselected.getDoseResponseExperiment().getTreatments());
+
+		notes.add("Reselect Run Time: " + (System.currentTimeMillis() - startTime) + " milliseconds");
+		reselected.setName(bmdResult.getName() + "_reselect");
+		return reselected;
+	}
+
+	/*
+	 * Calculate the wAUC of each probe's best model.
+	 */
+	private void calculateWAUC(BMDResult bMDResults, List<ProbeResponse> responses, List<Treatment> treatments)
+	{
+		List<List<Float>> numericMatrix = new ArrayList<List<Float>>();
 		List<Float> doseVector = new ArrayList<Float>();
 		// Fill numeric matrix
 		for (int i = 0; i < responses.size(); i++)
 		{
-			numericMatrix.add((ArrayList<Float>) responses.get(i).getResponses());
+			numericMatrix.add(responses.get(i).getResponses());
 		}
 
 		// Fill doseVector
@@ -162,10 +207,6 @@ public class BMDAnalysisService implements IBMDAnalysisService
 			List<Float> logwAUCList = CurvePProcessor.logwAUC(wAUCList);
 			bMDResults.setLogwAUC(logwAUCList);
 		}
-
-		// clean up any leftovers from this process
-		bMDSTool.cleanUp();
-		return bMDResults;
 	}
 
 	@Override
@@ -200,11 +241,11 @@ public class BMDAnalysisService implements IBMDAnalysisService
 
 		List<ProbeResponse> responses = processableData.getProcessableProbeResponses();
 		List<Treatment> treatments = doseResponseExperiment.getTreatments();
-		List<ArrayList<Float>> numericMatrix = new ArrayList<ArrayList<Float>>();
+		List<List<Float>> numericMatrix = new ArrayList<List<Float>>();
 		List<Float> doseVector = new ArrayList<Float>();
 		// Fill numeric matrix
 		for (int i = 0; i < responses.size(); i++)
-			numericMatrix.add((ArrayList<Float>) responses.get(i).getResponses());
+			numericMatrix.add(responses.get(i).getResponses());
 
 		// Fill doseVector
 		for (int i = 0; i < treatments.size(); i++)
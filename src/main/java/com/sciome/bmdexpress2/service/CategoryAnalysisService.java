@@ -20,9 +20,9 @@ import com.sciome.bmdexpress2.util.categoryanalysis.CategoryMapTool;
 import com.sciome.bmdexpress2.util.categoryanalysis.ICategoryMapToolProgress;
 import com.sciome.bmdexpress2.util.categoryanalysis.IVIVEParameters;
 import com.sciome.bmdexpress2.util.categoryanalysis.IVIVEParameters.DoseUnits;
+import com.sciome.bmdexpress2.util.categoryanalysis.OralEquivalentDoseCache;
+import com.sciome.bmdexpress2.util.metrics.MetricsRegistry;
 import com.sciome.commons.math.httk.calc.calc_analytic_css.Model;
-import com.sciome.commons.math.httk.calc.calc_analytic_css.Units;
-import com.sciome.commons.math.httk.calc.calc_mc_oral_equiv;
 
 public class CategoryAnalysisService implements ICategoryAnalysisService
 {
@@ -36,15 +36,24 @@ public class CategoryAnalysisService implements ICategoryAnalysisService
 
 		analysisInfo.setNotes(notes);
 
-		CategoryMapTool catMapTool = new CategoryMapTool(params, bmdResult, catAnalysisEnum, me,
-				analysisInfo);
-		CategoryAnalysisResults categoryAnalysisResults = catMapTool.startAnalyses();
+		CategoryAnalysisResults categoryAnalysisResults;
+		try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("category.analysis"))
+		{
+			CategoryMapTool catMapTool = new CategoryMapTool(params, bmdResult, catAnalysisEnum, me,
+					analysisInfo);
+			categoryAnalysisResults = catMapTool.startAnalyses();
+			timer.stop(bmdResult.getProbeStatResults().size());
+		}
 		categoryAnalysisResults.setBmdResult(bmdResult);
 		categoryAnalysisResults.setAnalysisInfo(analysisInfo);
 
 		if (params.getIviveParameters() != null && params.getIviveParameters().getModels() != null
 				&& !params.getIviveParameters().getModels().isEmpty()) {
-			calculateIVIVE(categoryAnalysisResults, params.getIviveParameters());
+			try (MetricsRegistry.Timer iviveTimer = MetricsRegistry.getInstance().start("category.ivive"))
+			{
+				calculateIVIVE(categoryAnalysisResults, params.getIviveParameters());
+				iviveTimer.stop(categoryAnalysisResults.getCategoryAnalsyisResults().size());
+			}
 			String species = params.getIviveParameters().getSpecies();
 			categoryAnalysisResults.getAnalysisInfo().getNotes().add("IVIVE Compound Name: " + params.getIviveParameters().getCompound().getName());
 			categoryAnalysisResults.getAnalysisInfo().getNotes().add("IVIVE Compound CASRN: " + params.getIviveParameters().getCompound().getCAS());
@@ -76,6 +85,8 @@ public class CategoryAnalysisService implements ICategoryAnalysisService
 		if (params.getDeduplicateGeneSets())
 			categoryAnalysisResults.deDuplicateGeneSets();
 
+		categoryAnalysisResults.shareReferenceGeneProbeStatResults();
+
 		long endTime = System.currentTimeMillis();
 
 		long runTime = endTime - startTime;
@@ -131,8 +142,10 @@ public class CategoryAnalysisService implements ICategoryAnalysisService
 			concentrations.add(rowConcentrations);
 		}
 
-		Map<Model, List<List<Double>>> doses = calc_mc_oral_equiv.calcMultiple(concentrations,
-				params.getModels(), params.getCompound(), params.getQuantile(), params.getSpecies(), Units.UM, params.getOutputUnits(), true);
+		// the doses are proportional to the concentrations, the Monte Carlo simulation runs once per compound,
+		// species, model, quantile and units and not for every analysis.
+		Map<Model, List<List<Double>>> doses = OralEquivalentDoseCache.getInstance().calcMultiple(concentrations,
+				params);
 
 		for (int i = 0; i < results.getCategoryAnalsyisResults().size(); i++)
 		{
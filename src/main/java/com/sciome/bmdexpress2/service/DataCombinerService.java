@@ -1,11 +1,12 @@
 package com.sciome.bmdexpress2.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.NoSuchElementException;
 
 import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisDataSet;
 import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisRow;
@@ -21,68 +22,119 @@ public class DataCombinerService implements IDataCombinerService
 	@Override
 	public CombinedDataSet combineBMDExpressAnalysisDataSets(List<BMDExpressAnalysisDataSet> dataSets)
 	{
-		// step one aggregate the Header
+		List<String> theHeader = combineHeaders(dataSets);
+
+		// now we have the length of rows and can create a Combined data set and start adding rows.
+		CombinedDataSet combinedDataSet = new CombinedDataSet(theHeader, "Combined Analyses");
+
+		List<Object> objects = new ArrayList<>(dataSets);
+		combinedDataSet.setObjects(objects);
+
+		Iterator<BMDExpressAnalysisRow> rowIterator = combinedRowIterator(dataSets, theHeader);
+		while (rowIterator.hasNext())
+			combinedDataSet.getAnalysisRows().add(rowIterator.next());
+
+		return combinedDataSet;
+	}
+
+	@Override
+	public List<String> combineHeaders(List<BMDExpressAnalysisDataSet> dataSets)
+	{
+		// aggregate the Header. maybe not ordered perfect, but the data is there
 		List<String> theHeader = new ArrayList<>();
-		Set<String> headersAdded = new HashSet<>();
+		theHeader.add(DataCombinerService.ANALYSIS_HEADER);
 		Map<String, Integer> headerToIndex = new HashMap<>();
-
-		List<Object> objects = new ArrayList<>();
-		int i = 1;
 		for (BMDExpressAnalysisDataSet dataset : dataSets)
-		{
-			objects.add(dataset);
 			for (String head : dataset.getColumnHeader())
 			{
-				if (headersAdded.contains(head))
+				if (headerToIndex.containsKey(head))
 					continue;
+				headerToIndex.put(head, theHeader.size());
 				theHeader.add(head);
-				headerToIndex.put(head, i++);
-				headersAdded.add(head);
 			}
-		}
-		theHeader.add(0, DataCombinerService.ANALYSIS_HEADER);
+		return theHeader;
+	}
 
-		// now we have a header. maybe not ordered perfect, but the data is there
-		// now we have the length of rows and can create a Combined data set and start adding rows.
+	@Override
+	public Iterator<BMDExpressAnalysisRow> combinedRowIterator(List<BMDExpressAnalysisDataSet> dataSets,
+			List<String> combinedHeader)
+	{
+		return new CombinedRowIterator(dataSets, combinedHeader);
+	}
 
-		CombinedDataSet combinedDataSet = new CombinedDataSet(theHeader, "Combined Analyses");
-		// intialize the rows.
-		List<BMDExpressAnalysisRow> rows = new ArrayList<>();
-		for (BMDExpressAnalysisDataSet dataset : dataSets)
-			for (BMDExpressAnalysisRow r : dataset.getAnalysisRows())
-			{
-				CombinedRow cr = new CombinedRow(r.getObject(), dataset);
-				for (String str : theHeader)
-					cr.getRow().add(null);
+	/*
+	 * Walks the rows of each dataset in turn and lays them out in the combined header. Rows are only
+	 * created as they are requested, so a caller that writes each one out never holds the whole union table.
+	 */
+	private static class CombinedRowIterator implements Iterator<BMDExpressAnalysisRow>
+	{
+		private final List<BMDExpressAnalysisDataSet>	dataSets;
+		private final Map<String, Integer>				headerToIndex	= new HashMap<>();
+		private final int								rowSize;
 
-				// this is the "series" name
-				cr.getRow().add(0, dataset.getName());
-				rows.add(cr);
+		private int										dataSetIndex	= 0;
+		private int										rowIndex		= 0;
+		// maps column j of the current dataset to its column in the combined header
+		private int[]									columnMap;
 
-			}
-		combinedDataSet.getAnalysisRows().addAll(rows);
-		combinedDataSet.setObjects(objects);
+		public CombinedRowIterator(List<BMDExpressAnalysisDataSet> dataSets, List<String> combinedHeader)
+		{
+			this.dataSets = dataSets;
+			this.rowSize = combinedHeader.size();
+			// column 0 is reserved for the analysis name
+			for (int i = 1; i < combinedHeader.size(); i++)
+				headerToIndex.putIfAbsent(combinedHeader.get(i), i);
+			advance();
+		}
 
-		// now the rows are there, let's fill them in
-		i = 0;
-		for (BMDExpressAnalysisDataSet dataset : dataSets)
+		/*
+		 * skip past exhausted (or empty) datasets and build the column map for the current one.
+		 */
+		private void advance()
 		{
-			for (BMDExpressAnalysisRow r : dataset.getAnalysisRows())
+			while (dataSetIndex < dataSets.size()
+					&& rowIndex >= dataSets.get(dataSetIndex).getAnalysisRows().size())
+			{
+				dataSetIndex++;
+				rowIndex = 0;
+				columnMap = null;
+			}
+			if (dataSetIndex < dataSets.size() && columnMap == null)
 			{
-				int j = 0;
-				for (String str : dataset.getColumnHeader())
-				{
-					// there really has to be a value here. we did the same loop
-					// above and put indexes in here.
-					int index = headerToIndex.get(str).intValue();
-					combinedDataSet.getAnalysisRows().get(i).getRow().set(index, r.getRow().get(j));
-					j++;
-				}
-				i++;
+				List<String> header = dataSets.get(dataSetIndex).getColumnHeader();
+				columnMap = new int[header.size()];
+				for (int j = 0; j < header.size(); j++)
+					columnMap[j] = headerToIndex.get(header.get(j)).intValue();
 			}
 		}
 
-		return combinedDataSet;
+		@Override
+		public boolean hasNext()
+		{
+			return dataSetIndex < dataSets.size();
+		}
+
+		@Override
+		public BMDExpressAnalysisRow next()
+		{
+			if (!hasNext())
+				throw new NoSuchElementException();
+
+			BMDExpressAnalysisDataSet dataset = dataSets.get(dataSetIndex);
+			BMDExpressAnalysisRow r = dataset.getAnalysisRows().get(rowIndex++);
+
+			CombinedRow cr = new CombinedRow(r.getObject(), dataset);
+			List<Object> row = cr.getRow();
+			row.addAll(Collections.nCopies(rowSize, null));
+			// this is the "series" name
+			row.set(0, dataset.getName());
+			List<Object> sourceRow = r.getRow();
+			for (int j = 0; j < columnMap.length && j < sourceRow.size(); j++)
+				row.set(columnMap[j], sourceRow.get(j));
+
+			advance();
+			return cr;
+		}
 	}
 
 }
@@ -1,8 +1,14 @@
 package com.sciome.bmdexpress2.service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.stream.IntStream;
 
+import org.apache.commons.math3.linear.EigenDecomposition;
 import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
 
@@ -12,46 +18,156 @@ import com.sciome.bmdexpress2.mvp.model.pca.PCAResults;
 import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
 import com.sciome.bmdexpress2.mvp.model.probe.Treatment;
 import com.sciome.bmdexpress2.serviceInterface.IPCAService;
-import com.sciome.commons.math.PCA.old.PCA;
-import com.sciome.commons.math.PCA.old.PCA.CovarianceType;
 
+/*
+ * PCA of the samples with the probes as variables. There are far fewer samples than probes, so instead of
+ * decomposing the probes x probes covariance matrix this decomposes the samples x samples Gram matrix of the
+ * probe centered data. Both have the same non zero eigenvalues and the sample scores are the Gram matrix's
+ * eigenvectors times the square roots of its eigenvalues.
+ */
 public class PCAService implements IPCAService {
 
+	private static final int	COMPONENTS		= 4;
+	// probes per block when the Gram matrix is summed up in parallel
+	private static final int	BLOCK_SIZE		= 2048;
+
+	// one result per experiment, as long as its responses are the same matrix.
+	private static final Map<DoseResponseExperiment, CachedPCA>	cache	= Collections
+			.synchronizedMap(new WeakHashMap<>());
+
 	@Override
 	public PCAResults calculatePCA(DoseResponseExperiment doseResponseExperiment) {
+		PCAResults cached = getCachedPCA(doseResponseExperiment);
+		if(cached != null) {
+			return cached;
+		}
+
+		float[] matrix = doseResponseExperiment.getResponseMatrix();
+		PCAResults pcaResults = createResults(doseResponseExperiment, getScores(doseResponseExperiment, matrix));
+		// a ragged experiment has no matrix to check against, so it isn't cached
+		if(matrix != null) {
+			cache.put(doseResponseExperiment, new CachedPCA(matrix, pcaResults));
+		}
+		return pcaResults;
+	}
+
+	@Override
+	public PCAResults getCachedPCA(DoseResponseExperiment doseResponseExperiment) {
+		CachedPCA cached = cache.get(doseResponseExperiment);
+		if(cached != null && cached.matrix == doseResponseExperiment.getResponseMatrix()) {
+			return cached.pcaResults;
+		}
+		return null;
+	}
+
+	/*
+	 * scores[sample][component]
+	 */
+	private double[][] getScores(DoseResponseExperiment doseResponseExperiment, float[] matrix) {
 		List<ProbeResponse> responses = doseResponseExperiment.getProbeResponses();
-		List<Treatment> treatments = doseResponseExperiment.getTreatments();
-		double[][] numericMatrix = new double[responses.size()][responses.get(0).getResponses().size()];
-		double[] doseVector = new double[treatments.size()];
-		
-		//Fill numeric matrix
-		for(int i = 0; i < numericMatrix.length; i++) {
-			for(int j = 0; j < numericMatrix[i].length; j++) {
-				numericMatrix[i][j] = responses.get(i).getResponses().get(j);
+		int numProbes = responses.size();
+		int numSamples = responses.get(0).getResponseCount();
+
+		// upper triangle of the Gram matrix, summed per block of probes and then added up.
+		int numBlocks = (numProbes + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		double[] gram = IntStream.range(0, numBlocks).parallel().mapToObj(block -> {
+			double[] partial = new double[numSamples * numSamples];
+			double[] row = new double[numSamples];
+			int end = Math.min(numProbes, (block + 1) * BLOCK_SIZE);
+			for(int i = block * BLOCK_SIZE; i < end; i++) {
+				double mean = 0.0;
+				for(int j = 0; j < numSamples; j++) {
+					row[j] = matrix != null ? matrix[i * numSamples + j] : responses.get(i).getResponse(j);
+					mean += row[j];
+				}
+				mean /= numSamples;
+				for(int j = 0; j < numSamples; j++) {
+					row[j] -= mean;
+				}
+				for(int a = 0; a < numSamples; a++) {
+					double ra = row[a];
+					int offset = a * numSamples;
+					for(int b = a; b < numSamples; b++) {
+						partial[offset + b] += ra * row[b];
+					}
+				}
+			}
+			return partial;
+		}).reduce(new double[numSamples * numSamples], (x, y) -> {
+			double[] sum = new double[x.length];
+			for(int k = 0; k < sum.length; k++) {
+				sum[k] = x[k] + y[k];
+			}
+			return sum;
+		});
+
+		RealMatrix gramMatrix = MatrixUtils.createRealMatrix(numSamples, numSamples);
+		for(int a = 0; a < numSamples; a++) {
+			for(int b = a; b < numSamples; b++) {
+				gramMatrix.setEntry(a, b, gram[a * numSamples + b]);
+				gramMatrix.setEntry(b, a, gram[a * numSamples + b]);
 			}
 		}
-		//Fill doseVector
-		for(int i = 0; i < doseVector.length; i++) {
-			doseVector[i] = treatments.get(i).getDose();
+		EigenDecomposition eigen = new EigenDecomposition(gramMatrix);
+
+		double[] eigenvalues = eigen.getRealEigenvalues();
+		Integer[] order = new Integer[eigenvalues.length];
+		for(int k = 0; k < order.length; k++) {
+			order[k] = k;
+		}
+		Arrays.sort(order, (x, y) -> Double.compare(eigenvalues[y], eigenvalues[x]));
+
+		// experiments with fewer than COMPONENTS samples get zeros for the missing components
+		double[][] scores = new double[numSamples][COMPONENTS];
+		for(int c = 0; c < COMPONENTS && c < order.length; c++) {
+			double scale = Math.sqrt(Math.max(0.0, eigenvalues[order[c]]));
+			double[] vector = eigen.getEigenvector(order[c]).toArray();
+
+			// the sign of an eigenvector is arbitrary. make the largest score positive so the plot is stable.
+			int largest = 0;
+			for(int s = 1; s < numSamples; s++) {
+				if(Math.abs(vector[s]) > Math.abs(vector[largest])) {
+					largest = s;
+				}
+			}
+			if(vector[largest] < 0) {
+				scale = -scale;
+			}
+			for(int s = 0; s < numSamples; s++) {
+				scores[s][c] = vector[s] * scale;
+			}
 		}
-		
-		PCA pca = new PCA(MatrixUtils.createRealMatrix(numericMatrix).transpose(), CovarianceType.COVARIANCE, 4);
+		return scores;
+	}
+
+	private PCAResults createResults(DoseResponseExperiment doseResponseExperiment, double[][] scores) {
+		List<Treatment> treatments = doseResponseExperiment.getTreatments();
 		PCAResults pcaResults = new PCAResults();
 		List<PCAResult> pcaResultList = new ArrayList<PCAResult>();
-		RealMatrix transformedData = pca.getTransformedData();
-		for(int i = 0; i < transformedData.getRowDimension(); i++) {
+		for(int i = 0; i < scores.length; i++) {
 			PCAResult singleRow = new PCAResult();
-			singleRow.setDosage(doseVector[i] + " - " + doseResponseExperiment.getTreatments().get(i).getName());
+			double dose = treatments.get(i).getDose();
+			singleRow.setDosage(dose + " - " + treatments.get(i).getName());
 			List<Float> floatList = new ArrayList<Float>();
-			for(int j = 0; j < transformedData.getColumnDimension(); j++) {
-				floatList.add((float) transformedData.getEntry(i, j));
+			for(int j = 0; j < scores[i].length; j++) {
+				floatList.add((float) scores[i][j]);
 			}
 			singleRow.setPrincipleComponents(floatList);
 			pcaResultList.add(singleRow);
 		}
-		
+
 		pcaResults.setName(doseResponseExperiment.getName() + "_PCA");
 		pcaResults.setPcaResults(pcaResultList);
 		return pcaResults;
 	}
+
+	private static class CachedPCA {
+		private final float[]		matrix;
+		private final PCAResults	pcaResults;
+
+		CachedPCA(float[] matrix, PCAResults pcaResults) {
+			this.matrix = matrix;
+			this.pcaResults = pcaResults;
+		}
+	}
 }
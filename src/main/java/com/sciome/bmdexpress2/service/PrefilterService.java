@@ -1,11 +1,15 @@
 package com.sciome.bmdexpress2.service;
 
+import java.lang.ref.WeakReference;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.SynchronousQueue;
@@ -22,6 +26,7 @@ import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResult;
 import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResults;
 import com.sciome.bmdexpress2.mvp.model.prefilter.OriogenResult;
 import com.sciome.bmdexpress2.mvp.model.prefilter.OriogenResults;
+import com.sciome.bmdexpress2.mvp.model.prefilter.PrefilterResult;
 import com.sciome.bmdexpress2.mvp.model.prefilter.PrefilterResults;
 import com.sciome.bmdexpress2.mvp.model.prefilter.WilliamsTrendResult;
 import com.sciome.bmdexpress2.mvp.model.prefilter.WilliamsTrendResults;
@@ -29,8 +34,10 @@ import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
 import com.sciome.bmdexpress2.mvp.model.probe.Treatment;
 import com.sciome.bmdexpress2.serviceInterface.IPrefilterService;
 import com.sciome.bmdexpress2.shared.BMDExpressProperties;
+import com.sciome.bmdexpress2.util.metrics.MetricsRegistry;
 import com.sciome.bmdexpress2.util.prefilter.FoldChange;
 import com.sciome.bmdexpress2.util.prefilter.OneWayANOVAAnalysis;
+import com.sciome.bmdexpress2.util.prefilter.PrefilterStatistics;
 import com.sciome.commons.interfaces.SimpleProgressUpdater;
 import com.sciome.commons.math.MathUtil;
 import com.sciome.commons.math.dunnetts.DunnettsTest;
@@ -48,6 +55,15 @@ public class PrefilterService implements IPrefilterService
 	private OriogenUtil				oriogenUtil		= new OriogenUtil();
 	private boolean					cancel			= false;
 	private ExecutorService 		executor;
+
+	// the unfiltered statistics of earlier williams and oriogen runs, per experiment and test settings. a run
+	// on the same data with the same test settings only applies its cutoffs to these.
+	private static final Map<DoseResponseExperiment, Map<String, PrefilterStatistics>>	statisticsCache	= Collections
+			.synchronizedMap(new WeakHashMap<>());
+	// how each williams or oriogen result was made, so it can be re-thresholded.
+	private static final Map<PrefilterResults, RethresholdSource>						rethresholdSources	= Collections
+			.synchronizedMap(new WeakHashMap<>());
+
 	/**
 	 * Performs a william's trend analysis and returns the corresponding WilliamsTrendResult object
 	 */
@@ -58,174 +74,160 @@ public class PrefilterService implements IPrefilterService
 			int numThreads, SimpleProgressUpdater updater, boolean tTest)
 	{
 		long startTime = System.currentTimeMillis();
-		DoseResponseExperiment doseResponseExperiment = processableData
-				.getProcessableDoseResponseExperiment();
-
-		AnalysisInfo analysisInfo = new AnalysisInfo();
-		List<String> notes = new ArrayList<>();
-
-		notes.add("Williams Trend Test");
-		notes.add("Data Source: " + processableData);
-		notes.add("Work Source: " + processableData.getParentDataSetName());
-		notes.add("BMDExpress2 Version: " + BMDExpressProperties.getInstance().getVersion());
-		notes.add("Timestamp (Start Time): " + BMDExpressProperties.getInstance().getTimeStamp());
-
-		notes.add("Number of Permutations: " + String.valueOf(numberOfPermutations));
-
-		double baseValue = 2.0;
-		boolean isLogTransformation = true;
-		if (processableData.getLogTransformation().equals(LogTransformationEnum.BASE10))
-			baseValue = 10.0f;
-		else if (processableData.getLogTransformation().equals(LogTransformationEnum.NATURAL))
-			baseValue = 2.718281828459045;
-		else if (processableData.getLogTransformation().equals(LogTransformationEnum.NONE))
-			isLogTransformation = false;
-
-		// get a list of williamsTrendResult
-		List<ProbeResponse> responses = doseResponseExperiment.getProbeResponses();
-		List<Treatment> treatments = doseResponseExperiment.getTreatments();
-		double[][] numericMatrix = new double[responses.size()][responses.get(0).getResponses().size()];
-		double[] doseVector = new double[treatments.size()];
-
-		// Fill numeric matrix
-		for (int i = 0; i < numericMatrix.length; i++)
+		try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("prefilter.williams"))
 		{
-			for (int j = 0; j < numericMatrix[i].length; j++)
+			DoseResponseExperiment doseResponseExperiment = processableData
+					.getProcessableDoseResponseExperiment();
+
+			AnalysisInfo analysisInfo = new AnalysisInfo();
+			List<String> notes = new ArrayList<>();
+
+			notes.add("Williams Trend Test");
+			notes.add("Data Source: " + processableData);
+			notes.add("Work Source: " + processableData.getParentDataSetName());
+			notes.add("BMDExpress2 Version: " + BMDExpressProperties.getInstance().getVersion());
+			notes.add("Timestamp (Start Time): " + BMDExpressProperties.getInstance().getTimeStamp());
+
+			notes.add("Number of Permutations: " + String.valueOf(numberOfPermutations));
+
+			double baseValue = 2.0;
+			boolean isLogTransformation = true;
+			if (processableData.getLogTransformation().equals(LogTransformationEnum.BASE10))
+				baseValue = 10.0f;
+			else if (processableData.getLogTransformation().equals(LogTransformationEnum.NATURAL))
+				baseValue = 2.718281828459045;
+			else if (processableData.getLogTransformation().equals(LogTransformationEnum.NONE))
+				isLogTransformation = false;
+
+			// get a list of williamsTrendResult
+			List<ProbeResponse> responses = doseResponseExperiment.getProbeResponses();
+			String statisticsKey = "williams|" + numberOfPermutations + "|" + numThreads + "|"
+					+ processableData.getLogTransformation();
+			PrefilterStatistics statistics = getCachedStatistics(doseResponseExperiment, statisticsKey);
+			if (statistics != null)
 			{
-				numericMatrix[i][j] = responses.get(i).getResponses().get(j);
-			}
-		}
-
-		// Fill doseVector
-		for (int i = 0; i < doseVector.length; i++)
-		{
-			doseVector[i] = treatments.get(i).getDose();
-		}
-		
-		if(updater != null)
-			updater.setMessage("Williams Trend");
-		
-		WilliamsTrendTestResult result = williamsUtil.williams(MatrixUtils.createRealMatrix(numericMatrix),
-				MatrixUtils.createRealVector(doseVector), 23524, Integer.valueOf(numberOfPermutations), null,
-				Integer.valueOf(numThreads), updater);
-
-		if (result == null)
-		{
-			if(updater != null)
-				updater.setProgress(0);
-			return null;
-		}
-
-		List<WilliamsTrendResult> williamsTrendResultList = new ArrayList<WilliamsTrendResult>();
-		for (int i = 0; i < result.getTestStatistic().getDimension(); i++)
-		{
-			if (!cancel)
-			{
-				WilliamsTrendResult singleResult = new WilliamsTrendResult();
-				singleResult.setAdjustedPValue(result.getAdjustedPValue().getEntry(i));
-				singleResult.setpValue(result.getpValue().getEntry(i));
-				singleResult.setProbeResponse(responses.get(i));
-				williamsTrendResultList.add(singleResult);
+				notes.add("Test Statistics Reused From An Earlier Run: true");
 			}
 			else
 			{
-				return null;
-			}
-		}
-		// now apply the filters to the list and remove items that don't match up
-		int resultSize = williamsTrendResultList.size();
-
-		for (int i = 0; i < resultSize; i++)
-		{
-			if (!cancel)
-			{
-				WilliamsTrendResult williamsTrendResult = williamsTrendResultList.get(i);
+				List<Treatment> treatments = doseResponseExperiment.getTreatments();
+				double[][] numericMatrix = new double[responses.size()][responses.get(0).getResponseCount()];
+				double[] doseVector = new double[treatments.size()];
 
-				double pValueToCheck = williamsTrendResult.getpValue();
+				// Fill numeric matrix
+				for (int i = 0; i < numericMatrix.length; i++)
+				{
+					for (int j = 0; j < numericMatrix[i].length; j++)
+					{
+						numericMatrix[i][j] = responses.get(i).getResponse(j);
+					}
+				}
 
-				if (multipleTestingCorrection)
+				// Fill doseVector
+				for (int i = 0; i < doseVector.length; i++)
 				{
-					pValueToCheck = williamsTrendResult.getAdjustedPValue();
+					doseVector[i] = treatments.get(i).getDose();
 				}
 
-				// check if control gene
-				if (
-				// first check the pValue
-				((Double.isNaN(pValueToCheck) && pCutOff < 9999) || pValueToCheck >= pCutOff) ||
-				// second check if it is a control gene
-						(filterOutControlGenes && williamsTrendResult.getProbeResponse().getProbe().getId()
-								.startsWith("AFFX"))
+				if(updater != null)
+					updater.setMessage("Williams Trend");
 
-				)
+				WilliamsTrendTestResult result = williamsUtil.williams(MatrixUtils.createRealMatrix(numericMatrix),
+						MatrixUtils.createRealVector(doseVector), 23524, Integer.valueOf(numberOfPermutations), null,
+						Integer.valueOf(numThreads), updater);
+
+				if (result == null)
 				{
-					williamsTrendResultList.remove(i);
-					i--;
-					resultSize--;
+					if(updater != null)
+						updater.setProgress(0);
+					return null;
 				}
+
+				statistics = new PrefilterStatistics(responses, result.getpValue().toArray(),
+						result.getAdjustedPValue().toArray(), null);
+				cacheStatistics(doseResponseExperiment, statisticsKey, statistics);
 			}
-			else
+
+			// apply the p-value and control gene filters
+			List<Integer> passed = applyCutoffs(statistics, pCutOff, multipleTestingCorrection,
+					filterOutControlGenes);
+			if (passed == null)
 			{
 				return null;
 			}
-		}
+			List<WilliamsTrendResult> williamsTrendResultList = new ArrayList<WilliamsTrendResult>();
+			for (int i : passed)
+			{
+				WilliamsTrendResult singleResult = new WilliamsTrendResult();
+				singleResult.setAdjustedPValue(statistics.getAdjustedPValue(i));
+				singleResult.setpValue(statistics.getpValue(i));
+				singleResult.setProbeResponse(statistics.getProbeResponse(i));
+				williamsTrendResultList.add(singleResult);
+			}
 
-		// create a new WilliamsTrendResults object and put it on the Event BuS
-		WilliamsTrendResults williamsTrendResults = new WilliamsTrendResults();
-		williamsTrendResults.setDoseResponseExperiement(doseResponseExperiment);
-		williamsTrendResults.setWilliamsTrendResults(williamsTrendResultList);
+			// create a new WilliamsTrendResults object and put it on the Event BuS
+			WilliamsTrendResults williamsTrendResults = new WilliamsTrendResults();
+			williamsTrendResults.setDoseResponseExperiement(doseResponseExperiment);
+			williamsTrendResults.setWilliamsTrendResults(williamsTrendResultList);
 
-		performFoldFilter(williamsTrendResults, processableData, foldFilterValue,
-				isLogTransformation, baseValue, useFoldFilter);
-		performNoelLoel(williamsTrendResults, loelPValue, loelFoldChange, tTest, numThreads, updater);
+			performFoldFilter(williamsTrendResults, processableData, foldFilterValue,
+					isLogTransformation, baseValue, useFoldFilter, statistics);
+			performNoelLoel(williamsTrendResults, loelPValue, loelFoldChange, tTest, numThreads, updater, statistics);
 		
-		if(cancel) {
-			return null;
-		}
+			if(cancel) {
+				return null;
+			}
 
-		DecimalFormat df = new DecimalFormat("#.####");
-		String name = doseResponseExperiment.getName() + "_williams_" + df.format(pCutOff);
+			RethresholdSource source = new RethresholdSource(processableData, numThreads);
+			source.numberOfPermutations = numberOfPermutations;
+			rethresholdSources.put(williamsTrendResults, source);
 
-		if (multipleTestingCorrection)
-			notes.add("Adjusted P-Value Cutoff: " + df.format(pCutOff));
-		else
-			notes.add("Unadjusted P-Value Cutoff: " + df.format(pCutOff));
-
-		notes.add("Multiple Testing Correction: " + String.valueOf(multipleTestingCorrection));
-		notes.add("Filter Out Control Genes: " + String.valueOf(filterOutControlGenes));
-		if(tTest)
-			notes.add("NOTEL/LOTEL Test: " + "T-Test");
-		else 
-			notes.add("NOTEL/LOTEL Test: " + "Dunnett's Test");
+			DecimalFormat df = new DecimalFormat("#.####");
+			String name = doseResponseExperiment.getName() + "_williams_" + df.format(pCutOff);
+
+			if (multipleTestingCorrection)
+				notes.add("Adjusted P-Value Cutoff: " + df.format(pCutOff));
+			else
+				notes.add("Unadjusted P-Value Cutoff: " + df.format(pCutOff));
+
+			notes.add("Multiple Testing Correction: " + String.valueOf(multipleTestingCorrection));
+			notes.add("Filter Out Control Genes: " + String.valueOf(filterOutControlGenes));
+			if(tTest)
+				notes.add("NOTEL/LOTEL Test: " + "T-Test");
+			else 
+				notes.add("NOTEL/LOTEL Test: " + "Dunnett's Test");
 		
-		notes.add("NOTEL/LOTEL p-Value Threshold: " + loelPValue);
-		notes.add("NOTEL/LOTEL Fold Change Threshold: " + loelFoldChange);
+			notes.add("NOTEL/LOTEL p-Value Threshold: " + loelPValue);
+			notes.add("NOTEL/LOTEL Fold Change Threshold: " + loelFoldChange);
 		
-		if (multipleTestingCorrection)
-		{
-			name += "_MTC";
-		}
-		else
-		{
-			name += "_NOMTC";
-		}
-		if (useFoldFilter)
-		{
-			notes.add("Used Fold Filter with cuttoff: " + foldFilterValue);
-			notes.add("Data marked as log transformation: " + String.valueOf(isLogTransformation));
-			name += "_foldfilter" + foldFilterValue;
-		}
-		else
-		{
-			name += "_nofoldfilter";
+			if (multipleTestingCorrection)
+			{
+				name += "_MTC";
+			}
+			else
+			{
+				name += "_NOMTC";
+			}
+			if (useFoldFilter)
+			{
+				notes.add("Used Fold Filter with cuttoff: " + foldFilterValue);
+				notes.add("Data marked as log transformation: " + String.valueOf(isLogTransformation));
+				name += "_foldfilter" + foldFilterValue;
+			}
+			else
+			{
+				name += "_nofoldfilter";
+			}
+			williamsTrendResults.setName(name);
+			analysisInfo.setNotes(notes);
+			williamsTrendResults.setAnalysisInfo(analysisInfo);
+
+			long endTime = System.currentTimeMillis();
+			timer.stop(processableData.getProcessableProbeResponses().size());
+			long runTime = endTime - startTime;
+			analysisInfo.getNotes().add("Total Run Time: " + runTime / 1000 + " seconds");
+			return williamsTrendResults;
 		}
-		williamsTrendResults.setName(name);
-		analysisInfo.setNotes(notes);
-		williamsTrendResults.setAnalysisInfo(analysisInfo);
-
-		long endTime = System.currentTimeMillis();
-		long runTime = endTime - startTime;
-		analysisInfo.getNotes().add("Total Run Time: " + runTime / 1000 + " seconds");
-		return williamsTrendResults;
 	}
 
 	/**
@@ -238,227 +240,224 @@ public class PrefilterService implements IPrefilterService
 			double loelFoldChange, int numThreads, SimpleProgressUpdater updater, boolean tTest)
 	{
 		long startTime = System.currentTimeMillis();
-		DoseResponseExperiment doseResponseExperiment = processableData
-				.getProcessableDoseResponseExperiment();
+		try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("prefilter.oriogen"))
+		{
+			DoseResponseExperiment doseResponseExperiment = processableData
+					.getProcessableDoseResponseExperiment();
 
-		DecimalFormat df = new DecimalFormat("#.####");
-		String name = doseResponseExperiment.getName() + "_oriogen_" + df.format(pCutOff);
+			DecimalFormat df = new DecimalFormat("#.####");
+			String name = doseResponseExperiment.getName() + "_oriogen_" + df.format(pCutOff);
 
-		AnalysisInfo analysisInfo = new AnalysisInfo();
-		List<String> notes = new ArrayList<>();
+			AnalysisInfo analysisInfo = new AnalysisInfo();
+			List<String> notes = new ArrayList<>();
 
-		notes.add("Oriogen");
-		notes.add("Data Source: " + processableData);
-		notes.add("Work Source: " + processableData.getParentDataSetName());
-		notes.add("BMDExpress2 Version: " + BMDExpressProperties.getInstance().getVersion());
-		notes.add("Timestamp (Start Time): " + BMDExpressProperties.getInstance().getTimeStamp());
+			notes.add("Oriogen");
+			notes.add("Data Source: " + processableData);
+			notes.add("Work Source: " + processableData.getParentDataSetName());
+			notes.add("BMDExpress2 Version: " + BMDExpressProperties.getInstance().getVersion());
+			notes.add("Timestamp (Start Time): " + BMDExpressProperties.getInstance().getTimeStamp());
 
-		if (multipleTestingCorrection)
-			notes.add("Adjusted P-Value Cutoff: " + df.format(pCutOff));
-		else
-			notes.add("Unadjusted P-Value Cutoff: " + df.format(pCutOff));
-
-		notes.add("Number of Initial Bootstraps: " + String.valueOf(initialBootstraps));
-		notes.add("Number of Maximum Bootstraps: " + String.valueOf(maxBootstraps));
-		notes.add("Shrinkage Adjustment Percentile: " + String.valueOf(s0Adjustment));
-		notes.add("Multiple Testing Correction: " + String.valueOf(multipleTestingCorrection));
-		notes.add("Filter Out Control Genes: " + String.valueOf(filterOutControlGenes));
-		if(tTest)
-			notes.add("NOTEL/LOTEL Test: " + "T-Test");
-		else 
-			notes.add("NOTEL/LOTEL Test: " + "Dunnett's Test");
+			if (multipleTestingCorrection)
+				notes.add("Adjusted P-Value Cutoff: " + df.format(pCutOff));
+			else
+				notes.add("Unadjusted P-Value Cutoff: " + df.format(pCutOff));
+
+			notes.add("Number of Initial Bootstraps: " + String.valueOf(initialBootstraps));
+			notes.add("Number of Maximum Bootstraps: " + String.valueOf(maxBootstraps));
+			notes.add("Shrinkage Adjustment Percentile: " + String.valueOf(s0Adjustment));
+			notes.add("Multiple Testing Correction: " + String.valueOf(multipleTestingCorrection));
+			notes.add("Filter Out Control Genes: " + String.valueOf(filterOutControlGenes));
+			if(tTest)
+				notes.add("NOTEL/LOTEL Test: " + "T-Test");
+			else 
+				notes.add("NOTEL/LOTEL Test: " + "Dunnett's Test");
 		
-		notes.add("NOTEL/LOTEL p-Value Threshold: " + loelPValue);
-		notes.add("NOTEL/LOTEL Fold Change Threshold: " + loelFoldChange);
-
-		Origen_Data data = new Origen_Data();
-
-		double baseValue = 2.0;
-		boolean isLogTransformation = true;
-		if (processableData.getLogTransformation().equals(LogTransformationEnum.BASE10))
-		{
-			data.setLogTransformType(4);
-			baseValue = 10.0f;
-		}
-		else if (processableData.getLogTransformation().equals(LogTransformationEnum.NATURAL))
-		{
-			data.setLogTransformType(3);
-			baseValue = 2.718281828459045;
-		}
-		else if (processableData.getLogTransformation().equals(LogTransformationEnum.NONE))
-		{
-			data.setLogTransformType(1);
-			isLogTransformation = false;
-		}
-		else
-		{
-			data.setLogTransformType(2);
-		}
+			notes.add("NOTEL/LOTEL p-Value Threshold: " + loelPValue);
+			notes.add("NOTEL/LOTEL Fold Change Threshold: " + loelFoldChange);
 
-		// get a list of oriogenResult
-		List<ProbeResponse> responses = doseResponseExperiment.getProbeResponses();
-		List<Treatment> treatments = doseResponseExperiment.getTreatments();
-		double[][] numericMatrix = new double[responses.size()][responses.get(0).getResponses().size()];
-		double[] doseVector = new double[treatments.size()];
+			Origen_Data data = new Origen_Data();
 
-		// Fill numeric matrix
-		for (int i = 0; i < numericMatrix.length; i++)
-		{
-			for (int j = 0; j < numericMatrix[i].length; j++)
+			double baseValue = 2.0;
+			boolean isLogTransformation = true;
+			if (processableData.getLogTransformation().equals(LogTransformationEnum.BASE10))
 			{
-				numericMatrix[i][j] = responses.get(i).getResponses().get(j);
+				data.setLogTransformType(4);
+				baseValue = 10.0f;
 			}
-		}
-
-		// Fill doseVector
-		double current = doseVector[0];
-		int count = 0;
-		ArrayList<Integer> list = new ArrayList<Integer>();
-		for (int i = 0; i < doseVector.length; i++)
-		{
-			doseVector[i] = treatments.get(i).getDose();
-			if (current == doseVector[i])
+			else if (processableData.getLogTransformation().equals(LogTransformationEnum.NATURAL))
 			{
-				count++;
+				data.setLogTransformType(3);
+				baseValue = 2.718281828459045;
 			}
-			else
+			else if (processableData.getLogTransformation().equals(LogTransformationEnum.NONE))
 			{
-				list.add(count);
-				count = 1;
-			}
-			current = doseVector[i];
-			
-			if(i == doseVector.length - 1) {
-				list.add(count);
-			}
-		}
-
-		data.setInputData(MatrixUtils.createRealMatrix(numericMatrix));
-		data.setNumTimePoints(MathUtil.uniqueValues(MatrixUtils.createRealVector(doseVector)));
-		data.setNumInitialBootStraps(initialBootstraps);
-		data.setFDRLevel(1);
-		data.setRandomSeed(23524);
-		data.setSubRegionPValue(.1);
-		data.setTranspose(false);
-		data.setMaxNumBootStraps(maxBootstraps);
-		data.setLongitudinalSampling(false);
-		data.setS0Percentile(s0Adjustment);
-		data.setmdFdr(false);
-		data.setTwoGroups(false);
-
-		int[] values = new int[30];
-		for (int i = 0; i < values.length - 1; i++)
-		{
-			if (i < list.size())
-			{
-				values[i + 1] = list.get(i);
+				data.setLogTransformType(1);
+				isLogTransformation = false;
 			}
 			else
 			{
-				values[i + 1] = 0;
+				data.setLogTransformType(2);
 			}
-		}
-		data.setSampleSizeDefault(values);
-		data.setNumGenes(numericMatrix.length);
 
-		ArrayList<OriogenTestResult> result = oriogenUtil.oriogen(data, updater);
-
-		if (result == null)
-		{
-			if(updater != null)
-				updater.setProgress(0);
-			return null;
-		}
-
-		List<OriogenResult> oriogenResultList = new ArrayList<OriogenResult>();
-		for (int i = 0; i < result.size(); i++)
-		{
-			if (!cancel)
+			// get a list of oriogenResult
+			List<ProbeResponse> responses = doseResponseExperiment.getProbeResponses();
+			String statisticsKey = "oriogen|" + initialBootstraps + "|" + maxBootstraps + "|" + s0Adjustment + "|"
+					+ processableData.getLogTransformation();
+			PrefilterStatistics statistics = getCachedStatistics(doseResponseExperiment, statisticsKey);
+			if (statistics != null)
 			{
-				OriogenResult singleResult = new OriogenResult();
-				singleResult.setAdjustedPValue(result.get(i).getqValue());
-				singleResult.setpValue(result.get(i).getpValue());
-				singleResult.setProbeResponse(responses.get(i));
-				singleResult.setProfile(result.get(i).getProfileString());
-				oriogenResultList.add(singleResult);
+				notes.add("Test Statistics Reused From An Earlier Run: true");
 			}
 			else
 			{
-				return null;
-			}
-		}
-		// now apply the filters to the list and remove items that don't match up
-		int resultSize = oriogenResultList.size();
+				List<Treatment> treatments = doseResponseExperiment.getTreatments();
+				double[][] numericMatrix = new double[responses.size()][responses.get(0).getResponseCount()];
+				double[] doseVector = new double[treatments.size()];
 
-		for (int i = 0; i < resultSize; i++)
-		{
-			if (!cancel)
-			{
-				OriogenResult oriogenResult = oriogenResultList.get(i);
+				// Fill numeric matrix
+				for (int i = 0; i < numericMatrix.length; i++)
+				{
+					for (int j = 0; j < numericMatrix[i].length; j++)
+					{
+						numericMatrix[i][j] = responses.get(i).getResponse(j);
+					}
+				}
 
-				double pValueToCheck = oriogenResult.getpValue();
+				// Fill doseVector
+				double current = doseVector[0];
+				int count = 0;
+				ArrayList<Integer> list = new ArrayList<Integer>();
+				for (int i = 0; i < doseVector.length; i++)
+				{
+					doseVector[i] = treatments.get(i).getDose();
+					if (current == doseVector[i])
+					{
+						count++;
+					}
+					else
+					{
+						list.add(count);
+						count = 1;
+					}
+					current = doseVector[i];
 
-				if (multipleTestingCorrection)
+					if(i == doseVector.length - 1) {
+						list.add(count);
+					}
+				}
+
+				data.setInputData(MatrixUtils.createRealMatrix(numericMatrix));
+				data.setNumTimePoints(MathUtil.uniqueValues(MatrixUtils.createRealVector(doseVector)));
+				data.setNumInitialBootStraps(initialBootstraps);
+				data.setFDRLevel(1);
+				data.setRandomSeed(23524);
+				data.setSubRegionPValue(.1);
+				data.setTranspose(false);
+				data.setMaxNumBootStraps(maxBootstraps);
+				data.setLongitudinalSampling(false);
+				data.setS0Percentile(s0Adjustment);
+				data.setmdFdr(false);
+				data.setTwoGroups(false);
+
+				int[] values = new int[30];
+				for (int i = 0; i < values.length - 1; i++)
 				{
-					pValueToCheck = oriogenResult.getAdjustedPValue();
+					if (i < list.size())
+					{
+						values[i + 1] = list.get(i);
+					}
+					else
+					{
+						values[i + 1] = 0;
+					}
 				}
+				data.setSampleSizeDefault(values);
+				data.setNumGenes(numericMatrix.length);
 
-				// check if control gene
-				if (
-				// first check the pValue
-				((Double.isNaN(pValueToCheck) && pCutOff < 9999) || pValueToCheck >= pCutOff) ||
-				// second check if it is a control gene
-						(filterOutControlGenes
-								&& oriogenResult.getProbeResponse().getProbe().getId().startsWith("AFFX"))
+				ArrayList<OriogenTestResult> result = oriogenUtil.oriogen(data, updater);
 
-				)
+				if (result == null)
 				{
-					oriogenResultList.remove(i);
-					i--;
-					resultSize--;
+					if(updater != null)
+						updater.setProgress(0);
+					return null;
 				}
+
+				double[] pValues = new double[result.size()];
+				double[] adjustedPValues = new double[result.size()];
+				String[] profiles = new String[result.size()];
+				for (int i = 0; i < result.size(); i++)
+				{
+					adjustedPValues[i] = result.get(i).getqValue();
+					pValues[i] = result.get(i).getpValue();
+					profiles[i] = result.get(i).getProfileString();
+				}
+				statistics = new PrefilterStatistics(responses, pValues, adjustedPValues, profiles);
+				cacheStatistics(doseResponseExperiment, statisticsKey, statistics);
 			}
-			else
+
+			// apply the p-value and control gene filters
+			List<Integer> passed = applyCutoffs(statistics, pCutOff, multipleTestingCorrection,
+					filterOutControlGenes);
+			if (passed == null)
 			{
 				return null;
 			}
-		}
+			List<OriogenResult> oriogenResultList = new ArrayList<OriogenResult>();
+			for (int i : passed)
+			{
+				OriogenResult singleResult = new OriogenResult();
+				singleResult.setAdjustedPValue(statistics.getAdjustedPValue(i));
+				singleResult.setpValue(statistics.getpValue(i));
+				singleResult.setProbeResponse(statistics.getProbeResponse(i));
+				singleResult.setProfile(statistics.getProfile(i));
+				oriogenResultList.add(singleResult);
+			}
 
-		// create a new OriogenResults object and put it on the Event BuS
-		OriogenResults oriogenResults = new OriogenResults();
-		oriogenResults.setDoseResponseExperiement(doseResponseExperiment);
-		oriogenResults.setOriogenResults(oriogenResultList);
+			// create a new OriogenResults object and put it on the Event BuS
+			OriogenResults oriogenResults = new OriogenResults();
+			oriogenResults.setDoseResponseExperiement(doseResponseExperiment);
+			oriogenResults.setOriogenResults(oriogenResultList);
 
-		performFoldFilter(oriogenResults, processableData, foldFilterValue, isLogTransformation, baseValue, useFoldFilter);
-		performNoelLoel(oriogenResults, loelPValue, loelFoldChange, tTest, DEFAULT_NUM_THREADS, updater);
+			performFoldFilter(oriogenResults, processableData, foldFilterValue, isLogTransformation, baseValue, useFoldFilter,
+					statistics);
+			performNoelLoel(oriogenResults, loelPValue, loelFoldChange, tTest, DEFAULT_NUM_THREADS, updater, statistics);
 
-		if (multipleTestingCorrection)
-		{
-			name += "_MTC";
-		}
-		else
-		{
-			name += "_NOMTC";
-		}
-		if (useFoldFilter)
-		{
-			notes.add("Used Fold Filter with cuttoff: " + foldFilterValue);
-			notes.add("Data marked as log transformation: " + String.valueOf(isLogTransformation));
-			name += "_foldfilter" + foldFilterValue;
-		}
-		else
-		{
-			name += "_nofoldfilter";
-		}
-		oriogenResults.setName(name);
-		analysisInfo.setNotes(notes);
-		oriogenResults.setAnalysisInfo(analysisInfo);
+			RethresholdSource source = new RethresholdSource(processableData, numThreads);
+			source.initialBootstraps = initialBootstraps;
+			source.maxBootstraps = maxBootstraps;
+			source.s0Adjustment = s0Adjustment;
+			rethresholdSources.put(oriogenResults, source);
+
+			if (multipleTestingCorrection)
+			{
+				name += "_MTC";
+			}
+			else
+			{
+				name += "_NOMTC";
+			}
+			if (useFoldFilter)
+			{
+				notes.add("Used Fold Filter with cuttoff: " + foldFilterValue);
+				notes.add("Data marked as log transformation: " + String.valueOf(isLogTransformation));
+				name += "_foldfilter" + foldFilterValue;
+			}
+			else
+			{
+				name += "_nofoldfilter";
+			}
+			oriogenResults.setName(name);
+			analysisInfo.setNotes(notes);
+			oriogenResults.setAnalysisInfo(analysisInfo);
 
-		long endTime = System.currentTimeMillis();
-		long runTime = endTime - startTime;
-		analysisInfo.getNotes().add("Total Run Time: " + runTime / 1000 + " seconds");
+			long endTime = System.currentTimeMillis();
+			timer.stop(processableData.getProcessableProbeResponses().size());
+			long runTime = endTime - startTime;
+			analysisInfo.getNotes().add("Total Run Time: " + runTime / 1000 + " seconds");
 
-		return oriogenResults;
+			return oriogenResults;
+		}
 	}
 
 	/**
@@ -473,115 +472,120 @@ public class PrefilterService implements IPrefilterService
 		DecimalFormat df = new DecimalFormat("#.####");
 
 		long startTime = System.currentTimeMillis();
-		AnalysisInfo analysisInfo = new AnalysisInfo();
-		List<String> notes = new ArrayList<>();
+		try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("prefilter.anova"))
+		{
+			AnalysisInfo analysisInfo = new AnalysisInfo();
+			List<String> notes = new ArrayList<>();
 
-		notes.add("One-way ANOVA");
-		notes.add("Data Source: " + processableData);
-		notes.add("Work Source: " + processableData.getParentDataSetName());
-		notes.add("BMDExpress2 Version: " + BMDExpressProperties.getInstance().getVersion());
-		notes.add("Timestamp (Start Time): " + BMDExpressProperties.getInstance().getTimeStamp());
+			notes.add("One-way ANOVA");
+			notes.add("Data Source: " + processableData);
+			notes.add("Work Source: " + processableData.getParentDataSetName());
+			notes.add("BMDExpress2 Version: " + BMDExpressProperties.getInstance().getVersion());
+			notes.add("Timestamp (Start Time): " + BMDExpressProperties.getInstance().getTimeStamp());
 
-		if (multipleTestingCorrection)
-			notes.add("Adjusted P-Value Cutoff: " + df.format(pCutOff));
-		else
-			notes.add("Unadjusted P-Value Cutoff: " + df.format(pCutOff));
-
-		notes.add("Multiple Testing Correction: " + String.valueOf(multipleTestingCorrection));
-		notes.add("Filter Out Control Genes: " + String.valueOf(filterOutControlGenes));
-		if(tTest)
-			notes.add("NOTEL/LOTEL Test: " + "T-Test");
-		else 
-			notes.add("NOTEL/LOTEL Test: " + "Dunnett's Test");
+			if (multipleTestingCorrection)
+				notes.add("Adjusted P-Value Cutoff: " + df.format(pCutOff));
+			else
+				notes.add("Unadjusted P-Value Cutoff: " + df.format(pCutOff));
+
+			notes.add("Multiple Testing Correction: " + String.valueOf(multipleTestingCorrection));
+			notes.add("Filter Out Control Genes: " + String.valueOf(filterOutControlGenes));
+			if(tTest)
+				notes.add("NOTEL/LOTEL Test: " + "T-Test");
+			else 
+				notes.add("NOTEL/LOTEL Test: " + "Dunnett's Test");
 		
-		notes.add("NOTEL/LOTEL p-Value Threshold: " + loelPValue);
-		notes.add("NOTEL/LOTEL Fold Change Threshold: " + loelFoldChange);
-		DoseResponseExperiment doseResponseExperiment = processableData
-				.getProcessableDoseResponseExperiment();
-		// This class should eventually be moved to sciome commons
-		OneWayANOVAAnalysis aNOVAAnalysis = new OneWayANOVAAnalysis();
-
-		double baseValue = 2.0;
-		boolean isLogTransformation = true;
-		if (processableData.getLogTransformation().equals(LogTransformationEnum.BASE10))
-			baseValue = 10.0f;
-		else if (processableData.getLogTransformation().equals(LogTransformationEnum.NATURAL))
-			baseValue = 2.718281828459045;
-		else if (processableData.getLogTransformation().equals(LogTransformationEnum.NONE))
-			isLogTransformation = false;
-
-		// get a list of oneWayResults
-		List<OneWayANOVAResult> oneWayResultList = aNOVAAnalysis.analyzeDoseResponseData(processableData);
-
-		// now apply the filters to the list and remove items that don't match up
-		int resultSize = oneWayResultList.size();
+			notes.add("NOTEL/LOTEL p-Value Threshold: " + loelPValue);
+			notes.add("NOTEL/LOTEL Fold Change Threshold: " + loelFoldChange);
+			DoseResponseExperiment doseResponseExperiment = processableData
+					.getProcessableDoseResponseExperiment();
+			// This class should eventually be moved to sciome commons
+			OneWayANOVAAnalysis aNOVAAnalysis = new OneWayANOVAAnalysis();
+
+			double baseValue = 2.0;
+			boolean isLogTransformation = true;
+			if (processableData.getLogTransformation().equals(LogTransformationEnum.BASE10))
+				baseValue = 10.0f;
+			else if (processableData.getLogTransformation().equals(LogTransformationEnum.NATURAL))
+				baseValue = 2.718281828459045;
+			else if (processableData.getLogTransformation().equals(LogTransformationEnum.NONE))
+				isLogTransformation = false;
+
+			// get a list of oneWayResults
+			List<OneWayANOVAResult> oneWayResultList = aNOVAAnalysis
+					.analyzeDoseResponseData(processableData);
+
+			// now apply the filters to the list and remove items that don't match up
+			int resultSize = oneWayResultList.size();
+
+			for (int i = 0; i < resultSize; i++)
+			{
+				OneWayANOVAResult oneWayResult = oneWayResultList.get(i);
 
-		for (int i = 0; i < resultSize; i++)
-		{
-			OneWayANOVAResult oneWayResult = oneWayResultList.get(i);
+				double pValueToCheck = oneWayResult.getpValue();
 
-			double pValueToCheck = oneWayResult.getpValue();
+				if (multipleTestingCorrection)
+				{
+					pValueToCheck = oneWayResult.getAdjustedPValue();
+				}
 
-			if (multipleTestingCorrection)
-			{
-				pValueToCheck = oneWayResult.getAdjustedPValue();
-			}
+				// check if control gene
+				if (
+				// first check the pValue
+				((Double.isNaN(pValueToCheck) && pCutOff < 9999) || pValueToCheck >= pCutOff) ||
+				// second check if it is a control gene
+						(filterOutControlGenes
+								&& oneWayResult.getProbeResponse().getProbe().getId().startsWith("AFFX"))
 
-			// check if control gene
-			if (
-			// first check the pValue
-			((Double.isNaN(pValueToCheck) && pCutOff < 9999) || pValueToCheck >= pCutOff) ||
-			// second check if it is a control gene
-					(filterOutControlGenes
-							&& oneWayResult.getProbeResponse().getProbe().getId().startsWith("AFFX"))
+				)
+				{
+					oneWayResultList.remove(i);
+					i--;
+					resultSize--;
+				}
 
-			)
-			{
-				oneWayResultList.remove(i);
-				i--;
-				resultSize--;
 			}
 
-		}
-
-		// create a new OneWayANOVAAnaylisResults object and put it on the Event BuS
-		OneWayANOVAResults oneWayResults = new OneWayANOVAResults();
-		oneWayResults.setDoseResponseExperiement(doseResponseExperiment);
-		oneWayResults.setOneWayANOVAResults(oneWayResultList);
+			// create a new OneWayANOVAAnaylisResults object and put it on the Event BuS
+			OneWayANOVAResults oneWayResults = new OneWayANOVAResults();
+			oneWayResults.setDoseResponseExperiement(doseResponseExperiment);
+			oneWayResults.setOneWayANOVAResults(oneWayResultList);
 
-		performFoldFilter(oneWayResults, processableData, foldFilterValue, isLogTransformation,
-				baseValue, useFoldFilter);
-		performNoelLoel(oneWayResults, loelPValue, loelFoldChange, tTest, DEFAULT_NUM_THREADS, updater);
+			performFoldFilter(oneWayResults, processableData, foldFilterValue, isLogTransformation,
+					baseValue, useFoldFilter, null);
+			performNoelLoel(oneWayResults, loelPValue, loelFoldChange, tTest, DEFAULT_NUM_THREADS, updater, null);
 
-		String name = doseResponseExperiment.getName() + "_oneway_" + df.format(pCutOff);
+			String name = doseResponseExperiment.getName() + "_oneway_" + df.format(pCutOff);
 
-		if (multipleTestingCorrection)
-		{
-			name += "_MTC";
-		}
-		else
-		{
-			name += "_NOMTC";
-		}
-		if (useFoldFilter)
-		{
-			notes.add("Used Fold Filter with cuttoff: " + foldFilterValue);
-			notes.add("Data marked as log transformation: " + String.valueOf(isLogTransformation));
-			name += "_foldfilter" + foldFilterValue;
-		}
-		else
-		{
-			name += "_nofoldfilter";
-		}
-		oneWayResults.setName(name);
-		analysisInfo.setNotes(notes);
-		oneWayResults.setAnalysisInfo(analysisInfo);
+			if (multipleTestingCorrection)
+			{
+				name += "_MTC";
+			}
+			else
+			{
+				name += "_NOMTC";
+			}
+			if (useFoldFilter)
+			{
+				notes.add("Used Fold Filter with cuttoff: " + foldFilterValue);
+				notes.add("Data marked as log transformation: " + String.valueOf(isLogTransformation));
+				name += "_foldfilter" + foldFilterValue;
+			}
+			else
+			{
+				name += "_nofoldfilter";
+			}
+			oneWayResults.setName(name);
+			analysisInfo.setNotes(notes);
+			oneWayResults.setAnalysisInfo(analysisInfo);
 
-		long endTime = System.currentTimeMillis();
-		long runTime = endTime - startTime;
-		analysisInfo.getNotes().add("Total Run Time: " + runTime / 1000 + " seconds");
+			long endTime = System.currentTimeMillis();
+			timer.stop(processableData.getProcessableProbeResponses().size());
+			long runTime = endTime - startTime;
+			analysisInfo.getNotes().add("Total Run Time: " + runTime / 1000 + " seconds");
 
-		return oneWayResults;
+			return oneWayResults;
+		}
 	}
 
 	public void cancel()
@@ -608,8 +612,100 @@ public class PrefilterService implements IPrefilterService
 		cancel = false;
 	}
 
+	/**
+	 * Derive a new filtered result from the cached statistics of a williams or oriogen result, as if the test
+	 * had been run again with the new cutoffs. The test itself is not repeated, so this takes milliseconds
+	 * instead of the time of the permutations or bootstraps. Throws an IllegalArgumentException when the
+	 * statistics of prefilterResults are not available (e.g. it was loaded from a file).
+	 */
+	@Override
+	public PrefilterResults rethreshold(PrefilterResults prefilterResults, double pCutOff,
+			boolean multipleTestingCorrection, boolean filterOutControlGenes, boolean useFoldFilter,
+			double foldFilterValue, double loelPValue, double loelFoldChange, SimpleProgressUpdater updater,
+			boolean tTest)
+	{
+		RethresholdSource source = rethresholdSources.get(prefilterResults);
+		IStatModelProcessable processableData = source == null ? null : source.processableData.get();
+		if (processableData == null)
+			throw new IllegalArgumentException("The test statistics of " + prefilterResults
+					+ " are not available anymore. Please run the test again.");
+
+		if (prefilterResults instanceof WilliamsTrendResults)
+			return williamsTrendAnalysis(processableData, pCutOff, multipleTestingCorrection,
+					filterOutControlGenes, useFoldFilter, foldFilterValue, source.numberOfPermutations,
+					loelPValue, loelFoldChange, source.numThreads, updater, tTest);
+		else
+			return oriogenAnalysis(processableData, pCutOff, multipleTestingCorrection,
+					source.initialBootstraps, source.maxBootstraps, source.s0Adjustment, filterOutControlGenes,
+					useFoldFilter, foldFilterValue, loelPValue, loelFoldChange, source.numThreads, updater,
+					tTest);
+	}
+
+	@Override
+	public boolean canRethreshold(PrefilterResults prefilterResults)
+	{
+		RethresholdSource source = rethresholdSources.get(prefilterResults);
+		return source != null && source.processableData.get() != null;
+	}
+
+	private PrefilterStatistics getCachedStatistics(DoseResponseExperiment doseResponseExperiment, String key)
+	{
+		Map<String, PrefilterStatistics> statisticsByKey = statisticsCache.get(doseResponseExperiment);
+		if (statisticsByKey == null)
+			return null;
+		PrefilterStatistics statistics = statisticsByKey.get(key);
+		// the probes of the experiment can be changed, then the statistics are of no use.
+		if (statistics == null || !statistics.isFor(doseResponseExperiment.getProbeResponses()))
+			return null;
+		return statistics;
+	}
+
+	private void cacheStatistics(DoseResponseExperiment doseResponseExperiment, String key,
+			PrefilterStatistics statistics)
+	{
+		// jobs on the same experiment with different test settings run at the same time.
+		statisticsCache.computeIfAbsent(doseResponseExperiment, e -> new ConcurrentHashMap<>()).put(key,
+				statistics);
+	}
+
+	/*
+	 * the indexes of the probes that pass the p-value and control gene filters or null if cancelled.
+	 */
+	private List<Integer> applyCutoffs(PrefilterStatistics statistics, double pCutOff,
+			boolean multipleTestingCorrection, boolean filterOutControlGenes)
+	{
+		List<Integer> passed = new ArrayList<>();
+		for (int i = 0; i < statistics.size(); i++)
+		{
+			if (cancel)
+				return null;
+
+			double pValueToCheck = statistics.getpValue(i);
+
+			if (multipleTestingCorrection)
+			{
+				pValueToCheck = statistics.getAdjustedPValue(i);
+			}
+
+			// check if control gene
+			if (
+			// first check the pValue
+			((Double.isNaN(pValueToCheck) && pCutOff < 9999) || pValueToCheck >= pCutOff) ||
+			// second check if it is a control gene
+					(filterOutControlGenes
+							&& statistics.getProbeResponse(i).getProbe().getId().startsWith("AFFX")))
+				continue;
+			passed.add(i);
+		}
+		return passed;
+	}
+
+	/*
+	 * statistics may be null. otherwise the fold changes are taken from it or remembered in it.
+	 */
 	private void performFoldFilter(PrefilterResults prefilterResults, IStatModelProcessable processableData,
-			double foldFilterValue, boolean isLogTransformation, double baseValue, boolean useFoldFilter)
+			double foldFilterValue, boolean isLogTransformation, double baseValue, boolean useFoldFilter,
+			PrefilterStatistics statistics)
 	{
 		int resultSize = prefilterResults.getPrefilterResults().size();
 
@@ -618,10 +714,20 @@ public class PrefilterService implements IPrefilterService
 				baseValue);
 		for (int i = 0; i < resultSize; i++)
 		{
-			Float bestFoldChange = foldChange.getBestFoldChangeValue(
-					prefilterResults.getPrefilterResults().get(i).getProbeResponse().getResponses());
-			prefilterResults.getPrefilterResults().get(i).setBestFoldChange(bestFoldChange);
-			prefilterResults.getPrefilterResults().get(i).setFoldChanges(foldChange.getFoldChanges());
+			PrefilterResult prefilterResult = prefilterResults.getPrefilterResults().get(i);
+			int index = statistics == null ? -1 : statistics.indexOf(prefilterResult.getProbeResponse());
+			Float bestFoldChange;
+			if (index >= 0)
+			{
+				bestFoldChange = statistics.getBestFoldChange(index, foldChange);
+				prefilterResult.setFoldChanges(statistics.getFoldChanges(index, foldChange));
+			}
+			else
+			{
+				bestFoldChange = foldChange.getBestFoldChangeValue(prefilterResult.getProbeResponse().getResponses());
+				prefilterResult.setFoldChanges(foldChange.getFoldChanges());
+			}
+			prefilterResult.setBestFoldChange(bestFoldChange);
 
 			if (useFoldFilter && Math.abs(bestFoldChange) < Math.abs(foldFilterValue))
 			{
@@ -633,7 +739,12 @@ public class PrefilterService implements IPrefilterService
 		}
 	}
 
-	private void performNoelLoel(PrefilterResults prefilterResults, double pValue, double foldFilterValue, boolean tTest, int numThreads, SimpleProgressUpdater updater)
+	/*
+	 * statistics may be null. otherwise NOTEL/LOTEL p-values of an earlier run are reused and new ones are
+	 * remembered in it.
+	 */
+	private void performNoelLoel(PrefilterResults prefilterResults, double pValue, double foldFilterValue, boolean tTest, int numThreads, SimpleProgressUpdater updater,
+			PrefilterStatistics statistics)
 	{
 		if(updater != null)
 			updater.setProgress(0);
@@ -682,54 +793,64 @@ public class PrefilterService implements IPrefilterService
 		    Runnable run = new Runnable() {
 		        @Override
 		        public void run() {
-					List<Float> pValues = new ArrayList<Float>();
-		        	double[] control = new double[doseGroups.get(0)];
-					int count = 0;
-					for (int j = 0; j < doseGroups.get(0); j++)
+					int statisticsIndex = statistics == null ? -1
+							: statistics.indexOf(prefilterResults.getPrefilterResults().get(index).getProbeResponse());
+					List<Float> pValues = statisticsIndex < 0 ? null
+							: statistics.getNoelLoelPValues(statisticsIndex, tTest);
+					if (pValues == null)
 					{
-						control[j] = probeResponseMap.get(prefilterResults.getPrefilterResults().get(index).getProbeID())
-								.get(count).doubleValue();
-						count++;
-					}
-					
-					if(tTest) {
-						//compare each dose group to the control dosegroup using TTest store the corresponding P values
-						for (int j = 1; j < doseGroups.size(); j++)
+						pValues = new ArrayList<Float>();
+			        	double[] control = new double[doseGroups.get(0)];
+						int count = 0;
+						for (int j = 0; j < doseGroups.get(0); j++)
 						{
-							double[] sample1 = new double[doseGroups.get(j)];
-							for (int k = 0; k < doseGroups.get(j); k++)
+							control[j] = probeResponseMap.get(prefilterResults.getPrefilterResults().get(index).getProbeID())
+									.get(count).doubleValue();
+							count++;
+						}
+					
+						if(tTest) {
+							//compare each dose group to the control dosegroup using TTest store the corresponding P values
+							for (int j = 1; j < doseGroups.size(); j++)
 							{
-								sample1[k] = probeResponseMap
-										.get(prefilterResults.getPrefilterResults().get(index).getProbeID()).get(count)
-										.doubleValue();
-								count++;
+								double[] sample1 = new double[doseGroups.get(j)];
+								for (int k = 0; k < doseGroups.get(j); k++)
+								{
+									sample1[k] = probeResponseMap
+											.get(prefilterResults.getPrefilterResults().get(index).getProbeID()).get(count)
+											.doubleValue();
+									count++;
+								}
+								if (control.length > 1 && sample1.length > 1)
+									pValues.add(new Float((float) test.tTest(control, sample1)));
+								else
+									pValues.add(Float.NaN);
 							}
-							if (control.length > 1 && sample1.length > 1)
-								pValues.add(new Float((float) test.tTest(control, sample1)));
-							else
-								pValues.add(Float.NaN);
-						}
-					} else {
-						if(updater != null)
-							updater.setMessage("Dunnett's Test: " + index + "/" + prefilterResults.getPrefilterResults().size());
-						//Use Dunnett's test to calculate p values
-						double[][] doses = new double[doseGroups.size() - 1][];
-						for (int j = 1; j < doseGroups.size(); j++)
-						{
-							double[] sample1 = new double[doseGroups.get(j)];
-							for (int k = 0; k < doseGroups.get(j); k++)
+						} else {
+							if(updater != null)
+								updater.setMessage("Dunnett's Test: " + index + "/" + prefilterResults.getPrefilterResults().size());
+							//Use Dunnett's test to calculate p values
+							double[][] doses = new double[doseGroups.size() - 1][];
+							for (int j = 1; j < doseGroups.size(); j++)
 							{
-								sample1[k] = probeResponseMap
-										.get(prefilterResults.getPrefilterResults().get(index).getProbeID()).get(count)
-										.doubleValue();
-								count++;
+								double[] sample1 = new double[doseGroups.get(j)];
+								for (int k = 0; k < doseGroups.get(j); k++)
+								{
+									sample1[k] = probeResponseMap
+											.get(prefilterResults.getPrefilterResults().get(index).getProbeID()).get(count)
+											.doubleValue();
+									count++;
+								}
+								doses[j - 1] = sample1;
+							}
+							double[] pVals = dunnetts.dunnettsTest(control, doses, 15000);
+							for(int j = 0; j < pVals.length; j++) {
+								pValues.add((float)pVals[j]);
 							}
-							doses[j - 1] = sample1;
-						}
-						double[] pVals = dunnetts.dunnettsTest(control, doses, 15000);
-						for(int j = 0; j < pVals.length; j++) {
-							pValues.add((float)pVals[j]);
 						}
+						// a cancelled test may not have finished
+						if (statisticsIndex >= 0 && !cancel)
+							statistics.setNoelLoelPValues(statisticsIndex, tTest, pValues);
 					}
 					prefilterResults.getPrefilterResults().get(index).setNoelLoelPValues(pValues);
 
@@ -767,4 +888,24 @@ public class PrefilterService implements IPrefilterService
 			}
 	    }
 	}
+
+	/*
+	 * the data and test settings a williams or oriogen result was made with.
+	 */
+	private static class RethresholdSource
+	{
+		// weak so the cache doesn't keep data that was removed from the project
+		private final WeakReference<IStatModelProcessable>	processableData;
+		private final int									numThreads;
+		private int											numberOfPermutations;
+		private int											initialBootstraps;
+		private int											maxBootstraps;
+		private double										s0Adjustment;
+
+		RethresholdSource(IStatModelProcessable processableData, int numThreads)
+		{
+			this.processableData = new WeakReference<>(processableData);
+			this.numThreads = numThreads;
+		}
+	}
 }
@@ -6,9 +6,11 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -23,18 +25,20 @@ import com.sciome.bmdexpress2.mvp.model.info.AnalysisInfo;
 import com.sciome.bmdexpress2.mvp.model.probe.Probe;
 import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
 import com.sciome.bmdexpress2.mvp.model.probe.Treatment;
-import com.sciome.bmdexpress2.mvp.model.refgene.EntrezGene;
 import com.sciome.bmdexpress2.mvp.model.refgene.ReferenceGene;
 import com.sciome.bmdexpress2.mvp.model.refgene.ReferenceGeneAnnotation;
 import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
 import com.sciome.bmdexpress2.mvp.model.stat.HillResult;
 import com.sciome.bmdexpress2.mvp.model.stat.ProbeStatResult;
 import com.sciome.bmdexpress2.mvp.model.stat.StatResult;
+import com.sciome.bmdexpress2.serviceInterface.IDataCombinerService;
 import com.sciome.bmdexpress2.serviceInterface.IProjectNavigationService;
 import com.sciome.bmdexpress2.shared.BMDExpressProperties;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
 import com.sciome.bmdexpress2.shared.eventbus.project.ShowErrorEvent;
+import com.sciome.bmdexpress2.util.TabDelimitedWriter;
 import com.sciome.bmdexpress2.util.annotation.FileAnnotation;
+import com.sciome.bmdexpress2.util.annotation.ReferenceGeneAnnotationPool;
 import com.sciome.filter.DataFilter;
 import com.sciome.filter.DataFilterPack;
 import com.sciome.filter.DataFilterType;
@@ -44,7 +48,9 @@ import javafx.collections.transformation.FilteredList;
 public class ProjectNavigationService implements IProjectNavigationService
 {
 
-	private final int MAX_FILES_FOR_MULTI_EXPORT = 10;
+	private final int				MAX_FILES_FOR_MULTI_EXPORT	= 10;
+
+	private final IDataCombinerService	combinerService				= new DataCombinerService();
 
 	@SuppressWarnings("unchecked")
 	public void assignArrayAnnotations(ChipInfo chipInfo, List<DoseResponseExperiment> experiments,
@@ -79,8 +85,6 @@ public class ProjectNavigationService implements IProjectNavigationService
 
 			doseResponseExperiment.setChip(chipInfo);
 
-			// try to avoid storing duplicate genes.
-			Map<String, ReferenceGene> refCache = new HashMap<>();
 			List<ReferenceGeneAnnotation> referenceGeneAnnotations = new ArrayList<>();
 			// if there is no chip selected, the set it as Generic and load empty
 			// referencegeneannotation DateFormat
@@ -109,35 +113,23 @@ public class ProjectNavigationService implements IProjectNavigationService
 
 			try
 			{
+				// experiments on the same chip share the probes, genes and annotations of the pool
+				ReferenceGeneAnnotationPool pool = ReferenceGeneAnnotationPool.getInstance();
+				String platformKey = ReferenceGeneAnnotationPool.getPlatformKey(chipInfo,
+						doseResponseExperiment.getChipCreationDate());
 
 				// let's create referenceGeneAnnotations
 				for (ProbeResponse probeResponse : doseResponseExperiment.getProbeResponses())
 				{
 					Probe probe = probeResponse.getProbe();
 					Vector<String> genes = probesToGene.get(probe.getId());
-					ReferenceGeneAnnotation referenceGeneAnnotation = new ReferenceGeneAnnotation();
-					List<ReferenceGene> referenceGenes = new ArrayList<>();
 					if (genes == null)
 						continue;
-					for (String gene : genes)
-					{
-						ReferenceGene refGene = refCache.get(gene);
-						if (refGene == null)
-						{
-							refGene = new EntrezGene();
-							refGene.setId(gene);
-							refGene.setGeneSymbol(geneSymbolHash.get(gene));
-							refCache.put(gene, refGene);
-						}
-						referenceGenes.add(refGene);
-					}
-					referenceGeneAnnotation.setReferenceGenes(referenceGenes);
-					referenceGeneAnnotation.setProbe(probe);
-
-					referenceGeneAnnotations.add(referenceGeneAnnotation);
+					referenceGeneAnnotations.add(pool.getAnnotation(platformKey, probe, genes, geneSymbolHash));
 				}
 
 				doseResponseExperiment.setReferenceGeneAnnotations(referenceGeneAnnotations);
+				pool.intern(doseResponseExperiment);
 			}
 			catch (Exception e)
 			{
@@ -171,14 +163,14 @@ public class ProjectNavigationService implements IProjectNavigationService
 		int i = 0;
 		for (String key : header2Rows.keySet())
 		{
-			BufferedWriter writer = null;
+			TabDelimitedWriter writer = null;
 			i++;
 			try
 			{
 				// if there are datasets with multiple headers, then we need to create separate files for each
 				if (header2Rows.keySet().size() > 1)
 					selectedFile = new File(fileNameWOExtension + "-" + i + ".txt");
-				writer = new BufferedWriter(new FileWriter(selectedFile), 1024 * 2000);
+				writer = new TabDelimitedWriter(selectedFile);
 				Set<BMDExpressAnalysisDataSet> dataSets = header2Rows.get(key);
 				filesThatWereCreated.add(selectedFile.getName());
 				boolean started = false;
@@ -190,16 +182,14 @@ public class ProjectNavigationService implements IProjectNavigationService
 						{
 							// this ensures the row data is filled.
 							List<String> header = dataSet.getColumnHeader();
-							// write the type of data being exported.
-							// write the header.
-							writer.write("Analysis\t");
-							writer.write(String.join("\t", header) + "\n");
+							// write the type of data being exported and the header.
+							writer.writeHeader("Analysis", header);
 						}
-						writer.write(getRowsToWrite(dataSet.getAnalysisRows(), dataSet.getName()));
+						writeRows(writer, dataSet.getAnalysisRows(), dataSet.getName());
 					}
 					else if (dataSet instanceof DoseResponseExperiment)
 					{
-						writer.write(getExperimentToWrite((DoseResponseExperiment) dataSet, true));
+						writeExperiment(writer, (DoseResponseExperiment) dataSet, true);
 					}
 					started = true;
 				}
@@ -224,14 +214,31 @@ public class ProjectNavigationService implements IProjectNavigationService
 
 	public void exportBMDExpressAnalysisDataSet(BMDExpressAnalysisDataSet bmdResults, File selectedFile)
 	{
-		try
+		try (TabDelimitedWriter writer = new TabDelimitedWriter(selectedFile))
 		{
-			BufferedWriter writer = new BufferedWriter(new FileWriter(selectedFile), 1024 * 2000);
-			writer.write(String.join("\n", bmdResults.getAnalysisInfo().getNotes()));
-			writer.write("\n\n");
-			writer.write(String.join("\t", bmdResults.getColumnHeader()) + "\n");
-			writer.write(getRowsToWrite(bmdResults.getAnalysisRows(), null));
-			writer.close();
+			writer.writeLine(String.join("\n", bmdResults.getAnalysisInfo().getNotes()) + "\n");
+			writer.writeHeader(bmdResults.getColumnHeader());
+			writeRows(writer, bmdResults.getAnalysisRows(), null);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	public void exportCombinedDataSets(List<BMDExpressAnalysisDataSet> dataSets, File selectedFile)
+	{
+		List<String> header = combinerService.combineHeaders(dataSets);
+		try (TabDelimitedWriter writer = new TabDelimitedWriter(selectedFile))
+		{
+			// a combined dataset has no notes of its own, so just the blank separator lines.
+			writer.writeLine("\n");
+			writer.writeHeader(header);
+			// rows are laid out one at a time so the union table is never held in memory
+			Iterator<BMDExpressAnalysisRow> rows = combinerService.combinedRowIterator(dataSets, header);
+			while (rows.hasNext())
+				writer.writeRow(null, rows.next().getRow());
 		}
 		catch (IOException e)
 		{
@@ -246,7 +253,6 @@ public class ProjectNavigationService implements IProjectNavigationService
 		filterInformation.append("Filter information: \n");
 		for (DataFilter filter : pack.getDataFilters())
 		{
-			System.out.println(filter.getKey());
 			if (filter.getDataFilterType().equals(DataFilterType.CONTAINS)
 					|| filter.getDataFilterType().equals(DataFilterType.BETWEEN))
 				filterInformation.append(filter.toString() + "\n");
@@ -254,16 +260,13 @@ public class ProjectNavigationService implements IProjectNavigationService
 				filterInformation.append(filter.getKey() + "  " + filter.getDataFilterType().name() + " "
 						+ filter.getValues().get(0) + "\n");
 		}
-		filterInformation.append("\n");
 
-		try
+		try (TabDelimitedWriter writer = new TabDelimitedWriter(selectedFile))
 		{
-			BufferedWriter writer = new BufferedWriter(new FileWriter(selectedFile), 1024 * 2000);
-			writer.write(filterInformation.toString());
-			writer.write(String.join("\n", bmdResults.getAnalysisInfo().getNotes()) + "\n\n");
-			writer.write(String.join("\t", bmdResults.getColumnHeader()) + "\n");
-			writer.write(getRowsToWrite(filteredResults, null));
-			writer.close();
+			writer.writeLine(filterInformation.toString());
+			writer.writeLine(String.join("\n", bmdResults.getAnalysisInfo().getNotes()) + "\n");
+			writer.writeHeader(bmdResults.getColumnHeader());
+			writeRows(writer, filteredResults, null);
 		}
 		catch (IOException e)
 		{
@@ -273,13 +276,10 @@ public class ProjectNavigationService implements IProjectNavigationService
 
 	public void exportDoseResponseExperiment(DoseResponseExperiment doseResponseExperiment, File selectedFile)
 	{
-		try
+		try (TabDelimitedWriter writer = new TabDelimitedWriter(selectedFile))
 		{
-			BufferedWriter writer = new BufferedWriter(new FileWriter(selectedFile), 1024 * 2000);
-			writer.write(String.join("\n", doseResponseExperiment.getAnalysisInfo().getNotes()));
-			writer.write("\n");
-			writer.write(getExperimentToWrite(doseResponseExperiment, false));
-			writer.close();
+			writer.writeLine(String.join("\n", doseResponseExperiment.getAnalysisInfo().getNotes()));
+			writeExperiment(writer, doseResponseExperiment, false);
 		}
 		catch (IOException e)
 		{
@@ -290,11 +290,9 @@ public class ProjectNavigationService implements IProjectNavigationService
 
 	public void exportBMDResultBestModel(BMDResult bmdResults, File selectedFile)
 	{
-		try
+		try (TabDelimitedWriter writer = new TabDelimitedWriter(selectedFile))
 		{
-			BufferedWriter writer = new BufferedWriter(new FileWriter(selectedFile), 1024 * 2000);
-			writer.write(String.join("\n", bmdResults.getAnalysisInfo().getNotes()));
-			writer.write("\n");
+			writer.writeLine(String.join("\n", bmdResults.getAnalysisInfo().getNotes()));
 
 			boolean hasHill = false;
 			for (ProbeStatResult result : bmdResults.getProbeStatResults())
@@ -306,33 +304,39 @@ public class ProjectNavigationService implements IProjectNavigationService
 				}
 			}
 
-			writer.write("Probe Id\tBMDS Model\t");
-			writer.write("\tGenes\tGene Symbols\t");
-			writer.write("BMD\tBMDL\tBMDU\tfitPValue\tfitLogLikelihood\tAIC\tadverseDirection\t2BMD/BMDL");
+			List<String> header = new ArrayList<>(Arrays.asList("Probe Id", "BMDS Model", "", "Genes",
+					"Gene Symbols", "BMD", "BMDL", "BMDU", "fitPValue", "fitLogLikelihood", "AIC",
+					"adverseDirection", "2BMD/BMDL"));
 			if (hasHill)
-				writer.write("\tFlagged Hill");
-			writer.write("\n");
+				header.add("Flagged Hill");
+			writer.writeHeader(header);
+			int flagColumn = header.size() - 1;
+
+			List<Object> row = new ArrayList<>();
 			for (ProbeStatResult result : bmdResults.getProbeStatResults())
 			{
+				row.clear();
+				row.add(result.getProbeResponse().getProbe().getId());
 				if (result.getBestStatResult() != null)
 				{
-					writer.write(result.getProbeResponse().getProbe().getId() + "\t"
-							+ result.getBestStatResult() + "\t");
-					writer.write("\t" + result.getGenes() + "\t" + result.getGeneSymbols() + "\t");
-					writer.write(joinRowData(result.getBestStatResult().getRow(), "\t"));
-					if (!(result.getBestStatResult() instanceof HillResult))
-					{// add an extra column on account of hill's k-flag
-						writer.write("\t");
-					}
-					writer.write("\n");
+					row.add(result.getBestStatResult());
+					row.add(null);
+					row.add(result.getGenes());
+					row.add(result.getGeneSymbols());
+					row.addAll(result.getBestStatResult().getRow());
+					// the other models have an empty cell under hill's k-flag
+					if (hasHill && !(result.getBestStatResult() instanceof HillResult))
+						row.add(flagColumn, null);
 				}
 				else
 				{
-					writer.write(result.getProbeResponse().getProbe().getId() + "\t" + "none");
-					writer.write("\t" + result.getGenes() + "\t" + result.getGeneSymbols() + "\n");
+					row.add("none");
+					row.add(null);
+					row.add(result.getGenes());
+					row.add(result.getGeneSymbols());
 				}
+				writer.writeRow(null, row);
 			}
-			writer.close();
 		}
 		catch (IOException e)
 		{
@@ -458,54 +462,26 @@ public class ProjectNavigationService implements IProjectNavigationService
 	}
 
 	/**
-	 * Creates a string using a list of rows from a data set
+	 * Streams a list of rows from a data set to the writer
 	 * 
+	 * @param writer
+	 *            The destination of the rows
 	 * @param rows
 	 *            The list of rows to write
 	 * @param prependName
 	 *            A name to prepend to each of the rows
-	 * @return A string with the data from the rows
 	 */
-	private String getRowsToWrite(List<BMDExpressAnalysisRow> rows, String prependName)
+	private void writeRows(TabDelimitedWriter writer, List<BMDExpressAnalysisRow> rows, String prependName)
+			throws IOException
 	{
-		StringBuffer sb = new StringBuffer();
-
 		for (BMDExpressAnalysisRow result : rows)
-		{
-			if (prependName != null)
-				sb.append(prependName + "\t");
-			sb.append(joinRowData(result.getRow(), "\t") + "\n");
-		}
-		return sb.toString();
-	}
-
-	private String joinRowData(List<Object> datas, String delimiter)
-	{
-		StringBuffer bf = new StringBuffer();
-		int i = 0;
-		if (datas == null)
-		{
-			return "";
-		}
-		for (Object data : datas)
-		{
-			if (data != null)
-			{
-				bf.append(data);
-			}
-
-			if (i < datas.size())
-			{
-				bf.append(delimiter);
-			}
-		}
-
-		return bf.toString();
+			writer.writeRow(prependName, result.getRow());
 	}
 
-	private String getExperimentToWrite(DoseResponseExperiment doseResponseExperiment, boolean prependname)
+	private void writeExperiment(TabDelimitedWriter writer, DoseResponseExperiment doseResponseExperiment,
+			boolean prependname) throws IOException
 	{
-		StringBuffer sb = new StringBuffer();
+		String prepend = prependname ? doseResponseExperiment.getName() : null;
 		List<String> row = new ArrayList<>();
 		row.add("Something");
 
@@ -513,11 +489,7 @@ public class ProjectNavigationService implements IProjectNavigationService
 		{
 			row.add(treatment.getName());
 		}
-		if (prependname)
-		{
-			sb.append(doseResponseExperiment.getName() + "\t");
-		}
-		sb.append(String.join("\t", row) + "\n");
+		writer.writeHeader(prepend, row);
 		row.clear();
 		row.add("Doses");
 
@@ -525,23 +497,10 @@ public class ProjectNavigationService implements IProjectNavigationService
 		{
 			row.add(String.valueOf(treatment.getDose()));
 		}
-		sb.append(String.join("\t", row) + "\n");
+		writer.writeHeader(row);
 
 		for (ProbeResponse result : doseResponseExperiment.getProbeResponses())
-		{
-			row.clear();
-			row.add(result.getProbe().getId());
-			for (Float response : result.getResponses())
-			{
-				row.add(String.valueOf(response));
-			}
-			if (prependname)
-			{
-				sb.append(doseResponseExperiment.getName() + "\t");
-			}
-			sb.append(String.join("\t", row) + "\n");
-		}
-
-		return sb.toString();
+			writer.writeRow(prepend, result.getProbe().getId(), result.getResponseMatrix(),
+					result.getResponseOffset(), result.getResponseCount());
 	}
 }
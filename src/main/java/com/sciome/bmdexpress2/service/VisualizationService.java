@@ -7,19 +7,23 @@ import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisDataSet;
 import com.sciome.bmdexpress2.mvp.model.ChartKey;
 import com.sciome.bmdexpress2.serviceInterface.IVisualizationService;
 import com.sciome.charts.data.ChartDataPack;
-import com.sciome.charts.data.ChartDataPackMaker;
+import com.sciome.charts.data.IncrementalChartDataPackMaker;
 import com.sciome.filter.DataFilterPack;
 
+/*
+ * every visualization view has its own service, which keeps the chart data of the data sets the view shows
+ * so redrawing after a filter change only does what changed.
+ */
 public class VisualizationService implements IVisualizationService
 {
+	private IncrementalChartDataPackMaker chartDataPackMaker = new IncrementalChartDataPackMaker();
 
 	@Override
 	public List<ChartDataPack> getBMDExpressAnalysisChartDataPack(List<BMDExpressAnalysisDataSet> catResults,
 			DataFilterPack pack, Set<ChartKey> useTheseKeysOnly, Set<ChartKey> mathedChartKeys,
 			ChartKey labelKey)
 	{
-		ChartDataPackMaker chartDataPackMaker = new ChartDataPackMaker(pack);
-		List<ChartDataPack> chartDataPacks = chartDataPackMaker.generateDataPacks(catResults,
+		List<ChartDataPack> chartDataPacks = chartDataPackMaker.generateDataPacks(catResults, pack,
 				useTheseKeysOnly, mathedChartKeys, labelKey);
 		return chartDataPacks;
 	}
@@ -16,6 +16,8 @@ public interface IBMDAnalysisService
 			ModelSelectionParameters modelSelectionParameters, List<StatModel> modelsToRun, String tmpFolder,
 			IBMDSToolProgress progressUpdater);
 
+	public BMDResult reselectBestModels(BMDResult bmdResult, ModelSelectionParameters modelSelectionParameters);
+
 	public boolean cancel();
 
 	public BMDResult bmdAnalysisGCurveP(IStatModelProcessable processableData,
@@ -1,11 +1,18 @@
 package com.sciome.bmdexpress2.serviceInterface;
 
+import java.util.Iterator;
 import java.util.List;
 
 import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisDataSet;
+import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisRow;
 import com.sciome.bmdexpress2.mvp.model.CombinedDataSet;
 
 public interface IDataCombinerService
 {
 	CombinedDataSet combineBMDExpressAnalysisDataSets(List<BMDExpressAnalysisDataSet> dataSets);
+
+	List<String> combineHeaders(List<BMDExpressAnalysisDataSet> dataSets);
+
+	Iterator<BMDExpressAnalysisRow> combinedRowIterator(List<BMDExpressAnalysisDataSet> dataSets,
+			List<String> combinedHeader);
 }
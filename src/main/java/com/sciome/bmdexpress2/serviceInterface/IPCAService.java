@@ -5,4 +5,7 @@ import com.sciome.bmdexpress2.mvp.model.pca.PCAResults;
 
 public interface IPCAService {
 	public PCAResults calculatePCA(DoseResponseExperiment doseResponseExperiment);
+
+	// the result of an earlier calculatePCA if the responses have not changed since, otherwise null.
+	public PCAResults getCachedPCA(DoseResponseExperiment doseResponseExperiment);
 }
@@ -3,6 +3,7 @@ package com.sciome.bmdexpress2.serviceInterface;
 import com.sciome.bmdexpress2.mvp.model.IStatModelProcessable;
 import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResults;
 import com.sciome.bmdexpress2.mvp.model.prefilter.OriogenResults;
+import com.sciome.bmdexpress2.mvp.model.prefilter.PrefilterResults;
 import com.sciome.bmdexpress2.mvp.model.prefilter.WilliamsTrendResults;
 import com.sciome.commons.interfaces.SimpleProgressUpdater;
 
@@ -23,6 +24,17 @@ public interface IPrefilterService {
 			double foldFilterValue, double loelPValue, double loelFoldChange, int numThreads,
 			SimpleProgressUpdater updater, boolean tTest);
 	
+	/*
+	 * a new williams or oriogen result with different cutoffs, derived from the statistics of an earlier run
+	 * without repeating the test.
+	 */
+	public PrefilterResults rethreshold(PrefilterResults prefilterResults, double pCutOff,
+			boolean multipleTestingCorrection, boolean filterOutControlGenes, boolean useFoldFilter,
+			double foldFilterValue, double loelPValue, double loelFoldChange, SimpleProgressUpdater updater,
+			boolean tTest);
+
+	public boolean canRethreshold(PrefilterResults prefilterResults);
+
 	public void cancel();
 	public void start();
 }
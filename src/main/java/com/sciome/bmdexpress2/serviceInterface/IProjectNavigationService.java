@@ -21,6 +21,7 @@ public interface IProjectNavigationService {
 			FileAnnotation fileAnnotation);
 	public String exportMultipleFiles(Map<String, Set<BMDExpressAnalysisDataSet>> header2rows, File selectedFile);
 	public void exportBMDExpressAnalysisDataSet(BMDExpressAnalysisDataSet bmdResults, File selectedFile);
+	public void exportCombinedDataSets(List<BMDExpressAnalysisDataSet> dataSets, File selectedFile);
 	public void exportDoseResponseExperiment(DoseResponseExperiment doseResponseExperiment, File selectedFile);
 	public void exportFilteredResults(BMDExpressAnalysisDataSet bmdResults, FilteredList<BMDExpressAnalysisRow> filteredResults, File selectedFile, DataFilterPack pack);
 	public void exportBMDResultBestModel(BMDResult bmdResults, File selectedFile);
@@ -1,15 +1,29 @@
 package com.sciome.bmdexpress2.shared;
 
+import java.io.File;
+import java.io.IOException;
+
+import com.sciome.bmdexpress2.util.metrics.MetricsRegistry;
+import com.sciome.bmdexpress2.util.metrics.MetricsRegistry.StageStatistics;
+
+import javafx.geometry.Insets;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
 import javafx.scene.control.ButtonBar.ButtonData;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TextArea;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.AnchorPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
 import javafx.scene.web.WebView;
+import javafx.stage.FileChooser;
+import javafx.stage.FileChooser.ExtensionFilter;
 import javafx.stage.Modality;
 import javafx.stage.Window;
 
@@ -122,6 +136,78 @@ public class BMDExpressInformation
 
 	}
 
+	/*
+	 * stage timings and peak heap of this session, see MetricsRegistry.
+	 */
+	public void showDiagnosticsDialog(Scene scene)
+	{
+		Dialog<String> dialog = new Dialog<>();
+		dialog.setTitle("Diagnostics");
+		dialog.setHeaderText("Stage Timings");
+
+		TextArea textArea = new TextArea(getDiagnosticsText());
+		textArea.setEditable(false);
+		textArea.setFont(Font.font("Monospaced", 12));
+		textArea.setPrefSize(780, 500);
+
+		Button refreshButton = new Button("Refresh");
+		refreshButton.setOnAction(e -> textArea.setText(getDiagnosticsText()));
+
+		Button resetButton = new Button("Reset");
+		resetButton.setOnAction(e -> {
+			MetricsRegistry.getInstance().reset();
+			textArea.setText(getDiagnosticsText());
+		});
+
+		Button exportButton = new Button("Export JSON");
+		exportButton.setOnAction(e -> {
+			FileChooser fileChooser = new FileChooser();
+			fileChooser.setTitle("Export Diagnostics");
+			fileChooser.setInitialFileName("bmdexpress.profile.json");
+			fileChooser.getExtensionFilters().add(new ExtensionFilter("JSON Files", "*.json"));
+			File selectedFile = fileChooser.showSaveDialog(scene.getWindow());
+			if (selectedFile == null)
+				return;
+			try
+			{
+				MetricsRegistry.getInstance().writeProfile(selectedFile, null);
+			}
+			catch (IOException ex)
+			{
+				ex.printStackTrace();
+			}
+		});
+
+		HBox buttons = new HBox(10, refreshButton, resetButton, exportButton);
+		VBox content = new VBox(10, textArea, buttons);
+		content.setPadding(new Insets(10));
+		dialog.getDialogPane().setContent(content);
+
+		ButtonType buttonTypeOk = new ButtonType("Okay", ButtonData.OK_DONE);
+		dialog.getDialogPane().getButtonTypes().add(buttonTypeOk);
+		dialog.initOwner(scene.getWindow());
+		dialog.initModality(Modality.WINDOW_MODAL);
+
+		center(dialog, scene, 600, 800);
+
+		dialog.showAndWait();
+	}
+
+	private String getDiagnosticsText()
+	{
+		MetricsRegistry metrics = MetricsRegistry.getInstance();
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Peak heap: %.1f MB of %.1f MB%n%n", metrics.getPeakHeapBytes() / 1048576.0,
+				Runtime.getRuntime().maxMemory() / 1048576.0));
+		sb.append(String.format("%-36s %8s %12s %10s %10s %12s%n", "Stage", "Count", "Total ms", "Mean ms",
+				"Max ms", "Items/s"));
+		for (StageStatistics stage : metrics.getStages())
+			sb.append(String.format("%-36s %8d %12.1f %10.2f %10.2f %12.1f%n", stage.getStage(),
+					stage.getCount(), stage.getTotalMillis(), stage.getMeanMillis(), stage.getMaxMillis(),
+					stage.getItemsPerSecond()));
+		return sb.toString();
+	}
+
 	public void showTutorial(Scene scene)
 	{
 		Dialog<String> dialog = new Dialog<>();
@@ -50,7 +50,9 @@ public class BMDExpressProperties
 			powerVersion, polyVersion, hillVersion, exponentialEXE, exponentialVersion, Rscript,
 			pathwayFilterScript, projectPath, expressionPath, exportPath, definedPath;
 	private boolean						useWS, usePrecision, useJNI, ctrldown, projectChanged, autoUpdate,
-			isWindows, hideTable, hideFilter, hideCharts, applyFilter;
+			isWindows, hideTable, hideFilter, hideCharts, applyFilter, fitCacheDisabled,
+			tempWorkspaceRAMDisabled, iviveCacheMemoryOnly;
+	private int							fitCacheMaxMB;
 
 	// boolean to be set if the console version is running
 	private boolean						isConsole			= false;
@@ -447,6 +449,16 @@ public class BMDExpressProperties
 		hideFilter = propertiesParser.getPropertyBoolean("hidefilter");
 		applyFilter = propertiesParser.getPropertyBoolean("applyfilter");
 
+		// model fit cache. on unless turned off, 0 means the default size.
+		fitCacheDisabled = propertiesParser.getPropertyBoolean("fitcache.disabled");
+		fitCacheMaxMB = propertiesParser.getPropertyInt("fitcache.maxmb");
+
+		// oral equivalent dose factors are kept on disk unless turned off.
+		iviveCacheMemoryOnly = propertiesParser.getPropertyBoolean("ivivecache.memoryonly");
+
+		// model fit files go to /dev/shm when there is one, unless turned off.
+		tempWorkspaceRAMDisabled = propertiesParser.getPropertyBoolean("tempworkspace.ramdisabled");
+
 		String powerEXEName = "power.exe";
 		String polyEXEName = "poly.exe";
 		String hillEXEName = "hill.exe";
@@ -973,6 +985,46 @@ public class BMDExpressProperties
 		this.hillVersion = hillVersion;
 	}
 
+	public boolean isFitCacheDisabled()
+	{
+		return fitCacheDisabled;
+	}
+
+	public void setFitCacheDisabled(boolean fitCacheDisabled)
+	{
+		this.fitCacheDisabled = fitCacheDisabled;
+	}
+
+	public int getFitCacheMaxMB()
+	{
+		return fitCacheMaxMB;
+	}
+
+	public void setFitCacheMaxMB(int fitCacheMaxMB)
+	{
+		this.fitCacheMaxMB = fitCacheMaxMB;
+	}
+
+	public boolean isIviveCacheMemoryOnly()
+	{
+		return iviveCacheMemoryOnly;
+	}
+
+	public void setIviveCacheMemoryOnly(boolean iviveCacheMemoryOnly)
+	{
+		this.iviveCacheMemoryOnly = iviveCacheMemoryOnly;
+	}
+
+	public boolean isTempWorkspaceRAMDisabled()
+	{
+		return tempWorkspaceRAMDisabled;
+	}
+
+	public void setTempWorkspaceRAMDisabled(boolean tempWorkspaceRAMDisabled)
+	{
+		this.tempWorkspaceRAMDisabled = tempWorkspaceRAMDisabled;
+	}
+
 	public boolean isHideTable()
 	{
 		return hideTable;
@@ -0,0 +1,320 @@
+package com.sciome.bmdexpress2.util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisRow;
+
+/*
+ * Writes a table of analysis rows in a typed, column oriented binary layout.
+ *
+ * The output is a directory with one NumPy .npy file per column (a tiny header followed by the raw little
+ * endian values) and a schema.json describing the columns. Numeric columns are written as float64 with NaN
+ * for missing values, or as int32 when every value is an Integer and none is missing. Text columns such as
+ * probe ids are dictionary encoded: the .npy file holds int32 codes (-1 for missing) and the distinct values
+ * are written one per line to a .dict.txt file.
+ *
+ * Text columns with values joined by ";", like the gene ids and symbols of a category, are list columns. The
+ * values are split and dictionary encoded one by one into a .items.npy file, and the .npy file of the column
+ * holds int64 offsets: the items of row i are items[offsets[i]:offsets[i + 1]]. A missing value has no items,
+ * an empty one has one empty item, so joining the items with ";" gives back the value.
+ *
+ * Everything can be read back without BMDExpress, for example with numpy.load() and pandas.
+ */
+public class ColumnarWriter
+{
+	public static final String	SCHEMA_FILE	= "schema.json";
+
+	private static final byte[]	NPY_MAGIC	= { (byte) 0x93, 'N', 'U', 'M', 'P', 'Y', 1, 0 };
+	private static final char	SEPARATOR	= ';';
+
+	private enum ColumnType
+	{
+		INT32("<i4"), FLOAT64("<f8"), DICTIONARY("<i4"), LIST("<i8");
+
+		final String descr;
+
+		ColumnType(String descr)
+		{
+			this.descr = descr;
+		}
+	}
+
+	private long	bytesWritten	= 0;
+	private long	rowsWritten		= 0;
+
+	/*
+	 * Write the rows to the directory. The rows supplier is called twice: once to work out the type of each
+	 * column and once to write the values, so the table is never held in memory.
+	 */
+	public void write(List<String> header, Supplier<Iterator<BMDExpressAnalysisRow>> rows, File directory)
+			throws IOException
+	{
+		if (!directory.exists() && !directory.mkdirs())
+			throw new IOException("Could not create output directory " + directory.getAbsolutePath());
+
+		// pass one: count the rows and find the type of each column.
+		int numColumns = header.size();
+		boolean[] allInteger = new boolean[numColumns];
+		boolean[] allNumber = new boolean[numColumns];
+		boolean[] hasValue = new boolean[numColumns];
+		boolean[] hasNull = new boolean[numColumns];
+		boolean[] hasSeparator = new boolean[numColumns];
+		// the number of items each column has if it is a list column
+		long[] numItems = new long[numColumns];
+		Arrays.fill(allInteger, true);
+		Arrays.fill(allNumber, true);
+		long numRows = 0;
+		Iterator<BMDExpressAnalysisRow> it = rows.get();
+		while (it.hasNext())
+		{
+			List<Object> row = it.next().getRow();
+			for (int i = 0; i < numColumns; i++)
+			{
+				Object value = i < row.size() ? row.get(i) : null;
+				if (value == null)
+				{
+					hasNull[i] = true;
+					continue;
+				}
+				hasValue[i] = true;
+				if (!(value instanceof Integer))
+					allInteger[i] = false;
+				if (value instanceof Number)
+					numItems[i]++;
+				else
+				{
+					allNumber[i] = false;
+					int separators = countSeparators(value.toString());
+					if (separators > 0)
+						hasSeparator[i] = true;
+					numItems[i] += separators + 1;
+				}
+			}
+			numRows++;
+		}
+
+		ColumnType[] types = new ColumnType[numColumns];
+		for (int i = 0; i < numColumns; i++)
+			types[i] = !hasValue[i] ? ColumnType.FLOAT64
+					: allInteger[i] && !hasNull[i] ? ColumnType.INT32
+							: allNumber[i] ? ColumnType.FLOAT64
+									: hasSeparator[i] ? ColumnType.LIST : ColumnType.DICTIONARY;
+
+		// pass two: write the values.
+		String[] fileNames = new String[numColumns];
+		DataOutputStream[] outs = new DataOutputStream[numColumns];
+		DataOutputStream[] itemOuts = new DataOutputStream[numColumns];
+		long[] offsets = new long[numColumns];
+		List<Map<String, Integer>> dictionaries = new ArrayList<>();
+		ByteBuffer cell = ByteBuffer.allocate(Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		try
+		{
+			for (int i = 0; i < numColumns; i++)
+			{
+				fileNames[i] = String.format("c%03d", i);
+				outs[i] = createOutput(new File(directory, fileNames[i] + ".npy"));
+				if (types[i] == ColumnType.LIST)
+				{
+					// the offsets start with 0 and have one more entry than there are rows.
+					writeNpyHeader(outs[i], types[i], numRows + 1);
+					cell.clear();
+					outs[i].write(cell.putLong(0).array(), 0, Long.BYTES);
+					itemOuts[i] = createOutput(new File(directory, fileNames[i] + ".items.npy"));
+					writeNpyHeader(itemOuts[i], ColumnType.DICTIONARY, numItems[i]);
+				}
+				else
+					writeNpyHeader(outs[i], types[i], numRows);
+				dictionaries.add(types[i] == ColumnType.DICTIONARY || types[i] == ColumnType.LIST
+						? new LinkedHashMap<>() : null);
+			}
+
+			it = rows.get();
+			while (it.hasNext())
+			{
+				List<Object> row = it.next().getRow();
+				for (int i = 0; i < numColumns; i++)
+				{
+					Object value = i < row.size() ? row.get(i) : null;
+					cell.clear();
+					switch (types[i])
+					{
+						case INT32:
+							cell.putInt(((Integer) value).intValue());
+							break;
+						case FLOAT64:
+							cell.putDouble(value == null ? Double.NaN : ((Number) value).doubleValue());
+							break;
+						case LIST:
+							if (value != null)
+								offsets[i] += writeItems(itemOuts[i], dictionaries.get(i), value.toString());
+							cell.putLong(offsets[i]);
+							break;
+						default:
+							cell.putInt(encode(dictionaries.get(i), value == null ? null : value.toString()));
+					}
+					outs[i].write(cell.array(), 0, cell.position());
+				}
+				rowsWritten++;
+			}
+		}
+		finally
+		{
+			for (DataOutputStream[] streams : Arrays.asList(outs, itemOuts))
+				for (DataOutputStream out : streams)
+					if (out != null)
+					{
+						out.close();
+						bytesWritten += out.size();
+					}
+		}
+
+		// write the dictionaries and the schema
+		Map<String, Object> schema = new LinkedHashMap<>();
+		schema.put("format", "bmdexpress2-columnar");
+		schema.put("rows", numRows);
+		List<Map<String, Object>> columns = new ArrayList<>();
+		for (int i = 0; i < numColumns; i++)
+		{
+			Map<String, Object> column = new LinkedHashMap<>();
+			column.put("name", header.get(i));
+			column.put("file", fileNames[i] + ".npy");
+			column.put("type", types[i] == ColumnType.DICTIONARY ? "dictionary"
+					: types[i] == ColumnType.LIST ? "list"
+							: types[i] == ColumnType.INT32 ? "int32" : "float64");
+			if (types[i] == ColumnType.LIST)
+			{
+				column.put("items", fileNames[i] + ".items.npy");
+				column.put("separator", String.valueOf(SEPARATOR));
+			}
+			if (dictionaries.get(i) != null)
+			{
+				String dictFile = fileNames[i] + ".dict.txt";
+				writeDictionary(dictionaries.get(i), new File(directory, dictFile));
+				column.put("dictionary", dictFile);
+			}
+			columns.add(column);
+		}
+		schema.put("columns", columns);
+		File schemaFile = new File(directory, SCHEMA_FILE);
+		new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(schemaFile, schema);
+		bytesWritten += schemaFile.length();
+	}
+
+	public long getBytesWritten()
+	{
+		return bytesWritten;
+	}
+
+	public long getRowsWritten()
+	{
+		return rowsWritten;
+	}
+
+	private int encode(Map<String, Integer> dictionary, String value)
+	{
+		if (value == null)
+			return -1;
+		Integer code = dictionary.get(value);
+		if (code == null)
+		{
+			code = dictionary.size();
+			dictionary.put(value, code);
+		}
+		return code.intValue();
+	}
+
+	/*
+	 * write the codes of the items of a list value and return how many there are.
+	 */
+	private int writeItems(DataOutputStream out, Map<String, Integer> dictionary, String value)
+			throws IOException
+	{
+		ByteBuffer item = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		int count = 0;
+		int start = 0;
+		for (int i = 0; i <= value.length(); i++)
+		{
+			if (i == value.length() || value.charAt(i) == SEPARATOR)
+			{
+				item.clear();
+				item.putInt(encode(dictionary, value.substring(start, i)));
+				out.write(item.array(), 0, Integer.BYTES);
+				count++;
+				start = i + 1;
+			}
+		}
+		return count;
+	}
+
+	private static int countSeparators(String value)
+	{
+		int count = 0;
+		for (int i = 0; i < value.length(); i++)
+			if (value.charAt(i) == SEPARATOR)
+				count++;
+		return count;
+	}
+
+	private DataOutputStream createOutput(File file) throws IOException
+	{
+		return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+	}
+
+	/*
+	 * one value per line in code order. new lines and tabs are not expected in these values, but replace
+	 * them so the line number always matches the code.
+	 */
+	private void writeDictionary(Map<String, Integer> dictionary, File file) throws IOException
+	{
+		try (BufferedWriter writer = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)))
+		{
+			for (String value : dictionary.keySet())
+			{
+				writer.write(value.replace('\n', ' ').replace('\r', ' '));
+				writer.write('\n');
+			}
+		}
+		bytesWritten += file.length();
+	}
+
+	/*
+	 * Version 1.0 .npy header. The header is padded with spaces so the data starts on a 64 byte boundary.
+	 */
+	private void writeNpyHeader(OutputStream out, ColumnType type, long numRows) throws IOException
+	{
+		StringBuilder dict = new StringBuilder();
+		dict.append("{'descr': '").append(type.descr).append("', 'fortran_order': False, 'shape': (")
+				.append(numRows).append(",), }");
+		int unpadded = NPY_MAGIC.length + 2 + dict.length() + 1;
+		int padding = (64 - unpadded % 64) % 64;
+		for (int i = 0; i < padding; i++)
+			dict.append(' ');
+		dict.append('\n');
+
+		out.write(NPY_MAGIC);
+		int headerLength = dict.length();
+		out.write(headerLength & 0xff);
+		out.write((headerLength >> 8) & 0xff);
+		out.write(dict.toString().getBytes(StandardCharsets.US_ASCII));
+	}
+
+}
@@ -2,14 +2,20 @@ package com.sciome.bmdexpress2.util;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -39,7 +45,6 @@ import com.sciome.bmdexpress2.mvp.model.probe.Probe;
 import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
 import com.sciome.bmdexpress2.mvp.model.probe.Treatment;
 import com.sciome.bmdexpress2.mvp.model.refgene.CustomGene;
-import com.sciome.bmdexpress2.mvp.model.refgene.EntrezGene;
 import com.sciome.bmdexpress2.mvp.model.refgene.ReferenceGene;
 import com.sciome.bmdexpress2.mvp.model.refgene.ReferenceGeneAnnotation;
 import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
@@ -50,6 +55,7 @@ import com.sciome.bmdexpress2.mvp.model.stat.PowerResult;
 import com.sciome.bmdexpress2.mvp.model.stat.ProbeStatResult;
 import com.sciome.bmdexpress2.mvp.model.stat.StatResult;
 import com.sciome.bmdexpress2.util.annotation.FileAnnotation;
+import com.sciome.bmdexpress2.util.annotation.ReferenceGeneAnnotationPool;
 import com.sciome.bmdexpress2.util.categoryanalysis.ProbeGeneMaps;
 import com.sciome.bmdexpress2.util.categoryanalysis.catmap.CategoryMapBase;
 import com.sciome.bmdexpress2.util.categoryanalysis.catmap.GOTermMap;
@@ -60,71 +66,142 @@ import com.sciome.bmdexpress2.util.stat.FishersExact;
 public class ConversionUtil
 {
 
-	private Map<String, DoseResponseExperiment>	dEMap				= new HashMap<>();
-	// key will be experimentname__probeid
-	private Map<String, ProbeResponse>			probeResponseMap	= new HashMap<>();
+	// the tables of a project are converted concurrently, each table registers what it converted when it is
+	// done. Legacy tables can lack a source, so the maps have to take null keys.
+	private Map<String, DoseResponseExperiment>					dEMap				= Collections
+			.synchronizedMap(new HashMap<>());
+	// experiment name -> probe id -> probe response
+	private Map<String, Map<String, ProbeResponse>>				probeResponseMap	= Collections
+			.synchronizedMap(new HashMap<>());
 
-	// key will be experimentname__probeid__model
-	private Map<String, StatResult>				statResultMap		= new HashMap<>();
+	// experiment and bmd result name -> probe id -> probe stat result
+	private Map<AnalysisKey, Map<String, ProbeStatResult>>		probeStatResultMap	= Collections
+			.synchronizedMap(new HashMap<>());
 
-	// key will be experimentname__bmdresultname__probeid
-	private Map<String, ProbeStatResult>		probeStatResultMap	= new HashMap<>();
+	private Map<AnalysisKey, BMDResult>							bmdResultMap		= Collections
+			.synchronizedMap(new HashMap<>());
 
-	// key will be experimentname__bmdresultname
-	private Map<String, BMDResult>				bmdResultMap		= new HashMap<>();
+	// the names of the tables that could not be converted and are not in the project.
+	private List<String>										failedTables		= Collections
+			.synchronizedList(new ArrayList<>());
 
-	protected ConversionUtil()
+	public ConversionUtil()
 	{
-		// Exists only to defeat instantiation.
 	}
 
 	public BMDProject convertOldToNew(ProjectReader bmdProjectReader)
+	{
+		return convertOldToNew(bmdProjectReader, Runtime.getRuntime().availableProcessors());
+	}
+
+	/*
+	 * convert the tables of the project on numThreads threads. The bmd and anova tables refer to the
+	 * experiments and the category tables to the bmd results, so the tables are converted in three rounds,
+	 * the tables of one round are independent of each other. Every group of the project keeps the order of
+	 * the tables in the file.
+	 */
+	public BMDProject convertOldToNew(ProjectReader bmdProjectReader, int numThreads)
 	{
 		BMDProject bmdProject = new BMDProject();
+		failedTables.clear();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, numThreads));
 		try
 		{
 			bmdProject.setName("Imported Project");
 			// party time
 			Vector<WSMatrixData> matrixData = bmdProjectReader.getVectMData();
 
+			// load dose response data
+			List<Future<DoseResponseExperiment>> experiments = new ArrayList<>();
+			List<WSMatrixData> experimentTables = new ArrayList<>();
 			for (WSMatrixData mData : matrixData)
-			{
 				if (mData instanceof ArrayMatrixData)
 				{
-					// load dose response data
-					DoseResponseExperiment de = loadDoseResponseData((ArrayMatrixData) mData);
-					bmdProject.getDoseResponseExperiments().add(de);
+					experiments.add(executor.submit(() -> loadDoseResponseData((ArrayMatrixData) mData)));
+					experimentTables.add(mData);
 				}
-				else if (mData instanceof BMDMatrixData)
+			addConverted(experiments, experimentTables, bmdProject.getDoseResponseExperiments());
+
+			// load bmdresult and oneway anova results
+			List<Future<BMDResult>> bmdResults = new ArrayList<>();
+			List<WSMatrixData> bmdTables = new ArrayList<>();
+			List<Future<OneWayANOVAResults>> oneWayResults = new ArrayList<>();
+			List<WSMatrixData> oneWayTables = new ArrayList<>();
+			for (WSMatrixData mData : matrixData)
+			{
+				if (mData instanceof BMDMatrixData)
 				{
-					// load bmdresult
-					BMDResult bmdResult = loadBMDResult((BMDMatrixData) mData);
-					bmdProject.getbMDResult().add(bmdResult);
+					bmdResults.add(executor.submit(() -> loadBMDResult((BMDMatrixData) mData)));
+					bmdTables.add(mData);
 				}
-				else if (mData instanceof WSMatrixData && mData.getType() == 3)
+				else if (!(mData instanceof ArrayMatrixData) && mData.getType() == 1)
 				{
-					// load category result
-					CategoryAnalysisResults cResults = loadCategoryAnalysisResults(mData);
-					bmdProject.getCategoryAnalysisResults().add(cResults);
+					oneWayResults.add(executor.submit(() -> loadOneWayResults(mData)));
+					oneWayTables.add(mData);
 				}
-				else if (mData instanceof WSMatrixData && mData.getType() == 1)
+			}
+			addConverted(bmdResults, bmdTables, bmdProject.getbMDResult());
+			addConverted(oneWayResults, oneWayTables, bmdProject.getOneWayANOVAResults());
+
+			// load category result
+			List<Future<CategoryAnalysisResults>> categoryResults = new ArrayList<>();
+			List<WSMatrixData> categoryTables = new ArrayList<>();
+			for (WSMatrixData mData : matrixData)
+				if (!(mData instanceof ArrayMatrixData) && !(mData instanceof BMDMatrixData)
+						&& mData.getType() == 3)
 				{
-					// load oneway anova results
-					OneWayANOVAResults oneWayResult = loadOneWayResults(mData);
-					bmdProject.getOneWayANOVAResults().add(oneWayResult);
+					categoryResults.add(executor.submit(() -> loadCategoryAnalysisResults(mData)));
+					categoryTables.add(mData);
 				}
-
-			}
+			addConverted(categoryResults, categoryTables, bmdProject.getCategoryAnalysisResults());
 		}
 		catch (Exception e)
 
 		{
+			failedTables.add("the remaining tables (" + e + ")");
 			e.printStackTrace();
 		}
+		finally
+		{
+			executor.shutdownNow();
+		}
 
 		return bmdProject;
 	}
 
+	/*
+	 * the tables that were left out of the last converted project because they failed, empty if all of
+	 * them were converted.
+	 */
+	public List<String> getFailedTables()
+	{
+		synchronized (failedTables)
+		{
+			return new ArrayList<>(failedTables);
+		}
+	}
+
+	/*
+	 * add the converted tables in the order they were submitted. A table that failed is left out and its
+	 * name recorded in the failed tables.
+	 */
+	private <T> void addConverted(List<Future<T>> futures, List<WSMatrixData> tables, List<T> to)
+			throws InterruptedException
+	{
+		for (int i = 0; i < futures.size(); i++)
+		{
+			try
+			{
+				to.add(futures.get(i).get());
+			}
+			catch (ExecutionException e)
+			{
+				failedTables.add(tables.get(i).getName() + " (" + e.getCause() + ")");
+				e.getCause().printStackTrace();
+			}
+		}
+	}
+
 	private BMDResult loadBMDResult(BMDMatrixData mData)
 	{
 
@@ -138,6 +215,9 @@ public class ConversionUtil
 		results.setDoseResponseExperiment(dE);
 		List<ProbeStatResult> probeStatResults = new ArrayList<>();
 		results.setProbeStatResults(probeStatResults);
+		Map<String, ProbeResponse> probeResponses = probeResponseMap.getOrDefault(source,
+				Collections.emptyMap());
+		Map<String, ProbeStatResult> probeStatResultsById = new HashMap<>();
 
 		// load the data
 		ModelParameters mP = mData.getMP();
@@ -147,10 +227,9 @@ public class ConversionUtil
 			try
 			{
 				ProbeStatResult result = new ProbeStatResult();
-				ProbeResponse pR = probeResponseMap.get(source + "__" + mP.getIdentifiers()[index1]);
+				ProbeResponse pR = probeResponses.get(mP.getIdentifiers()[index1]);
 
-				probeStatResultMap.put(source + "__" + mData.getName() + "__" + pR.getProbe().getId(),
-						result);
+				probeStatResultsById.put(pR.getProbe().getId(), result);
 				result.setProbeResponse(pR);
 				probeStatResults.add(result);
 
@@ -160,42 +239,35 @@ public class ConversionUtil
 				int i = 0;
 				for (double[][] modelParams : mP.getModelParams())
 				{
-					String identifier = mP.getIdentifiers()[index1];
 					String model = mP.getModels().get(i);
 					StatResult statResult = null;
 					if (model.toLowerCase().contains("hill"))
 					{
 						statResult = new HillResult();
-						statResultMap.put(dE.getName() + "__" + identifier + "__hill", statResult);
 					}
 					else if (model.toLowerCase().contains("power"))
 					{
 						statResult = new PowerResult();
-						statResultMap.put(dE.getName() + "__" + identifier + "__power", statResult);
 					}
 					else if (model.toLowerCase().contains("linear"))
 					{
 						statResult = new PolyResult();
 						((PolyResult) statResult).setDegree(1);
-						statResultMap.put(dE.getName() + "__" + identifier + "__linear", statResult);
 					}
 					else if (model.toLowerCase().contains("polynomial 2"))
 					{
 						statResult = new PolyResult();
 						((PolyResult) statResult).setDegree(2);
-						statResultMap.put(dE.getName() + "__" + identifier + "__poly2", statResult);
 					}
 					else if (model.toLowerCase().contains("polynomial 3"))
 					{
 						statResult = new PolyResult();
 						((PolyResult) statResult).setDegree(3);
-						statResultMap.put(dE.getName() + "__" + identifier + "__poly3", statResult);
 					}
 					else if (model.toLowerCase().contains("polynomial 4"))
 					{
 						statResult = new PolyResult();
 						((PolyResult) statResult).setDegree(4);
-						statResultMap.put(dE.getName() + "__" + identifier + "__poly4", statResult);
 					}
 
 					if (((String) row[row.length - 2]).toLowerCase().contains("hill")
@@ -326,7 +398,9 @@ public class ConversionUtil
 		for (String note : mData.getNote().split("\n"))
 			notes.add(note);
 
-		bmdResultMap.put(source + "__" + mData.getName(), results);
+		AnalysisKey key = new AnalysisKey(source, mData.getName());
+		probeStatResultMap.put(key, probeStatResultsById);
+		bmdResultMap.put(key, results);
 
 		return results;
 
@@ -343,6 +417,8 @@ public class ConversionUtil
 		// associate correct dose response experiment to it
 		DoseResponseExperiment dE = dEMap.get(source);
 		results.setDoseResponseExperiement(dE);
+		Map<String, ProbeResponse> probeResponses = probeResponseMap.getOrDefault(source,
+				Collections.emptyMap());
 
 		// load the data
 		for (Object[] row : mData.getData())
@@ -350,7 +426,7 @@ public class ConversionUtil
 			try
 			{
 				OneWayANOVAResult result = new OneWayANOVAResult();
-				ProbeResponse pR = probeResponseMap.get(source + "__" + row[0]);
+				ProbeResponse pR = probeResponses.get(String.valueOf(row[0]));
 				result.setProbeResponse(pR);
 				if (row[5] != null)
 					result.setAdjustedPValue((Double) row[5]);
@@ -397,6 +473,9 @@ public class ConversionUtil
 		results.setName(mData.getName());
 		String source = mData.getSource();
 		String workSource = mData.getWorkSource();
+		AnalysisKey bmdResultKey = new AnalysisKey(source, workSource);
+		Map<String, ProbeStatResult> probeStatResultsById = probeStatResultMap.getOrDefault(bmdResultKey,
+				Collections.emptyMap());
 		int catType = 3;
 		if (mData.getColumnNames()[0].contains("GO"))
 			catType = 1;
@@ -589,10 +668,8 @@ public class ConversionUtil
 						{
 							for (String probe : probeID.split(","))
 							{
-								if (this.probeStatResultMap
-										.get(source + "__" + workSource + "__" + probe) != null)
-									probeStatResults.add(this.probeStatResultMap
-											.get(source + "__" + workSource + "__" + probe));
+								if (probeStatResultsById.get(probe) != null)
+									probeStatResults.add(probeStatResultsById.get(probe));
 							}
 						}
 						rgP.setProbeStatResults(probeStatResults);
@@ -749,7 +826,7 @@ public class ConversionUtil
 
 		if (catType == 2)
 		{
-			BMDResult bmdResult = bmdResultMap.get(source + "__" + workSource);
+			BMDResult bmdResult = bmdResultMap.get(bmdResultKey);
 			ProbeGeneMaps probeGeneMaps = new ProbeGeneMaps(bmdResult);
 			probeGeneMaps.readProbes(false);
 			Hashtable<String, Integer> probeHash = new Hashtable<>();
@@ -761,7 +838,7 @@ public class ConversionUtil
 		}
 		else if (catType == 1)
 		{
-			BMDResult bmdResult = bmdResultMap.get(source + "__" + workSource);
+			BMDResult bmdResult = bmdResultMap.get(bmdResultKey);
 			ProbeGeneMaps probeGeneMaps = new ProbeGeneMaps(bmdResult);
 			probeGeneMaps.readProbes(false);
 			Hashtable<String, Integer> probeHash = new Hashtable<>();
@@ -846,7 +923,7 @@ public class ConversionUtil
 		for (String note : mData.getNote().split("\n"))
 			notes.add(note);
 
-		if (this.bmdResultMap.get(source + "__" + workSource) == null)
+		if (this.bmdResultMap.get(bmdResultKey) == null)
 		{
 			notes.add("Could not link to BMDResults because data is missing from BMD file");
 			notes.add("Possibly missing source data: " + source);
@@ -860,15 +937,15 @@ public class ConversionUtil
 	private DoseResponseExperiment loadDoseResponseData(ArrayMatrixData mData)
 	{
 		DoseResponseExperiment dE = new DoseResponseExperiment();
+		Map<String, ProbeResponse> probeResponsesById = new HashMap<>();
 		dEMap.put(mData.getName(), dE);
+		probeResponseMap.put(mData.getName(), probeResponsesById);
 		dE.setName(mData.getName());
 
 		List<Treatment> treatments = new ArrayList<>();
 		List<ReferenceGeneAnnotation> refGeneAnn = new ArrayList<>();
 		List<ProbeResponse> probeResponses = new ArrayList<>();
 		ChipInfo chipInfo = new ChipInfo();
-		// try to avoid storing duplicate genes.
-		Map<String, ReferenceGene> refCache = new HashMap<>();
 
 		dE.setTreatments(treatments);
 		dE.setReferenceGeneAnnotations(refGeneAnn);
@@ -930,7 +1007,7 @@ public class ConversionUtil
 				}
 				pR.setResponses(responses);
 
-				probeResponseMap.put(dE.getName() + "__" + pR.getProbe().getId(), pR);
+				probeResponsesById.put(pR.getProbe().getId(), pR);
 			}
 			catch (Exception e)
 
@@ -939,6 +1016,7 @@ public class ConversionUtil
 			}
 
 		}
+		dE.packResponses();
 
 		// read the chip and add the reference genes to it
 		if (mData.getChip() != null)
@@ -964,34 +1042,23 @@ public class ConversionUtil
 
 			if (probesToGene != null)
 			{
+				// experiments on the same chip share the probes, genes and annotations of the pool
+				ReferenceGeneAnnotationPool pool = ReferenceGeneAnnotationPool.getInstance();
+				String platformKey = ReferenceGeneAnnotationPool.getPlatformKey(chipInfo,
+						dE.getChipCreationDate());
+
 				// let's create referenceGeneAnnotations
 				for (ProbeResponse probeResponse : dE.getProbeResponses())
 				{
 					Probe probe = probeResponse.getProbe();
 					Vector<String> genes = probesToGene.get(probe.getId());
-					ReferenceGeneAnnotation referenceGeneAnnotation = new ReferenceGeneAnnotation();
-					List<ReferenceGene> referenceGenes = new ArrayList<>();
 					if (genes == null)
 						continue;
-					for (String gene : genes)
-					{
-						ReferenceGene refGene = refCache.get(gene);
-						if (refGene == null)
-						{
-							refGene = new EntrezGene();
-							refGene.setId(gene);
-							refGene.setGeneSymbol(geneSymbolHash.get(gene));
-							refCache.put(gene, refGene);
-						}
-						referenceGenes.add(refGene);
-					}
-					referenceGeneAnnotation.setReferenceGenes(referenceGenes);
-					referenceGeneAnnotation.setProbe(probe);
-
-					refGeneAnn.add(referenceGeneAnnotation);
+					refGeneAnn.add(pool.getAnnotation(platformKey, probe, genes, geneSymbolHash));
 				}
 
 				dE.setReferenceGeneAnnotations(refGeneAnn);
+				pool.intern(dE);
 			}
 		}
 
@@ -1024,4 +1091,35 @@ public class ConversionUtil
 		return pValues;// NumberManager.numberFormat(4, pValues);
 	}
 
+	/*
+	 * an analysis by the name of its experiment and its own name.
+	 */
+	private static class AnalysisKey
+	{
+		private final String	experimentName;
+		private final String	analysisName;
+
+		AnalysisKey(String experimentName, String analysisName)
+		{
+			this.experimentName = experimentName;
+			this.analysisName = analysisName;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(experimentName, analysisName);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof AnalysisKey))
+				return false;
+			AnalysisKey other = (AnalysisKey) obj;
+			return Objects.equals(experimentName, other.experimentName)
+					&& Objects.equals(analysisName, other.analysisName);
+		}
+	}
+
 }
@@ -9,13 +9,14 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.StreamCorruptedException;
+import java.util.List;
 
 import org.ciit.io.ProjectReader;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sciome.bmdexpress2.mvp.model.BMDProject;
 import com.sciome.bmdexpress2.shared.eventbus.BMDExpressEventBus;
 import com.sciome.bmdexpress2.shared.eventbus.project.ShowErrorEvent;
+import com.sciome.bmdexpress2.util.metrics.MetricsRegistry;
 
 import javafx.application.Platform;
 import javafx.concurrent.Task;
@@ -116,7 +117,10 @@ public class DialogWithThreadProcess
 					BufferedOutputStream bout = new BufferedOutputStream(fileOut, bufferSize);
 					ObjectOutputStream out = new ObjectOutputStream(bout);
 					bmdProject.setName(selectedFile.getName());
-					out.writeObject(bmdProject);
+					try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("project.write"))
+					{
+						out.writeObject(bmdProject);
+					}
 					out.close();
 					fileOut.close();
 
@@ -185,7 +189,10 @@ public class DialogWithThreadProcess
 					BufferedInputStream bIn = new BufferedInputStream(fileIn, 1024 * 2000);
 
 					ObjectInputStream in = new ObjectInputStream(bIn);
-					loadedProject = (BMDProject) in.readObject();
+					try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("project.read"))
+					{
+						loadedProject = (BMDProject) in.readObject();
+					}
 					in.close();
 					fileIn.close();
 				}
@@ -268,7 +275,10 @@ public class DialogWithThreadProcess
 					BufferedInputStream bIn = new BufferedInputStream(fileIn, 1024 * 2000);
 
 					ObjectInputStream in = new ObjectInputStream(bIn);
-					loadedProject = (BMDProject) in.readObject();
+					try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("project.read"))
+					{
+						loadedProject = (BMDProject) in.readObject();
+					}
 					in.close();
 					fileIn.close();
 				}
@@ -379,6 +389,20 @@ public class DialogWithThreadProcess
 					bmdProjectReader.read();
 					ConversionUtil conversion = new ConversionUtil();
 					loadedProject = conversion.convertOldToNew(bmdProjectReader);
+					List<String> failedTables = conversion.getFailedTables();
+					if (!failedTables.isEmpty())
+					{
+						Platform.runLater(new Runnable() {
+
+							@Override
+							public void run()
+							{
+								BMDExpressEventBus.getInstance().post(new ShowErrorEvent(
+										"These tables could not be converted and are not in the project: "
+												+ String.join(", ", failedTables)));
+							}
+						});
+					}
 				}
 				catch (Exception i)
 				{
@@ -422,21 +446,15 @@ public class DialogWithThreadProcess
 	private void saveAsJSON(BMDProject project, File theFile) throws Exception
 	{
 
-		ObjectMapper mapper = new ObjectMapper();
-
-		/**
-		 * To make the JSON String pretty use the below code
-		 */
-		mapper.writerWithDefaultPrettyPrinter().writeValue(theFile, project);
+		// write one dataset at a time rather than binding the whole project into one document
+		new JSONProjectStreamer().writeProject(project, theFile, false);
 
 	}
 
 	public BMDProject importJSONFile(File selectedFile) throws Exception
 	{
-		ObjectMapper mapper = new ObjectMapper();
-		BMDProject projecttest = mapper.readValue(selectedFile, BMDProject.class);
-
-		return projecttest;
+		// this also reads json files that were exported before the streaming format.
+		return new JSONProjectStreamer().readProject(selectedFile);
 	}
 
 }
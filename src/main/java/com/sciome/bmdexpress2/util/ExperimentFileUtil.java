@@ -1,16 +1,21 @@
 package com.sciome.bmdexpress2.util;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
 import com.sciome.bmdexpress2.mvp.model.probe.Probe;
@@ -53,194 +58,404 @@ public class ExperimentFileUtil
 	}
 
 	public DoseResponseExperiment readFile(File infile, Window owner)
+	{
+		return readFile(infile, owner, Runtime.getRuntime().availableProcessors());
+	}
+
+	/*
+	 * The file is tokenized as raw bytes: each tab delimited line is located once, probe ids are the only
+	 * strings created and responses are parsed straight into one response matrix in dose sorted order. When
+	 * numThreads > 1 and the file is big enough the probe lines are split into chunks that are parsed in
+	 * parallel.
+	 */
+	public DoseResponseExperiment readFile(File infile, Window owner, int numThreads)
 	{
 		try
 		{
-			FileReader fr = new FileReader(infile);
-			BufferedReader br = new BufferedReader(fr, 1024 * 2000);
-			Vector<String[]> vecData = new Vector<String[]>();
-			StringBuffer bfNotes = new StringBuffer();
-			String line = "";
-			int c = 0;
-
-			DoseResponseExperiment doseResponseExperiement = new DoseResponseExperiment();
+			byte[] bytes = Files.readAllBytes(infile.toPath());
 
-			try
+			// find the tab delimited lines. all other lines are notes which we don't use.
+			IntList lineStarts = new IntList();
+			IntList lineEnds = new IntList();
+			int c = 0;
+			int lineStart = 0;
+			while (lineStart < bytes.length)
 			{
-				while ((line = br.readLine()) != null)
+				int lineEnd = lineStart;
+				while (lineEnd < bytes.length && bytes[lineEnd] != '\n')
+					lineEnd++;
+				int next = lineEnd + 1;
+				if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r')
+					lineEnd--;
+
+				int tabs = 0;
+				boolean blank = true;
+				for (int i = lineStart; i < lineEnd; i++)
 				{
-					if (line.indexOf("\t") >= 0 && !line.replaceAll("\\s*", "").equals(""))
-					{
-						String[] array = line.split("\t");
-						int n = array.length;
-						vecData.add(array);
-
-						if (n > c)
-						{
-							c = n;
-						}
-					}
-					else
-					{
-						bfNotes.append(line + "\n");
-					}
+					byte b = bytes[i];
+					if (b == '\t')
+						tabs++;
+					else if (b != ' ' && b != '\f' && b != 0x0B && b != '\r')
+						blank = false;
+				}
+				if (tabs > 0 && !blank)
+				{
+					lineStarts.add(lineStart);
+					lineEnds.add(lineEnd);
+					c = Math.max(c, tabs + 1);
 				}
+				lineStart = next;
+			}
 
-				String[] headers = new String[c];
+			String[] headers = new String[c];
 
-				for (int j = 0; j < c; j++)
+			for (int j = 0; j < c; j++)
+			{
+				headers[j] = "Column " + j;
+			}
+
+			if (lineStarts.size() <= 1)
+				return null;
+
+			// get the headers and create treatment list.
+			String[] experiementHeaders = split(bytes, lineStarts.get(0), lineEnds.get(0));
+
+			int starti = 0;
+			if (owner != null && isFirstVecHeader(experiementHeaders, owner))
+			{
+				starti = 1;
+			}
+			else if (owner == null)
+				starti = 1;
+
+			String[] doseLine = split(bytes, lineStarts.get(starti), lineEnds.get(starti));
+			List<Treatment> treatments = new ArrayList<>();
+			for (int i = 1; i < experiementHeaders.length; i++)
+			{
+				Float dose = Float.valueOf(doseLine[i]);
+				String colheader = experiementHeaders[i];
+				if (starti == 0)
 				{
-					headers[j] = "Column " + j;
+					colheader = headers[i - 1];
 				}
 
-				// let's loop through the vectors and create our experiment object
+				Treatment treatment = new Treatment(colheader, dose);
+				treatments.add(treatment);
+
+			}
+
+			// sort the treatments and keep track of the new indexes
+			// so we can put the responses in corresponding order.
+			List<Treatment> orderedTreatments = new ArrayList<>(treatments);
 
-				if (vecData.size() > 1)
+			// sort the treatments
+			Collections.sort(orderedTreatments, new Comparator<Treatment>() {
+
+				@Override
+				public int compare(Treatment o1, Treatment o2)
 				{
-					// get the headers and create treatment list.
-					String[] experiementHeaders = vecData.get(0);
+					return o1.getDose().compareTo(o2.getDose());
+				}
+			});
 
-					int starti = 0;
-					if (owner != null && isFirstVecHeader(experiementHeaders, owner))
+			int[] orderedIndexes = new int[treatments.size()];
+			for (int j = 0; j < treatments.size(); j++)
+			{
+				for (int k = 0; k < orderedTreatments.size(); k++)
+					if (orderedTreatments.get(k) == treatments.get(j))
 					{
-						starti = 1;
+						orderedIndexes[j] = k;
+						break;
 					}
-					else if (owner == null)
-						starti = 1;
-					List<Treatment> treatments = new ArrayList<>();
-					for (int i = 1; i < experiementHeaders.length; i++)
-					{
-						Float dose = Float.valueOf(vecData.get(starti)[i]);
-						String colheader = experiementHeaders[i];
-						if (starti == 0)
-						{
-							colheader = headers[i - 1];
-						}
+			}
 
-						Treatment treatment = new Treatment(colheader, dose);
-						treatments.add(treatment);
+			// load probes and response data.
+			int firstProbeLine = starti + 1;
+			int numProbes = lineStarts.size() - firstProbeLine;
+			ProbeResponse[] probeResponses = new ProbeResponse[numProbes];
+			ProbeLineParser parser = new ProbeLineParser(bytes, lineStarts, lineEnds, firstProbeLine,
+					orderedIndexes, probeResponses);
 
-					}
+			int numChunks = 1;
+			if (numThreads > 1 && numProbes >= MIN_PROBES_PER_CHUNK * 2)
+				numChunks = Math.min(numThreads * 4, numProbes / MIN_PROBES_PER_CHUNK);
 
-					// sort the treatments and keep track of the new indexes
-					// so we can put the responses in corresponding order.
-					List<Treatment> orderedTreatments = new ArrayList<>(treatments.size());
+			String error;
+			if (numChunks == 1)
+				error = parser.parse(0, numProbes);
+			else
+				error = parseInParallel(parser, numProbes, numChunks, Math.min(numThreads, numChunks));
 
-					for (Treatment t : treatments)
-					{
-						orderedTreatments.add(t);
-					}
+			if (error != null)
+			{
+				BMDExpressEventBus.getInstance().post(new ShowErrorEvent(error + " of file \"" + infile.getName() + "\""));
+				return null;
+			}
 
-					// sort the treatments
-					Collections.sort(orderedTreatments, new Comparator<Treatment>() {
+			DoseResponseExperiment doseResponseExperiement = new DoseResponseExperiment();
+			doseResponseExperiement.setTreatments(orderedTreatments);
+			doseResponseExperiement.setProbeResponses(new ArrayList<>(Arrays.asList(probeResponses)));
+			// the probes are already consecutive rows of the parser's matrix so this just adopts it.
+			doseResponseExperiement.packResponses();
+			String fileName = infile.getName();
+			if (fileName.indexOf(".") > 0)
+				fileName = fileName.substring(0, fileName.lastIndexOf("."));
+			doseResponseExperiement.setName(fileName);
+
+			return doseResponseExperiement;
+		}
+		catch (FileNotFoundException | NoSuchFileException e)
+		{
+			e.printStackTrace();
+		}
+		catch (Exception e)
+		{
+			BMDExpressEventBus.getInstance().post(new ShowErrorEvent(e.getMessage()));
+			e.printStackTrace();
+		}
 
-						@Override
-						public int compare(Treatment o1, Treatment o2)
-						{
-							return o1.getDose().compareTo(o2.getDose());
-						}
-					});
+		return null;
+	}
 
-					List<Integer> orderedIndexes = new ArrayList<>(treatments.size());
+	/*
+	 * parse the chunks on a thread pool. returns the error for the earliest bad line, if any.
+	 */
+	private String parseInParallel(ProbeLineParser parser, int numProbes, int numChunks, int numThreads)
+			throws InterruptedException, ExecutionException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try
+		{
+			List<Future<String>> futures = new ArrayList<>();
+			for (int chunk = 0; chunk < numChunks; chunk++)
+			{
+				int from = (int) ((long) numProbes * chunk / numChunks);
+				int to = (int) ((long) numProbes * (chunk + 1) / numChunks);
+				futures.add(executor.submit(() -> parser.parse(from, to)));
+			}
+			// chunks are in line order, so the first error found is the earliest one.
+			for (Future<String> future : futures)
+			{
+				String error = future.get();
+				if (error != null)
+					return error;
+			}
+			return null;
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	/*
+	 * split a line like String.split("\t") would, including dropping trailing empty values.
+	 */
+	private String[] split(byte[] bytes, int start, int end)
+	{
+		while (end > start && bytes[end - 1] == '\t')
+			end--;
+		List<String> values = new ArrayList<>();
+		int tokenStart = start;
+		for (int i = start; i <= end; i++)
+		{
+			if (i == end || bytes[i] == '\t')
+			{
+				values.add(new String(bytes, tokenStart, i - tokenStart, Charset.defaultCharset()));
+				tokenStart = i + 1;
+			}
+		}
+		return values.toArray(new String[values.size()]);
+	}
+
+	/*
+	 * parses ranges of probe lines into ProbeResponses. Each range writes to its own slots in the
+	 * probeResponses array and its own rows of the response matrix so ranges can be parsed concurrently.
+	 */
+	private static class ProbeLineParser
+	{
+		private final byte[]			bytes;
+		private final IntList			lineStarts;
+		private final IntList			lineEnds;
+		private final int				firstProbeLine;
+		private final int[]				orderedIndexes;
+		private final ProbeResponse[]	probeResponses;
+		private final float[]			responseMatrix;
+
+		ProbeLineParser(byte[] bytes, IntList lineStarts, IntList lineEnds, int firstProbeLine,
+				int[] orderedIndexes, ProbeResponse[] probeResponses)
+		{
+			this.responseMatrix = new float[probeResponses.length * orderedIndexes.length];
+			this.bytes = bytes;
+			this.lineStarts = lineStarts;
+			this.lineEnds = lineEnds;
+			this.firstProbeLine = firstProbeLine;
+			this.orderedIndexes = orderedIndexes;
+			this.probeResponses = probeResponses;
+		}
 
-					for (Treatment t : treatments)
+		/*
+		 * parse probes from (inclusive) to (exclusive). returns an error message or null.
+		 */
+		String parse(int from, int to)
+		{
+			int numTreatments = orderedIndexes.length;
+			for (int p = from; p < to; p++)
+			{
+				int line = p + firstProbeLine;
+				int start = lineStarts.get(line);
+				int end = lineEnds.get(line);
+				// String.split drops trailing empty values
+				while (end > start && bytes[end - 1] == '\t')
+					end--;
+
+				int tokenEnd = start;
+				while (tokenEnd < end && bytes[tokenEnd] != '\t')
+					tokenEnd++;
+				Probe probe = new Probe();
+				probe.setId(new String(bytes, start, tokenEnd - start, Charset.defaultCharset()));
+
+				// put the responses in corresponding order to the treatments.
+				int rowOffset = p * numTreatments;
+				int j = 0;
+				while (tokenEnd < end)
+				{
+					int tokenStart = tokenEnd + 1;
+					tokenEnd = tokenStart;
+					while (tokenEnd < end && bytes[tokenEnd] != '\t')
+						tokenEnd++;
+					try
+					{
+						float response = parseFloat(bytes, tokenStart, tokenEnd);
+						if (j < numTreatments)
+							responseMatrix[rowOffset + orderedIndexes[j]] = response;
+					}
+					catch (NumberFormatException e)
 					{
-						orderedIndexes.add(orderedTreatments.indexOf(t));
+						return "The value found is not numeric on line: " + (line + 1) + ", column: " + (j + 2);
 					}
+					j++;
+				}
+				if (j != numTreatments)
+					return "Number of dose reponses does not match number of values for line: " + (line + 1);
 
-					List<ProbeResponse> probeResponses = new ArrayList<>();
-					// load probes and response data.
+				ProbeResponse probeResponse = new ProbeResponse();
+				probeResponse.setProbe(probe);
+				probeResponse.bindResponses(responseMatrix, rowOffset, numTreatments);
+				probeResponses[p] = probeResponse;
+			}
+			return null;
+		}
+	}
 
-					for (int i = starti + 1; i < vecData.size(); i++)
-					{
-						// initialized a byte array which will be stored for speedy serialization
-						String probeID = vecData.get(i)[0];
-						Probe probe = new Probe();
-						probe.setId(probeID);
-
-						ProbeResponse probeResponse = new ProbeResponse();
-						probeResponse.setProbe(probe);
-						List<Float> responseRow = new ArrayList<>();
-
-						for (int j = 1; j < vecData.get(i).length; j++)
-						{
-							try
-							{
-								Float doseResponse = Float.valueOf(vecData.get(i)[j]);
-								responseRow.add(doseResponse);
-							}
-							catch (Exception e)
-							{
-								BMDExpressEventBus.getInstance()
-										.post(new ShowErrorEvent("The value found is not numeric on line: "
-												+ (i + 1) + ", column: " + (j + 1) + " of file \""
-												+ infile.getName() + "\""));
-								return null;
-							}
-
-						}
-						if (responseRow.size() != treatments.size())
-						{
-							BMDExpressEventBus.getInstance()
-									.post(new ShowErrorEvent(
-											"Number of dose reponses does not match number of values for line: "
-													+ (i + 1) + " of file \"" + infile.getName() + "\""));
-							return null;
-						}
-
-						// put the responses in corresponding order to the treatments.
-						List<Float> orderedResponses = new ArrayList<>(responseRow.size());
-						// initialize the ordered Reponses to null
-						for (@SuppressWarnings("unused")
-						Float response : responseRow)
-						{
-							orderedResponses.add(null);
-						}
-						int j = 0;
-						for (Float response : responseRow)
-						{
-							orderedResponses.set(orderedIndexes.get(j).intValue(), response);
-							j++;
-						}
-
-						probeResponse.setResponses(orderedResponses);
-						probeResponses.add(probeResponse);
+	private static final int		MIN_PROBES_PER_CHUNK	= 2000;
 
-					}
+	private static final double[]	POWERS_OF_TEN			= { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8,
+			1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
 
-					doseResponseExperiement.setTreatments(orderedTreatments);
-					doseResponseExperiement.setProbeResponses(probeResponses);
-					String fileName = infile.getName();
-					if (fileName.indexOf(".") > 0)
-						fileName = fileName.substring(0, fileName.lastIndexOf("."));
-					doseResponseExperiement.setName(fileName);
+	/*
+	 * Parse a float from the bytes without creating a String. Plain decimal numbers with up to 15
+	 * significant digits and a small exponent are computed exactly in double (both operands are exact so
+	 * the one multiply/divide is correctly rounded) and then narrowed to float. Narrowing can only round
+	 * differently from Float.parseFloat when the double lands exactly half way between two floats, so that
+	 * case, and anything unusual (white space, NaN, very long numbers, ...), goes through Float.parseFloat.
+	 */
+	static float parseFloat(byte[] bytes, int start, int end)
+	{
+		int i = start;
+		boolean negative = false;
+		if (i < end && (bytes[i] == '-' || bytes[i] == '+'))
+		{
+			negative = bytes[i] == '-';
+			i++;
+		}
 
-					return doseResponseExperiement;
-				}
-				else
-				{}
-			}
-			catch (IOException e)
+		long mantissa = 0;
+		int significantDigits = 0;
+		int exponent = 0;
+		boolean anyDigits = false;
+		for (; i < end && bytes[i] >= '0' && bytes[i] <= '9'; i++)
+		{
+			mantissa = mantissa * 10 + (bytes[i] - '0');
+			if (mantissa != 0)
+				significantDigits++;
+			anyDigits = true;
+		}
+		if (i < end && bytes[i] == '.')
+		{
+			for (i++; i < end && bytes[i] >= '0' && bytes[i] <= '9'; i++)
 			{
-				e.printStackTrace();
+				mantissa = mantissa * 10 + (bytes[i] - '0');
+				if (mantissa != 0)
+					significantDigits++;
+				exponent--;
+				anyDigits = true;
 			}
-			finally
+		}
+		if (i < end && (bytes[i] == 'e' || bytes[i] == 'E') && anyDigits)
+		{
+			i++;
+			boolean negativeExponent = false;
+			if (i < end && (bytes[i] == '-' || bytes[i] == '+'))
 			{
-				br.close();
-				fr.close();
+				negativeExponent = bytes[i] == '-';
+				i++;
 			}
+			int explicitExponent = 0;
+			int exponentStart = i;
+			for (; i < end && bytes[i] >= '0' && bytes[i] <= '9' && i - exponentStart < 4; i++)
+				explicitExponent = explicitExponent * 10 + (bytes[i] - '0');
+			if (i == exponentStart)
+				return slowParseFloat(bytes, start, end);
+			exponent += negativeExponent ? -explicitExponent : explicitExponent;
 		}
-		catch (FileNotFoundException e)
+
+		if (!anyDigits || i != end || significantDigits > 15 || exponent > 22 || exponent < -22)
+			return slowParseFloat(bytes, start, end);
+
+		if (mantissa == 0)
+			return negative ? -0.0f : 0.0f;
+
+		double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent]
+				: mantissa / POWERS_OF_TEN[-exponent];
+
+		// stay away from float subnormals/overflow and from exact half way points between floats.
+		long bits = Double.doubleToRawLongBits(value);
+		if (value < Float.MIN_NORMAL || value > Float.MAX_VALUE || (bits & 0x1FFFFFFFL) == 0x10000000L)
+			return slowParseFloat(bytes, start, end);
+
+		return negative ? (float) -value : (float) value;
+	}
+
+	private static float slowParseFloat(byte[] bytes, int start, int end)
+	{
+		return Float.parseFloat(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+	}
+
+	/*
+	 * a growable int array so we don't box an Integer for every line offset
+	 */
+	private static class IntList
+	{
+		private int[]	values	= new int[1024];
+		private int		size	= 0;
+
+		void add(int value)
 		{
-			e.printStackTrace();
+			if (size == values.length)
+				values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
 		}
-		catch (Exception e)
+
+		int get(int i)
 		{
-			BMDExpressEventBus.getInstance().post(new ShowErrorEvent(e.getMessage()));
-			e.printStackTrace();
+			return values[i];
 		}
 
-		return null;
+		int size()
+		{
+			return size;
+		}
 	}
 
 	/*
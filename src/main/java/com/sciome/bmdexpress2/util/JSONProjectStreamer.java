@@ -0,0 +1,368 @@
+package com.sciome.bmdexpress2.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisDataSet;
+import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisRow;
+import com.sciome.bmdexpress2.mvp.model.BMDProject;
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.category.CategoryAnalysisResults;
+import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResults;
+import com.sciome.bmdexpress2.mvp.model.prefilter.OriogenResults;
+import com.sciome.bmdexpress2.mvp.model.prefilter.WilliamsTrendResults;
+import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
+import com.sciome.bmdexpress2.util.annotation.ReferenceGeneAnnotationPool;
+
+/*
+ * Streams BMDProjects to and from JSON using a JsonGenerator/JsonParser rather than binding the whole
+ * project in one go.
+ *
+ * The project document is laid out as:
+ *
+ * { "format": "bmdexpress2-stream", "name": "...", "doseResponseExperiments": [ { "name": "...", "dataSet":
+ * {...} }, ... ], "oneWayANOVAResults": [...], ... }
+ *
+ * The datasets are serialized one after the other, but with one object identity (@ref) scope for the whole
+ * document, like the ObjectMapper export. An object that several datasets share, like the experiment of a
+ * bmd result or the probe responses of its rows, is written in full the first time and as its @ref after
+ * that, and it is one instance again when the project is read. The groups are written parents first, so
+ * every @ref points back into the document. The name is written ahead of each dataset for readers that only
+ * look for names.
+ *
+ * There is also a JSON-Lines mode which writes one compact object per analysis row, keyed by the column
+ * headers of the dataset. This is meant for tools like spark and pandas.
+ */
+public class JSONProjectStreamer
+{
+	public static final String										FORMAT			= "bmdexpress2-stream";
+
+	private static final String										FORMAT_FIELD	= "format";
+	private static final String										NAME_FIELD		= "name";
+	private static final String										DATASET_FIELD	= "dataSet";
+
+	// the property name in BMDProject for each type of dataset.
+	private static final Map<String, Class<? extends BMDExpressAnalysisDataSet>>	GROUPS;
+
+	static
+	{
+		GROUPS = new LinkedHashMap<>();
+		GROUPS.put("doseResponseExperiments", DoseResponseExperiment.class);
+		GROUPS.put("oneWayANOVAResults", OneWayANOVAResults.class);
+		GROUPS.put("williamsTrendResults", WilliamsTrendResults.class);
+		GROUPS.put("oriogenResults", OriogenResults.class);
+		GROUPS.put("bMDResult", BMDResult.class);
+		GROUPS.put("categoryAnalysisResults", CategoryAnalysisResults.class);
+	}
+
+	private final ObjectMapper										mapper			= new ObjectMapper();
+
+	/*
+	 * Write the whole project, one dataset at a time.
+	 */
+	public void writeProject(BMDProject project, File file, boolean pretty) throws IOException
+	{
+		List<BMDExpressAnalysisDataSet> dataSets = new ArrayList<>();
+		dataSets.addAll(project.getDoseResponseExperiments());
+		dataSets.addAll(project.getOneWayANOVAResults());
+		dataSets.addAll(project.getWilliamsTrendResults());
+		dataSets.addAll(project.getOriogenResults());
+		dataSets.addAll(project.getbMDResult());
+		dataSets.addAll(project.getCategoryAnalysisResults());
+		writeDataSets(project.getName(), dataSets, file, pretty);
+	}
+
+	/*
+	 * Write the given datasets as a project document. Useful for exporting a subset of a project.
+	 */
+	public void writeDataSets(String projectName, List<BMDExpressAnalysisDataSet> dataSets, File file,
+			boolean pretty) throws IOException
+	{
+		Map<String, List<BMDExpressAnalysisDataSet>> byGroup = new LinkedHashMap<>();
+		for (String group : GROUPS.keySet())
+			byGroup.put(group, new ArrayList<>());
+		for (BMDExpressAnalysisDataSet dataSet : dataSets)
+			byGroup.get(getGroup(dataSet)).add(dataSet);
+		writeDataSets(projectName, byGroup, file, pretty);
+	}
+
+	private void writeDataSets(String projectName, Map<String, List<BMDExpressAnalysisDataSet>> byGroup,
+			File file, boolean pretty) throws IOException
+	{
+		// the provider keeps the ids of the objects written so far, so it is shared by all datasets.
+		DefaultSerializerProvider provider = ((DefaultSerializerProvider) mapper.getSerializerProvider())
+				.createInstance(mapper.getSerializationConfig(), mapper.getSerializerFactory());
+		try (JsonGenerator generator = mapper.getFactory().createGenerator(file, JsonEncoding.UTF8))
+		{
+			if (pretty)
+				generator.useDefaultPrettyPrinter();
+
+			generator.writeStartObject();
+			generator.writeStringField(FORMAT_FIELD, FORMAT);
+			generator.writeStringField(NAME_FIELD, projectName);
+			for (String group : byGroup.keySet())
+			{
+				generator.writeArrayFieldStart(group);
+				for (BMDExpressAnalysisDataSet dataSet : byGroup.get(group))
+				{
+					generator.writeStartObject();
+					generator.writeStringField(NAME_FIELD, dataSet.getName());
+					generator.writeFieldName(DATASET_FIELD);
+					provider.serializeValue(generator, dataSet);
+					generator.writeEndObject();
+					// hand each dataset to the file as soon as it is written.
+					generator.flush();
+				}
+				generator.writeEndArray();
+			}
+			generator.writeEndObject();
+		}
+	}
+
+	/*
+	 * Write one compact json object per line for each row in the datasets. Each object has the analysis
+	 * group, the analysis name and a field for each column of the dataset.
+	 */
+	public void writeJSONLines(List<BMDExpressAnalysisDataSet> dataSets, File file) throws IOException
+	{
+		try (JsonGenerator generator = mapper.getFactory().createGenerator(file, JsonEncoding.UTF8))
+		{
+			// separate root level values by new lines rather than spaces.
+			generator.setRootValueSeparator(null);
+			for (BMDExpressAnalysisDataSet dataSet : dataSets)
+			{
+				String group = getGroup(dataSet);
+				List<String> header = dataSet.getColumnHeader();
+				for (BMDExpressAnalysisRow row : dataSet.getAnalysisRows())
+				{
+					List<Object> values = row.getRow();
+					generator.writeStartObject();
+					generator.writeStringField("analysisGroup", group);
+					generator.writeStringField("analysis", dataSet.getName());
+					for (int i = 0; i < header.size() && i < values.size(); i++)
+					{
+						// some datasets leave the first (id) column header blank.
+						String field = header.get(i);
+						generator.writeFieldName(field == null || field.isEmpty() ? "column" + i : field);
+						writeScalar(generator, values.get(i));
+					}
+					generator.writeEndObject();
+					generator.writeRaw('\n');
+				}
+			}
+		}
+	}
+
+	private void writeScalar(JsonGenerator generator, Object value) throws IOException
+	{
+		if (value == null)
+			generator.writeNull();
+		else if (value instanceof Double)
+		{
+			double d = ((Double) value).doubleValue();
+			if (Double.isNaN(d) || Double.isInfinite(d))
+				generator.writeNull();
+			else
+				generator.writeNumber(d);
+		}
+		else if (value instanceof Float)
+		{
+			float f = ((Float) value).floatValue();
+			if (Float.isNaN(f) || Float.isInfinite(f))
+				generator.writeNull();
+			else
+				generator.writeNumber(f);
+		}
+		else if (value instanceof Integer)
+			generator.writeNumber(((Integer) value).intValue());
+		else if (value instanceof Long)
+			generator.writeNumber(((Long) value).longValue());
+		else if (value instanceof Boolean)
+			generator.writeBoolean(((Boolean) value).booleanValue());
+		else
+			generator.writeString(value.toString());
+	}
+
+	/*
+	 * Read a whole project that was written by writeProject. Files that were written by the older
+	 * ObjectMapper export (one big bound BMDProject) are still readable.
+	 */
+	public BMDProject readProject(File file) throws IOException
+	{
+		if (!isStreamFormat(file))
+		{
+			BMDProject project = mapper.readValue(file, BMDProject.class);
+			for (DoseResponseExperiment experiment : project.getDoseResponseExperiments())
+				experiment.packResponses();
+			shareInstances(project);
+			return project;
+		}
+
+		BMDProject project = new BMDProject();
+		try (JsonParser parser = mapper.getFactory().createParser(file))
+		{
+			DefaultDeserializationContext context = createContext(parser);
+			expect(parser.nextToken(), JsonToken.START_OBJECT);
+			while (parser.nextToken() == JsonToken.FIELD_NAME)
+			{
+				String field = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				if (NAME_FIELD.equals(field))
+					project.setName(parser.getValueAsString());
+				else if (GROUPS.containsKey(field) && token == JsonToken.START_ARRAY)
+				{
+					while (parser.nextToken() == JsonToken.START_OBJECT)
+						addToProject(project, readEntry(parser, context, field));
+				}
+				else
+					parser.skipChildren();
+			}
+			context.checkUnresolvedObjectId();
+		}
+		shareInstances(project);
+		return project;
+	}
+
+	/*
+	 * exports hold a copy of what the datasets of the project share in memory.
+	 */
+	private static void shareInstances(BMDProject project)
+	{
+		ReferenceGeneAnnotationPool.getInstance().intern(project);
+		for (CategoryAnalysisResults results : project.getCategoryAnalysisResults())
+			results.shareReferenceGeneProbeStatResults();
+	}
+
+	/*
+	 * Read a single dataset by name. The datasets written before it are bound as well, because they hold the
+	 * objects it refers to, the ones after it are not read. Returns null if it is not in the file.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends BMDExpressAnalysisDataSet> T readDataSet(File file, Class<T> dataSetClass, String name)
+			throws IOException
+	{
+		String group = null;
+		for (Map.Entry<String, Class<? extends BMDExpressAnalysisDataSet>> entry : GROUPS.entrySet())
+			if (entry.getValue().equals(dataSetClass))
+				group = entry.getKey();
+
+		if (group == null)
+			throw new IllegalArgumentException("Unknown data set type: " + dataSetClass.getName());
+
+		try (JsonParser parser = mapper.getFactory().createParser(file))
+		{
+			DefaultDeserializationContext context = createContext(parser);
+			expect(parser.nextToken(), JsonToken.START_OBJECT);
+			while (parser.nextToken() == JsonToken.FIELD_NAME)
+			{
+				String field = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				if (GROUPS.containsKey(field) && token == JsonToken.START_ARRAY)
+				{
+					while (parser.nextToken() == JsonToken.START_OBJECT)
+					{
+						BMDExpressAnalysisDataSet dataSet = readEntry(parser, context, field);
+						if (group.equals(field) && dataSet != null && name.equals(dataSet.getName()))
+						{
+							context.checkUnresolvedObjectId();
+							return (T) dataSet;
+						}
+					}
+				}
+				else
+					parser.skipChildren();
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * Read one { "name": ..., "dataSet": {...} } entry. The parser is positioned on the START_OBJECT of the
+	 * entry and is left on its END_OBJECT. Returns null if the entry has no dataset.
+	 */
+	private BMDExpressAnalysisDataSet readEntry(JsonParser parser, DefaultDeserializationContext context,
+			String group) throws IOException
+	{
+		BMDExpressAnalysisDataSet dataSet = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME)
+		{
+			String field = parser.getCurrentName();
+			parser.nextToken();
+			if (DATASET_FIELD.equals(field))
+			{
+				JsonDeserializer<Object> deserializer = context
+						.findRootValueDeserializer(mapper.constructType(GROUPS.get(group)));
+				dataSet = (BMDExpressAnalysisDataSet) deserializer.deserialize(parser, context);
+				// the probes were bound one by one, move their responses into one matrix.
+				if (dataSet instanceof DoseResponseExperiment)
+					((DoseResponseExperiment) dataSet).packResponses();
+			}
+			else
+				parser.skipChildren();
+		}
+		return dataSet;
+	}
+
+	/*
+	 * one context per document, it resolves the @refs of a dataset to the objects of the datasets before it.
+	 */
+	private DefaultDeserializationContext createContext(JsonParser parser)
+	{
+		return ((DefaultDeserializationContext) mapper.getDeserializationContext())
+				.createInstance(mapper.getDeserializationConfig(), parser, mapper.getInjectableValues());
+	}
+
+	private boolean isStreamFormat(File file) throws IOException
+	{
+		try (JsonParser parser = mapper.getFactory().createParser(file))
+		{
+			if (parser.nextToken() != JsonToken.START_OBJECT)
+				return false;
+			return parser.nextToken() == JsonToken.FIELD_NAME && FORMAT_FIELD.equals(parser.getCurrentName())
+					&& parser.nextToken() == JsonToken.VALUE_STRING && FORMAT.equals(parser.getText());
+		}
+	}
+
+	private void expect(JsonToken actual, JsonToken expected) throws IOException
+	{
+		if (actual != expected)
+			throw new IOException("Malformed project JSON. Expected " + expected + " but found " + actual);
+	}
+
+	private void addToProject(BMDProject project, BMDExpressAnalysisDataSet dataSet)
+	{
+		if (dataSet instanceof DoseResponseExperiment)
+			project.getDoseResponseExperiments().add((DoseResponseExperiment) dataSet);
+		else if (dataSet instanceof OneWayANOVAResults)
+			project.getOneWayANOVAResults().add((OneWayANOVAResults) dataSet);
+		else if (dataSet instanceof WilliamsTrendResults)
+			project.getWilliamsTrendResults().add((WilliamsTrendResults) dataSet);
+		else if (dataSet instanceof OriogenResults)
+			project.getOriogenResults().add((OriogenResults) dataSet);
+		else if (dataSet instanceof BMDResult)
+			project.getbMDResult().add((BMDResult) dataSet);
+		else if (dataSet instanceof CategoryAnalysisResults)
+			project.getCategoryAnalysisResults().add((CategoryAnalysisResults) dataSet);
+	}
+
+	private String getGroup(BMDExpressAnalysisDataSet dataSet)
+	{
+		for (Map.Entry<String, Class<? extends BMDExpressAnalysisDataSet>> entry : GROUPS.entrySet())
+			if (entry.getValue().isInstance(dataSet))
+				return entry.getKey();
+		throw new IllegalArgumentException("Unknown data set type: " + dataSet.getClass().getName());
+	}
+
+}
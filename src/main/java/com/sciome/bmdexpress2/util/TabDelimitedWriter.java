@@ -0,0 +1,150 @@
+package com.sciome.bmdexpress2.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/*
+ * Writes tab delimited rows straight to a file one row at a time. Each row is assembled in a single
+ * reusable StringBuilder (numbers are appended as primitives so no intermediate Strings are created) and
+ * copied into a reusable char buffer before being handed to the underlying writer. This lets us export
+ * very large datasets without building the whole table in memory first.
+ */
+public class TabDelimitedWriter implements Closeable
+{
+	private static final int	BUFFER_SIZE	= 1024 * 2000;
+	private static final String	DELIMITER	= "\t";
+
+	private final Writer		writer;
+	private final StringBuilder	rowBuilder	= new StringBuilder(4096);
+	private char[]				charBuffer	= new char[4096];
+
+	public TabDelimitedWriter(File file) throws IOException
+	{
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		// the OutputStreamWriter only has a small buffer, so wrap it in a large one.
+		this.writer = new BufferedWriter(
+				new OutputStreamWriter(Channels.newOutputStream(channel), Charset.defaultCharset()),
+				BUFFER_SIZE);
+	}
+
+	public TabDelimitedWriter(Writer writer)
+	{
+		this.writer = writer;
+	}
+
+	/*
+	 * write a raw line. a newline is appended.
+	 */
+	public void writeLine(String line) throws IOException
+	{
+		rowBuilder.setLength(0);
+		rowBuilder.append(line).append('\n');
+		flushRow();
+	}
+
+	/*
+	 * write the strings joined by tabs. a newline is appended.
+	 */
+	public void writeHeader(List<String> header) throws IOException
+	{
+		writeHeader(null, header);
+	}
+
+	public void writeHeader(String prepend, List<String> header) throws IOException
+	{
+		rowBuilder.setLength(0);
+		if (prepend != null)
+			rowBuilder.append(prepend).append(DELIMITER);
+		rowBuilder.append(String.join(DELIMITER, header)).append('\n');
+		flushRow();
+	}
+
+	/*
+	 * Write one row of data. prependName may be null. null values are written as empty cells.
+	 */
+	public void writeRow(String prependName, List<Object> datas) throws IOException
+	{
+		rowBuilder.setLength(0);
+		if (prependName != null)
+			rowBuilder.append(prependName).append(DELIMITER);
+		if (datas != null)
+		{
+			int size = datas.size();
+			for (int i = 0; i < size; i++)
+			{
+				if (i > 0)
+					rowBuilder.append(DELIMITER);
+				appendValue(datas.get(i));
+			}
+		}
+		rowBuilder.append('\n');
+		flushRow();
+	}
+
+	/*
+	 * Write one row where the first column is a label followed by float values.
+	 */
+	public void writeRow(String prependName, String label, float[] values) throws IOException
+	{
+		writeRow(prependName, label, values, 0, values.length);
+	}
+
+	/*
+	 * same as above for count values starting at offset, e.g. one row of a response matrix.
+	 */
+	public void writeRow(String prependName, String label, float[] values, int offset, int count)
+			throws IOException
+	{
+		rowBuilder.setLength(0);
+		if (prependName != null)
+			rowBuilder.append(prependName).append(DELIMITER);
+		rowBuilder.append(label);
+		for (int i = offset; i < offset + count; i++)
+			rowBuilder.append(DELIMITER).append(values[i]);
+		rowBuilder.append('\n');
+		flushRow();
+	}
+
+	private void appendValue(Object data)
+	{
+		if (data == null)
+			return;
+		// append primitives directly to avoid creating a temporary String per cell.
+		if (data instanceof Double)
+			rowBuilder.append(((Double) data).doubleValue());
+		else if (data instanceof Float)
+			rowBuilder.append(((Float) data).floatValue());
+		else if (data instanceof Integer)
+			rowBuilder.append(((Integer) data).intValue());
+		else if (data instanceof Long)
+			rowBuilder.append(((Long) data).longValue());
+		else
+			rowBuilder.append(data);
+	}
+
+	private void flushRow() throws IOException
+	{
+		int len = rowBuilder.length();
+		if (charBuffer.length < len)
+			charBuffer = new char[Math.max(len, charBuffer.length * 2)];
+		rowBuilder.getChars(0, len, charBuffer, 0);
+		writer.write(charBuffer, 0, len);
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		writer.close();
+	}
+
+}
@@ -0,0 +1,493 @@
+package com.sciome.bmdexpress2.util.annotation;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import com.sciome.bmdexpress2.shared.BMDExpressConstants;
+
+/*
+ * Brings local annotation files up to date with an http server. The files are given by their path relative
+ * to the base url of the server, which is also their path under the local base directory, e.g.
+ * arrays/Affymetrix/GPL1355/probe2gene.gz.
+ *
+ * The files are fetched concurrently by a small pool. Every request is conditional on the ETag and last
+ * modified date of the local copy, so the server answers 304 for files that did not change. A download goes
+ * to a .part file next to the file and is resumed with a range request when an earlier one was
+ * interrupted. Once it is complete its length and, for .gz files, the gzip stream are checked and it is moved
+ * over the old file in one step, so the annotation readers never see a half written file. The SHA-256 of
+ * every file is kept with its ETag, a local file that does not match it anymore is downloaded again.
+ */
+public class AnnotationSync
+{
+	public static final int		DEFAULT_THREADS	= 4;
+
+	private static final String	STATE_FILE		= "annotation_sync.properties";
+	private static final String	PART			= ".part";
+	private static final int	BUFFER_SIZE		= 64 * 1024;
+
+	public enum Status
+	{
+		DOWNLOADED, UNCHANGED, FAILED
+	}
+
+	private String				baseURL;
+	private File				baseDir;
+	private int					numThreads;
+
+	// relative path -> etag|last modified|sha-256 of the local file, and relative path + .part -> the
+	// validator of the response a partial download started with
+	private Properties			state			= new Properties();
+	private File				stateFile;
+
+	public AnnotationSync(String baseURL, File baseDir, int numThreads)
+	{
+		this.baseURL = baseURL.endsWith("/") ? baseURL : baseURL + "/";
+		this.baseDir = baseDir;
+		this.numThreads = Math.max(1, numThreads);
+		stateFile = new File(baseDir, STATE_FILE);
+		if (stateFile.exists())
+		{
+			try (InputStream in = new FileInputStream(stateFile))
+			{
+				state.load(in);
+			}
+			catch (Exception e)
+			{
+				// without the state every file is checked by its date only.
+				state.clear();
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/*
+	 * sync against the update url into the annotation directory of the application.
+	 */
+	public AnnotationSync(String baseURL)
+	{
+		this(baseURL, new File(BMDExpressConstants.getInstance().ANNOTATION_BASE_PATH), DEFAULT_THREADS);
+	}
+
+	/*
+	 * the annotation files of a chip.
+	 */
+	public static List<String> chipFiles(String provider, String chip)
+	{
+		List<String> files = new ArrayList<>();
+		for (String annotFile : BMDExpressConstants.getInstance().ANNOTFILES)
+			files.add(BMDExpressConstants.getInstance().ARRAYDIR + "/" + provider + "/" + chip + "/"
+					+ annotFile);
+		return files;
+	}
+
+	/*
+	 * sync the files on the pool. onFileDone is called on the pool threads as the files finish, it may be
+	 * null.
+	 */
+	public SyncReport sync(List<String> relativePaths, Consumer<FileResult> onFileDone)
+	{
+		long start = System.nanoTime();
+		SyncReport report = new SyncReport();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(numThreads,
+				Math.max(1, relativePaths.size())));
+		try
+		{
+			List<Future<FileResult>> futures = new ArrayList<>();
+			for (String relativePath : relativePaths)
+				futures.add(executor.submit(() ->
+				{
+					FileResult result = syncFile(relativePath);
+					if (onFileDone != null)
+						onFileDone.accept(result);
+					return result;
+				}));
+			for (Future<FileResult> future : futures)
+			{
+				try
+				{
+					report.add(future.get());
+				}
+				catch (ExecutionException e)
+				{
+					e.getCause().printStackTrace();
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		finally
+		{
+			executor.shutdownNow();
+			saveState();
+		}
+		report.elapsedNanos = System.nanoTime() - start;
+		return report;
+	}
+
+	public SyncReport sync(List<String> relativePaths)
+	{
+		return sync(relativePaths, null);
+	}
+
+	/*
+	 * sync one file on the calling thread. The state is saved by sync, callers of this method save it with
+	 * saveState.
+	 */
+	public FileResult syncFile(String relativePath)
+	{
+		FileResult result = new FileResult(relativePath);
+		File localFile = new File(baseDir, relativePath);
+		File partFile = new File(localFile.getPath() + PART);
+		long start = System.nanoTime();
+		HttpURLConnection conn = null;
+		try
+		{
+			URLUtils.checkPath(localFile);
+			String[] known = knownState(relativePath, localFile);
+
+			URLConnection urlConn = new URL(baseURL + relativePath).openConnection();
+			if (!(urlConn instanceof HttpURLConnection))
+				throw new IOException("not an http url: " + baseURL + relativePath);
+			conn = (HttpURLConnection) urlConn;
+			if (known != null)
+			{
+				if (!known[0].isEmpty())
+					conn.setRequestProperty("If-None-Match", known[0]);
+				conn.setIfModifiedSince(localFile.lastModified());
+			}
+
+			String partValidator = state.getProperty(relativePath + PART);
+			long resumeFrom = partFile.exists() && partValidator != null ? partFile.length() : 0;
+			if (resumeFrom > 0)
+			{
+				conn.setRequestProperty("Range", "bytes=" + resumeFrom + "-");
+				conn.setRequestProperty("If-Range", partValidator);
+			}
+
+			int code = conn.getResponseCode();
+			if (code == 416 && resumeFrom > 0)
+			{
+				// the part is as long as the file or longer, start over.
+				conn.disconnect();
+				partFile.delete();
+				state.remove(relativePath + PART);
+				return syncFile(relativePath);
+			}
+			if (code == HttpURLConnection.HTTP_NOT_MODIFIED)
+			{
+				result.status = Status.UNCHANGED;
+				result.bytesSkipped = localFile.length();
+				return result;
+			}
+			if (code != HttpURLConnection.HTTP_OK && code != HttpURLConnection.HTTP_PARTIAL)
+				throw new IOException("HTTP " + code + " for " + baseURL + relativePath);
+
+			// a full answer to a range request means the file changed since the part was written.
+			boolean append = code == HttpURLConnection.HTTP_PARTIAL;
+			if (!append)
+				resumeFrom = 0;
+			String etag = conn.getHeaderField("ETag");
+			long lastModified = conn.getLastModified();
+			String validator = etag != null ? etag
+					: lastModified > 0 ? conn.getHeaderField("Last-Modified") : null;
+			if (!append && validator != null)
+				state.setProperty(relativePath + PART, validator);
+
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			if (append)
+				digestFile(partFile, digest);
+			long expected = conn.getContentLengthLong() >= 0 ? resumeFrom + conn.getContentLengthLong() : -1;
+
+			try (InputStream input = conn.getInputStream();
+					OutputStream output = new FileOutputStream(partFile, append))
+			{
+				byte[] buffer = new byte[BUFFER_SIZE];
+				int numRead;
+				while ((numRead = input.read(buffer)) != -1)
+				{
+					output.write(buffer, 0, numRead);
+					digest.update(buffer, 0, numRead);
+					result.bytesTransferred += numRead;
+				}
+			}
+			result.bytesSkipped = resumeFrom;
+
+			if (expected >= 0 && partFile.length() > expected)
+				throw new CorruptDownloadException(
+						relativePath + " is longer than announced: " + partFile.length() + " of " + expected);
+			if (expected >= 0 && partFile.length() < expected)
+				throw new IOException(
+						"incomplete download of " + relativePath + ": " + partFile.length() + " of " + expected);
+			if (relativePath.endsWith(".gz"))
+				checkGzip(partFile);
+
+			moveIntoPlace(partFile, localFile);
+			if (lastModified > 0)
+				localFile.setLastModified(lastModified);
+			state.remove(relativePath + PART);
+			state.setProperty(relativePath, (etag == null ? "" : etag) + "|" + localFile.lastModified() + "|"
+					+ toHex(digest.digest()));
+			result.status = Status.DOWNLOADED;
+		}
+		catch (Exception e)
+		{
+			result.status = Status.FAILED;
+			result.exception = e;
+			// a part that failed the checks can't be resumed, an interrupted one can.
+			if (e instanceof CorruptDownloadException)
+			{
+				partFile.delete();
+				state.remove(relativePath + PART);
+			}
+		}
+		finally
+		{
+			if (conn != null)
+				conn.disconnect();
+			result.nanos = System.nanoTime() - start;
+		}
+		return result;
+	}
+
+	/*
+	 * the etag, date and hash the local file was downloaded with, or null when the file is missing or was
+	 * changed since. Files downloaded before the sync kept a state are checked by their date.
+	 */
+	private String[] knownState(String relativePath, File localFile) throws Exception
+	{
+		if (!localFile.exists())
+			return null;
+		String value = state.getProperty(relativePath);
+		if (value == null)
+			return new String[] { "", String.valueOf(localFile.lastModified()), "" };
+		String[] known = value.split("\\|", -1);
+		if (known.length != 3 || !known[1].equals(String.valueOf(localFile.lastModified())))
+			return null;
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		digestFile(localFile, digest);
+		if (!known[2].equals(toHex(digest.digest())))
+			return null;
+		return known;
+	}
+
+	public synchronized void saveState()
+	{
+		try (OutputStream out = new FileOutputStream(stateFile))
+		{
+			state.store(out, "annotation files downloaded from " + baseURL);
+		}
+		catch (Exception e)
+		{
+			// the files are checked by their dates next time.
+			e.printStackTrace();
+		}
+	}
+
+	private static void moveIntoPlace(File partFile, File localFile) throws IOException
+	{
+		try
+		{
+			Files.move(partFile.toPath(), localFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			Files.move(partFile.toPath(), localFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void checkGzip(File file) throws IOException
+	{
+		try (InputStream in = new GZIPInputStream(new BufferedInputStream(new FileInputStream(file)),
+				BUFFER_SIZE))
+		{
+			byte[] buffer = new byte[BUFFER_SIZE];
+			// reading to the end checks the crc and length in the gzip trailer
+			while (in.read(buffer) != -1)
+			{
+			}
+		}
+		catch (IOException e)
+		{
+			throw new CorruptDownloadException(file.getName() + " is not a valid gzip file: " + e.getMessage());
+		}
+	}
+
+	private static void digestFile(File file, MessageDigest digest) throws IOException
+	{
+		try (InputStream in = new FileInputStream(file))
+		{
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int numRead;
+			while ((numRead = in.read(buffer)) != -1)
+				digest.update(buffer, 0, numRead);
+		}
+	}
+
+	private static String toHex(byte[] bytes)
+	{
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes)
+			sb.append(String.format("%02x", b));
+		return sb.toString();
+	}
+
+	/*
+	 * what happened to one file.
+	 */
+	public static class FileResult
+	{
+		private String		relativePath;
+		private Status		status;
+		private long		bytesTransferred;
+		// bytes that did not have to be transferred, the whole file when it was unchanged and the resumed
+		// part of a download
+		private long		bytesSkipped;
+		private long		nanos;
+		private Exception	exception;
+
+		FileResult(String relativePath)
+		{
+			this.relativePath = relativePath;
+		}
+
+		public String getRelativePath()
+		{
+			return relativePath;
+		}
+
+		public Status getStatus()
+		{
+			return status;
+		}
+
+		public long getBytesTransferred()
+		{
+			return bytesTransferred;
+		}
+
+		public long getBytesSkipped()
+		{
+			return bytesSkipped;
+		}
+
+		public Exception getException()
+		{
+			return exception;
+		}
+	}
+
+	/*
+	 * the totals of a sync. The time saved is estimated from the rate of the downloads in this sync.
+	 */
+	public static class SyncReport
+	{
+		private List<FileResult>	results				= new ArrayList<>();
+		private long				bytesTransferred;
+		private long				bytesSkipped;
+		private long				transferNanos;
+		private long				elapsedNanos;
+
+		void add(FileResult result)
+		{
+			results.add(result);
+			bytesTransferred += result.bytesTransferred;
+			bytesSkipped += result.bytesSkipped;
+			if (result.status == Status.DOWNLOADED)
+				transferNanos += result.nanos;
+		}
+
+		public List<FileResult> getResults()
+		{
+			return results;
+		}
+
+		public int count(Status status)
+		{
+			int count = 0;
+			for (FileResult result : results)
+				if (result.status == status)
+					count++;
+			return count;
+		}
+
+		/*
+		 * the files that failed with the reason, one line each.
+		 */
+		public List<String> getFailures()
+		{
+			List<String> failures = new ArrayList<>();
+			for (FileResult result : results)
+				if (result.status == Status.FAILED)
+					failures.add(result.relativePath + ": " + result.exception.getMessage());
+			return failures;
+		}
+
+		public long getBytesTransferred()
+		{
+			return bytesTransferred;
+		}
+
+		public long getBytesSkipped()
+		{
+			return bytesSkipped;
+		}
+
+		public long getElapsedMillis()
+		{
+			return elapsedNanos / 1000000;
+		}
+
+		public long getEstimatedMillisSaved()
+		{
+			if (bytesTransferred == 0 || transferNanos == 0)
+				return 0;
+			return (long) (bytesSkipped * ((double) transferNanos / bytesTransferred) / 1000000);
+		}
+
+		@Override
+		public String toString()
+		{
+			return "Annotation sync: " + count(Status.DOWNLOADED) + " downloaded, " + count(Status.UNCHANGED)
+					+ " unchanged, " + count(Status.FAILED) + " failed, " + bytesTransferred
+					+ " bytes transferred, " + bytesSkipped + " bytes skipped, " + getElapsedMillis()
+					+ " ms, about " + getEstimatedMillisSaved() + " ms saved";
+		}
+	}
+
+	/*
+	 * a download that arrived whole but does not hold a valid file.
+	 */
+	private static class CorruptDownloadException extends IOException
+	{
+		private static final long serialVersionUID = 1L;
+
+		CorruptDownloadException(String message)
+		{
+			super(message);
+		}
+	}
+}
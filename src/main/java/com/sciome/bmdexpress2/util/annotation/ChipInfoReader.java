@@ -43,16 +43,20 @@ public class ChipInfoReader
 					+ BMDExpressConstants.getInstance().ARRAYDIR;
 			File inFile = new File(filePath, BMDExpressConstants.getInstance().MICROARRAYGZ);
 
-			// if infile exists and this is a console, then do not look for updates.
-			if (inFile.exists() && BMDExpressProperties.getInstance().isConsole())
+			// experiments are converted and imported in parallel, only one of them downloads the file
+			synchronized (URLUtils.getFileLock(inFile))
 			{
-				// System.out.println("This is console application and the file: " + inFile.getName()
-				// + " exists. Not looking for update on server.");
-			}
-			else if (URLUtils.updateAvailable(http, inFile))
-			{// !inFile.exists() ||
-				System.out.println("Download " + BMDExpressConstants.getInstance().MICROARRAYGZ);
-				URLUtils.download(http, inFile);
+				// if infile exists and this is a console, then do not look for updates.
+				if (inFile.exists() && BMDExpressProperties.getInstance().isConsole())
+				{
+					// System.out.println("This is console application and the file: " + inFile.getName()
+					// + " exists. Not looking for update on server.");
+				}
+				else if (URLUtils.updateAvailable(http, inFile))
+				{// !inFile.exists() ||
+					System.out.println("Download " + BMDExpressConstants.getInstance().MICROARRAYGZ);
+					URLUtils.download(http, inFile);
+				}
 			}
 
 			BufferedReader reader = new BufferedReader(
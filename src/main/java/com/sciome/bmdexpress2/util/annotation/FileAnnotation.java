@@ -27,6 +27,7 @@ import java.util.zip.GZIPInputStream;
 import com.sciome.bmdexpress2.mvp.model.chip.ChipInfo;
 import com.sciome.bmdexpress2.shared.BMDExpressConstants;
 import com.sciome.bmdexpress2.shared.BMDExpressProperties;
+import com.sciome.bmdexpress2.util.metrics.MetricsRegistry;
 
 /**
  * The class of FileAnnotation
@@ -205,6 +206,7 @@ public class FileAnnotation extends ArrayAnnotation
 		// System.out.println("FileAnnotation.arrayProbesGenes()" + probesHash.size());
 		probe2GeneHash = null;
 		gene2ProbeHash = null;
+		MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("annotation.probe2gene");
 		String message = "Match array probes to genes";
 		// progressBar.setMessage(message);
 		String fName = "probe2gene.gz";
@@ -303,6 +305,10 @@ public class FileAnnotation extends ArrayAnnotation
 			// e.printStackTrace();
 			// ExceptionDialog.showException(parent, "Read From File - " + fName, e);
 		}
+		finally
+		{
+			timer.stop(probe2GeneHash == null ? 0 : probe2GeneHash.size());
+		}
 	}
 
 	/**
@@ -311,6 +317,7 @@ public class FileAnnotation extends ArrayAnnotation
 	public void arrayGenesSymbols()
 	{
 		gene2SymbolHash = null;
+		MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("annotation.gene2symbol");
 		String message = "Read genes and symbols of " + chip;
 		// progressBar.setMessage(message);
 		// progressBar.setIndeterminate(true);
@@ -373,6 +380,10 @@ public class FileAnnotation extends ArrayAnnotation
 			e.printStackTrace();
 			// ExceptionDialog.showException(parent, "Read From File - " + fName, e);
 		}
+		finally
+		{
+			timer.stop(gene2SymbolHash == null ? 0 : gene2SymbolHash.size());
+		}
 	}
 
 	public boolean isUpdated()
@@ -417,22 +428,12 @@ public class FileAnnotation extends ArrayAnnotation
 
 		inFile = new File(inFile.getAbsolutePath(), fName);
 
-		if (!inFile.exists())
+		// imports of the same chip run in parallel, only one of them downloads the file
+		FileInfo fInfo = URLUtils.downloadIfMissing(http, inFile);
+		if (fInfo.getException() != null)
 		{
-			FileInfo fInfo = URLUtils.download(http, inFile);
-
-			if (fInfo.getLastModified() > 0)
-			{
-				inFile.setLastModified(fInfo.getLastModified());
-			}
-			else
-			{
-				if (fInfo.getException() != null)
-				{
-					// ExceptionDialog.showException(parent, "Download File - " + fName,
-					// fInfo.getException());
-				}
-			}
+			// ExceptionDialog.showException(parent, "Download File - " + fName,
+			// fInfo.getException());
 		}
 
 		return inFile;
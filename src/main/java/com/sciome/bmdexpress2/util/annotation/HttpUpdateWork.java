@@ -15,8 +15,10 @@ import java.io.File;
 import java.text.DateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.sciome.bmdexpress2.mvp.model.chip.ChipInfo;
 import com.sciome.bmdexpress2.shared.BMDExpressConstants;
@@ -37,6 +39,7 @@ public class HttpUpdateWork
 	private String httpURL, provider, chip, chipId;
 	// private String[][] arrayInfo = null, pathwayInfo = null;
 	private Hashtable<String, ChipInfo> chipsHash;
+	private AnnotationSync.SyncReport geneOntologyReport;
 
 	private List<Object[]> tableData;
 
@@ -200,18 +203,23 @@ public class HttpUpdateWork
 		}
 	}
 
-	public void processUpdate(String chip, String provider)
+	public AnnotationSync.SyncReport processUpdate(String chip, String provider)
 	{
 		// progressBar.setString("Processing " + chip);
+		return new AnnotationSync(httpURL).sync(AnnotationSync.chipFiles(provider, chip));
+	}
 
-		for (int i = 0; i < BMDExpressConstants.getInstance().ANNOTFILES.length; i++)
-		{
-			String http = httpURL + BMDExpressConstants.getInstance().ARRAYDIR + "/" + provider + "/" + chip
-					+ "/" + BMDExpressConstants.getInstance().ANNOTFILES[i];
-			String path = BMDExpressConstants.getInstance().ANNOTATION_BASE_PATH + File.separator
-					+ BMDExpressConstants.getInstance().ARRAYDIR + "/" + provider + "/" + chip;
-			File inFile = download(http, path, BMDExpressConstants.getInstance().ANNOTFILES[i]);
-		}
+	/*
+	 * download the annotation files of the chips concurrently, files that did not change on the server are
+	 * skipped. Every chip is a {chip, provider} pair. The report has the files that failed.
+	 */
+	public AnnotationSync.SyncReport processUpdates(List<String[]> chips,
+			Consumer<AnnotationSync.FileResult> onFileDone)
+	{
+		List<String> files = new ArrayList<>();
+		for (String[] chip : chips)
+			files.addAll(AnnotationSync.chipFiles(chip[1], chip[0]));
+		return new AnnotationSync(httpURL).sync(files, onFileDone);
 	}
 
 	/**
@@ -219,27 +227,19 @@ public class HttpUpdateWork
 	 */
 	private void updateGeneOntology()
 	{
-		String http = httpURL + BMDExpressConstants.getInstance().GODIR + "/"
-				+ BMDExpressConstants.getInstance().GOFILENAME;
-		String path = BMDExpressConstants.getInstance().ANNOTATION_BASE_PATH + File.separator
-				+ BMDExpressConstants.getInstance().GODIR;
-		File localFile = new File(path, BMDExpressConstants.getInstance().GOFILENAME);
 		// progressBar.setMessage("Check and update Gene Ontology annotations");
 		// progressBar.setString("Processing " + GOFILENAME);
-		checkPath(path);
-		// check available update
-		boolean isAvailable = URLUtils.updateAvailable(http, localFile);
-
-		if (isAvailable)
-		{
-			// update
-			FileInfo fInfo = URLUtils.download(http, localFile);
+		// only downloaded when it changed on the server
+		geneOntologyReport = new AnnotationSync(httpURL).sync(Collections.singletonList(
+				BMDExpressConstants.getInstance().GODIR + "/" + BMDExpressConstants.getInstance().GOFILENAME));
+	}
 
-			if (fInfo.getLastModified() > 0)
-			{
-				localFile.setLastModified(fInfo.getLastModified());
-			}
-		}
+	/*
+	 * the update of the Gene Ontology file by the last doInBackground.
+	 */
+	public AnnotationSync.SyncReport getGeneOntologyReport()
+	{
+		return geneOntologyReport;
 	}
 
 	public List<Object[]> getTableData()
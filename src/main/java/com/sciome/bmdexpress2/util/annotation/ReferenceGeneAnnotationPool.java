@@ -0,0 +1,181 @@
+package com.sciome.bmdexpress2.util.annotation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sciome.bmdexpress2.mvp.model.BMDProject;
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.chip.ChipInfo;
+import com.sciome.bmdexpress2.mvp.model.probe.Probe;
+import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
+import com.sciome.bmdexpress2.mvp.model.refgene.EntrezGene;
+import com.sciome.bmdexpress2.mvp.model.refgene.ReferenceGene;
+import com.sciome.bmdexpress2.mvp.model.refgene.ReferenceGeneAnnotation;
+
+/*
+ * The probe to gene annotations of every platform, shared by the experiments that use it. A platform is a chip
+ * and the creation date of its annotation file. Experiments on the same platform hold the same Probe,
+ * ReferenceGene and ReferenceGeneAnnotation instances, so the annotation is in memory once, and is written
+ * once to a .bm2 file because serialization writes a shared object a single time and refers back to it.
+ *
+ * The pool holds at most one annotation per probe of every platform that was loaded.
+ */
+public class ReferenceGeneAnnotationPool
+{
+	private static ReferenceGeneAnnotationPool	instance	= null;
+
+	private Map<String, PlatformAnnotation>		platforms	= new HashMap<>();
+
+	protected ReferenceGeneAnnotationPool()
+	{
+
+	}
+
+	public static synchronized ReferenceGeneAnnotationPool getInstance()
+	{
+		if (instance == null)
+		{
+			instance = new ReferenceGeneAnnotationPool();
+		}
+		return instance;
+	}
+
+	/*
+	 * identifies the platform of an experiment. Returns null for generic experiments, they are not
+	 * annotated.
+	 */
+	public static String getPlatformKey(ChipInfo chip, Long chipCreationDate)
+	{
+		if (chip == null)
+			return null;
+		String chipId = chip.getGeoID() != null ? chip.getGeoID() : chip.getName();
+		if (chipId == null || chipId.equals("Generic"))
+			return null;
+		return chipId + "|" + chipCreationDate;
+	}
+
+	/*
+	 * the pooled annotation of a probe with the Entrez genes of the annotation file. The gene symbols are
+	 * looked up in geneSymbols.
+	 */
+	public synchronized ReferenceGeneAnnotation getAnnotation(String platformKey, Probe probe,
+			Collection<String> geneIds, Map<String, String> geneSymbols)
+	{
+		List<ReferenceGene> referenceGenes = new ArrayList<>();
+		PlatformAnnotation platform = platformKey == null ? new PlatformAnnotation() : getPlatform(platformKey);
+		for (String geneId : geneIds)
+		{
+			ReferenceGene refGene = new EntrezGene();
+			refGene.setId(geneId);
+			refGene.setGeneSymbol(geneSymbols.get(geneId));
+			referenceGenes.add(platform.internGene(refGene));
+		}
+
+		ReferenceGeneAnnotation referenceGeneAnnotation = new ReferenceGeneAnnotation();
+		referenceGeneAnnotation.setProbe(probe);
+		referenceGeneAnnotation.setReferenceGenes(referenceGenes);
+		return platform.internAnnotation(referenceGeneAnnotation);
+	}
+
+	/*
+	 * swap the probes and annotations of an experiment for the pooled ones. Experiments read from files
+	 * that were written before the pool carry their own copies.
+	 */
+	public synchronized void intern(DoseResponseExperiment experiment)
+	{
+		String platformKey = getPlatformKey(experiment.getChip(), experiment.getChipCreationDate());
+		if (platformKey == null || experiment.getReferenceGeneAnnotations() == null)
+			return;
+		PlatformAnnotation platform = getPlatform(platformKey);
+
+		List<ReferenceGeneAnnotation> annotations = new ArrayList<>();
+		for (ReferenceGeneAnnotation referenceGeneAnnotation : experiment.getReferenceGeneAnnotations())
+		{
+			if (referenceGeneAnnotation == null || referenceGeneAnnotation.getProbe() == null
+					|| referenceGeneAnnotation.getReferenceGenes() == null)
+			{
+				annotations.add(referenceGeneAnnotation);
+				continue;
+			}
+			List<ReferenceGene> referenceGenes = new ArrayList<>();
+			for (ReferenceGene refGene : referenceGeneAnnotation.getReferenceGenes())
+				referenceGenes.add(platform.internGene(refGene));
+			referenceGeneAnnotation.setReferenceGenes(referenceGenes);
+			annotations.add(platform.internAnnotation(referenceGeneAnnotation));
+		}
+		experiment.setReferenceGeneAnnotations(annotations);
+
+		if (experiment.getProbeResponses() != null)
+			for (ProbeResponse probeResponse : experiment.getProbeResponses())
+				if (probeResponse != null && probeResponse.getProbe() != null)
+					probeResponse.setProbe(platform.internProbe(probeResponse.getProbe()));
+	}
+
+	public void intern(BMDProject project)
+	{
+		if (project == null || project.getDoseResponseExperiments() == null)
+			return;
+		for (DoseResponseExperiment experiment : project.getDoseResponseExperiments())
+			intern(experiment);
+	}
+
+	private PlatformAnnotation getPlatform(String platformKey)
+	{
+		return platforms.computeIfAbsent(platformKey, k -> new PlatformAnnotation());
+	}
+
+	/*
+	 * the interned instances of one platform, by probe id and by gene source and id.
+	 */
+	private static class PlatformAnnotation
+	{
+		private Map<String, Probe>						probes		= new HashMap<>();
+		private Map<String, ReferenceGene>				genes		= new HashMap<>();
+		private Map<String, ReferenceGeneAnnotation>	annotations	= new HashMap<>();
+
+		Probe internProbe(Probe probe)
+		{
+			if (probe.getId() == null)
+				return probe;
+			Probe pooled = probes.putIfAbsent(probe.getId(), probe);
+			return pooled == null ? probe : pooled;
+		}
+
+		ReferenceGene internGene(ReferenceGene refGene)
+		{
+			if (refGene.getId() == null)
+				return refGene;
+			String key = refGene.getSource() + ":" + refGene.getId();
+			ReferenceGene pooled = genes.get(key);
+			if (pooled == null)
+			{
+				genes.put(key, refGene);
+				return refGene;
+			}
+			// a gene renamed in a later annotation file keeps its own symbol.
+			if (!pooled.getGeneSymbol().equals(refGene.getGeneSymbol()))
+				return refGene;
+			return pooled;
+		}
+
+		/*
+		 * the pooled annotation of the probe when it maps to the same genes, otherwise the annotation itself
+		 * with its probe interned.
+		 */
+		ReferenceGeneAnnotation internAnnotation(ReferenceGeneAnnotation referenceGeneAnnotation)
+		{
+			Probe probe = internProbe(referenceGeneAnnotation.getProbe());
+			ReferenceGeneAnnotation pooled = annotations.get(probe.getId());
+			if (pooled != null && pooled.getReferenceGenes().equals(referenceGeneAnnotation.getReferenceGenes()))
+				return pooled;
+
+			referenceGeneAnnotation.setProbe(probe);
+			if (pooled == null && probe.getId() != null)
+				annotations.put(probe.getId(), referenceGeneAnnotation);
+			return referenceGeneAnnotation;
+		}
+	}
+}
@@ -15,6 +15,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /*
  * download data from URLs and save it to local files.
@@ -23,6 +28,13 @@ import java.net.URLConnection;
  */
 public class URLUtils
 {
+	// one lock per local file, so threads don't download the same file over each other
+	private static final ConcurrentHashMap<String, Object> fileLocks = new ConcurrentHashMap<>();
+
+	public static Object getFileLock(File file)
+	{
+		return fileLocks.computeIfAbsent(file.getAbsolutePath(), path -> new Object());
+	}
 
 	/**
 	 * Check parent path, create if not exists
@@ -140,9 +152,23 @@ public class URLUtils
 	 * @return long value of date last modified of original file
 	 */
 	public static FileInfo download(FileInfo fInfo)
+	{
+		synchronized (getFileLock(fInfo.getFile()))
+		{
+			return downloadToPartFile(fInfo);
+		}
+	}
+
+	/*
+	 * the file is written under a name of its own and moved into place when it is complete, readers never
+	 * see half a file.
+	 */
+	private static FileInfo downloadToPartFile(FileInfo fInfo)
 	{
 		File localFile = fInfo.getFile();
 		checkPath(localFile);
+		File partFile = new File(localFile.getParentFile(),
+				localFile.getName() + "." + UUID.randomUUID() + ".part");
 		OutputStream output = null;
 		URLConnection conn = null;
 		InputStream input = null;
@@ -153,7 +179,7 @@ public class URLUtils
 			conn = url.openConnection();
 			input = conn.getInputStream();
 
-			output = new BufferedOutputStream(new FileOutputStream(localFile));
+			output = new BufferedOutputStream(new FileOutputStream(partFile));
 			byte[] buffer = new byte[1024];
 			int numRead;
 			long numWritten = 0;
@@ -192,9 +218,62 @@ public class URLUtils
 			}
 		}
 
+		try
+		{
+			if (fInfo.getException() == null)
+				moveIntoPlace(partFile, localFile);
+		}
+		catch (IOException e)
+		{
+			fInfo.setException(e);
+		}
+		finally
+		{
+			partFile.delete();
+		}
+
 		return fInfo;
 	}
 
+	private static void moveIntoPlace(File partFile, File localFile) throws IOException
+	{
+		try
+		{
+			Files.move(partFile.toPath(), localFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			Files.move(partFile.toPath(), localFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Download a file unless it is already there. Threads asking for the same file wait for the first one
+	 * and then use its file.
+	 *
+	 * @param address
+	 *            is the url of the file
+	 * @param localFile
+	 *            is the local file to be written
+	 *
+	 * @return FileInfo of the download, its last modified date is 0 when the file was already there
+	 */
+	public static FileInfo downloadIfMissing(String address, File localFile)
+	{
+		synchronized (getFileLock(localFile))
+		{
+			FileInfo fInfo = new FileInfo(address, localFile);
+			if (localFile.exists())
+				return fInfo;
+
+			downloadToPartFile(fInfo);
+			if (fInfo.getLastModified() > 0)
+				localFile.setLastModified(fInfo.getLastModified());
+			return fInfo;
+		}
+	}
+
 	/**
 	 * Check if local file exists, if not then download from http
 	 *
@@ -218,27 +297,8 @@ public class URLUtils
 		}
 
 		inFile = new File(inFile.getAbsolutePath(), fName);
-		FileInfo fInfo = new FileInfo(http, inFile);
-
-		if (!inFile.exists())
-		{
-			// FileInfo fInfo = URLUtils.download(http, inFile);
-			fInfo = URLUtils.download(fInfo);
-
-			if (fInfo.getLastModified() > 0)
-			{
-				inFile.setLastModified(fInfo.getLastModified());
-			} /*
-				 * else {
-				 * if (fInfo.getException() != null) {
-				 * parent.showException("Download File - " + fName,
-				 * fInfo.getException());
-				 * }
-				 * }
-				 */
-		}
 
-		return fInfo;
+		return downloadIfMissing(http, inFile);
 	}
 
 	/**
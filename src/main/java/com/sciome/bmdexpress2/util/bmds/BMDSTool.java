@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Vector;
 import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
 
 import org.apache.commons.io.FileUtils;
 
@@ -57,6 +58,7 @@ import com.sciome.bmdexpress2.util.bmds.thread.IModelProgressUpdater;
 import com.sciome.bmdexpress2.util.bmds.thread.IProbeIndexGetter;
 import com.sciome.bmdexpress2.util.bmds.thread.PolyFitThread;
 import com.sciome.bmdexpress2.util.bmds.thread.PowerFitThread;
+import com.sciome.bmdexpress2.util.metrics.MetricsRegistry;
 import com.sciome.bmdexpress2.util.stat.ChiSquareCalculator;
 import com.sciome.bmdexpress2.util.stat.DosesStat;
 
@@ -100,6 +102,12 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 	private List<Integer>				doseResponseQueue	= new ArrayList<>();
 	private String						tmpFolder			= null;
 	private boolean						isCustomTmpFolder	= false;
+	private ModelFitCache				fitCache;
+	private TempWorkspace				tempWorkspace;
+
+	// true when best models are reselected on an existing result. The StatResults then belong to the
+	// source result too, so they must not be modified.
+	private boolean						shareStatResults	= false;
 
 	/**
 	 * Class constructor
@@ -204,20 +212,121 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 				processName = userName + "-" + processName;
 
 			// in the tmp folder, make a special folder based on process id/host name and user name
+			File sharedFolderFile = new File(tmpFolder);
 			tmpFolder += File.separator + processName;
 			File tmpFolderFile = new File(tmpFolder);
 			if (!tmpFolderFile.exists())
 				tmpFolderFile.mkdirs();
 
-			// now copy over all the lib stuff to the tmp folder to
-			// run executables from local space.
-			BMDExpressProperties.getInstance().copyLibToTmpFoler(tmpFolderFile + File.separator + "lib/");
+			// now link the lib stuff into the tmp folder to run executables from local space.
+			// it is copied only once per tmp folder and shared by all processes using it.
+			ModelExecutableCache.linkLib(sharedFolderFile, new File(tmpFolderFile, "lib"));
 
 		}
 		this.tmpFolder = tmpFolder;
 
 		bmdResults.setName(processableData.toString() + "_BMD");
 
+		fitCache = new ModelFitCache(
+				BMDExpressProperties.getInstance().isFitCacheDisabled() ? null : FitCacheStore.getInstance());
+		tempWorkspace = new TempWorkspace(tmpFolder);
+
+	}
+
+	/*
+	 * Set up a tool that only reselects best models of an existing BMDResult (see reselectBestModels).
+	 * Nothing gets fit so no model input parameters or temp folders are needed.
+	 *
+	 * A result that was run with MODIFY_BMD_IF_FLAGGED_HILL_BEST or SELECT_NEXT_BEST_PVALUE_GREATER_OO5 had
+	 * the BMDs of its flagged Hill fits overwritten in place, the fitted values are gone. Reselecting from it
+	 * would select with the modified BMDs, so it is refused and the data has to be fit again.
+	 */
+	public BMDSTool(BMDResult bmdResult, ModelSelectionParameters modelSelectionParameters)
+	{
+		if (hasModifiedFlaggedHills(bmdResult))
+			throw new IllegalArgumentException("The flagged Hill models of " + bmdResult.getName()
+					+ " had their BMDs modified by the best model selection, best models can't be reselected"
+					+ " from it. Run the BMD analysis again instead.");
+		this.modelSelectionParameters = modelSelectionParameters;
+		this.probeResponses = bmdResult.getProcessableProbeResponses();
+		this.modelsToRun = getFittedModels(bmdResult);
+		this.shareStatResults = true;
+
+		List<Treatment> treatments = bmdResult.getDoseResponseExperiment().getTreatments();
+		doses = new float[treatments.size()];
+		for (int i = 0; i < treatments.size(); i++)
+		{
+			doses[i] = treatments.get(i).getDose();
+		}
+
+		checkDoses();
+		checkOptions();
+		flagDose = lowPDose * flagRatio;
+	}
+
+	/*
+	 * true when a fitted Hill result of the BMDResult had its BMD replaced, it is flagged 3 or 4 then. A
+	 * reselected result only modifies copies of its best models, its fitted results are untouched.
+	 */
+	public static boolean hasModifiedFlaggedHills(BMDResult bmdResult)
+	{
+		if (bmdResult.getProbeStatResults() == null)
+			return false;
+		for (ProbeStatResult probeStatResult : bmdResult.getProbeStatResults())
+		{
+			if (probeStatResult.getStatResults() == null)
+				continue;
+			for (StatResult statResult : probeStatResult.getStatResults())
+				if (statResult instanceof HillResult && ((HillResult) statResult).getkFlag() >= 3)
+					return true;
+		}
+		return false;
+	}
+
+	/*
+	 * the models that were fit to create the result, in the order of each probe's StatResults.
+	 */
+	public static List<StatModel> getFittedModels(BMDResult bmdResult)
+	{
+		List<StatModel> models = new ArrayList<>();
+		if (bmdResult.getProbeStatResults() == null || bmdResult.getProbeStatResults().isEmpty())
+			return models;
+
+		for (StatResult statResult : bmdResult.getProbeStatResults().get(0).getStatResults())
+		{
+			StatModel statModel = null;
+			if (statResult instanceof HillResult)
+				statModel = new HillModel();
+			else if (statResult instanceof PolyResult)
+			{
+				PolyModel pm = new PolyModel();
+				pm.setDegree(((PolyResult) statResult).getDegree());
+				statModel = pm;
+			}
+			else if (statResult instanceof PowerResult)
+				statModel = new PowerModel();
+			else if (statResult instanceof ExponentialResult)
+			{
+				ExponentialModel em = new ExponentialModel();
+				em.setOption(((ExponentialResult) statResult).getOption());
+				statModel = em;
+			}
+			if (statModel != null)
+				models.add(statModel);
+		}
+		return models;
+	}
+
+	/*
+	 * Apply this tool's model selection parameters to an already fit BMDResult. The returned result has its
+	 * own ProbeStatResults but shares the fitted StatResults with the source, which is left untouched.
+	 */
+	public BMDResult reselectBestModels(BMDResult source)
+	{
+		BMDResult bmdResult = new BMDResult(source);
+		selectBestModels(bmdResult);
+		fixBestModel(bmdResult);
+		return bmdResult;
 	}
 
 	private boolean isModelInThere(String modelName, List<StatModel> modelsToFit)
@@ -238,60 +347,77 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 
 		long startTime = System.currentTimeMillis();
 
-		bmdResults.setAnalysisInfo(analysisInfo);
-
-		if (probeResponses != null)
+		try (MetricsRegistry.Timer analysisTimer = MetricsRegistry.getInstance().start("bmds.analysis"))
 		{
+			bmdResults.setAnalysisInfo(analysisInfo);
 
-			// set the values and initialize for the new bmdResults.
-			bmdResults.setProbeStatResults(new ArrayList<ProbeStatResult>());
-			for (ProbeResponse probeResponse : probeResponses)
+			if (probeResponses != null)
 			{
-				ProbeStatResult probeStatResult = new ProbeStatResult();
-				probeStatResult.setProbeResponse(probeResponse);
-				probeStatResult.setStatResults(new ArrayList<StatResult>());
-				bmdResults.getProbeStatResults().add(probeStatResult);
-			}
 
-			tempFiles = new Vector<File>();
+				// set the values and initialize for the new bmdResults.
+				bmdResults.setProbeStatResults(new ArrayList<ProbeStatResult>());
+				for (ProbeResponse probeResponse : probeResponses)
+				{
+					ProbeStatResult probeStatResult = new ProbeStatResult();
+					probeStatResult.setProbeResponse(probeResponse);
+					probeStatResult.setStatResults(new ArrayList<StatResult>());
+					bmdResults.getProbeStatResults().add(probeStatResult);
+				}
 
-			boolean pass = fitSelectedModels();
-			closeOutFile(LOGOUT);
+				tempFiles = new Vector<File>();
 
-			if (pass)
-			{
+				boolean pass = fitSelectedModels();
+				tempWorkspace.close();
+				closeOutFile(LOGOUT);
 
-				fixBestModel(bmdResults);
-			}
+				if (pass)
+				{
 
-			Map<String, Integer> modelFailCount = new HashMap<>();
-			for (ProbeStatResult result : bmdResults.getProbeStatResults())
-			{
-				for (StatResult sr : result.getStatResults())
+					fixBestModel(bmdResults);
+				}
+
+				Map<String, Integer> modelFailCount = new HashMap<>();
+				for (ProbeStatResult result : bmdResults.getProbeStatResults())
 				{
-					if (sr.getSuccess().equals("false"))
+					for (StatResult sr : result.getStatResults())
 					{
-						if (modelFailCount.containsKey(sr.getModel()))
-							modelFailCount.put(sr.getModel(), modelFailCount.get(sr.getModel()) + 1);
-						else
-							modelFailCount.put(sr.getModel(), 1);
-
+						if (sr.getSuccess().equals("false"))
+						{
+							if (modelFailCount.containsKey(sr.getModel()))
+								modelFailCount.put(sr.getModel(), modelFailCount.get(sr.getModel()) + 1);
+							else
+								modelFailCount.put(sr.getModel(), 1);
+
+						}
 					}
 				}
-			}
 
-			long endTime = System.currentTimeMillis();
+				long endTime = System.currentTimeMillis();
+				analysisTimer.stop(probeResponses.size());
 
-			long runTime = endTime - startTime;
-			bmdResults.getAnalysisInfo().getNotes().add("Total Run Time: " + runTime / 1000 + " seconds");
+				long runTime = endTime - startTime;
+				bmdResults.getAnalysisInfo().getNotes()
+						.add("Total Run Time: " + runTime / 1000 + " seconds");
+
+				for (String key : modelFailCount.keySet())
+					bmdResults.getAnalysisInfo().getNotes()
+							.add(key + " # of model timeouts: " + modelFailCount.get(key));
+
+				if (fitCache.isEnabled())
+					bmdResults.getAnalysisInfo().getNotes().add("Model Fit Cache: " + fitCache.getHits()
+							+ " hits, " + fitCache.getMisses() + " misses");
+				else
+					bmdResults.getAnalysisInfo().getNotes().add("Model Fit Cache: disabled");
 
-			for (String key : modelFailCount.keySet())
 				bmdResults.getAnalysisInfo().getNotes()
-						.add(key + " # of model timeouts: " + modelFailCount.get(key));
+						.add("Model Fit Files: " + tempWorkspace.getFilesCreated() + " files, "
+								+ tempWorkspace.getBytesWritten() + " bytes"
+								+ (tempWorkspace.isRAMBacked() ? " (RAM backed)" : ""));
 
+			}
+			else
+			{}
 		}
-		else
-		{}
 
 		if (cancel)
 		{
@@ -364,39 +490,45 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 
 			if (!cancel)
 			{
-				if (modelToRun instanceof HillModel)
+				try (MetricsRegistry.Timer modelTimer = MetricsRegistry.getInstance()
+						.start("bmds.model." + modelToRun.getName()))
 				{
-					currentMessage = "running Hill Model";
-					numberOfProbesRun = 0;
-					progressReciever.updateProgress(currentMessage, 0.0);
-					statResults = fitHillModel();
+					if (modelToRun instanceof HillModel)
+					{
+						currentMessage = "running Hill Model";
+						numberOfProbesRun = 0;
+						progressReciever.updateProgress(currentMessage, 0.0);
+						statResults = fitHillModel();
 
-				}
-				else if (modelToRun instanceof PowerModel)
-				{
-					currentMessage = "running Power Model";
-					numberOfProbesRun = 0;
-					progressReciever.updateProgress(currentMessage, 0.0);
-					statResults = fitPowerModel();
-				}
-				else if (modelToRun instanceof ExponentialModel)
-				{
-					currentMessage = "running Exp " + ((ExponentialModel) modelToRun).getOption() + " Model";
-					numberOfProbesRun = 0;
-					progressReciever.updateProgress(currentMessage, 0.0);
-					statResults = fitExponentialModel(((ExponentialModel) modelToRun).getOption());
-				}
-				else if (modelToRun instanceof PolyModel)
-				{
-					String polyString = "Linear";
-					numberOfProbesRun = 0;
-					if (((PolyModel) modelToRun).getDegree() > 1)
+					}
+					else if (modelToRun instanceof PowerModel)
+					{
+						currentMessage = "running Power Model";
+						numberOfProbesRun = 0;
+						progressReciever.updateProgress(currentMessage, 0.0);
+						statResults = fitPowerModel();
+					}
+					else if (modelToRun instanceof ExponentialModel)
+					{
+						currentMessage = "running Exp " + ((ExponentialModel) modelToRun).getOption()
+								+ " Model";
+						numberOfProbesRun = 0;
+						progressReciever.updateProgress(currentMessage, 0.0);
+						statResults = fitExponentialModel(((ExponentialModel) modelToRun).getOption());
+					}
+					else if (modelToRun instanceof PolyModel)
 					{
-						polyString = "Poly" + ((PolyModel) modelToRun).getDegree();
+						String polyString = "Linear";
+						numberOfProbesRun = 0;
+						if (((PolyModel) modelToRun).getDegree() > 1)
+						{
+							polyString = "Poly" + ((PolyModel) modelToRun).getDegree();
+						}
+						currentMessage = "running " + polyString + " Model";
+						progressReciever.updateProgress(currentMessage, 0.0);
+						statResults = fitPolynomialModel(((PolyModel) modelToRun).getDegree());
 					}
-					currentMessage = "running " + polyString + " Model";
-					progressReciever.updateProgress(currentMessage, 0.0);
-					statResults = fitPolynomialModel(((PolyModel) modelToRun).getDegree());
+					modelTimer.stop(probeResponses.size());
 				}
 
 				// if user said do not comput, then assign the ever so non-value -9999
@@ -445,15 +577,17 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 			return true;
 		}
 
-		selectBestModels(bmdResults);
+		try (MetricsRegistry.Timer bestModelTimer = MetricsRegistry.getInstance().start("bmds.bestmodel"))
+		{
+			selectBestModels(bmdResults);
+			bestModelTimer.stop(probeResponses.size());
+		}
 
 		return true;
 	}
 
 	public void selectBestModels(BMDResult bmdResults)
 	{
-		polyModelsTest(bmdResults);
-
 		if (modelsToRun != null && isModelInThere("hill", modelsToRun))
 		{
 			if (modelSelectionParameters.isFlagHillModel())
@@ -475,33 +609,59 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 
 		}
 
-		if (!modelSelectionParameters.isFlagHillModel() || modelSelectionParameters
-				.getBestModelSelectionWithFlaggedHill() == BestModelSelectionWithFlaggedHillModelEnum.INCLUDE_FLAGGED_HILL)
-		{ // include hill flagged model
-			selectBestModel(bmdResults);
+		// a probe's best model only depends on that probe's fits, so the probes are done in parallel.
+		// Modifying the BMD of flagged Hill best models needs the minimum over all probes, so that is done
+		// afterwards.
+		List<ProbeStatResult> probeStatResults = bmdResults.getProbeStatResults();
+		int polyCount = getPolyCount();
+		boolean[] flaggedHillBest = new boolean[probeStatResults.size()];
+		IntStream.range(0, probeStatResults.size()).parallel().forEach(i ->
+		{
+			ProbeStatResult probeStatResult = probeStatResults.get(i);
+			polyModelsTest(probeStatResult, polyCount);
+			flaggedHillBest[i] = selectProbeBestModel(probeStatResult);
+		});
+
+		if (modelSelectionParameters.isFlagHillModel() && (modelSelectionParameters
+				.getBestModelSelectionWithFlaggedHill() == BestModelSelectionWithFlaggedHillModelEnum.MODIFY_BMD_IF_FLAGGED_HILL_BEST
+				|| modelSelectionParameters
+						.getBestModelSelectionWithFlaggedHill() == BestModelSelectionWithFlaggedHillModelEnum.SELECT_NEXT_BEST_PVALUE_GREATER_OO5))
+		{
+			modifyFlaggedHillBests(bmdResults, flaggedHillBest);
 		}
-		else if (modelSelectionParameters
-				.getBestModelSelectionWithFlaggedHill() == BestModelSelectionWithFlaggedHillModelEnum.EXCLUDE_FLAGGED_HILL_FROM_BEST)
+	}
 
+	/*
+	 * Select the best model of one probe according to the flagged Hill handling. Returns true when the best
+	 * model is a flagged Hill whose BMD should be modified.
+	 */
+	private boolean selectProbeBestModel(ProbeStatResult probeStatResult)
+	{
+		BestModelSelectionWithFlaggedHillModelEnum flaggedHillSelection = modelSelectionParameters
+				.getBestModelSelectionWithFlaggedHill();
+
+		if (!modelSelectionParameters.isFlagHillModel()
+				|| flaggedHillSelection == BestModelSelectionWithFlaggedHillModelEnum.INCLUDE_FLAGGED_HILL)
+		{ // include hill flagged model
+			selectBestModel(probeStatResult);
+		}
+		else if (flaggedHillSelection == BestModelSelectionWithFlaggedHillModelEnum.EXCLUDE_FLAGGED_HILL_FROM_BEST)
 		{ // ingnore flagged Hill
-			selectBest1Model(bmdResults);
+			selectBest1Model(probeStatResult);
 		}
-		else if (modelSelectionParameters
-				.getBestModelSelectionWithFlaggedHill() == BestModelSelectionWithFlaggedHillModelEnum.EXCLUDE_ALL_HILL_FROM_BEST)
+		else if (flaggedHillSelection == BestModelSelectionWithFlaggedHillModelEnum.EXCLUDE_ALL_HILL_FROM_BEST)
 		{ // ingnore All Hill
-			selectBest2Model(bmdResults);
+			selectBest2Model(probeStatResult);
 		}
-		else if (modelSelectionParameters
-				.getBestModelSelectionWithFlaggedHill() == BestModelSelectionWithFlaggedHillModelEnum.MODIFY_BMD_IF_FLAGGED_HILL_BEST)
+		else if (flaggedHillSelection == BestModelSelectionWithFlaggedHillModelEnum.MODIFY_BMD_IF_FLAGGED_HILL_BEST)
 		{ // consider hill flagged and modify
-			selectBest3Model(bmdResults);
+			return selectBest3Model(probeStatResult);
 		}
-
-		else if (modelSelectionParameters
-				.getBestModelSelectionWithFlaggedHill() == BestModelSelectionWithFlaggedHillModelEnum.SELECT_NEXT_BEST_PVALUE_GREATER_OO5)
+		else if (flaggedHillSelection == BestModelSelectionWithFlaggedHillModelEnum.SELECT_NEXT_BEST_PVALUE_GREATER_OO5)
 		{ // consider next best with p-value > 0.005
-			selectBest4Model(bmdResults);
+			return selectBest4Model(probeStatResult);
 		}
+		return false;
 	}
 
 	/**
@@ -537,6 +697,8 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 					inputParameters.getNumThreads(), i, inputParameters.getKillTime(), tmpFolder, this, this);
 			hillThread.setFlag(modelSelectionParameters.isFlagHillModel(), flagDose);
 			hillThread.setDoses(doses);
+			hillThread.setFitCache(fitCache);
+			hillThread.setWorkspace(tempWorkspace.getSlot(i));
 			hillThread.setObjects(inputParameters);
 			hillThread.start();
 			fitThreads.add(hillThread);
@@ -581,6 +743,8 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 					inputParameters.getNumThreads(), i, inputParameters.getKillTime(), tmpFolder, this, this);
 
 			powerThread.setDoses(doses);
+			powerThread.setFitCache(fitCache);
+			powerThread.setWorkspace(tempWorkspace.getSlot(i));
 			powerThread.setObjects(inputParameters);
 			powerThread.start();
 
@@ -627,6 +791,8 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 			PolyFitThread polyThread = new PolyFitThread(cDownLatch, degree, probeResponses, statResults,
 					inputParameters.getNumThreads(), i, inputParameters.getKillTime(), tmpFolder, this, this);
 			polyThread.setDoses(doses);
+			polyThread.setFitCache(fitCache);
+			polyThread.setWorkspace(tempWorkspace.getSlot(i));
 			polyThread.setObjects(degree, inputParameters);
 			polyThread.start();
 			fitThreads.add(polyThread);
@@ -673,6 +839,8 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 					inputParameters.getNumThreads(), i, option, inputParameters.getKillTime(), tmpFolder,
 					this, this);
 			expThread.setDoses(doses);
+			expThread.setFitCache(fitCache);
+			expThread.setWorkspace(tempWorkspace.getSlot(i));
 			expThread.setObjects(inputParameters);
 			expThread.start();
 			fitThreads.add(expThread);
@@ -691,24 +859,25 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 
 	}
 
-	private void polyModelsTest(BMDResult bmdResult)
+	private void polyModelsTest(ProbeStatResult probeStatResult, int polyCount)
 	{
 
 		if (modelSelectionParameters.getBestPolyModelTest() == BestPolyModelTestEnum.NESTED_CHI_SQUARED)
 		{
-			nestedChi2Polys(bmdResult);
+			if (polyCount > 0) // otherwise no poly models to deal with
+				nestedChi2Polys(probeStatResult, polyCount);
 		}
 		else
 		{
-			lowestAICPolys(bmdResult);
+			lowestAICPolys(probeStatResult);
 		}
 	}
 
-	private void nestedChi2Polys(BMDResult bmdResult)
+	/*
+	 * how many poly models are there?
+	 */
+	private int getPolyCount()
 	{
-		ChiSquareCalculator chi = new ChiSquareCalculator();
-
-		// how many poly models are there?
 		int polyCount = 0;
 		for (StatModel statModel : modelsToRun)
 		{
@@ -717,68 +886,67 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 				polyCount++;
 			}
 		}
-		if (polyCount == 0)
-		{
-			return; // no poly models to deal with
-		}
+		return polyCount;
+	}
+
+	private void nestedChi2Polys(ProbeStatResult probeStatResult, int polyCount)
+	{
+		ChiSquareCalculator chi = new ChiSquareCalculator();
 
 		int n = (polyCount - 1) * 2;
 		int df = 1;
-		for (ProbeStatResult probeStatResult : bmdResult.getProbeStatResults())
+		double[] chiOut = new double[n];
+
+		List<StatResult> polyResults = probeStatResult.getStatResultsOfClassType(PolyResult.class);
+		StatResult bestPoly = polyResults.get(0);
+		for (int i = 0; i < polyResults.size() - 1; i++)
 		{
-			double[] chiOut = new double[n];
+			double lkp1 = polyResults.get(i).getFitLogLikelihood();
+			double lkp2 = polyResults.get(i + 1).getFitLogLikelihood();
 
-			List<StatResult> polyResults = probeStatResult.getStatResultsOfClassType(PolyResult.class);
-			StatResult bestPoly = polyResults.get(0);
-			for (int i = 0; i < polyResults.size() - 1; i++)
+			if (lkp1 >= lkp2)
+			{
+				chiOut[i] = 0;
+			}
+			else
 			{
-				double lkp1 = polyResults.get(i).getFitLogLikelihood();
-				double lkp2 = polyResults.get(i + 1).getFitLogLikelihood();
+				double llk = (-2) * (lkp1 - lkp2);
+				chiOut[i] = NumberManager.numberFormat(8, llk);
+			}
 
-				if (lkp1 >= lkp2)
-				{
-					chiOut[i] = 0;
-				}
-				else
-				{
-					double llk = (-2) * (lkp1 - lkp2);
-					chiOut[i] = NumberManager.numberFormat(8, llk);
-				}
+			double p = chi.pochisq(chiOut[i], df);
+			chiOut[i + polyCount - 1] = NumberManager.numberFormat(5, p);
+		}
 
-				double p = chi.pochisq(chiOut[i], df);
-				chiOut[i + polyCount - 1] = NumberManager.numberFormat(5, p);
-			}
+		for (int i = 0; i < polyResults.size() - 1; i++)
+		{
+			double bmd1 = polyResults.get(i).getBMD();
+			double bmdl1 = polyResults.get(i).getBMDL();
+			double bmd2 = polyResults.get(i + 1).getBMD();
+			double bmdl2 = polyResults.get(i + 1).getBMDL();
 
-			for (int i = 0; i < polyResults.size() - 1; i++)
+			double bmdu1 = polyResults.get(i).getBMDU();
+			double bmdu2 = polyResults.get(i + 1).getBMDU();
+
+			if ((chiOut[polyCount - 1 + i] > modelSelectionParameters.getpValue() && isConvergent(bmd1)
+					&& isConvergent(bmdl1) && isConvergent(bmdu1))
+					|| (chiOut[polyCount - 1 + i] < modelSelectionParameters.getpValue()
+							&& (!isConvergent(bmd2) || !isConvergent(bmdl2) || !isConvergent(bmdu2))))
 			{
-				double bmd1 = polyResults.get(i).getBMD();
-				double bmdl1 = polyResults.get(i).getBMDL();
-				double bmd2 = polyResults.get(i + 1).getBMD();
-				double bmdl2 = polyResults.get(i + 1).getBMDL();
-
-				double bmdu1 = polyResults.get(i).getBMDU();
-				double bmdu2 = polyResults.get(i + 1).getBMDU();
-
-				if ((chiOut[polyCount - 1 + i] > modelSelectionParameters.getpValue() && isConvergent(bmd1)
-						&& isConvergent(bmdl1) && isConvergent(bmdu1))
-						|| (chiOut[polyCount - 1 + i] < modelSelectionParameters.getpValue()
-								&& (!isConvergent(bmd2) || !isConvergent(bmdl2) || !isConvergent(bmdu2))))
-				{
-					bestPoly = polyResults.get(i);
-					break;
-				}
-				else
-				{
-					bestPoly = polyResults.get(i + 1);
-				}
+				bestPoly = polyResults.get(i);
+				break;
 			}
-
-			if (polyResults.size() > 1)
+			else
 			{
-				fillChiOutput(probeStatResult, polyResults, chiOut);
+				bestPoly = polyResults.get(i + 1);
 			}
-			probeStatResult.setBestPolyStatResult(bestPoly);
 		}
+
+		if (polyResults.size() > 1)
+		{
+			fillChiOutput(probeStatResult, polyResults, chiOut);
+		}
+		probeStatResult.setBestPolyStatResult(bestPoly);
 	}
 
 	private void fillChiOutput(ProbeStatResult probeStatResult, List<StatResult> polyResults,
@@ -801,24 +969,21 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 
 	}
 
-	private void lowestAICPolys(BMDResult bmdResult)
+	private void lowestAICPolys(ProbeStatResult probeStatResult)
 	{
-		for (ProbeStatResult probeStatResult : bmdResult.getProbeStatResults())
-		{
-			StatResult bestPolyResult = null;
+		StatResult bestPolyResult = null;
 
-			for (StatResult statResult : probeStatResult.getStatResults())
-			{
-				if (!(statResult instanceof PolyResult))
-					continue;
+		for (StatResult statResult : probeStatResult.getStatResults())
+		{
+			if (!(statResult instanceof PolyResult))
+				continue;
 
-				if (bestPolyResult == null)
-					bestPolyResult = statResult;
-				else if (nextAICBetter(bestPolyResult, statResult))
-					bestPolyResult = statResult;
-			}
-			probeStatResult.setBestPolyStatResult(bestPolyResult);
+			if (bestPolyResult == null)
+				bestPolyResult = statResult;
+			else if (nextAICBetter(bestPolyResult, statResult))
+				bestPolyResult = statResult;
 		}
+		probeStatResult.setBestPolyStatResult(bestPolyResult);
 	}
 
 	/**
@@ -960,19 +1125,14 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 	 *
 	 * Modified 4/11/2011
 	 */
-	private void selectBestModel(BMDResult bmdResults)
+	private void selectBestModel(ProbeStatResult probeStatResult)
 	{
-		// System.out.println("selectBestModel()");
-
-		for (ProbeStatResult probeStatResult : bmdResults.getProbeStatResults())
-		{
-			StatResult bestResult = null;
+		StatResult bestResult = null;
 
-			bestResult = nonPolyBetterModel(probeStatResult);
-			bestResult = betterPolyModel(probeStatResult.getBestPolyStatResult(), bestResult);
+		bestResult = nonPolyBetterModel(probeStatResult);
+		bestResult = betterPolyModel(probeStatResult.getBestPolyStatResult(), bestResult);
 
-			probeStatResult.setBestStatResult(bestResult);
-		}
+		probeStatResult.setBestStatResult(bestResult);
 	}
 
 	/**
@@ -981,36 +1141,30 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 	 * Modified based on selectBestModel() above with Hill Flagged ignored when selecting best models based on
 	 * AIC values
 	 */
-	private void selectBest1Model(BMDResult bmdResults)
+	private void selectBest1Model(ProbeStatResult probeStatResult)
 	{
-		System.out.println("selectBest1Model()");
+		StatResult bestResult = null;
 
-		for (ProbeStatResult probeStatResult : bmdResults.getProbeStatResults())
+		for (StatResult statResult : probeStatResult.getStatResults())
 		{
-			StatResult bestResult = null;
-
-			for (StatResult statResult : probeStatResult.getStatResults())
+			if (statResult instanceof HillResult && isFlaggedHill((HillResult) statResult))
 			{
-				if (statResult instanceof HillResult && isFlaggedHill((HillResult) statResult))
-				{
-					continue;
-				}
-				else if (bestResult == null)
-				{
-					bestResult = statResult;
-				}
-				else if (nextAICBetter(bestResult, statResult))
-				{
-					bestResult = statResult;
-
-				}
+				continue;
 			}
+			else if (bestResult == null)
+			{
+				bestResult = statResult;
+			}
+			else if (nextAICBetter(bestResult, statResult))
+			{
+				bestResult = statResult;
 
-			bestResult = betterPolyModel(probeStatResult.getBestPolyStatResult(), bestResult);
+			}
+		}
 
-			probeStatResult.setBestStatResult(bestResult);
+		bestResult = betterPolyModel(probeStatResult.getBestPolyStatResult(), bestResult);
 
-		}
+		probeStatResult.setBestStatResult(bestResult);
 	}
 
 	/**
@@ -1019,34 +1173,30 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 	 *
 	 * Modified based on selectBestModel() above with AllHill ignored
 	 */
-	private void selectBest2Model(BMDResult bmdResults)
+	private void selectBest2Model(ProbeStatResult probeStatResult)
 	{
-		for (ProbeStatResult probeStatResult : bmdResults.getProbeStatResults())
-		{
-			StatResult bestResult = null;
+		StatResult bestResult = null;
 
-			for (StatResult statResult : probeStatResult.getStatResults())
+		for (StatResult statResult : probeStatResult.getStatResults())
+		{
+			if (statResult instanceof HillResult)
 			{
-				if (statResult instanceof HillResult)
-				{
-					continue;
-				}
-				else if (bestResult == null)
-				{
-					bestResult = statResult;
-				}
-				else if (nextAICBetter(bestResult, statResult))
-				{
-					bestResult = statResult;
-
-				}
+				continue;
 			}
+			else if (bestResult == null)
+			{
+				bestResult = statResult;
+			}
+			else if (nextAICBetter(bestResult, statResult))
+			{
+				bestResult = statResult;
 
-			bestResult = betterPolyModel(probeStatResult.getBestPolyStatResult(), bestResult);
+			}
+		}
 
-			probeStatResult.setBestStatResult(bestResult);
+		bestResult = betterPolyModel(probeStatResult.getBestPolyStatResult(), bestResult);
 
-		}
+		probeStatResult.setBestStatResult(bestResult);
 	}
 
 	private boolean isFlaggedHill(HillResult hillResult)
@@ -1057,6 +1207,11 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 		{
 			short flag = hillResult.getkFlag();
 
+			// when reselecting, the flag was set with the old flag dose. compare k with the current one.
+			double[] parameters = hillResult.getCurveParameters();
+			if (shareStatResults && parameters != null && parameters.length > 3)
+				flag = (short) (parameters[3] < flagDose ? 1 : 0);
+
 			if (flag >= 1)
 			{
 				isFlagged = true;
@@ -1072,57 +1227,17 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 	 * Modified based on original selectBestModel() above with additional consideration of Hill Flags, i.e.,
 	 * if flagged Hill is the best model then modify Hill's BMD as flag ration * minimum BMD of allover other
 	 * best models
+	 *
+	 * Returns true if the probe's best model is a flagged Hill.
 	 */
-	private void selectBest3Model(BMDResult bmdResults)
+	private boolean selectBest3Model(ProbeStatResult probeStatResult)
 	{
-		System.out.println("selectBest3Model()");
-
-		int fCnts = 0;
-		int[] flaggedRows = new int[bmdResults.getProbeStatResults().size()]; // row index with flagged Hill
-																				// the best
-		double minBMD = 0, minBMDL = 0, minBMDU = 0; // initialized and keep minimum BMD of best selected
-														// model
-
-		int i = 0;
-		for (ProbeStatResult probeStatResult : bmdResults.getProbeStatResults())
-		{
-			double bestBMD = maxDose, bestBMDL, bestBMDU = 0;
-
-			StatResult bestResult = nonPolyBetterModel(probeStatResult);
+		StatResult bestResult = nonPolyBetterModel(probeStatResult);
 
-			bestResult = betterPolyModel(probeStatResult.getBestPolyStatResult(), bestResult);
-			probeStatResult.setBestStatResult(bestResult);
+		bestResult = betterPolyModel(probeStatResult.getBestPolyStatResult(), bestResult);
+		probeStatResult.setBestStatResult(bestResult);
 
-			bestBMD = bestResult.getBMD();
-			bestBMDL = bestResult.getBMDL();
-			bestBMDU = bestResult.getBMDU();
-
-			if (bestResult instanceof HillResult)
-			{ // Hill is the best model
-				boolean hillFlag = isFlaggedHill((HillResult) bestResult);
-
-				if (hillFlag)
-				{
-					flaggedRows[fCnts] = i;
-					fCnts++;
-				}
-				else
-				{ // minimum BMD from best model of non-flagged probes
-					if (minBMD == 0 || minBMD > bestBMD)
-					{
-						minBMD = bestBMD;
-						minBMDL = bestBMDL;
-						minBMDU = bestBMDU;
-					}
-				}
-			}
-			i++;
-		}
-
-		if (fCnts > 0 && minBMD > 0 && minBMDL > 0 && minBMDU > 0)
-		{
-			modifyFlaggedHillBMDs(fCnts, flaggedRows, minBMD, minBMDL, minBMDU, bmdResults);
-		}
+		return bestResult instanceof HillResult && isFlaggedHill((HillResult) bestResult);
 	}
 
 	/**
@@ -1132,56 +1247,53 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 	 * next best model, i.e., if flagged Hill is the best model, then if the next best model has the p-value >
 	 * 0.05 then select the next best one, otherwise, modify Hill's BMD as flag ration * minimum BMD of
 	 * allover other best models
+	 *
+	 * Returns true if the probe's best model is still a flagged Hill.
 	 */
-	private void selectBest4Model(BMDResult bmdResults)
+	private boolean selectBest4Model(ProbeStatResult probeStatResult)
 	{
-		System.out.println("select4BestModel()");
+		StatResult bestResult = nonPolyBetterModel(probeStatResult);
+
+		bestResult = betterPolyModel(probeStatResult.getBestPolyStatResult(), bestResult);
+		probeStatResult.setBestStatResult(bestResult);
+
+		if (bestResult instanceof HillResult && isFlaggedHill((HillResult) bestResult))
+		{
+			return !checkNextBestModel2(probeStatResult);
+		}
+		return false;
+	}
 
+	/*
+	 * The BMD of flagged Hill best models is replaced by a fraction of the minimum BMD of the non flagged Hill
+	 * best models.
+	 */
+	private void modifyFlaggedHillBests(BMDResult bmdResults, boolean[] flaggedHillBest)
+	{
 		int fCnts = 0;
 		int[] flaggedRows = new int[bmdResults.getProbeStatResults().size()]; // row index with flagged Hill
 																				// the best
 		double minBMD = 0, minBMDL = 0, minBMDU = 0; // initialized and keep minimum BMD of best selected
 														// model
 
-		int i = 0;
-		for (ProbeStatResult probeStatResult : bmdResults.getProbeStatResults())
+		for (int i = 0; i < flaggedHillBest.length; i++)
 		{
-			double bestBMD = maxDose, bestBMDL, bestBMDU = 0;
-
-			StatResult bestResult = nonPolyBetterModel(probeStatResult);
-
-			bestResult = betterPolyModel(probeStatResult.getBestPolyStatResult(), bestResult);
-			probeStatResult.setBestStatResult(bestResult);
-
-			if (bestResult instanceof HillResult)
-			{ // Hill is the best model
-				boolean hillFlag = isFlaggedHill((HillResult) bestResult);
-
-				if (hillFlag)
+			StatResult bestResult = bmdResults.getProbeStatResults().get(i).getBestStatResult();
+			if (flaggedHillBest[i])
+			{
+				flaggedRows[fCnts] = i;
+				fCnts++;
+			}
+			else if (bestResult instanceof HillResult && !isFlaggedHill((HillResult) bestResult))
+			{ // minimum BMD from best model of non-flagged probes
+				double bestBMD = bestResult.getBMD();
+				if (minBMD == 0 || minBMD > bestBMD)
 				{
-					boolean nextBest = checkNextBestModel2(probeStatResult);
-
-					if (!nextBest)
-					{
-						flaggedRows[fCnts] = i;
-						fCnts++;
-					}
-				}
-				else
-				{ // minimum BMD from best model of non-flagged probes
-					bestBMD = bestResult.getBMD();
-					bestBMDL = bestResult.getBMDL();
-					bestBMDU = bestResult.getBMDU();
-					if (minBMD == 0 || minBMD > bestBMD)
-					{
-						minBMD = bestBMD;
-						minBMDL = bestBMDL;
-						minBMDU = bestBMDU;
-
-					}
+					minBMD = bestBMD;
+					minBMDL = bestResult.getBMDL();
+					minBMDU = bestResult.getBMDU();
 				}
 			}
-			i++;
 		}
 
 		if (fCnts > 0 && minBMD > 0 && minBMDL > 0 && minBMDU > 0)
@@ -1193,7 +1305,6 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 	private void modifyFlaggedHillBMDs(int max, int[] flaggedRows, double minBMD, double minBMDL,
 			double minBMDU, BMDResult bmdResults)
 	{
-		System.out.println("BMD ratio field: ");
 		double flagBMD = minBMD * modelSelectionParameters.getModFlaggedHillBMDFractionMinBMD();
 		Double flagMinBMD = Double.valueOf(flagBMD);
 		double flagBMDL = minBMDL * modelSelectionParameters.getModFlaggedHillBMDFractionMinBMD();
@@ -1231,6 +1342,12 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 
 			if (bestResult instanceof HillResult)
 			{
+				// the fitted result is shared with another dataset, so modify a copy of it.
+				if (shareStatResults)
+				{
+					bestResult = new HillResult((HillResult) bestResult);
+					probeStatResult.setBestStatResult(bestResult);
+				}
 
 				((HillResult) bestResult).setBMD(flagMinBMD);
 				((HillResult) bestResult).setBMDL(flagMinBMDL);
@@ -1495,6 +1612,8 @@ public class BMDSTool implements IModelProgressUpdater, IProbeIndexGetter
 
 	public void cleanUp()
 	{
+		if (tempWorkspace != null)
+			tempWorkspace.close();
 		if (isCustomTmpFolder)
 			try
 			{
@@ -26,7 +26,7 @@ import com.sciome.bmdexpress2.util.NumberManager;
  */
 public class FileExponentialFit extends FileFitBase
 {
-	private String			exponentialEXE, dPath;
+	private String			exponentialEXE;
 	private int[]			intParams;
 	private final int		SIX			= 6;
 	private final int		outMax		= 11;
@@ -73,53 +73,59 @@ public class FileExponentialFit extends FileFitBase
 			// System.out.println("Pathf = " + infile.getPath());
 			executeModel(exponentialEXE, infile.getPath());// infile.getAbsolutePath());
 			File outFile = readOutputs("M" + expOption + name, outputs);
-			infile.delete();
+			if (!cleanedInBulk)
+				deleteFiles(name, infile, outFile);
+		}
 
-			if (outFile != null)
-			{
-				if (outFile.exists())
-					outFile.delete();
-				try
-				{
-					(new File(dPath, "M" + expOption + name + "_exponential.002")).delete();
-				}
-				catch (Exception e)
-				{}
+		return outputs;
+	}
 
-				try
-				{
-					(new File(dPath, "M" + expOption + name + "-_exponential.log")).delete();
-				}
-				catch (Exception e)
-				{}
-			}
-			try
-			{
-				(new File(dPath, name + "_exponential.out")).delete();
-			}
-			catch (Exception e)
-			{}
-			try
-			{
-				(new File(dPath, name + "_exponential.002")).delete();
-			}
-			catch (Exception e)
-			{}
+	private void deleteFiles(String name, File infile, File outFile)
+	{
+		infile.delete();
+
+		if (outFile != null)
+		{
+			if (outFile.exists())
+				outFile.delete();
 			try
 			{
-				(new File(dPath, name + "-_exponential.log")).delete();
+				(new File(dPath, "M" + expOption + name + "_exponential.002")).delete();
 			}
 			catch (Exception e)
 			{}
+
 			try
 			{
-				(new File(dPath, name + "_exponential-Exp.log")).delete();
+				(new File(dPath, "M" + expOption + name + "-_exponential.log")).delete();
 			}
 			catch (Exception e)
 			{}
 		}
-
-		return outputs;
+		try
+		{
+			(new File(dPath, name + "_exponential.out")).delete();
+		}
+		catch (Exception e)
+		{}
+		try
+		{
+			(new File(dPath, name + "_exponential.002")).delete();
+		}
+		catch (Exception e)
+		{}
+		try
+		{
+			(new File(dPath, name + "-_exponential.log")).delete();
+		}
+		catch (Exception e)
+		{}
+		try
+		{
+			(new File(dPath, name + "_exponential-Exp.log")).delete();
+		}
+		catch (Exception e)
+		{}
 	}
 
 	private File createDataFile(String name, ModelInputParameters inputParameters, float[] inputX,
@@ -8,11 +8,18 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.regex.Pattern;
 
+import com.sciome.bmdexpress2.util.metrics.MetricsRegistry;
+
 public abstract class FileFitBase
 {
 	private int			killTime;
 	protected boolean	success;
 
+	// folder the model input and output files are written to.
+	protected String	dPath;
+	// files in a TempWorkspace are removed in bulk instead of after every fit.
+	protected boolean	cleanedInBulk	= false;
+
 	protected FileFitBase(int killTime)
 	{
 		this.killTime = killTime;
@@ -36,45 +43,53 @@ public abstract class FileFitBase
 			// for some reason using the shared dll's this is the only way I could get the executables to
 			// work.
 			pb.directory(new File(fName).getParentFile());
-			Process process = pb.start();
-
-			// Process process = rt.exec(EXE + " " + fName, new String[] {}, (new File(EXE)).getParentFile());
-			// Process process = rt.exec(cmd.toString());
-
-			try
+			try (MetricsRegistry.Timer runTimer = MetricsRegistry.getInstance().start("bmds.process.run"))
 			{
+				Process process;
+				try (MetricsRegistry.Timer spawnTimer = MetricsRegistry.getInstance()
+						.start("bmds.process.spawn"))
+				{
+					process = pb.start();
+				}
+
+				// Process process = rt.exec(EXE + " " + fName, new String[] {}, (new File(EXE)).getParentFile());
+				// Process process = rt.exec(cmd.toString());
 
-				// process is executing, but only give it a certain amount of time to execute.
-				// give it 30 seconds to complete otherwise kill it.
-				boolean processSurvived = false;
-				if (killTime > 0)
+				try
 				{
-					while (System.currentTimeMillis() - startTime < killTime)
+
+					// process is executing, but only give it a certain amount of time to execute.
+					// give it 30 seconds to complete otherwise kill it.
+					boolean processSurvived = false;
+					if (killTime > 0)
 					{
+						while (System.currentTimeMillis() - startTime < killTime)
+						{
 
-						if (!process.isAlive())
+							if (!process.isAlive())
+							{
+								processSurvived = true;
+								break;
+							}
+							Thread.sleep(1000);
+						}
+						if (!processSurvived && process.isAlive())
 						{
-							processSurvived = true;
-							break;
+							process.destroyForcibly();
+							success = false;
 						}
-						Thread.sleep(1000);
 					}
-					if (!processSurvived && process.isAlive())
+					else
 					{
-						process.destroyForcibly();
+						process.waitFor();
 						success = false;
 					}
+
 				}
-				else
+				catch (InterruptedException e)
 				{
-					process.waitFor();
-					success = false;
+					e.printStackTrace();
 				}
-
-			}
-			catch (InterruptedException e)
-			{
-				e.printStackTrace();
 			}
 			// System.out.println(getStringFromInputStream(process.getErrorStream()));
 			// System.out.println("time2runt: " + String.valueOf(System.currentTimeMillis() - startTime));
@@ -86,6 +101,12 @@ public abstract class FileFitBase
 
 	}
 
+	public void setWorkspace(TempWorkspace.Slot slot)
+	{
+		this.dPath = slot.getPath();
+		this.cleanedInBulk = true;
+	}
+
 	public abstract double[] fitModel(String name, ModelInputParameters inputParameters, float[] inputX,
 			float[] inputY);
 
@@ -25,7 +25,7 @@ import com.sciome.bmdexpress2.util.NumberManager;
  */
 public class FileHillFit extends FileFitBase
 {
-	private String			hillEXE, dPath;
+	private String			hillEXE;
 	private int[]			intParams;
 	private final int		SIX			= 6;
 	private final int		outMax		= 10;
@@ -69,32 +69,38 @@ public class FileHillFit extends FileFitBase
 			// System.out.println("Pathf = " + infile.getPath());
 			executeModel(hillEXE, infile.getPath());// infile.getAbsolutePath());
 			File outFile = readOutputs(name, outputs);
-			infile.delete();
-			if (outFile != null && outFile.exists())
-				outFile.delete();
-			try
-			{
-				(new File(dPath, name + "_hill.002")).delete();
-			}
-			catch (Exception e)
-			{}
-			try
-			{
-				(new File(dPath, name + "-hill.log")).delete();
-			}
-			catch (Exception e)
-			{}
-			try
-			{
-				(new File(dPath, name + "_hill-Hil.log")).delete();
-			}
-			catch (Exception e)
-			{}
+			if (!cleanedInBulk)
+				deleteFiles(name, infile, outFile);
 		}
 
 		return outputs;
 	}
 
+	private void deleteFiles(String name, File infile, File outFile)
+	{
+		infile.delete();
+		if (outFile != null && outFile.exists())
+			outFile.delete();
+		try
+		{
+			(new File(dPath, name + "_hill.002")).delete();
+		}
+		catch (Exception e)
+		{}
+		try
+		{
+			(new File(dPath, name + "-hill.log")).delete();
+		}
+		catch (Exception e)
+		{}
+		try
+		{
+			(new File(dPath, name + "_hill-Hil.log")).delete();
+		}
+		catch (Exception e)
+		{}
+	}
+
 	private File createDataFile(String name, ModelInputParameters inputParameters, float[] inputX,
 			float[] inputY)
 	{
@@ -23,7 +23,7 @@ import com.sciome.bmdexpress2.util.NumberManager;
  */
 public class FilePolyFit extends FileFitBase
 {
-	private String			polyEXE, dPath;
+	private String			polyEXE;
 
 	private final int		SIX			= 6;
 	private final double	minDouble	= -9999;
@@ -60,26 +60,32 @@ public class FilePolyFit extends FileFitBase
 			// System.out.println("Pathf = " + infile.getPath());
 			executeModel(polyEXE, infile.getPath());// infile.getAbsolutePath());
 			File outFile = readOutputs(fileName, outputs);
-			infile.delete();
-			if (outFile != null && outFile.exists())
-				outFile.delete();
-			try
-			{
-				(new File(dPath, fileName + ".002")).delete();
-			}
-			catch (Exception e)
-			{}
-			try
-			{
-				(new File(dPath, fileName + "-poly.log")).delete();
-			}
-			catch (Exception e)
-			{}
+			if (!cleanedInBulk)
+				deleteFiles(fileName, infile, outFile);
 		}
 
 		return outputs;
 	}
 
+	private void deleteFiles(String fileName, File infile, File outFile)
+	{
+		infile.delete();
+		if (outFile != null && outFile.exists())
+			outFile.delete();
+		try
+		{
+			(new File(dPath, fileName + ".002")).delete();
+		}
+		catch (Exception e)
+		{}
+		try
+		{
+			(new File(dPath, fileName + "-poly.log")).delete();
+		}
+		catch (Exception e)
+		{}
+	}
+
 	private File createDataFile(String fileName, ModelInputParameters inputParameters, float[] inputX,
 			float[] inputY)
 	{
@@ -23,7 +23,7 @@ import com.sciome.bmdexpress2.util.NumberManager;
  */
 public class FilePowerFit extends FileFitBase
 {
-	private String			powerEXE, dPath;
+	private String			powerEXE;
 	private int[]			intParams;
 
 	private final int		maxParams	= 9;
@@ -68,32 +68,38 @@ public class FilePowerFit extends FileFitBase
 		{
 			executeModel(powerEXE, infile.getPath());// infile.getAbsolutePath());
 			File outFile = readOutputs(fileName, outputs);
-			infile.delete();
-			if (outFile != null && outFile.exists())
-				outFile.delete();
-			try
-			{
-				(new File(dPath, fileName + ".002")).delete();
-			}
-			catch (Exception e)
-			{}
-			try
-			{
-				(new File(dPath, fileName + "-power.log")).delete();
-			}
-			catch (Exception e)
-			{}
-			try
-			{
-				(new File(dPath, fileName + "-pow.log")).delete();
-			}
-			catch (Exception e)
-			{}
+			if (!cleanedInBulk)
+				deleteFiles(fileName, infile, outFile);
 		}
 
 		return outputs;
 	}
 
+	private void deleteFiles(String fileName, File infile, File outFile)
+	{
+		infile.delete();
+		if (outFile != null && outFile.exists())
+			outFile.delete();
+		try
+		{
+			(new File(dPath, fileName + ".002")).delete();
+		}
+		catch (Exception e)
+		{}
+		try
+		{
+			(new File(dPath, fileName + "-power.log")).delete();
+		}
+		catch (Exception e)
+		{}
+		try
+		{
+			(new File(dPath, fileName + "-pow.log")).delete();
+		}
+		catch (Exception e)
+		{}
+	}
+
 	private File createDataFile(String fileName, ModelInputParameters inputParameters, float[] inputX,
 			float[] inputY)
 	{
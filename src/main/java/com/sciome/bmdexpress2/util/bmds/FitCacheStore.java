@@ -0,0 +1,288 @@
+package com.sciome.bmdexpress2.util.bmds;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongUnaryOperator;
+
+import com.sciome.bmdexpress2.shared.BMDExpressConstants;
+import com.sciome.bmdexpress2.shared.BMDExpressProperties;
+
+/*
+ * On disk store of model fit outputs keyed by a content hash (see ModelFitCache). Each entry is a tiny file
+ * named by its key in a two character sub folder. The total size is bounded: when it goes over the limit the
+ * least recently used entries are deleted. Recency is kept in memory and persisted through the files' last
+ * modified times so it survives restarts.
+ *
+ * Several processes may share the store. The total size is kept in a file next to the entries that every put
+ * updates under a file lock, and eviction rescans the sizes and last modified times of all entries on disk
+ * under the same lock before it deletes anything. Entries another process wrote are picked up by get when they
+ * are first asked for.
+ */
+public class FitCacheStore
+{
+	private static final int		FORMAT_VERSION	= 1;
+	private static final long		DEFAULT_MAX_MB	= 1024;
+	// a temp file this old was left by a put that did not finish, younger ones may still be written.
+	private static final long		STALE_TMP_MS	= 60 * 60 * 1000L;
+	// the total size of all entries as a long
+	private static final String		SIZE_FILE		= "store.size";
+
+	private static FitCacheStore	instance		= null;
+
+	private final File				directory;
+	private long					maxBytes;
+	private long					totalBytes		= 0;
+
+	// key -> file size, in least recently used first order.
+	private final Map<String, Long>	entries			= new LinkedHashMap<>(16, 0.75f, true);
+
+	public FitCacheStore(File directory, long maxBytes)
+	{
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+		if (!directory.exists())
+			directory.mkdirs();
+		loadEntries();
+		long scannedBytes = totalBytes;
+		updateSharedTotal(total -> scannedBytes);
+	}
+
+	public static synchronized FitCacheStore getInstance()
+	{
+		if (instance == null)
+		{
+			long maxMB = BMDExpressProperties.getInstance().getFitCacheMaxMB();
+			if (maxMB <= 0)
+				maxMB = DEFAULT_MAX_MB;
+			instance = new FitCacheStore(
+					new File(BMDExpressConstants.getInstance().BMDBASEPATH + File.separator + "fitcache"),
+					maxMB * 1024 * 1024);
+		}
+		return instance;
+	}
+
+	/*
+	 * returns the stored entry or null if there is none.
+	 */
+	public ModelFitCache.Fit get(String key)
+	{
+		File file = getFile(key);
+		byte[] bytes;
+		try
+		{
+			bytes = Files.readAllBytes(file.toPath());
+		}
+		catch (IOException e)
+		{
+			// never stored, or another process evicted it.
+			remove(key);
+			return null;
+		}
+
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes)))
+		{
+			if (in.readInt() != FORMAT_VERSION)
+				return null;
+			boolean success = in.readBoolean();
+			double[] results = new double[in.readInt()];
+			for (int i = 0; i < results.length; i++)
+				results[i] = in.readDouble();
+			file.setLastModified(System.currentTimeMillis());
+			synchronized (this)
+			{
+				// it may have been written by another process.
+				Long old = entries.put(key, (long) bytes.length);
+				totalBytes += bytes.length - (old == null ? 0 : old);
+			}
+			return new ModelFitCache.Fit(results, success);
+		}
+		catch (IOException e)
+		{
+			remove(key);
+			return null;
+		}
+	}
+
+	public void put(String key, ModelFitCache.Fit fit)
+	{
+		byte[] bytes;
+		long oldLength;
+		try
+		{
+			ByteArrayOutputStream bout = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bout);
+			out.writeInt(FORMAT_VERSION);
+			out.writeBoolean(fit.isSuccess());
+			out.writeInt(fit.getResults().length);
+			for (double value : fit.getResults())
+				out.writeDouble(value);
+			out.close();
+			bytes = bout.toByteArray();
+
+			// write to a temp file and move it in place so readers never see a partial entry.
+			File file = getFile(key);
+			file.getParentFile().mkdirs();
+			File tmp = new File(file.getParentFile(), key + "." + UUID.randomUUID() + ".tmp");
+			Files.write(tmp.toPath(), bytes);
+			oldLength = file.length();
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+			return;
+		}
+
+		synchronized (this)
+		{
+			Long old = entries.put(key, (long) bytes.length);
+			totalBytes += bytes.length - (old == null ? 0 : old);
+		}
+		long delta = bytes.length - oldLength;
+		updateSharedTotal(total -> total + delta);
+	}
+
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+	public synchronized long getTotalBytes()
+	{
+		return totalBytes;
+	}
+
+	public synchronized void setMaxBytes(long maxBytes)
+	{
+		this.maxBytes = maxBytes;
+	}
+
+	/*
+	 * delete every entry.
+	 */
+	public void clear()
+	{
+		List<String> keys;
+		long removedBytes;
+		synchronized (this)
+		{
+			keys = new ArrayList<>(entries.keySet());
+			removedBytes = totalBytes;
+			entries.clear();
+			totalBytes = 0;
+		}
+		for (String key : keys)
+			getFile(key).delete();
+		updateSharedTotal(total -> total - removedBytes);
+	}
+
+	private synchronized void remove(String key)
+	{
+		Long size = entries.remove(key);
+		if (size != null)
+			totalBytes -= size;
+	}
+
+	/*
+	 * change the total size in the size file under the store lock. When it goes over the limit the store is
+	 * evicted and the total is set to what is left on disk.
+	 */
+	private void updateSharedTotal(LongUnaryOperator update)
+	{
+		// file locks are held per JVM, stores in the same process have to take turns themselves.
+		synchronized (FitCacheStore.class)
+		{
+			try (RandomAccessFile file = new RandomAccessFile(new File(directory, SIZE_FILE), "rw");
+					FileLock lock = file.getChannel().lock())
+			{
+				long total = update.applyAsLong(file.length() >= Long.BYTES ? file.readLong() : 0);
+				if (total > maxBytes)
+					total = evict();
+				file.seek(0);
+				file.writeLong(Math.max(0, total));
+			}
+			catch (IOException e)
+			{
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/*
+	 * trim the store to 90% so we don't evict on every put once it is full. The other processes' writes are
+	 * only on disk, so the entries are scanned again first. Returns the size left.
+	 */
+	private synchronized long evict()
+	{
+		entries.clear();
+		totalBytes = 0;
+		loadEntries();
+
+		Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+		while (it.hasNext() && totalBytes > maxBytes * 0.9)
+		{
+			Map.Entry<String, Long> entry = it.next();
+			totalBytes -= entry.getValue();
+			getFile(entry.getKey()).delete();
+			it.remove();
+		}
+		return totalBytes;
+	}
+
+	private File getFile(String key)
+	{
+		return new File(new File(directory, key.substring(0, 2)), key);
+	}
+
+	/*
+	 * scan the store, oldest first, to rebuild the recency order.
+	 */
+	private void loadEntries()
+	{
+		List<File> files = new ArrayList<>();
+		long staleBefore = System.currentTimeMillis() - STALE_TMP_MS;
+		File[] subDirectories = directory.listFiles(File::isDirectory);
+		if (subDirectories == null)
+			return;
+		for (File subDirectory : subDirectories)
+		{
+			File[] entryFiles = subDirectory.listFiles();
+			if (entryFiles == null)
+				continue;
+			for (File file : entryFiles)
+			{
+				if (file.getName().endsWith(".tmp"))
+				{
+					// left over from a crash during put
+					if (file.lastModified() < staleBefore)
+						file.delete();
+				}
+				else
+					files.add(file);
+			}
+		}
+
+		files.sort(Comparator.comparingLong(File::lastModified));
+		for (File file : files)
+		{
+			entries.put(file.getName(), file.length());
+			totalBytes += file.length();
+		}
+	}
+}
@@ -0,0 +1,209 @@
+package com.sciome.bmdexpress2.util.bmds;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+import com.sciome.bmdexpress2.shared.BMDExpressConstants;
+
+/*
+ * When a custom tmp folder is used (e.g. node local scratch on a cluster), the model executables are run
+ * from there instead of the BMDExpress home. Copying the whole lib folder for every process means hundreds of
+ * concurrent jobs all read it from shared storage at startup.
+ *
+ * Instead the lib folder is copied once per tmp folder into bmds-lib-<fingerprint>, where the fingerprint
+ * hashes the names, sizes and modification times of the source files so a new version gets its own folder.
+ * A file lock makes sure only one process fills it; the copy is checked against a SHA-256 of each source file
+ * and only then marked complete. Every process after that just links its own lib folder to the shared one
+ * (a symbolic link, or hard links where symbolic links are not allowed, or a plain copy as a last resort).
+ */
+public class ModelExecutableCache
+{
+	private static final String	PREFIX			= "bmds-lib-";
+	private static final String	COMPLETE_FILE	= ".complete";
+
+	/*
+	 * make destination (replacing anything there) a folder holding the model executables, shared through
+	 * cacheBase.
+	 */
+	public static void linkLib(File cacheBase, File destination)
+	{
+		File source = new File(BMDExpressConstants.getInstance().BMDBASEPATH + File.separator + "lib");
+		try
+		{
+			File shared = populate(source, cacheBase);
+			link(shared, destination);
+		}
+		catch (IOException e)
+		{
+			// still run, just the slow way.
+			e.printStackTrace();
+			copy(source, destination);
+		}
+	}
+
+	/*
+	 * returns the shared folder for this version of the lib folder, filling it first if needed.
+	 */
+	private static File populate(File source, File cacheBase) throws IOException
+	{
+		File[] sourceFiles = listFiles(source);
+		File shared = new File(cacheBase, PREFIX + fingerprint(sourceFiles));
+		File complete = new File(shared, COMPLETE_FILE);
+		if (complete.exists())
+			return shared;
+
+		cacheBase.mkdirs();
+		// the lock is per process. threads in this process are kept out by synchronizing.
+		synchronized (ModelExecutableCache.class)
+		{
+			File lockFile = new File(cacheBase, shared.getName() + ".lock");
+			try (FileChannel lockChannel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE); FileLock lock = lockChannel.lock())
+			{
+				// another process may have finished while we waited for the lock.
+				if (complete.exists())
+					return shared;
+
+				if (shared.exists())
+					FileUtils.cleanDirectory(shared);
+				else
+					shared.mkdirs();
+
+				StringBuilder manifest = new StringBuilder();
+				for (File sourceFile : sourceFiles)
+				{
+					File copy = new File(shared, sourceFile.getName());
+					FileUtils.copyFile(sourceFile, copy);
+					// shared by every user of the tmp folder
+					copy.setExecutable(true, false);
+
+					String hash = sha256(sourceFile);
+					if (!hash.equals(sha256(copy)))
+						throw new IOException(
+								"Copy of " + sourceFile.getName() + " does not match the original");
+					manifest.append(hash).append("  ").append(sourceFile.getName()).append('\n');
+				}
+				Files.write(complete.toPath(), manifest.toString().getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		return shared;
+	}
+
+	private static void link(File shared, File destination) throws IOException
+	{
+		if (destination.exists())
+			FileUtils.deleteDirectory(destination);
+		destination.getParentFile().mkdirs();
+
+		try
+		{
+			Files.createSymbolicLink(destination.toPath(), shared.getAbsoluteFile().toPath());
+			return;
+		}
+		catch (IOException | UnsupportedOperationException e)
+		{
+			// e.g. windows without the privilege to create symbolic links
+		}
+
+		destination.mkdirs();
+		for (File file : listFiles(shared))
+		{
+			File linkFile = new File(destination, file.getName());
+			try
+			{
+				Files.createLink(linkFile.toPath(), file.toPath());
+			}
+			catch (IOException | UnsupportedOperationException e)
+			{
+				FileUtils.copyFile(file, linkFile);
+				linkFile.setExecutable(true);
+			}
+		}
+	}
+
+	private static void copy(File source, File destination)
+	{
+		try
+		{
+			for (File file : listFiles(source))
+			{
+				File destFile = new File(destination, file.getName());
+				FileUtils.copyFile(file, destFile);
+				destFile.setExecutable(true);
+			}
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	/*
+	 * the regular files of the folder (the executables and their shared libraries), sorted by name.
+	 */
+	private static File[] listFiles(File folder) throws IOException
+	{
+		File[] files = folder.listFiles(f -> f.isFile() && !f.getName().equals(COMPLETE_FILE));
+		if (files == null)
+			throw new IOException("Can't list " + folder.getAbsolutePath());
+		Arrays.sort(files, Comparator.comparing(File::getName));
+		return files;
+	}
+
+	private static String fingerprint(File[] files)
+	{
+		List<String> parts = new ArrayList<>();
+		for (File file : files)
+			parts.add(file.getName() + "|" + file.length() + "|" + file.lastModified());
+		return toHex(digest().digest(String.join("\n", parts).getBytes(StandardCharsets.UTF_8))).substring(0,
+				16);
+	}
+
+	private static String sha256(File file) throws IOException
+	{
+		MessageDigest digest = digest();
+		byte[] buffer = new byte[64 * 1024];
+		try (InputStream in = Files.newInputStream(file.toPath()))
+		{
+			int read;
+			while ((read = in.read(buffer)) > 0)
+				digest.update(buffer, 0, read);
+		}
+		return toHex(digest.digest());
+	}
+
+	private static MessageDigest digest()
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			// every JVM has SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes)
+	{
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes)
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		return hex.toString();
+	}
+}
@@ -0,0 +1,135 @@
+package com.sciome.bmdexpress2.util.bmds;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/*
+ * A model fit only depends on the doses, the responses, the model (and its version) and the input
+ * parameters. This cache hashes exactly those and hands back the stored outputs of an earlier fit instead of
+ * launching the model executable again. So re-running BMD analysis on a differently filtered subset of the
+ * same experiment, or with different best model selection settings, only fits the probes it has never seen.
+ *
+ * One instance is used per BMD analysis run so it can count its hits and misses. The entries themselves live
+ * in a FitCacheStore shared by all runs.
+ */
+public class ModelFitCache
+{
+	private final FitCacheStore	store;
+	private final AtomicInteger	hits	= new AtomicInteger();
+	private final AtomicInteger	misses	= new AtomicInteger();
+
+	/*
+	 * store may be null, in which case every fit is computed.
+	 */
+	public ModelFitCache(FitCacheStore store)
+	{
+		this.store = store;
+	}
+
+	/*
+	 * return the cached outputs for this fit if there are any. Otherwise run it and remember the outputs.
+	 * model identifies the model and any option that changes its output, e.g. "poly2" or "exponential3".
+	 */
+	public Fit getOrFit(String model, String version, float[] doses, float[] responses,
+			ModelInputParameters inputParameters, FileFitBase fitter, Supplier<double[]> fit)
+	{
+		if (store == null)
+			return new Fit(fit.get(), fitter.isSuccess());
+
+		String key = createKey(model, version, doses, responses, inputParameters);
+		Fit cached = store.get(key);
+		if (cached != null)
+		{
+			hits.incrementAndGet();
+			return cached;
+		}
+
+		misses.incrementAndGet();
+		double[] results = fit.get();
+		if (results == null)
+			return null;
+
+		Fit computed = new Fit(results, fitter.isSuccess());
+		// a fit that was killed for running too long says nothing about the data, so don't keep it.
+		if (computed.isSuccess() || inputParameters.getKillTime() <= 0)
+			store.put(key, computed);
+		return computed;
+	}
+
+	public int getHits()
+	{
+		return hits.get();
+	}
+
+	public int getMisses()
+	{
+		return misses.get();
+	}
+
+	public boolean isEnabled()
+	{
+		return store != null;
+	}
+
+	/*
+	 * SHA-256 over everything that determines the fit outputs, as a hex string.
+	 */
+	public static String createKey(String model, String version, float[] doses, float[] responses,
+			ModelInputParameters inputParameters)
+	{
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update((model + "|" + version + "|" + inputParameters.getFitKey() + "|")
+					.getBytes(StandardCharsets.UTF_8));
+
+			ByteBuffer buffer = ByteBuffer.allocate(Float.BYTES * (doses.length + responses.length + 2));
+			buffer.putInt(doses.length);
+			for (float dose : doses)
+				buffer.putFloat(dose);
+			buffer.putInt(responses.length);
+			for (float response : responses)
+				buffer.putFloat(response);
+			digest.update(buffer.array());
+
+			StringBuilder hex = new StringBuilder(64);
+			for (byte b : digest.digest())
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			return hex.toString();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			// every JVM has SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/*
+	 * the outputs of one fit as consumed by the fit threads' fillOutput.
+	 */
+	public static class Fit
+	{
+		private final double[]	results;
+		private final boolean	success;
+
+		public Fit(double[] results, boolean success)
+		{
+			this.results = results;
+			this.success = success;
+		}
+
+		public double[] getResults()
+		{
+			return results;
+		}
+
+		public boolean isSuccess()
+		{
+			return success;
+		}
+	}
+}
@@ -11,7 +11,7 @@
 
 package com.sciome.bmdexpress2.util.bmds;
 
-public class ModelInputParameters
+public class ModelInputParameters implements Cloneable
 {
 	private int			inputType			= 0;
 	private int			observations		= 0;
@@ -445,4 +445,36 @@ public class ModelInputParameters
 		this.killTime = killTime;
 	}
 
+	/*
+	 * The settings that change a model's outputs, for ModelFitCache keys. Threading settings are left out,
+	 * and so are the adverse direction and poly degree because the fit threads set those themselves while
+	 * they run (the degree is part of the model name in the key instead).
+	 */
+	public String getFitKey()
+	{
+		return inputType + "," + observations + "," + iterations + "," + bmdlCalculation + ","
+				+ bmdCalculation + "," + restrictPolyCoef + "," + restrictN + "," + restrictBetas + ","
+				+ restirctPower + "," + append + "," + smooth + "," + bmrType + "," + constantVariance + ","
+				+ riskType + "," + initialParams + "," + relFuncConvergence + "," + bmrLevel + ","
+				+ paramConvergence + "," + confidence + "," + alpha + "," + rho + "," + negative + ","
+				+ control + "," + slope + "," + power + "," + intercept + "," + v + "," + n + "," + k + ","
+				+ background + "," + beta1 + "," + beta2 + "," + defNegative;
+	}
+
+	/*
+	 * A copy for one analysis. The tool sets the observations and poly degree of the data set it runs on, so
+	 * analyses that run at the same time can not share one instance.
+	 */
+	public ModelInputParameters copy()
+	{
+		try
+		{
+			return (ModelInputParameters) clone();
+		}
+		catch (CloneNotSupportedException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
 }
@@ -0,0 +1,208 @@
+package com.sciome.bmdexpress2.util.bmds;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+
+import com.sciome.bmdexpress2.shared.BMDExpressConstants;
+import com.sciome.bmdexpress2.shared.BMDExpressProperties;
+
+/*
+ * Scratch space for the input and output files of the model executables during one BMD analysis run.
+ *
+ * Every fit writes an input file and the executable writes three or four files next to it. When the temp
+ * folder is on a network file system the file creates, existence checks and deletes cost more than the fits
+ * themselves. So the workspace prefers a RAM backed directory (/dev/shm) when there is one, and hands each fit
+ * thread its own sub folder where names come from a simple counter. Nothing can collide, so there is no need
+ * to probe for free names, and the files are left in place and removed in bulk every CLEAN_INTERVAL fits and
+ * when the run is done.
+ */
+public class TempWorkspace
+{
+	private static final String			RAM_FOLDER			= "/dev/shm";
+	private static final String			PREFIX				= "bmdexpress-";
+	// don't use the RAM folder when it is almost full.
+	private static final long			MIN_RAM_FREE		= 256L * 1024 * 1024;
+	private static final int			CLEAN_INTERVAL		= 500;
+
+	private final File					root;
+	private final boolean				ramBacked;
+	private final Map<Integer, Slot>	slots				= new HashMap<>();
+	private final AtomicLong			filesCreated		= new AtomicLong();
+	private final AtomicLong			bytesWritten		= new AtomicLong();
+	private boolean						closed				= false;
+
+	/*
+	 * tmpFolder is the folder to fall back to when there is no usable RAM folder. null or empty means the
+	 * default BMDExpress temp folder. The root is named after the process and a random UUID, so processes
+	 * on other hosts sharing the temp folder can't get the same one. It is created here and must not exist
+	 * yet.
+	 */
+	public TempWorkspace(String tmpFolder)
+	{
+		File base = getRAMFolder();
+		ramBacked = base != null;
+		if (base == null)
+			base = new File(tmpFolder != null && !tmpFolder.equals("") ? tmpFolder
+					: BMDExpressConstants.getInstance().TEMP_FOLDER);
+
+		// only on the local RAM folder, a shared temp folder may hold live workspaces of other hosts.
+		if (ramBacked)
+			removeAbandonedWorkspaces(base);
+
+		root = new File(base, PREFIX + ProcessHandle.current().pid() + "-" + UUID.randomUUID());
+		try
+		{
+			Files.createDirectories(base.toPath());
+			Files.createDirectory(root.toPath());
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException("Could not create the temp workspace " + root, e);
+		}
+	}
+
+	/*
+	 * the folder owned by one fit thread. threads with the same instance index run one after the other (one
+	 * model at a time) so they can share it.
+	 */
+	public synchronized Slot getSlot(int instanceIndex)
+	{
+		Slot slot = slots.get(instanceIndex);
+		if (slot == null)
+		{
+			slot = new Slot(new File(root, "t" + instanceIndex));
+			slots.put(instanceIndex, slot);
+		}
+		return slot;
+	}
+
+	/*
+	 * remove everything. the counters stay valid.
+	 */
+	public synchronized void close()
+	{
+		if (closed)
+			return;
+		closed = true;
+		for (Slot slot : slots.values())
+			slot.clean();
+		try
+		{
+			FileUtils.deleteDirectory(root);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	public File getRoot()
+	{
+		return root;
+	}
+
+	public boolean isRAMBacked()
+	{
+		return ramBacked;
+	}
+
+	public long getFilesCreated()
+	{
+		return filesCreated.get();
+	}
+
+	public long getBytesWritten()
+	{
+		return bytesWritten.get();
+	}
+
+	private File getRAMFolder()
+	{
+		if (BMDExpressProperties.getInstance().isTempWorkspaceRAMDisabled())
+			return null;
+		File ram = new File(RAM_FOLDER);
+		if (ram.isDirectory() && ram.canWrite() && ram.getUsableSpace() > MIN_RAM_FREE)
+			return ram;
+		return null;
+	}
+
+	/*
+	 * a crashed or killed run leaves its workspace behind. on a RAM folder that is memory, so remove the
+	 * workspaces of processes that no longer exist.
+	 */
+	private void removeAbandonedWorkspaces(File base)
+	{
+		File[] workspaces = base.listFiles(f -> f.isDirectory() && f.getName().startsWith(PREFIX));
+		if (workspaces == null)
+			return;
+		for (File workspace : workspaces)
+		{
+			String[] parts = workspace.getName().substring(PREFIX.length()).split("-");
+			try
+			{
+				long pid = Long.parseLong(parts[0]);
+				if (!ProcessHandle.of(pid).isPresent())
+					FileUtils.deleteDirectory(workspace);
+			}
+			catch (NumberFormatException | IOException e)
+			{
+				// not ours or in use
+			}
+		}
+	}
+
+	/*
+	 * one fit thread's folder. not thread safe, only the owning thread uses it.
+	 */
+	public class Slot
+	{
+		private final File	directory;
+		private long		nameCounter		= 0;
+		private int			sinceCleaned	= 0;
+
+		private Slot(File directory)
+		{
+			this.directory = directory;
+			directory.mkdirs();
+		}
+
+		public String getPath()
+		{
+			return directory.getPath();
+		}
+
+		/*
+		 * a name that was never used in this folder. call it before each fit; the files of earlier fits are
+		 * removed in bulk from here.
+		 */
+		public String nextName()
+		{
+			if (++sinceCleaned > CLEAN_INTERVAL)
+			{
+				clean();
+				sinceCleaned = 1;
+			}
+			return "f" + (nameCounter++);
+		}
+
+		private void clean()
+		{
+			File[] files = directory.listFiles();
+			if (files == null)
+				return;
+			for (File file : files)
+			{
+				filesCreated.incrementAndGet();
+				bytesWritten.addAndGet(file.length());
+				file.delete();
+			}
+		}
+	}
+}
@@ -17,7 +17,9 @@ import com.sciome.bmdexpress2.mvp.model.stat.StatResult;
 import com.sciome.bmdexpress2.shared.BMDExpressConstants;
 import com.sciome.bmdexpress2.shared.BMDExpressProperties;
 import com.sciome.bmdexpress2.util.bmds.FileExponentialFit;
+import com.sciome.bmdexpress2.util.bmds.ModelFitCache;
 import com.sciome.bmdexpress2.util.bmds.ModelInputParameters;
+import com.sciome.bmdexpress2.util.bmds.TempWorkspace;
 
 public class ExponentialFitThread extends Thread implements IFitThread
 {
@@ -39,6 +41,9 @@ public class ExponentialFitThread extends Thread implements IFitThread
 	private int						expOption			= 0;
 	private String					tmpFolder;
 
+	private ModelFitCache			fitCache			= new ModelFitCache(null);
+	private TempWorkspace.Slot		workspace			= null;
+
 	public ExponentialFitThread(CountDownLatch cdLatch, List<ProbeResponse> probeResponses,
 			List<StatResult> powerResults, int numThread, int instanceIndex, int option, int killTime,
 			String tmpFolder, IModelProgressUpdater progressUpdater, IProbeIndexGetter probeIndexGetter)
@@ -64,6 +69,20 @@ public class ExponentialFitThread extends Thread implements IFitThread
 		this.fExponentialFit = eFit;
 	}
 
+	public void setFitCache(ModelFitCache fitCache)
+	{
+		this.fitCache = fitCache;
+	}
+
+	/*
+	 * write the model files to this thread's folder of a TempWorkspace.
+	 */
+	public void setWorkspace(TempWorkspace.Slot workspace)
+	{
+		this.workspace = workspace;
+		fExponentialFit.setWorkspace(workspace);
+	}
+
 	public void setDoses(float[] doses)
 	{
 		this.doses = doses;
@@ -100,6 +119,8 @@ public class ExponentialFitThread extends Thread implements IFitThread
 		int randInt = Math.abs(rand.nextInt());
 
 		Integer probeIndex = probeIndexGetter.getNextProbeIndex();
+		// the fits only read the responses while they run, so one array is reused for all probes.
+		float[] responseBuffer = null;
 		while (probeIndex != null)
 		{
 
@@ -112,15 +133,27 @@ public class ExponentialFitThread extends Thread implements IFitThread
 
 			try
 			{
-				String id = probeResponses.get(probeIndex).getProbe().getId().replaceAll("\\s", "_");
-				id = String.valueOf(randInt) + "_" + BMDExpressProperties.getInstance().getNextTempFile(
-						this.tmpFolder, String.valueOf(Math.abs(id.hashCode())), "_exponential.(d)");
-				float[] responses = probeResponses.get(probeIndex).getResponseArray();
-				double[] results = fExponentialFit.fitModel(id, inputParameters, doses, responses);
+				String id;
+				if (workspace != null)
+					id = workspace.nextName();
+				else
+				{
+					id = probeResponses.get(probeIndex).getProbe().getId().replaceAll("\\s", "_");
+					id = String.valueOf(randInt) + "_" + BMDExpressProperties.getInstance().getNextTempFile(
+							this.tmpFolder, String.valueOf(Math.abs(id.hashCode())), "_exponential.(d)");
+				}
+				responseBuffer = probeResponses.get(probeIndex).copyResponsesInto(responseBuffer);
+				float[] responses = responseBuffer;
+				String fileName = id;
+				ModelFitCache.Fit fit = fitCache.getOrFit("exponential" + expOption,
+						BMDExpressProperties.getInstance().getExponentialVersion(), doses, responses,
+						inputParameters, fExponentialFit,
+						() -> fExponentialFit.fitModel(fileName, inputParameters, doses, responses));
+				double[] results = fit == null ? null : fit.getResults();
 
 				if (results != null)
 				{
-					fillOutput(results, expResult);
+					fillOutput(results, fit.isSuccess(), expResult);
 				}
 			}
 			catch (Exception e)
@@ -132,7 +165,7 @@ public class ExponentialFitThread extends Thread implements IFitThread
 		}
 	}
 
-	private void fillOutput(double[] results, ExponentialResult expResult)
+	private void fillOutput(double[] results, boolean success, ExponentialResult expResult)
 	{
 		expResult.setBMD(results[0]);
 		expResult.setBMDL(results[1]);
@@ -150,7 +183,7 @@ public class ExponentialFitThread extends Thread implements IFitThread
 		}
 		expResult.setCurveParameters(Arrays.copyOfRange(results, 6, results.length));
 		expResult.setAdverseDirection((short) direction);
-		expResult.setSuccess("" + fExponentialFit.isSuccess());
+		expResult.setSuccess("" + success);
 	}
 
 	@Override
@@ -17,7 +17,9 @@ import com.sciome.bmdexpress2.mvp.model.stat.StatResult;
 import com.sciome.bmdexpress2.shared.BMDExpressConstants;
 import com.sciome.bmdexpress2.shared.BMDExpressProperties;
 import com.sciome.bmdexpress2.util.bmds.FileHillFit;
+import com.sciome.bmdexpress2.util.bmds.ModelFitCache;
 import com.sciome.bmdexpress2.util.bmds.ModelInputParameters;
+import com.sciome.bmdexpress2.util.bmds.TempWorkspace;
 
 public class HillFitThread extends Thread implements IFitThread
 {
@@ -44,6 +46,9 @@ public class HillFitThread extends Thread implements IFitThread
 
 	private String					tmpFolder;
 
+	private ModelFitCache			fitCache			= new ModelFitCache(null);
+	private TempWorkspace.Slot		workspace			= null;
+
 	public HillFitThread(CountDownLatch cdLatch, List<ProbeResponse> probeResponses,
 			List<StatResult> hillResults, int numThreads, int instanceIndex, int killTime, String tmpFolder,
 			IModelProgressUpdater progressUpdater, IProbeIndexGetter probeIndexGetter)
@@ -67,6 +72,20 @@ public class HillFitThread extends Thread implements IFitThread
 	 * public void setJNIHillFit(HillFit hillFit) { this.hillFit = hillFit; }
 	 */
 
+	public void setFitCache(ModelFitCache fitCache)
+	{
+		this.fitCache = fitCache;
+	}
+
+	/*
+	 * write the model files to this thread's folder of a TempWorkspace.
+	 */
+	public void setWorkspace(TempWorkspace.Slot workspace)
+	{
+		this.workspace = workspace;
+		fHillFit.setWorkspace(workspace);
+	}
+
 	public void setDoses(float[] doses)
 	{
 		this.doses = doses;
@@ -98,6 +117,8 @@ public class HillFitThread extends Thread implements IFitThread
 		int randInt = Math.abs(rand.nextInt());
 
 		Integer probeIndex = probeIndexGetter.getNextProbeIndex();
+		// the fits only read the responses while they run, so one array is reused for all probes.
+		float[] responseBuffer = null;
 		while (probeIndex != null)
 		{
 
@@ -113,16 +134,26 @@ public class HillFitThread extends Thread implements IFitThread
 			{
 				// get the probe id and responses
 
-				String id = probeResponses.get(probeIndex).getProbe().getId().replaceAll("\\s", "_");
-
-				id = String.valueOf(randInt) + "_" + BMDExpressProperties.getInstance().getNextTempFile(
-						this.tmpFolder, String.valueOf(Math.abs(id.hashCode())), "_hill.(d)");
-				float[] responses = probeResponses.get(probeIndex).getResponseArray();
-				double[] results = fHillFit.fitModel(id, inputParameters, doses, responses);
+				String id;
+				if (workspace != null)
+					id = workspace.nextName();
+				else
+				{
+					id = probeResponses.get(probeIndex).getProbe().getId().replaceAll("\\s", "_");
+					id = String.valueOf(randInt) + "_" + BMDExpressProperties.getInstance().getNextTempFile(
+							this.tmpFolder, String.valueOf(Math.abs(id.hashCode())), "_hill.(d)");
+				}
+				responseBuffer = probeResponses.get(probeIndex).copyResponsesInto(responseBuffer);
+				float[] responses = responseBuffer;
+				String fileName = id;
+				ModelFitCache.Fit fit = fitCache.getOrFit("hill",
+						BMDExpressProperties.getInstance().getHillVersion(), doses, responses, inputParameters,
+						fHillFit, () -> fHillFit.fitModel(fileName, inputParameters, doses, responses));
+				double[] results = fit == null ? null : fit.getResults();
 
 				if (results != null)
 				{
-					fillOutput(results, hillResult);
+					fillOutput(results, fit.isSuccess(), hillResult);
 
 					if (flagHill)
 					{
@@ -151,7 +182,7 @@ public class HillFitThread extends Thread implements IFitThread
 	/*
 	 * given the results double array, we need to fill up the hillResult Object with the results.
 	 */
-	private void fillOutput(double[] results, HillResult hillResult)
+	private void fillOutput(double[] results, boolean success, HillResult hillResult)
 	{
 		hillResult.setBMD(results[0]);
 		hillResult.setBMDL(results[1]);
@@ -168,7 +199,7 @@ public class HillFitThread extends Thread implements IFitThread
 		}
 		hillResult.setCurveParameters(Arrays.copyOfRange(results, 6, results.length));
 		hillResult.setAdverseDirection((short) direction);
-		hillResult.setSuccess("" + fHillFit.isSuccess());
+		hillResult.setSuccess("" + success);
 	}
 
 	@Override
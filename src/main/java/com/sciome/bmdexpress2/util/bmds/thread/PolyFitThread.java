@@ -17,7 +17,9 @@ import com.sciome.bmdexpress2.mvp.model.stat.StatResult;
 import com.sciome.bmdexpress2.shared.BMDExpressConstants;
 import com.sciome.bmdexpress2.shared.BMDExpressProperties;
 import com.sciome.bmdexpress2.util.bmds.FilePolyFit;
+import com.sciome.bmdexpress2.util.bmds.ModelFitCache;
 import com.sciome.bmdexpress2.util.bmds.ModelInputParameters;
+import com.sciome.bmdexpress2.util.bmds.TempWorkspace;
 
 public class PolyFitThread extends Thread implements IFitThread
 {
@@ -44,6 +46,9 @@ public class PolyFitThread extends Thread implements IFitThread
 
 	private String					tmpFolder;
 
+	private ModelFitCache			fitCache			= new ModelFitCache(null);
+	private TempWorkspace.Slot		workspace			= null;
+
 	public PolyFitThread(CountDownLatch cDownLatch, int degree, List<ProbeResponse> probeResponses,
 			List<StatResult> polyResults, int numThreads, int instanceIndex, int killTime, String tmpFolder,
 			IModelProgressUpdater progressUpdater, IProbeIndexGetter probeIndexGetter)
@@ -63,6 +68,20 @@ public class PolyFitThread extends Thread implements IFitThread
 
 	}
 
+	public void setFitCache(ModelFitCache fitCache)
+	{
+		this.fitCache = fitCache;
+	}
+
+	/*
+	 * write the model files to this thread's folder of a TempWorkspace.
+	 */
+	public void setWorkspace(TempWorkspace.Slot workspace)
+	{
+		this.workspace = workspace;
+		fPolyFit.setWorkspace(workspace);
+	}
+
 	public void setDoses(float[] doses)
 	{
 		this.doses = doses;
@@ -97,6 +116,8 @@ public class PolyFitThread extends Thread implements IFitThread
 		int randInt = Math.abs(rand.nextInt());
 
 		Integer probeIndex = probeIndexGetter.getNextProbeIndex();
+		// the fits only read the responses while they run, so one array is reused for all probes.
+		float[] responseBuffer = null;
 		while (probeIndex != null)
 		{
 
@@ -104,31 +125,28 @@ public class PolyFitThread extends Thread implements IFitThread
 			try
 			{
 				double direction = 0;
-				String id = probeResponses.get(probeIndex).getProbe().getId().replaceAll("\\s", "_");
-				id = String.valueOf(randInt) + "_"
-						+ BMDExpressProperties.getInstance().getNextTempFile(this.tmpFolder,
-								String.valueOf(Math.abs(id.hashCode())),
-								"_poly" + inputParameters.getPolyDegree() + ".(d)");
-				float[] responses = probeResponses.get(probeIndex).getResponseArray();
-
-				inputParameters.setAdversDirection(adversDirections[0]);
+				String id;
+				if (workspace != null)
+					id = workspace.nextName();
+				else
+				{
+					id = probeResponses.get(probeIndex).getProbe().getId().replaceAll("\\s", "_");
+					id = String.valueOf(randInt) + "_"
+							+ BMDExpressProperties.getInstance().getNextTempFile(this.tmpFolder,
+									String.valueOf(Math.abs(id.hashCode())),
+									"_poly" + inputParameters.getPolyDegree() + ".(d)");
+				}
+				responseBuffer = probeResponses.get(probeIndex).copyResponsesInto(responseBuffer);
+				float[] responses = responseBuffer;
 
 				if (cancel)
 					break;
-				if (degree > 1)
-					inputParameters.setAdversDirection(adversDirections[1]);
 
-				double[] results = fPolyFit.fitModel(id, inputParameters, doses, responses);
-
-				if (degree > 1)
-				{
-					inputParameters.setAdversDirection(adversDirections[2]);
-					double[] pResults1 = fPolyFit.fitModel(id, inputParameters, doses, responses);
-
-					if ((results[0] > pResults1[0] && pResults1[0] != DEFAULTDOUBLE)
-							|| results[0] == DEFAULTDOUBLE)
-						results = pResults1;
-				}
+				String fileName = id;
+				ModelFitCache.Fit fit = fitCache.getOrFit("poly" + degree,
+						BMDExpressProperties.getInstance().getPolyVersion(), doses, responses, inputParameters,
+						fPolyFit, () -> fitPoly(fileName, responses));
+				double[] results = fit.getResults();
 
 				if (results[6] > 0)
 					direction = 1;
@@ -136,7 +154,7 @@ public class PolyFitThread extends Thread implements IFitThread
 					direction = -1;
 
 				if (results != null)
-					fillOutput(results, polyResult);
+					fillOutput(results, fit.isSuccess(), polyResult);
 			}
 			catch (Exception e)
 			{
@@ -147,7 +165,31 @@ public class PolyFitThread extends Thread implements IFitThread
 		}
 	}
 
-	private void fillOutput(double[] results, PolyResult polyResult)
+	/*
+	 * fit the poly model. degrees above one are fit in both directions and the one with the lower bmd is
+	 * kept.
+	 */
+	private double[] fitPoly(String id, float[] responses)
+	{
+		inputParameters.setAdversDirection(adversDirections[0]);
+		if (degree > 1)
+			inputParameters.setAdversDirection(adversDirections[1]);
+
+		double[] results = fPolyFit.fitModel(id, inputParameters, doses, responses);
+
+		if (degree > 1)
+		{
+			inputParameters.setAdversDirection(adversDirections[2]);
+			// a different name so the first direction's output can't be read back by mistake.
+			double[] pResults1 = fPolyFit.fitModel(id + "n", inputParameters, doses, responses);
+
+			if ((results[0] > pResults1[0] && pResults1[0] != DEFAULTDOUBLE) || results[0] == DEFAULTDOUBLE)
+				results = pResults1;
+		}
+		return results;
+	}
+
+	private void fillOutput(double[] results, boolean success, PolyResult polyResult)
 	{
 		polyResult.setBMD(results[0]);
 		polyResult.setBMDL(results[1]);
@@ -164,7 +206,7 @@ public class PolyFitThread extends Thread implements IFitThread
 		}
 		polyResult.setCurveParameters(Arrays.copyOfRange(results, 6, results.length));
 		polyResult.setAdverseDirection((short) direction);
-		polyResult.setSuccess("" + fPolyFit.isSuccess());
+		polyResult.setSuccess("" + success);
 	}
 
 	@Override
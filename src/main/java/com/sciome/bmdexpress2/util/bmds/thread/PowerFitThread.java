@@ -17,7 +17,9 @@ import com.sciome.bmdexpress2.mvp.model.stat.StatResult;
 import com.sciome.bmdexpress2.shared.BMDExpressConstants;
 import com.sciome.bmdexpress2.shared.BMDExpressProperties;
 import com.sciome.bmdexpress2.util.bmds.FilePowerFit;
+import com.sciome.bmdexpress2.util.bmds.ModelFitCache;
 import com.sciome.bmdexpress2.util.bmds.ModelInputParameters;
+import com.sciome.bmdexpress2.util.bmds.TempWorkspace;
 
 public class PowerFitThread extends Thread implements IFitThread
 {
@@ -38,6 +40,9 @@ public class PowerFitThread extends Thread implements IFitThread
 	private boolean					cancel				= false;
 	private String					tmpFolder;
 
+	private ModelFitCache			fitCache			= new ModelFitCache(null);
+	private TempWorkspace.Slot		workspace			= null;
+
 	public PowerFitThread(CountDownLatch cdLatch, List<ProbeResponse> probeResponses,
 			List<StatResult> powerResults, int numThread, int instanceIndex, int killTime, String tmpFolder,
 			IModelProgressUpdater progressUpdater, IProbeIndexGetter probeIndexGetter)
@@ -63,6 +68,20 @@ public class PowerFitThread extends Thread implements IFitThread
 		this.fPowerFit = fPowerFit;
 	}
 
+	public void setFitCache(ModelFitCache fitCache)
+	{
+		this.fitCache = fitCache;
+	}
+
+	/*
+	 * write the model files to this thread's folder of a TempWorkspace.
+	 */
+	public void setWorkspace(TempWorkspace.Slot workspace)
+	{
+		this.workspace = workspace;
+		fPowerFit.setWorkspace(workspace);
+	}
+
 	public void setDoses(float[] doses)
 	{
 		this.doses = doses;
@@ -99,6 +118,8 @@ public class PowerFitThread extends Thread implements IFitThread
 		int randInt = Math.abs(rand.nextInt());
 
 		Integer probeIndex = probeIndexGetter.getNextProbeIndex();
+		// the fits only read the responses while they run, so one array is reused for all probes.
+		float[] responseBuffer = null;
 		while (probeIndex != null)
 		{
 
@@ -111,15 +132,26 @@ public class PowerFitThread extends Thread implements IFitThread
 
 			try
 			{
-				String id = probeResponses.get(probeIndex).getProbe().getId().replaceAll("\\s", "_");
-				id = String.valueOf(randInt) + "_" + BMDExpressProperties.getInstance()
-						.getNextTempFile(this.tmpFolder, String.valueOf(Math.abs(id.hashCode())), ".(d)");
-				float[] responses = probeResponses.get(probeIndex).getResponseArray();
-				double[] results = fPowerFit.fitModel(id, inputParameters, doses, responses);
+				String id;
+				if (workspace != null)
+					id = workspace.nextName();
+				else
+				{
+					id = probeResponses.get(probeIndex).getProbe().getId().replaceAll("\\s", "_");
+					id = String.valueOf(randInt) + "_" + BMDExpressProperties.getInstance()
+							.getNextTempFile(this.tmpFolder, String.valueOf(Math.abs(id.hashCode())), ".(d)");
+				}
+				responseBuffer = probeResponses.get(probeIndex).copyResponsesInto(responseBuffer);
+				float[] responses = responseBuffer;
+				String fileName = id;
+				ModelFitCache.Fit fit = fitCache.getOrFit("power",
+						BMDExpressProperties.getInstance().getPowerVersion(), doses, responses, inputParameters,
+						fPowerFit, () -> fPowerFit.fitModel(fileName, inputParameters, doses, responses));
+				double[] results = fit == null ? null : fit.getResults();
 
 				if (results != null)
 				{
-					fillOutput(results, powerResult);
+					fillOutput(results, fit.isSuccess(), powerResult);
 				}
 			}
 			catch (Exception e)
@@ -131,7 +163,7 @@ public class PowerFitThread extends Thread implements IFitThread
 		}
 	}
 
-	private void fillOutput(double[] results, PowerResult powerResult)
+	private void fillOutput(double[] results, boolean success, PowerResult powerResult)
 	{
 		powerResult.setBMD(results[0]);
 		powerResult.setBMDL(results[1]);
@@ -148,7 +180,7 @@ public class PowerFitThread extends Thread implements IFitThread
 		}
 		powerResult.setCurveParameters(Arrays.copyOfRange(results, 6, results.length));
 		powerResult.setAdverseDirection((short) direction);
-		powerResult.setSuccess("" + fPowerFit.isSuccess());
+		powerResult.setSuccess("" + success);
 	}
 
 	@Override
@@ -183,28 +183,18 @@ public class BMDStatatistics
 		if (n > 1)
 		{
 
+			List<ProbeResponse> probeResponses = bmdResults.getDoseResponseExperiment().getProbeResponses();
+			// the responses of the probes as doubles, filled once per probe rather than once per pair
+			double[] xs = null;
+			double[] ys = null;
 			for (int i = 0; i < n - 1; i++)
 			{
+				int x = subAllProbes.indexOf(probes[i]);
+				xs = toDoubles(probeResponses.get(proIndices[x]), xs);
 				for (int j = i + 1; j < n; j++)
 				{
-					int x = subAllProbes.indexOf(probes[i]);
 					int y = subAllProbes.indexOf(probes[j]);
-					float[] xsFloat = bmdResults.getDoseResponseExperiment().getProbeResponses()
-							.get(proIndices[x]).getResponseArray();
-					float[] ysFloat = bmdResults.getDoseResponseExperiment().getProbeResponses()
-							.get(proIndices[y]).getResponseArray();
-
-					// convert xsFloat and ysFloat to double
-					double[] xs = new double[xsFloat.length];
-					for (int i1 = 0; i1 < xsFloat.length; i1++)
-					{
-						xs[i1] = xsFloat[i1];
-					}
-					double[] ys = new double[ysFloat.length];
-					for (int i1 = 0; i1 < ysFloat.length; i1++)
-					{
-						ys[i1] = ysFloat[i1];
-					}
+					ys = toDoubles(probeResponses.get(proIndices[y]), ys);
 
 					double r = LinearCorrelation.correlation(xs, ys);
 
@@ -225,6 +215,18 @@ public class BMDStatatistics
 		return minR;
 	}
 
+	/*
+	 * the responses of the probe in dest, or in a new array when dest does not have the right length.
+	 */
+	private static double[] toDoubles(ProbeResponse probeResponse, double[] dest)
+	{
+		if (dest == null || dest.length != probeResponse.getResponseCount())
+			dest = new double[probeResponse.getResponseCount()];
+		for (int i = 0; i < dest.length; i++)
+			dest[i] = probeResponse.getResponse(i);
+		return dest;
+	}
+
 	/*
 	 * get subhashg2ids for a vector o
 	 */
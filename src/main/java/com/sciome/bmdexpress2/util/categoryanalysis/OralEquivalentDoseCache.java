@@ -0,0 +1,241 @@
+package com.sciome.bmdexpress2.util.categoryanalysis;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import com.sciome.bmdexpress2.shared.BMDExpressConstants;
+import com.sciome.bmdexpress2.shared.BMDExpressProperties;
+import com.sciome.commons.math.httk.calc.calc_analytic_css.Model;
+import com.sciome.commons.math.httk.calc.calc_analytic_css.Units;
+import com.sciome.commons.math.httk.calc.calc_mc_oral_equiv;
+import com.sciome.commons.math.httk.model.Compound;
+
+/*
+ * The oral equivalent dose of a 1 uM concentration per compound, species, model, quantile and output units.
+ * The oral equivalent of a concentration is the concentration divided by the steady state concentration
+ * quantile the Monte Carlo simulation finds for a dose of 1, so every concentration of a category analysis is
+ * its factor times the concentration and the simulation only has to run once per factor.
+ *
+ * The factors are kept in memory and in a properties file in the BMDExpress home directory, or only in memory
+ * when ivivecache.memoryonly is set. Every factor is stored with a SHA-256 fingerprint of the httk library
+ * version and the compound parameters the simulation uses, a factor of a compound that was edited since or of
+ * another httk version is computed again and replaces the old one. clear drops all of them.
+ */
+public class OralEquivalentDoseCache
+{
+	private static final String				FILE_NAME		= "ivive_dose_factors.properties";
+
+	private static OralEquivalentDoseCache	instance		= null;
+	private static String					libraryVersion	= null;
+
+	private Properties						factors			= new Properties();
+	private File							file;
+	private boolean							memoryOnly;
+
+	protected OralEquivalentDoseCache()
+	{
+		file = new File(BMDExpressConstants.getInstance().BMDBASEPATH, FILE_NAME);
+		memoryOnly = BMDExpressProperties.getInstance().isIviveCacheMemoryOnly();
+		if (!memoryOnly && file.exists())
+		{
+			try (InputStream in = new FileInputStream(file))
+			{
+				factors.load(in);
+			}
+			catch (Exception e)
+			{
+				// start over when the file can't be read, the factors are computed again.
+				factors.clear();
+				e.printStackTrace();
+			}
+		}
+	}
+
+	public static synchronized OralEquivalentDoseCache getInstance()
+	{
+		if (instance == null)
+		{
+			instance = new OralEquivalentDoseCache();
+		}
+		return instance;
+	}
+
+	/*
+	 * the oral equivalent doses of concentrations in uM, per model of the parameters. The lists have the
+	 * layout calc_mc_oral_equiv.calcMultiple takes and returns, null concentrations give null doses.
+	 */
+	public Map<Model, List<List<Double>>> calcMultiple(List<List<Double>> concentrations,
+			IVIVEParameters params)
+	{
+		Map<Model, Double> modelFactors = getFactors(params);
+		Map<Model, List<List<Double>>> doses = new HashMap<>();
+		for (Model model : params.getModels())
+		{
+			Double factor = modelFactors.get(model);
+			List<List<Double>> modelDoses = new ArrayList<>();
+			for (List<Double> rowConcentrations : concentrations)
+			{
+				List<Double> rowDoses = new ArrayList<>();
+				for (Double concentration : rowConcentrations)
+					rowDoses.add(concentration != null && factor != null ? concentration * factor : null);
+				modelDoses.add(rowDoses);
+			}
+			doses.put(model, modelDoses);
+		}
+		return doses;
+	}
+
+	/*
+	 * the dose of 1 uM per model. The simulation runs once for all models that have no current factor yet.
+	 */
+	public synchronized Map<Model, Double> getFactors(IVIVEParameters params)
+	{
+		String fingerprint = fingerprint(params.getCompound(), params.getSpecies());
+		Map<Model, Double> modelFactors = new HashMap<>();
+		List<Model> missing = new ArrayList<>();
+		for (Model model : params.getModels())
+		{
+			Double factor = lookup(key(params, model), fingerprint);
+			if (factor == null)
+				missing.add(model);
+			else
+				modelFactors.put(model, factor);
+		}
+		if (missing.isEmpty())
+			return modelFactors;
+
+		List<List<Double>> unit = Collections.singletonList(Collections.singletonList(1.0));
+		Map<Model, List<List<Double>>> doses = calc_mc_oral_equiv.calcMultiple(unit, missing,
+				params.getCompound(), params.getQuantile(), params.getSpecies(), Units.UM,
+				params.getOutputUnits(), true);
+		for (Model model : missing)
+		{
+			Double factor = doses.get(model).get(0).get(0);
+			modelFactors.put(model, factor);
+			if (factor != null)
+				factors.setProperty(key(params, model), fingerprint + "," + factor);
+		}
+		save();
+		return modelFactors;
+	}
+
+	/*
+	 * forget every factor, also the ones in the file.
+	 */
+	public synchronized void clear()
+	{
+		factors.clear();
+		if (file.exists() && !file.delete())
+			save();
+	}
+
+	private Double lookup(String key, String fingerprint)
+	{
+		String value = factors.getProperty(key);
+		if (value == null)
+			return null;
+		int comma = value.lastIndexOf(',');
+		// a factor of the compound before it was edited
+		if (comma < 0 || !value.substring(0, comma).equals(fingerprint))
+			return null;
+		try
+		{
+			return Double.valueOf(value.substring(comma + 1));
+		}
+		catch (NumberFormatException e)
+		{
+			return null;
+		}
+	}
+
+	private void save()
+	{
+		if (memoryOnly)
+			return;
+		try (OutputStream out = new FileOutputStream(file))
+		{
+			factors.store(out, "oral equivalent dose of 1 uM");
+		}
+		catch (Exception e)
+		{
+			// the factors are still kept in memory.
+			e.printStackTrace();
+		}
+	}
+
+	private static String key(IVIVEParameters params, Model model)
+	{
+		Compound compound = params.getCompound();
+		String id = compound.getCAS() != null && !compound.getCAS().isEmpty() ? compound.getCAS()
+				: compound.getName();
+		return id + "|" + params.getSpecies() + "|" + model + "|" + params.getQuantile() + "|"
+				+ params.getOutputUnits();
+	}
+
+	/*
+	 * SHA-256 over the httk version and the compound parameters the simulation depends on, as a hex string.
+	 * Editing any of them in the categorization view or updating httk changes the fingerprint.
+	 */
+	private static String fingerprint(Compound compound, String species)
+	{
+		String parameters = getLibraryVersion() + "|" + compound.getSMILES() + "|" + compound.getMW() + "|"
+				+ compound.getLogP() + "|" + compound.getpKaDonors() + "|" + compound.getpKaAcceptors() + "|"
+				+ compound.getInVitroParam(species, "Clint") + "|"
+				+ compound.getInVitroParam(species, "Funbound.plasma");
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			StringBuilder hex = new StringBuilder(64);
+			for (byte b : digest.digest(parameters.getBytes(StandardCharsets.UTF_8)))
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			return hex.toString();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			// every JVM has SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/*
+	 * the version of the jar httk is in. A jar without one in its manifest is told apart by its name, size
+	 * and time.
+	 */
+	private static synchronized String getLibraryVersion()
+	{
+		if (libraryVersion != null)
+			return libraryVersion;
+		libraryVersion = calc_mc_oral_equiv.class.getPackage().getImplementationVersion();
+		if (libraryVersion == null)
+		{
+			libraryVersion = "unknown";
+			try
+			{
+				CodeSource source = calc_mc_oral_equiv.class.getProtectionDomain().getCodeSource();
+				if (source != null && source.getLocation() != null)
+				{
+					File jar = new File(source.getLocation().toURI());
+					libraryVersion = jar.getName() + "|" + jar.length() + "|" + jar.lastModified();
+				}
+			}
+			catch (Exception e)
+			{
+				e.printStackTrace();
+			}
+		}
+		return libraryVersion;
+	}
+}
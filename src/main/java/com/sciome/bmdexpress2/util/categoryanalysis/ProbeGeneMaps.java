@@ -36,7 +36,6 @@ import com.sciome.bmdexpress2.shared.BMDExpressConstants;
 import com.sciome.bmdexpress2.shared.BMDExpressProperties;
 import com.sciome.bmdexpress2.util.NumberManager;
 import com.sciome.bmdexpress2.util.annotation.FileAnnotation;
-import com.sciome.bmdexpress2.util.annotation.FileInfo;
 import com.sciome.bmdexpress2.util.annotation.URLUtils;
 
 /**
@@ -499,21 +498,7 @@ public class ProbeGeneMaps
 		}
 
 		inFile = new File(inFile.getAbsolutePath(), fName);
-
-		if (!inFile.exists())
-		{
-			FileInfo fInfo = URLUtils.download(http, inFile);
-
-			if (fInfo.getLastModified() > 0)
-			{
-				inFile.setLastModified(fInfo.getLastModified());
-			}
-			else
-			{
-				if (fInfo.getException() != null)
-				{}
-			}
-		}
+		URLUtils.downloadIfMissing(http, inFile);
 
 		return inFile;
 	}
@@ -74,38 +74,43 @@ public abstract class CategoryMapBase
 
 		inFile = new File(inFile.getAbsolutePath(), fName);
 		long httpmod = getDateOfHTTPFile(http);
-		long localmod = inFile.lastModified();
 
-		if (inFile.exists() && BMDExpressProperties.getInstance().isConsole())
+		// categories of several analyses are made in parallel, only one of them downloads the file
+		synchronized (URLUtils.getFileLock(inFile))
 		{
-			// System.out.println("This is console application and the file: " + inFile.getName()
-			// + " exists. Not looking for update on server.");
-			return inFile;
-		}
+			long localmod = inFile.lastModified();
 
-		if (!inFile.exists() || httpmod > localmod)
-		{
-			FileInfo fInfo = URLUtils.download(http, inFile);
-
-			categoryFileVersionDate = fInfo.getLastModified();
-			if (fInfo.getLastModified() > 0)
+			if (inFile.exists() && BMDExpressProperties.getInstance().isConsole())
 			{
-				inFile.setLastModified(fInfo.getLastModified());
+				// System.out.println("This is console application and the file: " + inFile.getName()
+				// + " exists. Not looking for update on server.");
+				return inFile;
 			}
-			else
+
+			if (!inFile.exists() || httpmod > localmod)
 			{
-				if (fInfo.getException() != null)
+				FileInfo fInfo = URLUtils.download(http, inFile);
+
+				categoryFileVersionDate = fInfo.getLastModified();
+				if (fInfo.getLastModified() > 0)
+				{
+					inFile.setLastModified(fInfo.getLastModified());
+				}
+				else
 				{
-					// parent.showException("Download File - " + fName, fInfo.getException());
+					if (fInfo.getException() != null)
+					{
+						// parent.showException("Download File - " + fName, fInfo.getException());
+					}
 				}
 			}
-		}
-		else
-		{
-			categoryFileVersionDate = inFile.lastModified();
-		}
+			else
+			{
+				categoryFileVersionDate = inFile.lastModified();
+			}
 
-		return inFile;
+			return inFile;
+		}
 	}
 
 	public Hashtable<String, Vector> subHash()
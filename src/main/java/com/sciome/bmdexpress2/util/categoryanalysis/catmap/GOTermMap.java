@@ -29,6 +29,7 @@ import com.sciome.bmdexpress2.shared.BMDExpressConstants;
 import com.sciome.bmdexpress2.shared.BMDExpressProperties;
 import com.sciome.bmdexpress2.util.NumberManager;
 import com.sciome.bmdexpress2.util.categoryanalysis.ProbeGeneMaps;
+import com.sciome.bmdexpress2.util.metrics.MetricsRegistry;
 
 /**
  * The class of GenesGOTerms
@@ -150,7 +151,7 @@ public class GOTermMap extends CategoryMapBase
 	private void filedGeneIdsToGo(HashSet<String> allGHashSet, HashSet<String> subGHashSet,
 			HashSet<String> dataSetGenesHashSet)
 	{
-
+		MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("annotation.gene2go");
 		try
 		{
 			String fName = "genes2gos.gz";
@@ -242,6 +243,10 @@ public class GOTermMap extends CategoryMapBase
 		{
 			e.printStackTrace();
 		}
+		finally
+		{
+			timer.stop(allHash.size());
+		}
 	}
 
 	private void filedGoAccLevelTerm()
@@ -259,6 +264,7 @@ public class GOTermMap extends CategoryMapBase
 					BMDExpressConstants.getInstance().GO_CATEGORIES[i]);
 		}
 
+		MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("annotation.goterms");
 		try
 		{
 			String filePath = BMDExpressConstants.getInstance().ANNOTATION_BASE_PATH + File.separator
@@ -314,12 +320,17 @@ public class GOTermMap extends CategoryMapBase
 		}
 		catch (Exception e)
 		{}
+		finally
+		{
+			timer.stop(categoryIdentifiers == null ? 0 : categoryIdentifiers.size());
+		}
 	}
 
 	private void filedArrayGeneGoHash()
 	{
 		String fName = "genes2gos.gz";
 
+		MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("annotation.arraygene2go");
 		try
 		{
 			String filePath = BMDExpressConstants.getInstance().ANNOTATION_BASE_PATH + File.separator
@@ -383,6 +394,10 @@ public class GOTermMap extends CategoryMapBase
 		}
 		catch (Exception e)
 		{}
+		finally
+		{
+			timer.stop(allHash.size());
+		}
 	}
 
 	/**
@@ -20,7 +20,6 @@ import com.sciome.bmdexpress2.mvp.model.refgene.ReferenceGene;
 import com.sciome.bmdexpress2.mvp.model.refgene.ReferenceGeneAnnotation;
 import com.sciome.bmdexpress2.shared.BMDExpressConstants;
 import com.sciome.bmdexpress2.shared.BMDExpressProperties;
-import com.sciome.bmdexpress2.util.annotation.FileInfo;
 import com.sciome.bmdexpress2.util.annotation.URLUtils;
 
 /*
@@ -266,15 +265,7 @@ public class PathwayToGeneSymbolUtility
 		}
 
 		inFile = new File(inFile.getAbsolutePath(), fName);
-		if (inFile.exists())
-			return inFile;
-
-		FileInfo fInfo = URLUtils.download(http, inFile);
-
-		if (fInfo.getLastModified() > 0)
-		{
-			inFile.setLastModified(fInfo.getLastModified());
-		}
+		URLUtils.downloadIfMissing(http, inFile);
 
 		return inFile;
 	}
@@ -1372,12 +1372,12 @@ public class CurvePProcessor
 	{
 		List<ProbeResponse> responses = doseResponseExperiment.getProbeResponses();
 		List<Treatment> treatments = doseResponseExperiment.getTreatments();
-		List<ArrayList<Float>> numericMatrix = new ArrayList<ArrayList<Float>>();
+		List<List<Float>> numericMatrix = new ArrayList<List<Float>>();
 		List<Float> doseVector = new ArrayList<Float>();
 		// Fill numeric matrix
 		for (int i = 0; i < responses.size(); i++)
 		{
-			numericMatrix.add((ArrayList<Float>) responses.get(i).getResponses());
+			numericMatrix.add(responses.get(i).getResponses());
 		}
 
 		// Fill doseVector
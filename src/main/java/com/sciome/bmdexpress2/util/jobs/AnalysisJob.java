@@ -0,0 +1,281 @@
+package com.sciome.bmdexpress2.util.jobs;
+
+import javafx.application.Platform;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+/*
+ * One analysis of one data set, queued on the AnalysisJobScheduler. The threads are what the analysis will
+ * use while it runs and are counted against the scheduler's cpu budget. Progress, message and state are
+ * updated from the worker thread and mirrored into properties on the fx thread for the jobs panel.
+ */
+public class AnalysisJob
+{
+	public enum State
+	{
+		QUEUED, RUNNING, FINISHED, CANCELLED, FAILED;
+
+		public boolean isDone()
+		{
+			return this == FINISHED || this == CANCELLED || this == FAILED;
+		}
+	}
+
+	/*
+	 * the analysis itself. it gets the job so it can report progress and check for cancellation.
+	 */
+	public interface Work
+	{
+		public void run(AnalysisJob job) throws Exception;
+	}
+
+	public interface JobListener
+	{
+		public void jobDone(AnalysisJob job);
+	}
+
+	private final String					name;
+	private final String					analysis;
+	private final int						threads;
+	private final Work						work;
+	private final Runnable					cancelHook;
+	private JobListener						listener;
+
+	private volatile int					priority;
+	private volatile long					sequence;
+	private volatile State					state			= State.QUEUED;
+	private volatile double					progress		= 0.0;
+	private volatile long					startTime		= 0;
+	private volatile long					endTime			= 0;
+	private volatile Throwable				error;
+
+	private final ObjectProperty<State>		stateProperty	= new SimpleObjectProperty<>(State.QUEUED);
+	private final DoubleProperty			progressProperty	= new SimpleDoubleProperty(0.0);
+	private final StringProperty			messageProperty	= new SimpleStringProperty("");
+	private final StringProperty			etaProperty		= new SimpleStringProperty("");
+
+	public AnalysisJob(String analysis, String name, int threads, Work work, Runnable cancelHook)
+	{
+		this.analysis = analysis;
+		this.name = name;
+		this.threads = Math.max(1, threads);
+		this.work = work;
+		this.cancelHook = cancelHook;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public String getAnalysis()
+	{
+		return analysis;
+	}
+
+	public int getThreads()
+	{
+		return threads;
+	}
+
+	public int getPriority()
+	{
+		return priority;
+	}
+
+	void setPriority(int priority)
+	{
+		this.priority = priority;
+	}
+
+	long getSequence()
+	{
+		return sequence;
+	}
+
+	void setSequence(long sequence)
+	{
+		this.sequence = sequence;
+	}
+
+	public State getState()
+	{
+		return state;
+	}
+
+	public boolean isCancelled()
+	{
+		return state == State.CANCELLED;
+	}
+
+	public double getProgress()
+	{
+		return progress;
+	}
+
+	public Throwable getError()
+	{
+		return error;
+	}
+
+	public void setListener(JobListener listener)
+	{
+		this.listener = listener;
+	}
+
+	/*
+	 * progress between 0 and 1. the eta assumes the rest of the job goes as fast as what is done so far.
+	 */
+	public void setProgress(double progress)
+	{
+		if (state != State.RUNNING)
+			return;
+		this.progress = Math.max(0.0, Math.min(1.0, progress));
+		String eta = getEta();
+		double value = this.progress;
+		Platform.runLater(() ->
+		{
+			progressProperty.set(value);
+			etaProperty.set(eta);
+		});
+	}
+
+	public void setMessage(String message)
+	{
+		if (state != State.RUNNING)
+			return;
+		Platform.runLater(() ->
+		{
+			messageProperty.set(message);
+		});
+	}
+
+	public String getEta()
+	{
+		if (state == State.QUEUED)
+			return "";
+		if (state.isDone())
+			return formatMillis(endTime - startTime);
+		if (progress <= 0.0)
+			return "";
+		long elapsed = System.currentTimeMillis() - startTime;
+		return formatMillis((long) (elapsed * (1.0 - progress) / progress)) + " left";
+	}
+
+	public ObjectProperty<State> stateProperty()
+	{
+		return stateProperty;
+	}
+
+	public DoubleProperty progressProperty()
+	{
+		return progressProperty;
+	}
+
+	public StringProperty messageProperty()
+	{
+		return messageProperty;
+	}
+
+	public StringProperty etaProperty()
+	{
+		return etaProperty;
+	}
+
+	/*
+	 * called by the scheduler on one of its threads.
+	 */
+	void run()
+	{
+		synchronized (this)
+		{
+			if (state != State.QUEUED)
+				return;
+			startTime = System.currentTimeMillis();
+			setState(State.RUNNING);
+		}
+		try
+		{
+			work.run(this);
+			finish(State.FINISHED, null);
+		}
+		catch (Throwable t)
+		{
+			t.printStackTrace();
+			finish(State.FAILED, t);
+		}
+	}
+
+	/*
+	 * a queued job never starts, a running one is asked to stop through the cancel hook.
+	 */
+	boolean cancel()
+	{
+		boolean wasRunning;
+		synchronized (this)
+		{
+			if (state.isDone())
+				return false;
+			wasRunning = state == State.RUNNING;
+			if (!wasRunning)
+				startTime = System.currentTimeMillis();
+			endTime = System.currentTimeMillis();
+			setState(State.CANCELLED);
+		}
+		if (wasRunning && cancelHook != null)
+			cancelHook.run();
+		if (!wasRunning)
+			notifyListener();
+		return true;
+	}
+
+	private void finish(State finalState, Throwable t)
+	{
+		synchronized (this)
+		{
+			// a cancelled job stays cancelled, whatever the analysis returned.
+			if (state == State.RUNNING)
+			{
+				error = t;
+				endTime = System.currentTimeMillis();
+				if (finalState == State.FINISHED)
+					progress = 1.0;
+				setState(finalState);
+			}
+		}
+		notifyListener();
+	}
+
+	private void notifyListener()
+	{
+		if (listener != null)
+			listener.jobDone(this);
+	}
+
+	private void setState(State newState)
+	{
+		state = newState;
+		double value = progress;
+		String eta = getEta();
+		Platform.runLater(() ->
+		{
+			stateProperty.set(newState);
+			progressProperty.set(value);
+			etaProperty.set(eta);
+		});
+	}
+
+	private static String formatMillis(long millis)
+	{
+		long seconds = Math.max(0, millis / 1000);
+		if (seconds < 60)
+			return seconds + "s";
+		if (seconds < 3600)
+			return (seconds / 60) + "m " + (seconds % 60) + "s";
+		return (seconds / 3600) + "h " + ((seconds % 3600) / 60) + "m";
+	}
+}
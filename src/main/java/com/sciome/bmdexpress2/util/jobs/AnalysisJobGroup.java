@@ -0,0 +1,104 @@
+package com.sciome.bmdexpress2.util.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * The jobs started from one analysis dialog, one per selected data set. The dialog shows the combined
+ * progress, cancels all of them at once and closes when the last one is done.
+ */
+public class AnalysisJobGroup implements AnalysisJob.JobListener
+{
+	public interface GroupListener
+	{
+		public void progressChanged(int done, int total, double progress);
+
+		public void messageChanged(AnalysisJob job, String message);
+
+		public void allDone(AnalysisJobGroup group);
+	}
+
+	private final List<AnalysisJob>	jobs		= new ArrayList<>();
+	private final GroupListener		listener;
+	private int						done		= 0;
+	private boolean					submitted	= false;
+
+	public AnalysisJobGroup(GroupListener listener)
+	{
+		this.listener = listener;
+	}
+
+	public synchronized void add(AnalysisJob job)
+	{
+		job.setListener(this);
+		jobs.add(job);
+	}
+
+	public synchronized List<AnalysisJob> getJobs()
+	{
+		return new ArrayList<>(jobs);
+	}
+
+	public void submit()
+	{
+		List<AnalysisJob> toSubmit;
+		synchronized (this)
+		{
+			submitted = true;
+			toSubmit = new ArrayList<>(jobs);
+		}
+		AnalysisJobScheduler scheduler = AnalysisJobScheduler.getInstance();
+		for (AnalysisJob job : toSubmit)
+			scheduler.submit(job);
+	}
+
+	public void cancel()
+	{
+		AnalysisJobScheduler scheduler = AnalysisJobScheduler.getInstance();
+		for (AnalysisJob job : getJobs())
+			scheduler.cancel(job);
+	}
+
+	public synchronized boolean isDone()
+	{
+		return submitted && done == jobs.size();
+	}
+
+	/*
+	 * called by the jobs when they report progress through the group.
+	 */
+	public void progressChanged()
+	{
+		int doneCount;
+		int total;
+		double progress = 0.0;
+		synchronized (this)
+		{
+			doneCount = done;
+			total = jobs.size();
+			for (AnalysisJob job : jobs)
+				progress += job.getState().isDone() ? 1.0 : job.getProgress();
+		}
+		if (total > 0)
+			listener.progressChanged(doneCount, total, progress / total);
+	}
+
+	public void messageChanged(AnalysisJob job, String message)
+	{
+		listener.messageChanged(job, message);
+	}
+
+	@Override
+	public void jobDone(AnalysisJob job)
+	{
+		boolean allDone;
+		synchronized (this)
+		{
+			done++;
+			allDone = done == jobs.size();
+		}
+		progressChanged();
+		if (allDone)
+			listener.allDone(this);
+	}
+}
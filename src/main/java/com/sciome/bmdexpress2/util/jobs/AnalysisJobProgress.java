@@ -0,0 +1,52 @@
+package com.sciome.bmdexpress2.util.jobs;
+
+import com.sciome.bmdexpress2.util.bmds.IBMDSToolProgress;
+import com.sciome.bmdexpress2.util.categoryanalysis.ICategoryMapToolProgress;
+import com.sciome.commons.interfaces.SimpleProgressUpdater;
+
+/*
+ * Hands the progress of a service to its job and to the group the job belongs to, whichever progress
+ * interface the service reports through.
+ */
+public class AnalysisJobProgress implements SimpleProgressUpdater, IBMDSToolProgress, ICategoryMapToolProgress
+{
+	private final AnalysisJob		job;
+	private final AnalysisJobGroup	group;
+
+	public AnalysisJobProgress(AnalysisJob job, AnalysisJobGroup group)
+	{
+		this.job = job;
+		this.group = group;
+	}
+
+	@Override
+	public void setProgress(double progress)
+	{
+		job.setProgress(progress);
+		if (group != null)
+			group.progressChanged();
+	}
+
+	@Override
+	public void setMessage(String message)
+	{
+		job.setMessage(message);
+		if (group != null)
+			group.messageChanged(job, message);
+	}
+
+	@Override
+	public void updateProgress(String label, double value)
+	{
+		job.setProgress(value);
+		setMessage(label);
+		if (group != null)
+			group.progressChanged();
+	}
+
+	@Override
+	public void clearProgress()
+	{
+		job.setMessage("");
+	}
+}
@@ -0,0 +1,162 @@
+package com.sciome.bmdexpress2.util.jobs;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/*
+ * Runs the analyses started from the gui. Every job says how many threads it will use and the scheduler only
+ * starts jobs while the threads of the running ones fit in the cpu budget, so starting a few analyses at
+ * once queues them instead of oversubscribing the machine. The queue is ordered by priority and then by the
+ * order the jobs were submitted. A job that needs more threads than the budget runs alone.
+ */
+public class AnalysisJobScheduler
+{
+	private static AnalysisJobScheduler				instance		= null;
+
+	private final PriorityQueue<AnalysisJob>		queue			= new PriorityQueue<>(
+			Comparator.comparingInt(AnalysisJob::getPriority).reversed()
+					.thenComparingLong(AnalysisJob::getSequence));
+	private final List<AnalysisJob>					running			= new ArrayList<>();
+	private final ObservableList<AnalysisJob>		jobs			= FXCollections.observableArrayList();
+	private final AtomicLong						sequence		= new AtomicLong();
+	private final ExecutorService					executor;
+
+	private int										cpuBudget;
+	private int										usedThreads		= 0;
+
+	private AnalysisJobScheduler()
+	{
+		cpuBudget = Runtime.getRuntime().availableProcessors();
+		executor = Executors.newCachedThreadPool(r ->
+		{
+			Thread thread = new Thread(r, "analysis-job");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public static synchronized AnalysisJobScheduler getInstance()
+	{
+		if (instance == null)
+			instance = new AnalysisJobScheduler();
+		return instance;
+	}
+
+	/*
+	 * the jobs for the jobs panel. only touch it on the fx thread.
+	 */
+	public ObservableList<AnalysisJob> getJobs()
+	{
+		return jobs;
+	}
+
+	public synchronized int getCpuBudget()
+	{
+		return cpuBudget;
+	}
+
+	public synchronized void setCpuBudget(int cpuBudget)
+	{
+		this.cpuBudget = Math.max(1, cpuBudget);
+		schedule();
+	}
+
+	public synchronized int getUsedThreads()
+	{
+		return usedThreads;
+	}
+
+	public void submit(AnalysisJob job)
+	{
+		Platform.runLater(() ->
+		{
+			jobs.add(job);
+		});
+		synchronized (this)
+		{
+			job.setSequence(sequence.incrementAndGet());
+			queue.add(job);
+			schedule();
+		}
+	}
+
+	public void cancel(AnalysisJob job)
+	{
+		synchronized (this)
+		{
+			queue.remove(job);
+		}
+		// the cancel hook may block, so it runs outside of the lock. a running job gives its threads back
+		// when its work returns.
+		job.cancel();
+	}
+
+	/*
+	 * move a queued job ahead of the jobs submitted before it.
+	 */
+	public synchronized void raisePriority(AnalysisJob job)
+	{
+		if (queue.remove(job))
+		{
+			job.setPriority(job.getPriority() + 1);
+			queue.add(job);
+			schedule();
+		}
+	}
+
+	public void clearFinished()
+	{
+		jobs.removeIf(job -> job.getState().isDone());
+	}
+
+	/*
+	 * start the jobs at the head of the queue for as long as they fit. the head is never skipped for a
+	 * smaller job behind it, so a big job can not be starved by small ones.
+	 */
+	private synchronized void schedule()
+	{
+		while (!queue.isEmpty())
+		{
+			AnalysisJob next = queue.peek();
+			if (next.getState() != AnalysisJob.State.QUEUED)
+			{
+				queue.poll();
+				continue;
+			}
+			int threads = Math.min(next.getThreads(), cpuBudget);
+			if (!running.isEmpty() && usedThreads + threads > cpuBudget)
+				return;
+
+			queue.poll();
+			running.add(next);
+			usedThreads += threads;
+			executor.execute(() ->
+			{
+				try
+				{
+					next.run();
+				}
+				finally
+				{
+					release(next, threads);
+				}
+			});
+		}
+	}
+
+	private synchronized void release(AnalysisJob job, int threads)
+	{
+		if (running.remove(job))
+			usedThreads -= threads;
+		schedule();
+	}
+}
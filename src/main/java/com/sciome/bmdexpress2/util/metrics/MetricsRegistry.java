@@ -0,0 +1,233 @@
+package com.sciome.bmdexpress2.util.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/*
+ * In process registry of stage timings. Every stage is timed with start(...).stop(...): the time is added to
+ * the stage's totals here and a StageEvent is committed for JFR.
+ *
+ * Stage names are dotted, e.g. "bmds.analysis", "bmds.model.Hill" or "prefilter.williams". Stages that run
+ * many times (one per model fit) keep a count, total and maximum instead of every sample.
+ *
+ * Start a timer in a try-with-resources so a stage that throws is still recorded, and stop it with the
+ * number of items at the end of the block.
+ */
+public class MetricsRegistry
+{
+	private static MetricsRegistry				instance	= new MetricsRegistry();
+
+	private final Map<String, StageStatistics>	stages		= new ConcurrentSkipListMap<>();
+	private volatile long						startTime	= System.currentTimeMillis();
+
+	public static MetricsRegistry getInstance()
+	{
+		return instance;
+	}
+
+	public Timer start(String stage)
+	{
+		return new Timer(stage);
+	}
+
+	/*
+	 * add a stage run that was timed by the caller.
+	 */
+	public void record(String stage, long nanos, long items)
+	{
+		stages.computeIfAbsent(stage, StageStatistics::new).add(nanos, items);
+	}
+
+	public List<StageStatistics> getStages()
+	{
+		return new ArrayList<>(stages.values());
+	}
+
+	/*
+	 * the peak heap use since the start or the last reset, summed over the heap pools.
+	 */
+	public long getPeakHeapBytes()
+	{
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null)
+				peak += pool.getPeakUsage().getUsed();
+		return peak;
+	}
+
+	public void reset()
+	{
+		stages.clear();
+		startTime = System.currentTimeMillis();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				pool.resetPeakUsage();
+	}
+
+	/*
+	 * everything as plain maps and lists, ready to be written as json.
+	 */
+	public Map<String, Object> toMap()
+	{
+		Map<String, Object> profile = new LinkedHashMap<>();
+		profile.put("startTime", startTime);
+		profile.put("wallTimeMs", System.currentTimeMillis() - startTime);
+		profile.put("peakHeapBytes", getPeakHeapBytes());
+		profile.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+		profile.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+
+		List<Map<String, Object>> stageList = new ArrayList<>();
+		for (StageStatistics stage : getStages())
+		{
+			Map<String, Object> stageMap = new LinkedHashMap<>();
+			stageMap.put("stage", stage.getStage());
+			stageMap.put("count", stage.getCount());
+			stageMap.put("totalMs", stage.getTotalMillis());
+			stageMap.put("meanMs", stage.getMeanMillis());
+			stageMap.put("maxMs", stage.getMaxMillis());
+			stageMap.put("items", stage.getItems());
+			stageMap.put("itemsPerSecond", stage.getItemsPerSecond());
+			stageList.add(stageMap);
+		}
+		profile.put("stages", stageList);
+		return profile;
+	}
+
+	/*
+	 * write toMap() plus the extra entries (e.g. the run configuration) as a json run profile.
+	 */
+	public void writeProfile(File file, Map<String, Object> extra) throws IOException
+	{
+		Map<String, Object> profile = new LinkedHashMap<>();
+		if (extra != null)
+			profile.putAll(extra);
+		profile.putAll(toMap());
+
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.enable(SerializationFeature.INDENT_OUTPUT);
+		mapper.writeValue(file, profile);
+	}
+
+	/*
+	 * one running stage. not thread safe, stop it on the thread that started it. Only the first stop is
+	 * recorded, close() stops a timer that was not stopped yet.
+	 */
+	public class Timer implements AutoCloseable
+	{
+		private final String		stage;
+		private final long			startNanos;
+		private final StageEvent	event	= new StageEvent();
+		private boolean				stopped;
+
+		private Timer(String stage)
+		{
+			this.stage = stage;
+			event.begin();
+			startNanos = System.nanoTime();
+		}
+
+		public void stop()
+		{
+			stop(0);
+		}
+
+		/*
+		 * items is what the stage processed, e.g. the number of probes, used for the throughput.
+		 */
+		public void stop(long items)
+		{
+			if (stopped)
+				return;
+			stopped = true;
+			long nanos = System.nanoTime() - startNanos;
+			event.end();
+			if (event.shouldCommit())
+			{
+				event.stage = stage;
+				event.items = items;
+				event.commit();
+			}
+			record(stage, nanos, items);
+		}
+
+		@Override
+		public void close()
+		{
+			stop(0);
+		}
+	}
+
+	public static class StageStatistics
+	{
+		private final String		stage;
+		private final AtomicLong	count		= new AtomicLong();
+		private final AtomicLong	totalNanos	= new AtomicLong();
+		private final AtomicLong	maxNanos	= new AtomicLong();
+		private final AtomicLong	items		= new AtomicLong();
+
+		private StageStatistics(String stage)
+		{
+			this.stage = stage;
+		}
+
+		private void add(long nanos, long itemCount)
+		{
+			count.incrementAndGet();
+			totalNanos.addAndGet(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+			items.addAndGet(itemCount);
+		}
+
+		public String getStage()
+		{
+			return stage;
+		}
+
+		public long getCount()
+		{
+			return count.get();
+		}
+
+		public double getTotalMillis()
+		{
+			return totalNanos.get() / 1e6;
+		}
+
+		public double getMeanMillis()
+		{
+			long n = count.get();
+			return n == 0 ? 0.0 : totalNanos.get() / 1e6 / n;
+		}
+
+		public double getMaxMillis()
+		{
+			return maxNanos.get() / 1e6;
+		}
+
+		public long getItems()
+		{
+			return items.get();
+		}
+
+		/*
+		 * items per second of stage time, 0 when the stage doesn't count items.
+		 */
+		public double getItemsPerSecond()
+		{
+			long nanos = totalNanos.get();
+			return nanos == 0 ? 0.0 : items.get() / (nanos / 1e9);
+		}
+	}
+}
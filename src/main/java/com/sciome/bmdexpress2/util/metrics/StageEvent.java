@@ -0,0 +1,25 @@
+package com.sciome.bmdexpress2.util.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/*
+ * JFR event for one timed stage, so a flight recording (e.g. -XX:StartFlightRecording) shows the stages next
+ * to GC, threads and I/O. Costs next to nothing when no recording is running.
+ */
+@Name("com.sciome.bmdexpress2.Stage")
+@Label("BMDExpress Stage")
+@Category("BMDExpress")
+@Description("A timed stage of a BMDExpress analysis")
+class StageEvent extends Event
+{
+	@Label("Stage")
+	String	stage;
+
+	@Label("Items")
+	@Description("Number of items (e.g. probes) processed by the stage, 0 if not applicable")
+	long	items;
+}
@@ -36,13 +36,11 @@ public class OneWayANOVAAnalysis
 
 		for (ProbeResponse probeResponse : processableData.getProcessableProbeResponses())
 		{
-			// set up the dose responses
-			float[] yy = probeResponse.getResponseArray();
-			// convert it to double
-			double[] yyDouble = new double[yy.length];
-			for (int i1 = 0; i1 < yy.length; i1++)
+			// set up the dose responses as doubles, straight from the response matrix
+			double[] yyDouble = new double[probeResponse.getResponseCount()];
+			for (int i1 = 0; i1 < yyDouble.length; i1++)
 			{
-				yyDouble[i1] = yy[i1];
+				yyDouble[i1] = probeResponse.getResponse(i1);
 			}
 
 			oneway.onewayANOVA(yyDouble);
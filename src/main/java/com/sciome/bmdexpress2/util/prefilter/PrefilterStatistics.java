@@ -0,0 +1,138 @@
+package com.sciome.bmdexpress2.util.prefilter;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
+
+/*
+ * The unfiltered per probe statistics of one run of a prefilter test (williams, oriogen) on one experiment.
+ * The p-values are what the permutations or bootstraps cost; everything after that (p-value, fold change and
+ * control probe cutoffs, NOTEL/LOTEL) is cheap or can be remembered per probe. So a run with different
+ * cutoffs can be derived from this instead of repeating the test.
+ *
+ * Fold changes and NOTEL/LOTEL p-values are filled in lazily, only for the probes that some run needed.
+ */
+public class PrefilterStatistics
+{
+	private final List<ProbeResponse>					probeResponses;
+	private final Map<ProbeResponse, Integer>			indexes			= new IdentityHashMap<>();
+	private final double[]								pValues;
+	private final double[]								adjustedPValues;
+	// oriogen only
+	private final String[]								profiles;
+
+	private final AtomicReferenceArray<Float>			bestFoldChanges;
+	private final AtomicReferenceArray<List<Float>>		foldChanges;
+	private final AtomicReferenceArray<List<Float>>		tTestPValues;
+	private final AtomicReferenceArray<List<Float>>		dunnettsPValues;
+
+	public PrefilterStatistics(List<ProbeResponse> probeResponses, double[] pValues, double[] adjustedPValues,
+			String[] profiles)
+	{
+		this.probeResponses = new ArrayList<>(probeResponses);
+		this.pValues = pValues;
+		this.adjustedPValues = adjustedPValues;
+		this.profiles = profiles;
+		for (int i = 0; i < this.probeResponses.size(); i++)
+			indexes.put(this.probeResponses.get(i), i);
+
+		bestFoldChanges = new AtomicReferenceArray<>(probeResponses.size());
+		foldChanges = new AtomicReferenceArray<>(probeResponses.size());
+		tTestPValues = new AtomicReferenceArray<>(probeResponses.size());
+		dunnettsPValues = new AtomicReferenceArray<>(probeResponses.size());
+	}
+
+	/*
+	 * true if these statistics were computed on exactly these probe responses, in this order.
+	 */
+	public boolean isFor(List<ProbeResponse> responses)
+	{
+		if (responses.size() != probeResponses.size())
+			return false;
+		for (int i = 0; i < responses.size(); i++)
+			if (responses.get(i) != probeResponses.get(i))
+				return false;
+		return true;
+	}
+
+	public int size()
+	{
+		return probeResponses.size();
+	}
+
+	public ProbeResponse getProbeResponse(int index)
+	{
+		return probeResponses.get(index);
+	}
+
+	public double getpValue(int index)
+	{
+		return pValues[index];
+	}
+
+	public double getAdjustedPValue(int index)
+	{
+		return adjustedPValues[index];
+	}
+
+	public String getProfile(int index)
+	{
+		return profiles == null ? null : profiles[index];
+	}
+
+	/*
+	 * -1 if the probe response is not one of these statistics' probes.
+	 */
+	public int indexOf(ProbeResponse probeResponse)
+	{
+		Integer index = indexes.get(probeResponse);
+		return index == null ? -1 : index;
+	}
+
+	/*
+	 * the fold changes of the probe, computed the first time they are asked for. The list is a copy so each
+	 * result row gets its own.
+	 */
+	public List<Float> getFoldChanges(int index, FoldChange foldChange)
+	{
+		computeFoldChanges(index, foldChange);
+		return new ArrayList<>(foldChanges.get(index));
+	}
+
+	public Float getBestFoldChange(int index, FoldChange foldChange)
+	{
+		computeFoldChanges(index, foldChange);
+		return bestFoldChanges.get(index);
+	}
+
+	private void computeFoldChanges(int index, FoldChange foldChange)
+	{
+		if (foldChanges.get(index) != null)
+			return;
+		// FoldChange keeps the fold changes of its last call, so it can't be shared between threads.
+		synchronized (foldChange)
+		{
+			Float best = foldChange.getBestFoldChangeValue(probeResponses.get(index).getResponses());
+			bestFoldChanges.set(index, best);
+			foldChanges.set(index, foldChange.getFoldChanges());
+		}
+	}
+
+	/*
+	 * the NOTEL/LOTEL p-values of a probe from an earlier run with the same test, or null.
+	 */
+	public List<Float> getNoelLoelPValues(int index, boolean tTest)
+	{
+		List<Float> pValueList = (tTest ? tTestPValues : dunnettsPValues).get(index);
+		return pValueList == null ? null : new ArrayList<>(pValueList);
+	}
+
+	public void setNoelLoelPValues(int index, boolean tTest, List<Float> pValueList)
+	{
+		(tTest ? tTestPValues : dunnettsPValues).set(index, new ArrayList<>(pValueList));
+	}
+}
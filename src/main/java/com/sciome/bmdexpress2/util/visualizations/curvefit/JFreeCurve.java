@@ -26,6 +26,7 @@ import java.text.ParsePosition;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -79,6 +80,9 @@ public class JFreeCurve
 	private SciomeChartViewer						chartView;
 	private List<AbstractXYAnnotation>				annotations	= new ArrayList<>();
 
+	// points of a model curve between two doses, before it is refined where it bends
+	private static final int						CURVE_RESOLUTION	= 50;
+
 	// End of variables declaration
 
 	/**
@@ -235,7 +239,7 @@ public class JFreeCurve
 		return doseArray;
 	}
 
-	private double[] getDoses(BMDResult bmdResult)
+	private static double[] getDoses(BMDResult bmdResult)
 	{
 		double[] doses = new double[bmdResult.getDoseResponseExperiment().getTreatments().size()];
 		for (int i = 0; i < bmdResult.getDoseResponseExperiment().getTreatments().size(); i++)
@@ -258,12 +262,36 @@ public class JFreeCurve
 		double[] parameters = getParameters(probeStatResult);
 		bmdModel.setParameters(parameters);
 
-		// low and high doses, to set model sample boundries
-		double minDose = bmdModel.minimumDose();
-		double maxDose = bmdModel.maximumDose();
+		// create new series, the dose axis is always logarithmic
+		String seriesName = bmdResult.getName() + ": " + probeStatResult.toString();
+		ModelCurveCache.Curve curve = ModelCurveCache.getInstance()
+				.getCurve(probeStatResult.getBestStatResult(), doses, true, CURVE_RESOLUTION);
+		XYSeries modelSeries = curve != null ? curve.toSeries(seriesName)
+				: sampleModel(seriesName, bmdModel, doses);
+
+		XYDrawableAnnotation ann = new XYDrawableAnnotation(probeStatResult.getBestBMD().doubleValue(),
+				bmdModel.response(probeStatResult.getBestBMD().doubleValue()), 15, 15,
+				new ColorBlock(Color.GREEN, 15, 15));
+		XYDrawableAnnotation ann1 = new XYDrawableAnnotation(probeStatResult.getBestBMDL().doubleValue(),
+				bmdModel.response(probeStatResult.getBestBMDL().doubleValue()), 15, 15,
+				new ColorBlock(Color.RED, 15, 15));
+		XYDrawableAnnotation ann2 = new XYDrawableAnnotation(probeStatResult.getBestBMDU().doubleValue(),
+				bmdModel.response(probeStatResult.getBestBMDU().doubleValue()), 15, 15,
+				new ColorBlock(Color.BLUE, 15, 15));
 
-		// create new series
-		XYSeries modelSeries = new XYSeries(bmdResult.getName() + ": " + probeStatResult.toString());
+		annotations.add(ann);
+		annotations.add(ann1);
+		annotations.add(ann2);
+
+		return modelSeries;
+	}
+
+	/*
+	 * step through the doses for models the curve cache has no formula for.
+	 */
+	private XYSeries sampleModel(String seriesName, BMDoseModel bmdModel, double[] doses)
+	{
+		XYSeries modelSeries = new XYSeries(seriesName);
 		Set<Double> uniqueDosesSet = new HashSet<>();
 		for (int i = 0; i < doses.length; i++)
 			uniqueDosesSet.add(doses[i]);
@@ -285,30 +313,26 @@ public class JFreeCurve
 				modelSeries.add(counter, bmdModel.response(counter));
 			prevDose = dose;
 		}
-
-		XYDrawableAnnotation ann = new XYDrawableAnnotation(probeStatResult.getBestBMD().doubleValue(),
-				bmdModel.response(probeStatResult.getBestBMD().doubleValue()), 15, 15,
-				new ColorBlock(Color.GREEN, 15, 15));
-		XYDrawableAnnotation ann1 = new XYDrawableAnnotation(probeStatResult.getBestBMDL().doubleValue(),
-				bmdModel.response(probeStatResult.getBestBMDL().doubleValue()), 15, 15,
-				new ColorBlock(Color.RED, 15, 15));
-		XYDrawableAnnotation ann2 = new XYDrawableAnnotation(probeStatResult.getBestBMDU().doubleValue(),
-				bmdModel.response(probeStatResult.getBestBMDU().doubleValue()), 15, 15,
-				new ColorBlock(Color.BLUE, 15, 15));
-
-		annotations.add(ann);
-		annotations.add(ann1);
-		annotations.add(ann2);
-
-		double smallestDose = 0.0;
-		if (logDoseAxis)
-			smallestDose = logZeroDose;
-		else
-			smallestDose = minDose;
-
 		return modelSeries;
 	}
 
+	/*
+	 * sample the best curves of the probes in the background, the curves of a pathway are then drawn from
+	 * the cache when its genes are checked.
+	 */
+	public static void precomputeCurves(Map<BMDResult, Set<ProbeStatResult>> bmdResultToProbeStatResultMap)
+	{
+		Map<StatResult, double[]> statResults = new LinkedHashMap<>();
+		for (BMDResult bmdResult : bmdResultToProbeStatResultMap.keySet())
+		{
+			double[] doses = getDoses(bmdResult);
+			for (ProbeStatResult probeStatResult : bmdResultToProbeStatResultMap.get(bmdResult))
+				if (probeStatResult.getBestStatResult() != null)
+					statResults.put(probeStatResult.getBestStatResult(), doses);
+		}
+		ModelCurveCache.getInstance().precompute(statResults, CURVE_RESOLUTION, true);
+	}
+
 	/*
 	 * get the parameters of a given probe and the model name
 	 */
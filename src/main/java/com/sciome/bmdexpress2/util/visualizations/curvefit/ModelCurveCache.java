@@ -0,0 +1,290 @@
+package com.sciome.bmdexpress2.util.visualizations.curvefit;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jfree.data.xy.XYSeries;
+
+import com.sciome.bmdexpress2.mvp.model.stat.GCurvePResult;
+import com.sciome.bmdexpress2.mvp.model.stat.StatResult;
+
+/*
+ * The sampled model curves the curve viewers draw, kept per stat result, doses, dose axis and resolution so
+ * selecting a probe, toggling the log dose axis or showing a pathway again does not evaluate the model again.
+ *
+ * Between every two neighbouring doses the curve is evaluated at resolution points, spaced evenly on the axis
+ * it is drawn on, and the segments whose middle is off the straight line between their ends by more than a
+ * thousandth of the response range are split further. The doses and responses are kept in primitive arrays.
+ * The viewers ask for the curves they are about to show in the background with precompute.
+ */
+public class ModelCurveCache
+{
+	private static final int				CACHE_SIZE		= 1024;
+	// how often a segment is split at most
+	private static final int				MAX_DEPTH		= 4;
+	private static final double				TOLERANCE		= 0.001;
+	// on a log axis the interval from the zero dose is sampled from this fraction of the next dose
+	private static final double				LOG_ZERO_RATIO	= 0.001;
+
+	private static ModelCurveCache			instance		= null;
+
+	private Map<CurveKey, Curve>			curves			= new LinkedHashMap<CurveKey, Curve>(16, 0.75f,
+			true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<CurveKey, Curve> eldest)
+		{
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private ExecutorService					executor;
+	// precompute requests older than the last one are dropped
+	private AtomicLong						generation		= new AtomicLong();
+
+	protected ModelCurveCache()
+	{
+		executor = Executors.newSingleThreadExecutor(r ->
+		{
+			Thread thread = new Thread(r, "model curve sampler");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public static synchronized ModelCurveCache getInstance()
+	{
+		if (instance == null)
+		{
+			instance = new ModelCurveCache();
+		}
+		return instance;
+	}
+
+	/*
+	 * the curve of the stat result over the doses. Returns null for models that have no formula to
+	 * evaluate.
+	 */
+	public Curve getCurve(StatResult statResult, double[] doses, boolean logDoses, int resolution)
+	{
+		if (statResult == null || statResult instanceof GCurvePResult
+				|| statResult.getCurveParameters() == null)
+			return null;
+		CurveKey key = new CurveKey(statResult, doses, logDoses, resolution);
+		Curve curve;
+		synchronized (curves)
+		{
+			curve = curves.get(key);
+		}
+		if (curve == null)
+		{
+			curve = sample(statResult, doses, logDoses, resolution);
+			synchronized (curves)
+			{
+				// the caller may change its doses later
+				curves.put(new CurveKey(statResult, doses.clone(), logDoses, resolution), curve);
+			}
+		}
+		return curve;
+	}
+
+	/*
+	 * sample the curves of the stat results over their doses on the background thread, in the order of the
+	 * map and for every dose axis given. A new call drops what is left of the previous one, the viewers call
+	 * it with what is shown or selected right now.
+	 */
+	public void precompute(Map<StatResult, double[]> statResultDoses, int resolution, boolean... logDoses)
+	{
+		long current = generation.incrementAndGet();
+		Map<StatResult, double[]> copy = new LinkedHashMap<>();
+		for (Map.Entry<StatResult, double[]> entry : statResultDoses.entrySet())
+			copy.put(entry.getKey(), entry.getValue().clone());
+		for (boolean log : logDoses)
+			for (Map.Entry<StatResult, double[]> entry : copy.entrySet())
+				executor.execute(() ->
+				{
+					if (generation.get() == current)
+						getCurve(entry.getKey(), entry.getValue(), log, resolution);
+				});
+	}
+
+	private static Curve sample(StatResult statResult, double[] doses, boolean logDoses, int resolution)
+	{
+		double[] uniqueDoses = Arrays.stream(doses).distinct().sorted().toArray();
+		int steps = Math.max(1, resolution);
+
+		// the evenly spaced points first, they also give the response range
+		DoubleList baseDoses = new DoubleList();
+		for (int i = 0; i + 1 < uniqueDoses.length; i++)
+		{
+			double from = uniqueDoses[i];
+			double to = uniqueDoses[i + 1];
+			if (logDoses && from <= 0.0 && to > 0.0)
+			{
+				baseDoses.add(from);
+				from = to * LOG_ZERO_RATIO;
+			}
+			for (int step = 0; step < steps; step++)
+				baseDoses.add(between(from, to, (double) step / steps, logDoses));
+		}
+		if (uniqueDoses.length > 0)
+			baseDoses.add(uniqueDoses[uniqueDoses.length - 1]);
+
+		double[] baseResponses = new double[baseDoses.size];
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < baseDoses.size; i++)
+		{
+			baseResponses[i] = statResult.getResponseAt(baseDoses.values[i]);
+			if (Double.isFinite(baseResponses[i]))
+			{
+				min = Math.min(min, baseResponses[i]);
+				max = Math.max(max, baseResponses[i]);
+			}
+		}
+		double tolerance = max > min ? (max - min) * TOLERANCE : 0.0;
+
+		DoubleList curveDoses = new DoubleList();
+		DoubleList curveResponses = new DoubleList();
+		for (int i = 0; i < baseDoses.size; i++)
+		{
+			if (i > 0 && tolerance > 0.0)
+				refine(statResult, baseDoses.values[i - 1], baseResponses[i - 1], baseDoses.values[i],
+						baseResponses[i], logDoses, tolerance, 0, curveDoses, curveResponses);
+			curveDoses.add(baseDoses.values[i]);
+			curveResponses.add(baseResponses[i]);
+		}
+		return new Curve(curveDoses.toArray(), curveResponses.toArray());
+	}
+
+	/*
+	 * add the points strictly between x0 and x1 where the curve bends.
+	 */
+	private static void refine(StatResult statResult, double x0, double y0, double x1, double y1,
+			boolean logDoses, double tolerance, int depth, DoubleList curveDoses, DoubleList curveResponses)
+	{
+		if (depth >= MAX_DEPTH || !Double.isFinite(y0) || !Double.isFinite(y1))
+			return;
+		double xm = between(x0, x1, 0.5, logDoses);
+		double ym = statResult.getResponseAt(xm);
+		if (!Double.isFinite(ym) || Math.abs(ym - (y0 + y1) / 2.0) <= tolerance)
+			return;
+		refine(statResult, x0, y0, xm, ym, logDoses, tolerance, depth + 1, curveDoses, curveResponses);
+		curveDoses.add(xm);
+		curveResponses.add(ym);
+		refine(statResult, xm, ym, x1, y1, logDoses, tolerance, depth + 1, curveDoses, curveResponses);
+	}
+
+	/*
+	 * the dose a fraction of the way from one dose to the next, on a log axis in log space.
+	 */
+	private static double between(double from, double to, double fraction, boolean logDoses)
+	{
+		if (logDoses && from > 0.0 && to > 0.0)
+			return from * Math.pow(to / from, fraction);
+		return from + (to - from) * fraction;
+	}
+
+	/*
+	 * a sampled curve, doses ascending.
+	 */
+	public static class Curve
+	{
+		private final double[]	doses;
+		private final double[]	responses;
+
+		Curve(double[] doses, double[] responses)
+		{
+			this.doses = doses;
+			this.responses = responses;
+		}
+
+		public double[] getDoses()
+		{
+			return doses;
+		}
+
+		public double[] getResponses()
+		{
+			return responses;
+		}
+
+		public int size()
+		{
+			return doses.length;
+		}
+
+		/*
+		 * a series of the curve. The points are added without an event for each.
+		 */
+		public XYSeries toSeries(Comparable<?> key)
+		{
+			XYSeries series = new XYSeries(key, false, true);
+			for (int i = 0; i < doses.length; i++)
+				series.add(doses[i], responses[i], false);
+			series.fireSeriesChanged();
+			return series;
+		}
+	}
+
+	private static class DoubleList
+	{
+		private double[]	values	= new double[256];
+		private int			size;
+
+		void add(double value)
+		{
+			if (size == values.length)
+				values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+
+		double[] toArray()
+		{
+			return Arrays.copyOf(values, size);
+		}
+	}
+
+	/*
+	 * a stat result by identity with what its curve was sampled for.
+	 */
+	private static class CurveKey
+	{
+		private final StatResult	statResult;
+		private final double[]		doses;
+		private final boolean		logDoses;
+		private final int			resolution;
+		private final int			hash;
+
+		CurveKey(StatResult statResult, double[] doses, boolean logDoses, int resolution)
+		{
+			this.statResult = statResult;
+			this.doses = doses;
+			this.logDoses = logDoses;
+			this.resolution = resolution;
+			hash = ((System.identityHashCode(statResult) * 31 + Arrays.hashCode(doses)) * 31 + resolution) * 2
+					+ (logDoses ? 1 : 0);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof CurveKey))
+				return false;
+			CurveKey other = (CurveKey) obj;
+			return statResult == other.statResult && logDoses == other.logDoses
+					&& resolution == other.resolution && Arrays.equals(doses, other.doses);
+		}
+	}
+}
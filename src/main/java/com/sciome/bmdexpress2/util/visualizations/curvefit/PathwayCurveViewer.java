@@ -196,6 +196,12 @@ public class PathwayCurveViewer extends SciomeChartBase<Number, Number>
 						hbox.getChildren().add(geneCombo);
 						geneCombo.setMaxWidth(200);
 
+						// sample the curves of every gene that can be checked now
+						JFreeCurve.precomputeCurves(getBMDResultsForCurveView(
+								pathwayAutoCompleteTextField.getText(),
+								categoryAnalysisResultsCombo.getCheckModel().getCheckedItems(),
+								geneCombo.getItems()));
+
 						setUpGeneComboListener();
 
 					}
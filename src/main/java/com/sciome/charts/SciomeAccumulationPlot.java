@@ -1,7 +1,7 @@
 package com.sciome.charts;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -9,6 +9,7 @@ import java.util.Set;
 import com.sciome.bmdexpress2.mvp.model.ChartKey;
 import com.sciome.charts.data.ChartData;
 import com.sciome.charts.data.ChartDataPack;
+import com.sciome.charts.data.KernelDensity;
 import com.sciome.charts.export.ChartDataExporter;
 import com.sciome.charts.model.SciomeData;
 import com.sciome.charts.model.SciomeSeries;
@@ -131,23 +132,22 @@ public abstract class SciomeAccumulationPlot extends SciomeChartBase<Number, Num
 
 		for (ChartDataPack chartDataPack : getChartDataPacks())
 		{
-			List<ChartData> doubleList = new ArrayList<>();
+			List<ChartData> unsortedList = new ArrayList<>();
+			double[] dataPoints = new double[chartDataPack.getChartData().size()];
 			for (ChartData chartData : chartDataPack.getChartData())
 			{
 				Double dataPoint = (Double) chartData.getDataPoints().get(key);
 				if (dataPoint == null)
 					continue;
-				doubleList.add(chartData);
+				dataPoints[unsortedList.size()] = dataPoint;
+				unsortedList.add(chartData);
 			}
 
-			doubleList.sort(new Comparator<ChartData>() {
-				@Override
-				public int compare(ChartData o1, ChartData o2)
-				{
-					return ((Double) o1.getDataPoints().get(key))
-							.compareTo((Double) o2.getDataPoints().get(key));
-				}
-			});
+			// sort on the primitive values instead of unboxing both sides of every comparison.
+			int[] order = KernelDensity.sortedOrder(Arrays.copyOf(dataPoints, unsortedList.size()));
+			List<ChartData> doubleList = new ArrayList<>(order.length);
+			for (int index : order)
+				doubleList.add(unsortedList.get(index));
 
 			int i = 0;
 			SciomeSeries<Number, Number> series = new SciomeSeries<>();
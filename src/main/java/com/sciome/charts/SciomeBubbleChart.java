@@ -9,6 +9,7 @@ import java.util.Set;
 import com.sciome.bmdexpress2.mvp.model.ChartKey;
 import com.sciome.charts.data.ChartData;
 import com.sciome.charts.data.ChartDataPack;
+import com.sciome.charts.data.ChartPointIndex;
 import com.sciome.charts.export.ChartDataExporter;
 import com.sciome.charts.model.SciomeData;
 import com.sciome.charts.model.SciomeSeries;
@@ -27,6 +28,9 @@ public abstract class SciomeBubbleChart extends SciomeChartBase<Number, Number>
 
 	private int				nodeCount;
 
+	// set while the super constructor converts the data packs, so it must not have an initializer.
+	private ChartPointIndex	pointIndex;
+
 	public SciomeBubbleChart(String title, List<ChartDataPack> chartDataPacks, ChartKey key1, ChartKey key2,
 			ChartKey key3, boolean allowXAxisSlider, boolean allowYAxisSlider,
 			SciomeChartListener chartListener)
@@ -72,6 +76,27 @@ public abstract class SciomeBubbleChart extends SciomeChartBase<Number, Number>
 		}
 	}
 
+	/*
+	 * index the points by identity once per data load, so highlighting and marking don't walk every point.
+	 */
+	private void indexPoints(List<SciomeSeries<Number, Number>> seriesData)
+	{
+		ChartPointIndex index = new ChartPointIndex();
+		for (int s = 0; s < seriesData.size(); s++)
+		{
+			List<SciomeData<Number, Number>> data = seriesData.get(s).getData();
+			for (int i = 0; i < data.size(); i++)
+				index.add(s, i, data.get(i).getXValue().doubleValue(), data.get(i).getYValue().doubleValue(),
+						((BubbleChartExtraData) data.get(i).getExtraValue()).userData);
+		}
+		pointIndex = index;
+	}
+
+	protected ChartPointIndex getPointIndex()
+	{
+		return pointIndex;
+	}
+
 	/*
 	 * fill up the sciome series data structure so implementing classes can use it to create charts
 	 */
@@ -119,6 +144,7 @@ public abstract class SciomeBubbleChart extends SciomeChartBase<Number, Number>
 			seriesData.add(series);
 		}
 		setSeriesData(seriesData);
+		indexPoints(seriesData);
 	}
 
 	/*
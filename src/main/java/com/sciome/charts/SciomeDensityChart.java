@@ -10,6 +10,7 @@ import org.apache.commons.math3.stat.descriptive.moment.StandardDeviation;
 import com.sciome.bmdexpress2.mvp.model.ChartKey;
 import com.sciome.charts.data.ChartData;
 import com.sciome.charts.data.ChartDataPack;
+import com.sciome.charts.data.KernelDensity;
 import com.sciome.charts.export.ChartDataExporter;
 import com.sciome.charts.model.SciomeData;
 import com.sciome.charts.model.SciomeSeries;
@@ -92,14 +93,11 @@ public abstract class SciomeDensityChart extends SciomeChartBase<Number, Number>
 				bandwidth /= 10;
 			}
 			
+			double step = max/NUM_X_VALUES;
+			double[] density = KernelDensity.estimate(data, bandwidth, step, 1, NUM_X_VALUES - 1);
 			for(int i = 1; i < NUM_X_VALUES; i++) {
-				double x = i * (max/NUM_X_VALUES);
-				double sum = 0;
-				for(int j = 0; j < data.length; j++) {
-					double gaussVal = gaussian((x - data[j]) / bandwidth);
-					sum += gaussVal;
-				}
-				double y = (1/(data.length * bandwidth)) * sum;
+				double x = i * step;
+				double y = density[i - 1];
 				
 				SciomeData<Number, Number> point = new SciomeData<>("", x,
 						y, chartDataPack.getName());
@@ -169,8 +167,4 @@ public abstract class SciomeDensityChart extends SciomeChartBase<Number, Number>
 			redrawCharts(getChartDataPacks());
 		}
 	}
-	
-	private double gaussian(double u) {
-		return (Math.exp(((-u * u)/2.0)))/(Math.sqrt(2 * Math.PI));
-	}
 }
@@ -7,6 +7,7 @@ import java.util.List;
 import com.sciome.bmdexpress2.mvp.model.ChartKey;
 import com.sciome.charts.data.ChartData;
 import com.sciome.charts.data.ChartDataPack;
+import com.sciome.charts.data.ChartPointIndex;
 import com.sciome.charts.export.ChartDataExporter;
 import com.sciome.charts.model.SciomeData;
 import com.sciome.charts.model.SciomeSeries;
@@ -23,6 +24,9 @@ public abstract class SciomeScatterChart extends SciomeChartBase<Number, Number>
 
 	protected Tooltip toolTip = new Tooltip("");
 
+	// set while the super constructor converts the data packs, so it must not have an initializer.
+	private ChartPointIndex pointIndex;
+
 	@SuppressWarnings("rawtypes")
 	public SciomeScatterChart(String title, List<ChartDataPack> chartDataPacks, ChartKey key1, ChartKey key2,
 			boolean allowXLogAxis, boolean allowYLogAxis, boolean allowXAxisSlider, boolean allowYAxisSlider,
@@ -98,6 +102,27 @@ public abstract class SciomeScatterChart extends SciomeChartBase<Number, Number>
 		initChart();
 	}
 
+	/*
+	 * index the points by identity once per data load, so highlighting and marking don't walk every point.
+	 */
+	private void indexPoints(List<SciomeSeries<Number, Number>> seriesData)
+	{
+		ChartPointIndex index = new ChartPointIndex();
+		for (int s = 0; s < seriesData.size(); s++)
+		{
+			List<SciomeData<Number, Number>> data = seriesData.get(s).getData();
+			for (int i = 0; i < data.size(); i++)
+				index.add(s, i, data.get(i).getXValue().doubleValue(), data.get(i).getYValue().doubleValue(),
+						((ChartExtraValue) data.get(i).getExtraValue()).userData);
+		}
+		pointIndex = index;
+	}
+
+	protected ChartPointIndex getPointIndex()
+	{
+		return pointIndex;
+	}
+
 	/*
 	 * fill up the sciome series data structure so implementing classes can use it to create charts
 	 */
@@ -136,6 +161,7 @@ public abstract class SciomeScatterChart extends SciomeChartBase<Number, Number>
 
 		}
 		setSeriesData(seriesData);
+		indexPoints(seriesData);
 
 	}
 
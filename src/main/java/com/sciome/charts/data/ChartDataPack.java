@@ -1,7 +1,6 @@
 package com.sciome.charts.data;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,7 +29,7 @@ public class ChartDataPack
 	{
 		for (ChartKey key : charttableKeys)
 		{
-			List<Double> values = getSortedValueArray(key);
+			double[] values = getSortedValueArray(key);
 			computeStats(values, key);
 		}
 
@@ -41,7 +40,7 @@ public class ChartDataPack
 		calculateStatsForPack();
 	}
 
-	private void computeStats(List<Double> values, ChartKey key)
+	private void computeStats(double[] values, ChartKey key)
 	{
 		ChartStatistics chartStats = new ChartStatistics();
 		// chartStats.setMax(0.0);
@@ -49,42 +48,35 @@ public class ChartDataPack
 		// chartStats.setMean(0.0);
 		// chartStats.setMedian(0.0);
 		chartStatMap.put(key, chartStats);
-		if (values.size() == 0)
+		if (values.length == 0)
 			return;
 
-		chartStats.setMax(values.get(values.size() - 1));
-		chartStats.setMin(values.get(0));
-		chartStats.setMedian(values.get(values.size() / 2));
+		chartStats.setMax(values[values.length - 1]);
+		chartStats.setMin(values[0]);
+		chartStats.setMedian(values[values.length / 2]);
 		double sum = 0.0;
-		for (Double value : values)
+		for (double value : values)
 		{
 			sum += value;
 		}
-		chartStats.setMean(sum / (double) values.size());
+		chartStats.setMean(sum / (double) values.length);
 
 	}
 
-	private List<Double> getSortedValueArray(ChartKey key)
+	// sorted as primitives, this runs for every key of every pack a redraw makes.
+	private double[] getSortedValueArray(ChartKey key)
 	{
-		List<Double> values = new ArrayList<>();
+		double[] values = new double[chartData.size()];
+		int count = 0;
 		for (ChartData data : chartData)
 		{
-			Map<ChartKey, Double> mappedDataPoints = data.getDataPoints();
-
-			if (mappedDataPoints.containsKey(key))
-			{
-				try
-				{
-					values.add(mappedDataPoints.get(key).doubleValue());
-				}
-				catch (Exception e)
-				{
-					// e.printStackTrace();
-				}
-			}
+			Double value = data.getDataPoints().get(key);
+			if (value != null)
+				values[count++] = value;
 		}
 
-		Collections.sort(values);
+		values = Arrays.copyOf(values, count);
+		Arrays.sort(values);
 		return values;
 	}
 
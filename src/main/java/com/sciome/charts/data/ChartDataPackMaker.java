@@ -157,7 +157,7 @@ public class ChartDataPackMaker
 		return chartDataPack;
 	}
 
-	private List<Double> parseForList(String value)
+	static List<Double> parseForList(String value)
 	{
 		Scanner sc = new Scanner(value);
 		sc.useDelimiter(";");
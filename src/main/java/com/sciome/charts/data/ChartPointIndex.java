@@ -0,0 +1,141 @@
+package com.sciome.charts.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.sciome.bmdexpress2.mvp.model.IMarkable;
+
+/*
+ * The points of an xy chart by identity, so that highlighting the objects another chart posted or marking
+ * data only looks at the points involved instead of every point of every series. It is built when the chart
+ * data packs are turned into series. Points are numbered in the order they were added and know their series
+ * and item index.
+ */
+public class ChartPointIndex
+{
+	private final List<Object>					userData	= new ArrayList<>();
+	private int[]								series		= new int[16];
+	private int[]								items		= new int[16];
+	private double[]							x			= new double[16];
+	private double[]							y			= new double[16];
+	private int									size		= 0;
+
+	// lower cased userData.toString() and lower cased markable keys to points.
+	private final Map<String, List<Integer>>	byIdentity	= new HashMap<>();
+	private final Map<String, List<Integer>>	byMarkable	= new HashMap<>();
+
+	private PointQuadTree						quadTree;
+
+	public void add(int seriesIndex, int item, double xValue, double yValue, Object data)
+	{
+		if (size == x.length)
+		{
+			int capacity = size * 2;
+			series = Arrays.copyOf(series, capacity);
+			items = Arrays.copyOf(items, capacity);
+			x = Arrays.copyOf(x, capacity);
+			y = Arrays.copyOf(y, capacity);
+		}
+		int point = size++;
+		series[point] = seriesIndex;
+		items[point] = item;
+		x[point] = xValue;
+		y[point] = yValue;
+		userData.add(data);
+		quadTree = null;
+
+		if (data == null)
+			return;
+		byIdentity.computeIfAbsent(data.toString().toLowerCase(), k -> new ArrayList<>()).add(point);
+		if (data instanceof IMarkable && ((IMarkable) data).getMarkableKeys() != null)
+			for (String key : ((IMarkable) data).getMarkableKeys())
+				byMarkable.computeIfAbsent(key.toLowerCase(), k -> new ArrayList<>()).add(point);
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	/*
+	 * the points whose user data matches one of the objects, compared like the charts always have: by
+	 * toString, ignoring case.
+	 */
+	public Set<Integer> findPoints(Collection<?> objects)
+	{
+		Set<Integer> points = new TreeSet<>();
+		for (Object object : objects)
+		{
+			List<Integer> found = byIdentity.get(object.toString().toLowerCase());
+			if (found != null)
+				points.addAll(found);
+		}
+		return points;
+	}
+
+	/*
+	 * the markable points that have a key in markings. The keys are looked up ignoring case and then checked
+	 * against markings itself, so a case sensitive set keeps behaving as one.
+	 */
+	public Set<Integer> findMarkedPoints(Set<String> markings)
+	{
+		Set<Integer> points = new TreeSet<>();
+		for (String marking : markings)
+		{
+			List<Integer> found = byMarkable.get(marking.toLowerCase());
+			if (found == null)
+				continue;
+			for (Integer point : found)
+				for (String key : ((IMarkable) userData.get(point)).getMarkableKeys())
+					if (markings.contains(key))
+					{
+						points.add(point);
+						break;
+					}
+		}
+		return points;
+	}
+
+	/*
+	 * the points inside the rectangle, using a quadtree that is built on first use.
+	 */
+	public List<Integer> findPointsIn(double minX, double maxX, double minY, double maxY)
+	{
+		if (quadTree == null)
+			quadTree = new PointQuadTree(Arrays.copyOf(x, size), Arrays.copyOf(y, size));
+		List<Integer> points = new ArrayList<>();
+		quadTree.query(minX, maxX, minY, maxY, points::add);
+		return points;
+	}
+
+	public int getSeries(int point)
+	{
+		return series[point];
+	}
+
+	public int getItem(int point)
+	{
+		return items[point];
+	}
+
+	public double getX(int point)
+	{
+		return x[point];
+	}
+
+	public double getY(int point)
+	{
+		return y[point];
+	}
+
+	public Object getUserData(int point)
+	{
+		return userData.get(point);
+	}
+}
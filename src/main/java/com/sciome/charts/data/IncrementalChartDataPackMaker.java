@@ -0,0 +1,314 @@
+package com.sciome.charts.data;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisDataSet;
+import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisRow;
+import com.sciome.bmdexpress2.mvp.model.ChartKey;
+import com.sciome.bmdexpress2.mvp.model.CombinedDataSet;
+import com.sciome.filter.DataFilter;
+import com.sciome.filter.DataFilterPack;
+
+/*
+ * Makes the chart data packs of one visualization view and keeps what it made, so a filter change does not
+ * start over. Per data set it keeps:
+ * - the chart data of every row, built in one pass over the columns of the chart keys, and the rows in label
+ * order
+ * - for every filter it saw, which rows pass it
+ * When the filter pack changes only the filters that are new are run over the rows. The rows that pass all of
+ * them are compared with the previous pack: when no row newly passes or newly fails the previous pack is
+ * handed out again, otherwise the pack is taken from the kept chart data in label order.
+ *
+ * The chart data is rebuilt when the charts need keys it was not built with, or the rows of the data set were
+ * replaced.
+ */
+public class IncrementalChartDataPackMaker
+{
+	private Map<BMDExpressAnalysisDataSet, DataSetPacks>		dataSetPacks	= new IdentityHashMap<>();
+	private Map<CombinedDataSet, List<BMDExpressAnalysisDataSet>>	splitCombined	= new IdentityHashMap<>();
+
+	/*
+	 * the same packs ChartDataPackMaker.generateDataPacks makes.
+	 */
+	public synchronized List<ChartDataPack> generateDataPacks(List<BMDExpressAnalysisDataSet> objectsForChart,
+			DataFilterPack dataFilterPack, Set<ChartKey> useTheseKeysOnly, Set<ChartKey> mathedChartKeys,
+			ChartKey labelKey)
+	{
+		if (objectsForChart.get(0) instanceof CombinedDataSet)
+			objectsForChart = split((CombinedDataSet) objectsForChart.get(0));
+
+		Map<BMDExpressAnalysisDataSet, DataSetPacks> used = new IdentityHashMap<>();
+		List<ChartDataPack> dataPackList = new ArrayList<>();
+		for (BMDExpressAnalysisDataSet obj : objectsForChart)
+		{
+			DataSetPacks packs = dataSetPacks.get(obj);
+			if (packs == null)
+				packs = new DataSetPacks(obj);
+			used.put(obj, packs);
+			dataPackList.add(packs.generateDataPack(dataFilterPack, useTheseKeysOnly, mathedChartKeys, labelKey));
+		}
+		// forget the data sets the view does not show anymore.
+		dataSetPacks = used;
+		return dataPackList;
+	}
+
+	/*
+	 * a combined data set is shown as one pack per analysis, the split is kept as long as its rows are.
+	 */
+	private List<BMDExpressAnalysisDataSet> split(CombinedDataSet combined)
+	{
+		List<BMDExpressAnalysisDataSet> split = splitCombined.get(combined);
+		int rowCount = 0;
+		if (split != null)
+			for (BMDExpressAnalysisDataSet part : split)
+				rowCount += part.getAnalysisRows().size();
+		if (split != null && rowCount == combined.getAnalysisRows().size())
+			return split;
+
+		split = new ArrayList<>();
+		String currAnalysis = "";
+		CombinedDataSet currSet = null;
+		for (BMDExpressAnalysisRow row : combined.getAnalysisRows())
+		{
+			// assume the first column is anlaysis name and analyses are grouped together.
+			if (!currAnalysis.equals(row.getRow().get(0).toString()))
+			{
+				currAnalysis = row.getRow().get(0).toString();
+				currSet = new CombinedDataSet(combined.getColumnHeader(), currAnalysis);
+				split.add(currSet);
+			}
+			if (currSet != null)
+				currSet.getAnalysisRows().add(row);
+		}
+		if (split.isEmpty())
+			split.add(combined);
+		splitCombined.clear();
+		splitCombined.put(combined, split);
+		return split;
+	}
+
+	/*
+	 * what is kept for one data set.
+	 */
+	private static class DataSetPacks
+	{
+		private final BMDExpressAnalysisDataSet	dataSet;
+
+		private List<BMDExpressAnalysisRow>		rows;
+		private int								rowCount;
+		private Set<ChartKey>					chartKeys;
+		private ChartKey						labelKey;
+		// the chart data of every row, null when the row has no label
+		private ChartData[]						chartData;
+		// row indexes in the order of their lower cased labels
+		private int[]							labelOrder;
+
+		private Map<FilterSignature, BitSet>	passingByFilter	= new HashMap<>();
+		private BitSet							passing;
+		private ChartDataPack					dataPack;
+
+		DataSetPacks(BMDExpressAnalysisDataSet dataSet)
+		{
+			this.dataSet = dataSet;
+		}
+
+		ChartDataPack generateDataPack(DataFilterPack dataFilterPack, Set<ChartKey> useTheseKeysOnly,
+				Set<ChartKey> mathedChartKeys, ChartKey labelKey)
+		{
+			// fill in the data table before looking at the rows
+			dataSet.getColumnHeader();
+
+			Set<ChartKey> keys = new HashSet<>();
+			if (useTheseKeysOnly == null || useTheseKeysOnly.size() == 0)
+				for (String header : dataSet.getColumnHeader())
+					keys.add(new ChartKey(header, null));
+			else
+				keys.addAll(useTheseKeysOnly);
+			if (mathedChartKeys != null)
+				keys.addAll(mathedChartKeys);
+
+			boolean rebuilt = false;
+			if (rows != dataSet.getAnalysisRows() || rowCount != dataSet.getAnalysisRows().size()
+					|| !Objects.equals(this.labelKey, labelKey) || chartKeys == null
+					|| !chartKeys.containsAll(keys))
+			{
+				build(keys, labelKey);
+				rebuilt = true;
+			}
+
+			BitSet newPassing = filter(dataFilterPack);
+			if (!rebuilt && dataPack != null && newPassing.equals(passing)
+					&& dataPack.getCharttableKeys().size() == keys.size()
+					&& dataPack.getCharttableKeys().containsAll(keys))
+				return dataPack;
+
+			List<ChartData> chartDataList = new ArrayList<>(newPassing.cardinality());
+			for (int i : labelOrder)
+				if (newPassing.get(i))
+					chartDataList.add(chartData[i]);
+
+			dataPack = new ChartDataPack(chartDataList, new ArrayList<>(keys));
+			dataPack.setName(dataSet.getName());
+			passing = newPassing;
+			return dataPack;
+		}
+
+		/*
+		 * the rows that pass every filter of the pack and have a label. Only filters that were not seen
+		 * before are run over the rows.
+		 */
+		private BitSet filter(DataFilterPack dataFilterPack)
+		{
+			BitSet result = new BitSet(rowCount);
+			for (int i = 0; i < rowCount; i++)
+				if (chartData[i] != null)
+					result.set(i);
+			if (dataFilterPack == null || dataFilterPack.getDataFilters() == null)
+				return result;
+
+			Map<FilterSignature, BitSet> current = new HashMap<>();
+			for (DataFilter<?> dataFilter : dataFilterPack.getDataFilters())
+			{
+				FilterSignature signature = new FilterSignature(dataFilter);
+				BitSet filterPassing = passingByFilter.get(signature);
+				if (filterPassing == null)
+				{
+					filterPassing = new BitSet(rowCount);
+					for (int i = 0; i < rowCount; i++)
+						if (chartData[i] != null && dataFilter.passesFilter(rows.get(i)))
+							filterPassing.set(i);
+				}
+				current.put(signature, filterPassing);
+				result.and(filterPassing);
+			}
+			passingByFilter = current;
+			return result;
+		}
+
+		/*
+		 * one pass over the rows that looks up the columns of the keys once, instead of by header name for
+		 * every row and key.
+		 */
+		private void build(Set<ChartKey> keys, ChartKey labelKey)
+		{
+			rows = dataSet.getAnalysisRows();
+			rowCount = rows.size();
+			chartKeys = new HashSet<>(keys);
+			this.labelKey = labelKey;
+			passingByFilter.clear();
+			passing = null;
+			dataPack = null;
+
+			List<ChartKey> keyList = new ArrayList<>(keys);
+			int[] columns = new int[keyList.size()];
+			for (int k = 0; k < columns.length; k++)
+				columns[k] = columnOf(keyList.get(k));
+			int labelColumn = columnOf(labelKey);
+
+			chartData = new ChartData[rowCount];
+			String[] lowerLabels = new String[rowCount];
+			List<Integer> labelled = new ArrayList<>();
+			for (int i = 0; i < rowCount; i++)
+			{
+				BMDExpressAnalysisRow row = rows.get(i);
+				List<Object> values = row.getRow();
+				Object labelObject = valueAt(values, labelColumn);
+				if (labelObject == null)
+					continue;
+
+				ChartData data = new ChartData();
+				data.setCharttableObject(row.getObject());
+				data.setDataPoints(new HashMap<>());
+				data.setDataPointLists(new HashMap<>());
+				data.setDataPointLabel(labelObject.toString());
+				for (int k = 0; k < columns.length; k++)
+				{
+					ChartKey key = keyList.get(k);
+					Object value = valueAt(values, columns[k]);
+					if (value == null)
+						continue;
+					Double doubleValue = null;
+					if (value instanceof Number)
+						doubleValue = ((Number) value).doubleValue();
+					else if (value instanceof String && ((String) value).contains(";"))
+					{
+						List<Double> doubleList = ChartDataPackMaker.parseForList((String) value);
+						if (doubleList != null)
+							data.getDataPointLists().put(key, doubleList);
+					}
+					else
+						continue;
+
+					// this will apply math transformation to the value
+					data.getDataPoints().put(key, key.getValue(doubleValue));
+				}
+				chartData[i] = data;
+				lowerLabels[i] = data.getDataPointLabel().toLowerCase();
+				labelled.add(i);
+			}
+
+			labelled.sort((a, b) -> lowerLabels[a].compareTo(lowerLabels[b]));
+			labelOrder = new int[labelled.size()];
+			for (int i = 0; i < labelOrder.length; i++)
+				labelOrder[i] = labelled.get(i);
+		}
+
+		private int columnOf(ChartKey key)
+		{
+			if (key == null)
+				return -1;
+			Integer column = dataSet.getIndexForKey(key.getKey());
+			return column == null ? -1 : column;
+		}
+
+		private static Object valueAt(List<Object> values, int column)
+		{
+			if (values == null || column < 0 || column >= values.size())
+				return null;
+			return values.get(column);
+		}
+	}
+
+	/*
+	 * filters with the same class, key, type and values pass the same rows.
+	 */
+	private static class FilterSignature
+	{
+		private final Class<?>		filterClass;
+		private final String		key;
+		private final Object		type;
+		private final List<Object>	values;
+
+		FilterSignature(DataFilter<?> dataFilter)
+		{
+			filterClass = dataFilter.getClass();
+			key = dataFilter.getKey();
+			type = dataFilter.getDataFilterType();
+			values = dataFilter.getValues() == null ? null : new ArrayList<>(dataFilter.getValues());
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(filterClass, key, type, values);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof FilterSignature))
+				return false;
+			FilterSignature other = (FilterSignature) obj;
+			return filterClass == other.filterClass && Objects.equals(key, other.key)
+					&& Objects.equals(type, other.type) && Objects.equals(values, other.values);
+		}
+	}
+}
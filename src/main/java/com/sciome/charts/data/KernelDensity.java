@@ -0,0 +1,288 @@
+package com.sciome.charts.data;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.math3.transform.DftNormalization;
+import org.apache.commons.math3.transform.FastFourierTransformer;
+import org.apache.commons.math3.transform.TransformType;
+
+/*
+ * Gaussian kernel density estimates for the charts, on primitive arrays. The density is evaluated at
+ * x = i * step for i from first to last, the grid the violin and density charts draw.
+ *
+ * Big samples are binned linearly onto a grid a fraction of a bandwidth wide and convolved with the kernel
+ * by FFT, which costs O(n + m log m) instead of summing the kernel of every value at every grid point. When
+ * a few outliers stretch the range to many thousands of bandwidths the grid would be too big, then the
+ * values are sorted and each grid point only sums the values within the kernel cutoff. Small samples are
+ * summed directly. The charts recompute their series on every redraw, so results are cached per sample and
+ * bandwidth.
+ */
+public class KernelDensity
+{
+	// below this many kernel evaluations the direct sum is as quick as binning.
+	private static final long					DIRECT_LIMIT		= 200000;
+	// values further than this many bandwidths from a grid point add nothing visible.
+	private static final double					KERNEL_CUTOFF		= 6.0;
+	private static final int					BINS_PER_BANDWIDTH	= 16;
+	// binning grids bigger than this and than a few times the sample are not worth transforming.
+	private static final int					MIN_FFT_SIZE		= 1 << 16;
+	private static final int					MAX_FFT_SIZE		= 1 << 22;
+	private static final int					CACHE_SIZE			= 64;
+
+	private static final Map<CacheKey, double[]>	cache				= new LinkedHashMap<CacheKey, double[]>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<CacheKey, double[]> eldest)
+		{
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	// only has static methods
+	private KernelDensity()
+	{
+	}
+
+	/*
+	 * the density at x = i * step for i = first..last, from the cache when this sample was estimated with
+	 * the same bandwidth and grid before.
+	 */
+	public static double[] estimate(double[] data, double bandwidth, double step, int first, int last)
+	{
+		CacheKey key = new CacheKey(data, bandwidth, step, first, last);
+		double[] density;
+		synchronized (cache)
+		{
+			density = cache.get(key);
+		}
+		if (density == null)
+		{
+			density = compute(data, bandwidth, step, first, last);
+			synchronized (cache)
+			{
+				cache.put(key, density);
+			}
+		}
+		return density.clone();
+	}
+
+	/*
+	 * the same as estimate without the cache.
+	 */
+	public static double[] compute(double[] data, double bandwidth, double step, int first, int last)
+	{
+		int points = last - first + 1;
+		if (data.length == 0 || points <= 0 || !(bandwidth > 0.0) || Double.isInfinite(bandwidth))
+			return computeDirect(data, bandwidth, step, first, last);
+		if ((long) data.length * points <= DIRECT_LIMIT)
+			return computeDirect(data, bandwidth, step, first, last);
+
+		double low = first * step - KERNEL_CUTOFF * bandwidth;
+		double high = last * step + KERNEL_CUTOFF * bandwidth;
+		double delta = bandwidth / BINS_PER_BANDWIDTH;
+		double bins = Math.ceil((high - low) / delta);
+		int kernelLength = (int) Math.ceil(KERNEL_CUTOFF * BINS_PER_BANDWIDTH);
+		if (!(bins + kernelLength + 1 < Math.min(MAX_FFT_SIZE, Math.max(MIN_FFT_SIZE, 4L * data.length))))
+			return computeTruncated(data, bandwidth, step, first, last);
+
+		int gridSize = (int) bins + 1;
+		int fftSize = Integer.highestOneBit(gridSize + kernelLength);
+		if (fftSize < gridSize + kernelLength)
+			fftSize <<= 1;
+
+		// linear binning: every value splits its weight over the two grid points around it.
+		double[][] counts = new double[2][fftSize];
+		for (double value : data)
+		{
+			double position = (value - low) / delta;
+			if (!(position >= 0.0 && position < gridSize - 1))
+				continue;
+			int bin = (int) position;
+			double fraction = position - bin;
+			counts[0][bin] += 1.0 - fraction;
+			counts[0][bin + 1] += fraction;
+		}
+
+		// the kernel wraps around, negative offsets are at the end of the array.
+		double[][] kernel = new double[2][fftSize];
+		for (int d = 0; d <= kernelLength; d++)
+		{
+			double k = gaussian(d * delta / bandwidth);
+			kernel[0][d] = k;
+			if (d > 0)
+				kernel[0][fftSize - d] = k;
+		}
+
+		FastFourierTransformer.transformInPlace(counts, DftNormalization.STANDARD, TransformType.FORWARD);
+		FastFourierTransformer.transformInPlace(kernel, DftNormalization.STANDARD, TransformType.FORWARD);
+		for (int i = 0; i < fftSize; i++)
+		{
+			double re = counts[0][i] * kernel[0][i] - counts[1][i] * kernel[1][i];
+			double im = counts[0][i] * kernel[1][i] + counts[1][i] * kernel[0][i];
+			counts[0][i] = re;
+			counts[1][i] = im;
+		}
+		FastFourierTransformer.transformInPlace(counts, DftNormalization.STANDARD, TransformType.INVERSE);
+		double[] smoothed = counts[0];
+
+		double norm = 1.0 / (data.length * bandwidth);
+		double[] density = new double[points];
+		for (int i = 0; i < points; i++)
+		{
+			double position = ((first + i) * step - low) / delta;
+			int bin = Math.min((int) position, gridSize - 2);
+			double fraction = position - bin;
+			double value = smoothed[bin] * (1.0 - fraction) + smoothed[bin + 1] * fraction;
+			// rounding in the transforms leaves tiny negative values where there is no data.
+			density[i] = Math.max(0.0, value * norm);
+		}
+		return density;
+	}
+
+	/*
+	 * the exact sum of the kernel of every value at every grid point.
+	 */
+	public static double[] computeDirect(double[] data, double bandwidth, double step, int first, int last)
+	{
+		double[] density = new double[Math.max(0, last - first + 1)];
+		for (int i = first; i <= last; i++)
+		{
+			double x = i * step;
+			double sum = 0;
+			for (int j = 0; j < data.length; j++)
+				sum += gaussian((x - data[j]) / bandwidth);
+			density[i - first] = (1 / (data.length * bandwidth)) * sum;
+		}
+		return density;
+	}
+
+	/*
+	 * the sum at every grid point over the sorted values within the kernel cutoff of it.
+	 */
+	private static double[] computeTruncated(double[] data, double bandwidth, double step, int first,
+			int last)
+	{
+		double[] sorted = data.clone();
+		Arrays.sort(sorted);
+		double reach = KERNEL_CUTOFF * bandwidth;
+		double[] density = new double[last - first + 1];
+		for (int i = first; i <= last; i++)
+		{
+			double x = i * step;
+			int from = lowerBound(sorted, x - reach);
+			double sum = 0;
+			for (int j = from; j < sorted.length && sorted[j] <= x + reach; j++)
+				sum += gaussian((x - sorted[j]) / bandwidth);
+			density[i - first] = (1 / (data.length * bandwidth)) * sum;
+		}
+		return density;
+	}
+
+	/*
+	 * the first index of a sorted array whose value is not below value.
+	 */
+	private static int lowerBound(double[] sorted, double value)
+	{
+		int low = 0;
+		int high = sorted.length;
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if (sorted[middle] < value)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/*
+	 * the order that sorts values ascending, stable for equal values like List.sort.
+	 */
+	public static int[] sortedOrder(double[] values)
+	{
+		int[] order = new int[values.length];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		int[] buffer = new int[values.length];
+		for (int width = 1; width < order.length; width *= 2)
+		{
+			for (int from = 0; from < order.length; from += 2 * width)
+			{
+				int middle = Math.min(from + width, order.length);
+				int to = Math.min(from + 2 * width, order.length);
+				int left = from;
+				int right = middle;
+				for (int k = from; k < to; k++)
+				{
+					if (left < middle && (right >= to || Double.compare(values[order[left]],
+							values[order[right]]) <= 0))
+						buffer[k] = order[left++];
+					else
+						buffer[k] = order[right++];
+				}
+			}
+			int[] swap = order;
+			order = buffer;
+			buffer = swap;
+		}
+		return order;
+	}
+
+	private static double gaussian(double u)
+	{
+		return (Math.exp(((-u * u) / 2.0))) / (Math.sqrt(2 * Math.PI));
+	}
+
+	/*
+	 * identifies a sample by its length and two hashes of its values rather than keeping a copy of it.
+	 */
+	private static class CacheKey
+	{
+		private final int		length;
+		private final int		hash;
+		private final long		longHash;
+		private final double	bandwidth;
+		private final double	step;
+		private final int		first;
+		private final int		last;
+
+		CacheKey(double[] data, double bandwidth, double step, int first, int last)
+		{
+			this.length = data.length;
+			this.hash = Arrays.hashCode(data);
+			long h = 0xcbf29ce484222325L;
+			for (double value : data)
+			{
+				h ^= Double.doubleToLongBits(value);
+				h *= 0x100000001b3L;
+			}
+			this.longHash = h;
+			this.bandwidth = bandwidth;
+			this.step = step;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash * 31 + Long.hashCode(longHash) + Double.hashCode(bandwidth) + first * 17 + last;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof CacheKey))
+				return false;
+			CacheKey other = (CacheKey) obj;
+			return length == other.length && hash == other.hash && longHash == other.longHash
+					&& Double.compare(bandwidth, other.bandwidth) == 0
+					&& Double.compare(step, other.step) == 0 && first == other.first && last == other.last;
+		}
+	}
+}
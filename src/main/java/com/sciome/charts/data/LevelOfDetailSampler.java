@@ -0,0 +1,125 @@
+package com.sciome.charts.data;
+
+/*
+ * Picks which points of a series to draw for a viewport. When the points in the viewport fit in the detail
+ * budget all of them are drawn. When they don't, the viewport is divided into a grid and every occupied cell
+ * keeps a share of its points proportional to how many it has, so dense regions stay dense, sparse outliers
+ * are never dropped and the picture looks like the full data. The kept items are always real points, so
+ * tooltips and clicks work on them as they are.
+ *
+ * The grid is laid out in axis space: log10 of the values on a log axis, so cells match what is on screen.
+ */
+public class LevelOfDetailSampler
+{
+	public static final int	DEFAULT_DETAIL_POINTS	= 10000;
+	public static final int	GRID_SIZE				= 256;
+
+	private final double[]	x;
+	private final double[]	y;
+	private final boolean	logX;
+	private final boolean	logY;
+	private final int		detailPoints;
+	private int[]			all;
+
+	public LevelOfDetailSampler(double[] x, double[] y, boolean logX, boolean logY, int detailPoints)
+	{
+		this.x = x;
+		this.y = y;
+		this.logX = logX;
+		this.logY = logY;
+		this.detailPoints = Math.max(1, detailPoints);
+	}
+
+	public int size()
+	{
+		return x.length;
+	}
+
+	/*
+	 * the indexes of the points to draw, in their original order.
+	 */
+	public int[] sample(double minX, double maxX, double minY, double maxY)
+	{
+		// small series are drawn whole, the renderer clips what is out of view.
+		if (x.length <= detailPoints)
+			return getAll();
+
+		double lowX = toAxis(minX, logX);
+		double highX = toAxis(maxX, logX);
+		double lowY = toAxis(minY, logY);
+		double highY = toAxis(maxY, logY);
+		if (Double.isNaN(lowX) || Double.isNaN(highX) || Double.isNaN(lowY) || Double.isNaN(highY)
+				|| highX <= lowX || highY <= lowY)
+			return getAll();
+
+		double scaleX = GRID_SIZE / (highX - lowX);
+		double scaleY = GRID_SIZE / (highY - lowY);
+
+		// first pass: which cell every visible point falls in and how full the cells are.
+		int[] cells = new int[x.length];
+		int[] counts = new int[GRID_SIZE * GRID_SIZE];
+		int visible = 0;
+		for (int i = 0; i < x.length; i++)
+		{
+			double ax = toAxis(x[i], logX);
+			double ay = toAxis(y[i], logY);
+			if (!(ax >= lowX && ax <= highX && ay >= lowY && ay <= highY))
+			{
+				cells[i] = -1;
+				continue;
+			}
+			int cx = Math.min(GRID_SIZE - 1, (int) ((ax - lowX) * scaleX));
+			int cy = Math.min(GRID_SIZE - 1, (int) ((ay - lowY) * scaleY));
+			int cell = cx * GRID_SIZE + cy;
+			cells[i] = cell;
+			counts[cell]++;
+			visible++;
+		}
+
+		int[] indexes = new int[visible];
+		if (visible <= detailPoints)
+		{
+			int n = 0;
+			for (int i = 0; i < x.length; i++)
+				if (cells[i] >= 0)
+					indexes[n++] = i;
+			return indexes;
+		}
+
+		// second pass: spread each cell's quota evenly over its points.
+		double fraction = (double) detailPoints / visible;
+		int[] seen = new int[counts.length];
+		int n = 0;
+		for (int i = 0; i < x.length; i++)
+		{
+			int cell = cells[i];
+			if (cell < 0)
+				continue;
+			int quota = Math.max(1, (int) Math.round(counts[cell] * fraction));
+			int k = seen[cell]++;
+			if ((long) (k + 1) * quota / counts[cell] > (long) k * quota / counts[cell])
+				indexes[n++] = i;
+		}
+		int[] sampled = new int[n];
+		System.arraycopy(indexes, 0, sampled, 0, n);
+		return sampled;
+	}
+
+	private int[] getAll()
+	{
+		if (all == null)
+		{
+			all = new int[x.length];
+			for (int i = 0; i < all.length; i++)
+				all[i] = i;
+		}
+		return all;
+	}
+
+	private static double toAxis(double value, boolean log)
+	{
+		if (!log)
+			return value;
+		return value > 0.0 ? Math.log10(value) : Double.NaN;
+	}
+}
@@ -0,0 +1,144 @@
+package com.sciome.charts.data;
+
+import java.util.function.IntConsumer;
+
+/*
+ * A point region quadtree over the x/y values of a chart, for finding the points in a rectangle without
+ * walking all of them. Points that are not finite are left out. The tree keeps the indexes of the points in
+ * the arrays it was built from.
+ */
+public class PointQuadTree
+{
+	private static final int	BUCKET_SIZE	= 32;
+	private static final int	MAX_DEPTH	= 20;
+
+	private final double[]		x;
+	private final double[]		y;
+	private final Node			root;
+
+	public PointQuadTree(double[] x, double[] y)
+	{
+		this.x = x;
+		this.y = y;
+
+		double minX = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		int[] indexes = new int[x.length];
+		int n = 0;
+		for (int i = 0; i < x.length; i++)
+		{
+			if (!Double.isFinite(x[i]) || !Double.isFinite(y[i]))
+				continue;
+			indexes[n++] = i;
+			minX = Math.min(minX, x[i]);
+			maxX = Math.max(maxX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		root = n == 0 ? null : build(indexes, 0, n, minX, maxX, minY, maxY, 0);
+	}
+
+	/*
+	 * calls back with the index of every point inside the rectangle, bounds included.
+	 */
+	public void query(double minX, double maxX, double minY, double maxY, IntConsumer consumer)
+	{
+		if (root != null)
+			query(root, minX, maxX, minY, maxY, consumer);
+	}
+
+	private void query(Node node, double minX, double maxX, double minY, double maxY, IntConsumer consumer)
+	{
+		if (node.minX > maxX || node.maxX < minX || node.minY > maxY || node.maxY < minY)
+			return;
+		if (node.children == null)
+		{
+			for (int i : node.indexes)
+				if (x[i] >= minX && x[i] <= maxX && y[i] >= minY && y[i] <= maxY)
+					consumer.accept(i);
+			return;
+		}
+		for (Node child : node.children)
+			if (child != null)
+				query(child, minX, maxX, minY, maxY, consumer);
+	}
+
+	/*
+	 * splits the points in indexes[from, to) over the four quadrants of the given bounds. The node keeps the
+	 * bounds of its own points, so the queries skip empty space.
+	 */
+	private Node build(int[] indexes, int from, int to, double minX, double maxX, double minY, double maxY,
+			int depth)
+	{
+		Node node = new Node();
+		node.minX = Double.POSITIVE_INFINITY;
+		node.maxX = Double.NEGATIVE_INFINITY;
+		node.minY = Double.POSITIVE_INFINITY;
+		node.maxY = Double.NEGATIVE_INFINITY;
+		for (int k = from; k < to; k++)
+		{
+			int i = indexes[k];
+			node.minX = Math.min(node.minX, x[i]);
+			node.maxX = Math.max(node.maxX, x[i]);
+			node.minY = Math.min(node.minY, y[i]);
+			node.maxY = Math.max(node.maxY, y[i]);
+		}
+
+		// a bucket of stacked points can not be split any further.
+		if (to - from <= BUCKET_SIZE || depth >= MAX_DEPTH
+				|| (node.minX == node.maxX && node.minY == node.maxY))
+		{
+			node.indexes = new int[to - from];
+			System.arraycopy(indexes, from, node.indexes, 0, to - from);
+			return node;
+		}
+
+		double midX = (minX + maxX) / 2.0;
+		double midY = (minY + maxY) / 2.0;
+
+		// partition in place: left of midX first, then each half below midY first.
+		int splitX = partition(indexes, from, to, true, midX);
+		int splitLeft = partition(indexes, from, splitX, false, midY);
+		int splitRight = partition(indexes, splitX, to, false, midY);
+
+		node.children = new Node[4];
+		if (splitLeft > from)
+			node.children[0] = build(indexes, from, splitLeft, minX, midX, minY, midY, depth + 1);
+		if (splitX > splitLeft)
+			node.children[1] = build(indexes, splitLeft, splitX, minX, midX, midY, maxY, depth + 1);
+		if (splitRight > splitX)
+			node.children[2] = build(indexes, splitX, splitRight, midX, maxX, minY, midY, depth + 1);
+		if (to > splitRight)
+			node.children[3] = build(indexes, splitRight, to, midX, maxX, midY, maxY, depth + 1);
+		return node;
+	}
+
+	private int partition(int[] indexes, int from, int to, boolean onX, double mid)
+	{
+		double[] values = onX ? x : y;
+		int split = from;
+		for (int k = from; k < to; k++)
+		{
+			if (values[indexes[k]] < mid)
+			{
+				int tmp = indexes[split];
+				indexes[split] = indexes[k];
+				indexes[k] = tmp;
+				split++;
+			}
+		}
+		return split;
+	}
+
+	private static class Node
+	{
+		double	minX;
+		double	maxX;
+		double	minY;
+		double	maxY;
+		Node[]	children;
+		int[]	indexes;
+	}
+}
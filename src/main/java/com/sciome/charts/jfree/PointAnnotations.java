@@ -0,0 +1,89 @@
+package com.sciome.charts.jfree;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import org.jfree.chart.annotations.XYAnnotation;
+import org.jfree.chart.plot.XYPlot;
+
+import com.sciome.charts.data.ChartPointIndex;
+
+/*
+ * The annotations a chart put on some of its points, by point of a ChartPointIndex. Updating them to a new
+ * set of points only removes and adds the annotations of the points that changed, and never notifies the
+ * plot, so the chart fires a single change for the whole update.
+ */
+public class PointAnnotations
+{
+	private final Map<Integer, List<XYAnnotation>>	annotations	= new HashMap<>();
+	private ChartPointIndex							index;
+
+	/*
+	 * put the annotations on the plot of a newly generated chart. Annotations made for the points of another
+	 * index are dropped, the data was reloaded since.
+	 */
+	public void addTo(XYPlot plot, ChartPointIndex pointIndex)
+	{
+		if (index != pointIndex)
+		{
+			annotations.clear();
+			index = pointIndex;
+		}
+		for (List<XYAnnotation> list : annotations.values())
+			for (XYAnnotation annotation : list)
+				plot.addAnnotation(annotation, false);
+	}
+
+	/*
+	 * returns whether anything was added or removed.
+	 */
+	public boolean update(XYPlot plot, ChartPointIndex pointIndex, Set<Integer> points,
+			IntFunction<List<XYAnnotation>> factory)
+	{
+		boolean changed = false;
+		if (index != pointIndex)
+		{
+			changed = clear(plot);
+			index = pointIndex;
+		}
+
+		Iterator<Map.Entry<Integer, List<XYAnnotation>>> it = annotations.entrySet().iterator();
+		while (it.hasNext())
+		{
+			Map.Entry<Integer, List<XYAnnotation>> entry = it.next();
+			if (points.contains(entry.getKey()))
+				continue;
+			for (XYAnnotation annotation : entry.getValue())
+				plot.removeAnnotation(annotation, false);
+			it.remove();
+			changed = true;
+		}
+
+		for (Integer point : points)
+		{
+			if (annotations.containsKey(point))
+				continue;
+			List<XYAnnotation> list = factory.apply(point);
+			for (XYAnnotation annotation : list)
+				plot.addAnnotation(annotation, false);
+			annotations.put(point, list);
+			changed = true;
+		}
+		return changed;
+	}
+
+	private boolean clear(XYPlot plot)
+	{
+		if (annotations.isEmpty())
+			return false;
+		for (List<XYAnnotation> list : annotations.values())
+			for (XYAnnotation annotation : list)
+				plot.removeAnnotation(annotation, false);
+		annotations.clear();
+		return true;
+	}
+}
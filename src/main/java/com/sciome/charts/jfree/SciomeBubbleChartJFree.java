@@ -3,14 +3,13 @@ package com.sciome.charts.jfree;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import org.controlsfx.control.RangeSlider;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
-import org.jfree.chart.annotations.AbstractXYAnnotation;
+import org.jfree.chart.annotations.XYAnnotation;
 import org.jfree.chart.annotations.XYDrawableAnnotation;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.block.ColorBlock;
@@ -26,7 +25,6 @@ import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYBubbleRenderer;
 import org.jfree.chart.ui.TextAnchor;
 import org.jfree.data.Range;
-import org.jfree.data.xy.DefaultXYZDataset;
 import org.jfree.data.xy.XYDataset;
 
 import com.sciome.bmdexpress2.mvp.model.ChartKey;
@@ -35,6 +33,8 @@ import com.sciome.charts.SciomeBubbleChart;
 import com.sciome.charts.SciomeChartListener;
 import com.sciome.charts.data.ChartConfiguration;
 import com.sciome.charts.data.ChartDataPack;
+import com.sciome.charts.data.LevelOfDetailSampler;
+import com.sciome.charts.jfree.dataset.LevelOfDetailXYDataset;
 import com.sciome.charts.model.SciomeData;
 import com.sciome.charts.model.SciomeSeries;
 
@@ -46,8 +46,8 @@ import javafx.scene.input.MouseButton;
 public class SciomeBubbleChartJFree extends SciomeBubbleChart
 {
 
-	private List<AbstractXYAnnotation>	chattingAnnotations	= new ArrayList<>();
-	private List<AbstractXYAnnotation>	markedAnnotations	= new ArrayList<>();
+	private PointAnnotations			chattingAnnotations	= new PointAnnotations();
+	private PointAnnotations			markedAnnotations	= new PointAnnotations();
 	private JFreeChart					chart;
 	private double						lowX;
 	private double						lowY;
@@ -74,7 +74,10 @@ public class SciomeBubbleChartJFree extends SciomeBubbleChart
 
 		Double scaleValue = max2 / max1;
 
-		DefaultXYZDataset dataset = new DefaultXYZDataset();
+		// only a level of detail sample of big series is drawn, it is resampled when the axes change.
+		LevelOfDetailXYDataset dataset = new LevelOfDetailXYDataset(getLogXAxis().isSelected(),
+				getLogYAxis().isSelected(),
+				LevelOfDetailSampler.DEFAULT_DETAIL_POINTS / Math.max(1, getSeriesData().size()));
 
 		for (SciomeSeries<Number, Number> series : getSeriesData())
 		{
@@ -92,7 +95,7 @@ public class SciomeBubbleChartJFree extends SciomeBubbleChart
 				bubbles[i++] = bubblesize * scaleValue;
 
 			}
-			dataset.addSeries(series.getName(), new double[][] { domains, ranges, bubbles });
+			dataset.addSeries(series.getName(), domains, ranges, bubbles);
 		}
 
 		// Create chart
@@ -112,11 +115,9 @@ public class SciomeBubbleChartJFree extends SciomeBubbleChart
 		// add the annotations (if they exist). This is mainly for when the user
 		// changes the axis or chartconfiguration
 		if (chattingAnnotations != null)
-			for (AbstractXYAnnotation ann : chattingAnnotations)
-				plot.addAnnotation(ann);
+			chattingAnnotations.addTo(plot, getPointIndex());
 		if (markedAnnotations != null)
-			for (AbstractXYAnnotation ann : markedAnnotations)
-				plot.addAnnotation(ann);
+			markedAnnotations.addTo(plot, getPointIndex());
 
 		// Only want to zoom in if we any values have been set in chartConfig
 		if (chartConfig != null)
@@ -159,6 +160,7 @@ public class SciomeBubbleChartJFree extends SciomeBubbleChart
 			range.setRange(min2, max2);
 		}
 		setSliders(min1, max1, min2, max2);
+		dataset.attachAxes(plot.getDomainAxis(), plot.getRangeAxis());
 
 		XYBubbleRenderer renderer = ((XYBubbleRenderer) plot.getRenderer());
 
@@ -167,8 +169,9 @@ public class SciomeBubbleChartJFree extends SciomeBubbleChart
 			@Override
 			public String generateToolTip(XYDataset dataset, int series, int item)
 			{
-				return ((BubbleChartExtraData) getSeriesData().get(series).getData().get(item)
-						.getExtraValue()).userData.toString();
+				return ((BubbleChartExtraData) getSeriesData().get(series).getData()
+						.get(((LevelOfDetailXYDataset) dataset).getSourceItem(series, item)).getExtraValue()).userData
+								.toString();
 			}
 		};
 		renderer.setDefaultToolTipGenerator(tooltipGenerator);
@@ -211,7 +214,7 @@ public class SciomeBubbleChartJFree extends SciomeBubbleChart
 					if (!(e.getEntity() instanceof XYItemEntity))
 						return;
 					int seriesIndex = ((XYItemEntity) e.getEntity()).getSeriesIndex();
-					int item = ((XYItemEntity) e.getEntity()).getItem();
+					int item = dataset.getSourceItem(seriesIndex, ((XYItemEntity) e.getEntity()).getItem());
 
 					// get the object associated with with the click and post it to the other charts
 					// so they can highlight it.
@@ -241,106 +244,64 @@ public class SciomeBubbleChartJFree extends SciomeBubbleChart
 	@Override
 	public void reactToChattingCharts()
 	{
-		for (AbstractXYAnnotation annotation : chattingAnnotations)
-			((XYPlot) chart.getXYPlot()).removeAnnotation(annotation, false);
-		Set<String> conversationalSet = new HashSet<>();
-		for (Object obj : getConversationalObjects())
-			conversationalSet.add(obj.toString().toLowerCase());
-		chattingAnnotations.clear();
-		for (SciomeSeries<Number, Number> series : getSeriesData())
-		{
-			for (SciomeData<Number, Number> chartData : series.getData())
-			{
-				if (conversationalSet.contains(
-						((BubbleChartExtraData) chartData.getExtraValue()).userData.toString().toLowerCase()))
-				{
-					XYDrawableAnnotation ann = new XYDrawableAnnotation(chartData.getXValue().doubleValue(),
-							chartData.getYValue().doubleValue(), 10, 10, new ColorBlock(Color.pink, 10, 10));
-					XYDrawableAnnotation ann2 = new XYDrawableAnnotation(chartData.getXValue().doubleValue(),
-							chartData.getYValue().doubleValue(), 12, 12, new ColorBlock(Color.BLACK, 12, 12));
-
-					// ann2 will give us black outline
-					chattingAnnotations.add(ann2);
-					chattingAnnotations.add(ann);
-					((XYPlot) chart.getXYPlot()).addAnnotation(ann2, false);
-					((XYPlot) chart.getXYPlot()).addAnnotation(ann, false);
-					if (((BubbleChartExtraData) chartData.getExtraValue()).userData instanceof IMarkable)
-					{
-						IMarkable markable = (IMarkable) ((BubbleChartExtraData) chartData
-								.getExtraValue()).userData;
-						DraggableXYPointerAnnotation labelann = new DraggableXYPointerAnnotation(
-								markable.getMarkableLabel(), chartData.getXValue().doubleValue(),
-								chartData.getYValue().doubleValue(), Math.PI * 4 / 3);
-						labelann.setBaseRadius(40.0);
-						labelann.setLabelOffset(5.0);
-						labelann.setBackgroundPaint(Color.white);
-						labelann.setOutlineVisible(false);
-						labelann.setFont(new java.awt.Font("Courier New", java.awt.Font.BOLD, 12));
-						labelann.setTipRadius(5);
-						labelann.setTextAnchor(TextAnchor.HALF_ASCENT_RIGHT);
-						chattingAnnotations.add(labelann);
-						((XYPlot) chart.getXYPlot()).addAnnotation(labelann, false);
-					}
-				}
-			}
-		}
-		chart.fireChartChanged();
+		Set<Integer> points = getPointIndex().findPoints(getConversationalObjects());
+		if (chattingAnnotations.update(chart.getXYPlot(), getPointIndex(), points, this::createChattingAnnotations))
+			chart.fireChartChanged();
 	}
 
 	@Override
 	public void markData(Set<String> markings)
 	{
-		for (AbstractXYAnnotation annotation : markedAnnotations)
-			((XYPlot) chart.getXYPlot()).removeAnnotation(annotation, false);
+		Set<Integer> points = getPointIndex().findMarkedPoints(markings);
+		if (markedAnnotations.update(chart.getXYPlot(), getPointIndex(), points, this::createMarkedAnnotations))
+			chart.fireChartChanged();
+	}
 
-		for (SciomeSeries<Number, Number> series : getSeriesData())
-		{
-			for (SciomeData<Number, Number> chartData : series.getData())
-			{
-				if (((BubbleChartExtraData) chartData.getExtraValue()).userData instanceof IMarkable)
-				{
-					IMarkable markable = (IMarkable) ((BubbleChartExtraData) chartData
-							.getExtraValue()).userData;
-
-					if (!dataIsMarked(markings, markable.getMarkableKeys()))
-						continue;
-					XYDrawableAnnotation ann = new XYDrawableAnnotation(chartData.getXValue().doubleValue(),
-							chartData.getYValue().doubleValue(), 15, 15,
-							new ColorBlock(markable.getMarkableColor(), 15, 15));
-					XYDrawableAnnotation ann2 = new XYDrawableAnnotation(chartData.getXValue().doubleValue(),
-							chartData.getYValue().doubleValue(), 17, 17, new ColorBlock(Color.BLACK, 17, 17));
-
-					DraggableXYPointerAnnotation labelann = new DraggableXYPointerAnnotation(
-							markable.getMarkableLabel(), chartData.getXValue().doubleValue(),
-							chartData.getYValue().doubleValue(), Math.PI * 4 / 3);
-					labelann.setBaseRadius(40.0);
-					labelann.setLabelOffset(5.0);
-					labelann.setBackgroundPaint(Color.white);
-					labelann.setOutlineVisible(false);
-					labelann.setFont(new java.awt.Font("Courier New", java.awt.Font.BOLD, 12));
-					labelann.setTipRadius(5);
-					labelann.setTextAnchor(TextAnchor.HALF_ASCENT_RIGHT);
-
-					// ann2 will give us black outline
-					markedAnnotations.add(ann2);
-					markedAnnotations.add(ann);
-					markedAnnotations.add(labelann);
-					((XYPlot) chart.getXYPlot()).addAnnotation(ann2, false);
-					((XYPlot) chart.getXYPlot()).addAnnotation(ann, false);
-					((XYPlot) chart.getXYPlot()).addAnnotation(labelann, false);
-				}
-			}
-		}
-		chart.fireChartChanged();
+	private List<XYAnnotation> createChattingAnnotations(int point)
+	{
+		List<XYAnnotation> annotations = new ArrayList<>();
+		double x = getPointIndex().getX(point);
+		double y = getPointIndex().getY(point);
+		XYDrawableAnnotation ann = new XYDrawableAnnotation(x, y, 10, 10, new ColorBlock(Color.pink, 10, 10));
+		XYDrawableAnnotation ann2 = new XYDrawableAnnotation(x, y, 12, 12, new ColorBlock(Color.BLACK, 12, 12));
+
+		// ann2 will give us black outline
+		annotations.add(ann2);
+		annotations.add(ann);
+		if (getPointIndex().getUserData(point) instanceof IMarkable)
+			annotations.add(createLabelAnnotation((IMarkable) getPointIndex().getUserData(point), x, y));
+		return annotations;
+	}
 
+	private List<XYAnnotation> createMarkedAnnotations(int point)
+	{
+		List<XYAnnotation> annotations = new ArrayList<>();
+		IMarkable markable = (IMarkable) getPointIndex().getUserData(point);
+		double x = getPointIndex().getX(point);
+		double y = getPointIndex().getY(point);
+		XYDrawableAnnotation ann = new XYDrawableAnnotation(x, y, 15, 15,
+				new ColorBlock(markable.getMarkableColor(), 15, 15));
+		XYDrawableAnnotation ann2 = new XYDrawableAnnotation(x, y, 17, 17, new ColorBlock(Color.BLACK, 17, 17));
+
+		// ann2 will give us black outline
+		annotations.add(ann2);
+		annotations.add(ann);
+		annotations.add(createLabelAnnotation(markable, x, y));
+		return annotations;
 	}
 
-	private boolean dataIsMarked(Set<String> markings, Set<String> data)
+	private DraggableXYPointerAnnotation createLabelAnnotation(IMarkable markable, double x, double y)
 	{
-		for (String d : data)
-			if (markings.contains(d))
-				return true;
-		return false;
+		DraggableXYPointerAnnotation labelann = new DraggableXYPointerAnnotation(markable.getMarkableLabel(), x,
+				y, Math.PI * 4 / 3);
+		labelann.setBaseRadius(40.0);
+		labelann.setLabelOffset(5.0);
+		labelann.setBackgroundPaint(Color.white);
+		labelann.setOutlineVisible(false);
+		labelann.setFont(new java.awt.Font("Courier New", java.awt.Font.BOLD, 12));
+		labelann.setTipRadius(5);
+		labelann.setTextAnchor(TextAnchor.HALF_ASCENT_RIGHT);
+		return labelann;
 	}
 
 	private void setSliders(double minX, double maxX, double minY, double maxY)
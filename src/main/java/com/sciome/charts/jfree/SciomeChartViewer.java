@@ -14,6 +14,7 @@ import javax.swing.SwingUtilities;
 
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.CategoryLabelPositions;
+import org.jfree.chart.axis.ValueAxis;
 import org.jfree.chart.entity.ChartEntity;
 import org.jfree.chart.entity.XYAnnotationEntity;
 import org.jfree.chart.event.ChartChangeListener;
@@ -27,6 +28,7 @@ import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.ui.RectangleEdge;
 import org.jfree.chart.util.ShapeUtils;
 
+import com.sciome.charts.data.ChartPointIndex;
 import com.sciome.charts.jfree.editor.ChartEditor;
 import com.sciome.charts.jfree.editor.ChartEditorManager;
 
@@ -74,6 +76,43 @@ public class SciomeChartViewer extends ChartViewer
 	{
 		return getCanvas().getRenderingInfo().getEntityCollection().getEntity(x, y);
 	}
+
+	/*
+	 * the point of the index nearest to (x, y) within radius pixels, or -1 if there is none. The candidates
+	 * come from the quadtree of the index, distances are measured on screen so log axes work as well.
+	 */
+	public int findPoint(ChartPointIndex index, double x, double y, double radius)
+	{
+		if (index == null || !(getChart().getPlot() instanceof XYPlot))
+			return -1;
+		XYPlot plot = getChart().getXYPlot();
+		Rectangle2D dataArea = getCanvas().getRenderingInfo().getPlotInfo().getDataArea();
+		ValueAxis domainAxis = plot.getDomainAxis();
+		ValueAxis rangeAxis = plot.getRangeAxis();
+		RectangleEdge domainEdge = plot.getDomainAxisEdge();
+		RectangleEdge rangeEdge = plot.getRangeAxisEdge();
+
+		double x1 = domainAxis.java2DToValue(x - radius, dataArea, domainEdge);
+		double x2 = domainAxis.java2DToValue(x + radius, dataArea, domainEdge);
+		double y1 = rangeAxis.java2DToValue(y - radius, dataArea, rangeEdge);
+		double y2 = rangeAxis.java2DToValue(y + radius, dataArea, rangeEdge);
+
+		int nearest = -1;
+		double nearestDistance = radius * radius;
+		for (int point : index.findPointsIn(Math.min(x1, x2), Math.max(x1, x2), Math.min(y1, y2),
+				Math.max(y1, y2)))
+		{
+			double dx = domainAxis.valueToJava2D(index.getX(point), dataArea, domainEdge) - x;
+			double dy = rangeAxis.valueToJava2D(index.getY(point), dataArea, rangeEdge) - y;
+			double distance = dx * dx + dy * dy;
+			if (distance <= nearestDistance)
+			{
+				nearestDistance = distance;
+				nearest = point;
+			}
+		}
+		return nearest;
+	}
 	
 	private void addDragDropMouseHandler()
 	{
@@ -158,15 +158,7 @@ public class SciomeRangePlotJFree extends SciomeChartBase<String, Number> implem
 
 		if (plot.getOrientation() == PlotOrientation.VERTICAL)
 			plot.getDomainAxis().setCategoryLabelPositions(CategoryLabelPositions.DOWN_90);
-		for (int i = 0; i < dataset.getColumnCount(); i++)
-		{
-			if (i % 2 == 0)
-				plot.addDomainMarker(new CategoryMarker(dataset.getColumnKey(i),
-						new Color(200, 200, 200, 100), new BasicStroke(10000)), Layer.BACKGROUND);
-			else
-				plot.addDomainMarker(new CategoryMarker(dataset.getColumnKey(i),
-						new Color(240, 240, 240, 100), new BasicStroke(10000)), Layer.BACKGROUND);
-		}
+		updateDomainMarkers();
 
 		setSliders(dataset.getColumnCount());
 
@@ -463,12 +455,35 @@ public class SciomeRangePlotJFree extends SciomeChartBase<String, Number> implem
 			public void changed(ObservableValue<? extends Number> arg0, Number oldValue, Number newValue)
 			{
 				slidingDataset.setFirstCategoryIndex(newValue.intValue());
+				updateDomainMarkers();
 			}
 		});
 
 		sethSlider(slider);
 	}
 
+	/*
+	 * the alternating row shading, only for the categories in the sliding window. A marker per category of
+	 * a whole genome data set would be walked through on every repaint.
+	 */
+	private void updateDomainMarkers()
+	{
+		CategoryPlot plot = chart.getCategoryPlot();
+		plot.clearDomainMarkers();
+		CategoryDataset dataset = slidingDataset.getUnderlyingDataset();
+		int first = slidingDataset.getFirstCategoryIndex();
+		int last = Math.min(dataset.getColumnCount(), first + MAX_NODES_SHOWN);
+		for (int i = first; i < last; i++)
+		{
+			if (i % 2 == 0)
+				plot.addDomainMarker(0, new CategoryMarker(dataset.getColumnKey(i),
+						new Color(200, 200, 200, 100), new BasicStroke(10000)), Layer.BACKGROUND, false);
+			else
+				plot.addDomainMarker(0, new CategoryMarker(dataset.getColumnKey(i),
+						new Color(240, 240, 240, 100), new BasicStroke(10000)), Layer.BACKGROUND, false);
+		}
+	}
+
 	/** Data extra values for storing close, high and low. */
 	private class RangePlotExtraValue extends ChartExtraValue
 	{
@@ -3,18 +3,16 @@ package com.sciome.charts.jfree;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import org.controlsfx.control.RangeSlider;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
-import org.jfree.chart.annotations.AbstractXYAnnotation;
+import org.jfree.chart.annotations.XYAnnotation;
 import org.jfree.chart.annotations.XYDrawableAnnotation;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.block.ColorBlock;
-import org.jfree.chart.entity.XYItemEntity;
 import org.jfree.chart.event.ChartChangeEvent;
 import org.jfree.chart.event.ChartChangeListener;
 import org.jfree.chart.fx.interaction.ChartMouseEventFX;
@@ -25,7 +23,6 @@ import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.chart.ui.TextAnchor;
 import org.jfree.data.Range;
-import org.jfree.data.xy.DefaultXYDataset;
 import org.jfree.data.xy.XYDataset;
 
 import com.sciome.bmdexpress2.mvp.model.ChartKey;
@@ -34,6 +31,8 @@ import com.sciome.charts.SciomeChartListener;
 import com.sciome.charts.SciomeScatterChart;
 import com.sciome.charts.data.ChartConfiguration;
 import com.sciome.charts.data.ChartDataPack;
+import com.sciome.charts.data.LevelOfDetailSampler;
+import com.sciome.charts.jfree.dataset.LevelOfDetailXYDataset;
 import com.sciome.charts.model.SciomeData;
 import com.sciome.charts.model.SciomeSeries;
 
@@ -46,8 +45,10 @@ import javafx.scene.input.MouseButton;
 public class SciomeScatterChartJFree extends SciomeScatterChart
 {
 
-	private List<AbstractXYAnnotation>	chattingAnnotations	= new ArrayList<>();
-	private List<AbstractXYAnnotation>	markedAnnotations	= new ArrayList<>();
+	private static final double			CLICK_RADIUS		= 4.0;
+
+	private PointAnnotations			chattingAnnotations	= new PointAnnotations();
+	private PointAnnotations			markedAnnotations	= new PointAnnotations();
 	private JFreeChart					chart;
 	private double						lowX;
 	private double						lowY;
@@ -77,7 +78,10 @@ public class SciomeScatterChartJFree extends SciomeScatterChart
 		Double max2 = getMaxMax(key2);
 		Double min2 = getMinMin(key2);
 
-		DefaultXYDataset dataset = new DefaultXYDataset();
+		// only a level of detail sample of big series is drawn, it is resampled when the axes change.
+		LevelOfDetailXYDataset dataset = new LevelOfDetailXYDataset(getLogXAxis().isSelected(),
+				getLogYAxis().isSelected(),
+				LevelOfDetailSampler.DEFAULT_DETAIL_POINTS / Math.max(1, getSeriesData().size()));
 
 		for (SciomeSeries<Number, Number> series : getSeriesData())
 		{
@@ -92,7 +96,7 @@ public class SciomeScatterChartJFree extends SciomeScatterChart
 				domains[i] = domainvalue;
 				ranges[i++] = rangevalue;
 			}
-			dataset.addSeries(series.getName(), new double[][] { domains, ranges });
+			dataset.addSeries(series.getName(), domains, ranges, null);
 		}
 
 		chart = ChartFactory.createScatterPlot(key1.toString() + " Vs. " + key2.toString(), key1.toString(),
@@ -109,11 +113,9 @@ public class SciomeScatterChartJFree extends SciomeScatterChart
 		// add the annotations (if they exist). This is mainly for when the user
 		// changes the axis or chartconfiguration
 		if (chattingAnnotations != null)
-			for (AbstractXYAnnotation ann : chattingAnnotations)
-				plot.addAnnotation(ann);
+			chattingAnnotations.addTo(plot, getPointIndex());
 		if (markedAnnotations != null)
-			for (AbstractXYAnnotation ann : markedAnnotations)
-				plot.addAnnotation(ann);
+			markedAnnotations.addTo(plot, getPointIndex());
 
 		// Only want to zoom in if we any values have been set in chartConfig
 		if (chartConfig != null)
@@ -156,6 +158,7 @@ public class SciomeScatterChartJFree extends SciomeScatterChart
 			range.setRange(min2, max2);
 		}
 		setSliders(min1, max1, min2, max2);
+		dataset.attachAxes(plot.getDomainAxis(), plot.getRangeAxis());
 
 		XYLineAndShapeRenderer renderer = ((XYLineAndShapeRenderer) plot.getRenderer());
 
@@ -164,8 +167,9 @@ public class SciomeScatterChartJFree extends SciomeScatterChart
 			@Override
 			public String generateToolTip(XYDataset dataset, int series, int item)
 			{
-				return ((ChartExtraValue) getSeriesData().get(series).getData().get(item)
-						.getExtraValue()).userData.toString();
+				return ((ChartExtraValue) getSeriesData().get(series).getData()
+						.get(((LevelOfDetailXYDataset) dataset).getSourceItem(series, item)).getExtraValue()).userData
+								.toString();
 			}
 		};
 		renderer.setDefaultToolTipGenerator(tooltipGenerator);
@@ -196,26 +200,20 @@ public class SciomeScatterChartJFree extends SciomeScatterChart
 			@Override
 			public void chartMouseClicked(ChartMouseEventFX e)
 			{
-				if (e.getEntity() != null && e.getEntity().getToolTipText() != null // Check to see if an
-																					// entity was clicked
-						&& e.getTrigger().getButton().equals(MouseButton.PRIMARY)
-						&& e.getTrigger().isShiftDown()) // Check to see if it was
-				// the left mouse button
-				// clicked
+				// find the clicked point in the point index rather than among the rendered entities, so
+				// points left out of a level of detail sample can be picked as well.
+				int point = -1;
+				if (e.getTrigger().getButton().equals(MouseButton.PRIMARY) && e.getTrigger().isShiftDown())
+					point = chartView.findPoint(getPointIndex(), e.getTrigger().getX(), e.getTrigger().getY(),
+							CLICK_RADIUS);
+				if (point >= 0)
 				{
-					if (!(e.getEntity() instanceof XYItemEntity))
-						return;
-					int seriesIndex = ((XYItemEntity) e.getEntity()).getSeriesIndex();
-					int item = ((XYItemEntity) e.getEntity()).getItem();
-
 					// get the object associated with with the click and post it to the other charts
 					// so they can highlight it.
-					@SuppressWarnings("unchecked")
-					Object userData = ((ChartExtraValue) getSeriesData().get(seriesIndex).getData().get(item)
-							.getExtraValue()).userData;
+					Object userData = getPointIndex().getUserData(point);
 
 					if (e.getTrigger().getClickCount() == 2)
-						showObjectText(e.getEntity().getToolTipText());
+						showObjectText(userData.toString());
 					else
 						postObjectsForChattingCharts(Arrays.asList(userData));
 				}
@@ -236,109 +234,64 @@ public class SciomeScatterChartJFree extends SciomeScatterChart
 	@Override
 	public void reactToChattingCharts()
 	{
-		for (AbstractXYAnnotation annotation : chattingAnnotations)
-			chart.getXYPlot().removeAnnotation(annotation, false);
-		Set<String> conversationalSet = new HashSet<>();
-		for (Object obj : getConversationalObjects())
-			conversationalSet.add(obj.toString().toLowerCase());
-
-		chattingAnnotations.clear();
-
-		for (SciomeSeries<Number, Number> series : getSeriesData())
-		{
-			for (SciomeData<Number, Number> chartData : series.getData())
-			{
-				if (conversationalSet.contains(
-						((ChartExtraValue) chartData.getExtraValue()).userData.toString().toLowerCase()))
-				{
-					XYDrawableAnnotation ann = new XYDrawableAnnotation(chartData.getXValue().doubleValue(),
-							chartData.getYValue().doubleValue(), 10, 10, new ColorBlock(Color.pink, 10, 10));
-
-					XYDrawableAnnotation ann2 = new XYDrawableAnnotation(chartData.getXValue().doubleValue(),
-							chartData.getYValue().doubleValue(), 12, 12, new ColorBlock(Color.BLACK, 12, 12));
-
-					// ann2 will give us black outline
-					chattingAnnotations.add(ann2);
-					chattingAnnotations.add(ann);
-					chart.getXYPlot().addAnnotation(ann2, false);
-					chart.getXYPlot().addAnnotation(ann, false);
-					if (((ChartExtraValue) chartData.getExtraValue()).userData instanceof IMarkable)
-					{
-						IMarkable markable = (IMarkable) ((ChartExtraValue) chartData
-								.getExtraValue()).userData;
-						DraggableXYPointerAnnotation labelann = new DraggableXYPointerAnnotation(
-								markable.getMarkableLabel(), chartData.getXValue().doubleValue(),
-								chartData.getYValue().doubleValue(), Math.PI * 4 / 3);
-						labelann.setBaseRadius(40.0);
-						labelann.setLabelOffset(5.0);
-						labelann.setBackgroundPaint(Color.white);
-						labelann.setOutlineVisible(false);
-						labelann.setFont(new java.awt.Font("Courier New", java.awt.Font.BOLD, 12));
-						labelann.setTipRadius(5);
-						labelann.setTextAnchor(TextAnchor.HALF_ASCENT_RIGHT);
-						chattingAnnotations.add(labelann);
-						chart.getXYPlot().addAnnotation(labelann, false);
-					}
-
-				}
-			}
-		}
-		chart.fireChartChanged();
+		Set<Integer> points = getPointIndex().findPoints(getConversationalObjects());
+		if (chattingAnnotations.update(chart.getXYPlot(), getPointIndex(), points, this::createChattingAnnotations))
+			chart.fireChartChanged();
 	}
 
 	@Override
 	public void markData(Set<String> markings)
 	{
-		for (AbstractXYAnnotation annotation : markedAnnotations)
-			chart.getXYPlot().removeAnnotation(annotation, false);
+		Set<Integer> points = getPointIndex().findMarkedPoints(markings);
+		if (markedAnnotations.update(chart.getXYPlot(), getPointIndex(), points, this::createMarkedAnnotations))
+			chart.fireChartChanged();
+	}
 
-		for (SciomeSeries<Number, Number> series : getSeriesData())
-		{
-			for (SciomeData<Number, Number> chartData : series.getData())
-			{
-				if (((ChartExtraValue) chartData.getExtraValue()).userData instanceof IMarkable)
-				{
-					IMarkable markable = (IMarkable) ((ChartExtraValue) chartData.getExtraValue()).userData;
-
-					if (!dataIsMarked(markings, markable.getMarkableKeys()))
-						continue;
-					XYDrawableAnnotation ann = new XYDrawableAnnotation(chartData.getXValue().doubleValue(),
-							chartData.getYValue().doubleValue(), 15, 15,
-							new ColorBlock(markable.getMarkableColor(), 15, 15));
-					XYDrawableAnnotation ann2 = new XYDrawableAnnotation(chartData.getXValue().doubleValue(),
-							chartData.getYValue().doubleValue(), 17, 17, new ColorBlock(Color.BLACK, 17, 17));
-
-					DraggableXYPointerAnnotation labelann = new DraggableXYPointerAnnotation(
-							markable.getMarkableLabel(), chartData.getXValue().doubleValue(),
-							chartData.getYValue().doubleValue(), Math.PI * 4 / 3);
-					labelann.setBaseRadius(40.0);
-					labelann.setLabelOffset(5.0);
-					labelann.setBackgroundPaint(Color.white);
-					labelann.setOutlineVisible(false);
-					labelann.setFont(new java.awt.Font("Courier New", java.awt.Font.BOLD, 12));
-					labelann.setTipRadius(5);
-					labelann.setTextAnchor(TextAnchor.HALF_ASCENT_RIGHT);
-
-					// ann2 will give us black outline
-					markedAnnotations.add(ann2);
-					markedAnnotations.add(ann);
-					markedAnnotations.add(labelann);
-					chart.getXYPlot().addAnnotation(ann2, false);
-					chart.getXYPlot().addAnnotation(ann, false);
-					chart.getXYPlot().addAnnotation(labelann, false);
-				}
-			}
-		}
-		chart.fireChartChanged();
+	private List<XYAnnotation> createChattingAnnotations(int point)
+	{
+		List<XYAnnotation> annotations = new ArrayList<>();
+		double x = getPointIndex().getX(point);
+		double y = getPointIndex().getY(point);
+		XYDrawableAnnotation ann = new XYDrawableAnnotation(x, y, 10, 10, new ColorBlock(Color.pink, 10, 10));
+		XYDrawableAnnotation ann2 = new XYDrawableAnnotation(x, y, 12, 12, new ColorBlock(Color.BLACK, 12, 12));
+
+		// ann2 will give us black outline
+		annotations.add(ann2);
+		annotations.add(ann);
+		if (getPointIndex().getUserData(point) instanceof IMarkable)
+			annotations.add(createLabelAnnotation((IMarkable) getPointIndex().getUserData(point), x, y));
+		return annotations;
+	}
 
+	private List<XYAnnotation> createMarkedAnnotations(int point)
+	{
+		List<XYAnnotation> annotations = new ArrayList<>();
+		IMarkable markable = (IMarkable) getPointIndex().getUserData(point);
+		double x = getPointIndex().getX(point);
+		double y = getPointIndex().getY(point);
+		XYDrawableAnnotation ann = new XYDrawableAnnotation(x, y, 15, 15,
+				new ColorBlock(markable.getMarkableColor(), 15, 15));
+		XYDrawableAnnotation ann2 = new XYDrawableAnnotation(x, y, 17, 17, new ColorBlock(Color.BLACK, 17, 17));
+
+		// ann2 will give us black outline
+		annotations.add(ann2);
+		annotations.add(ann);
+		annotations.add(createLabelAnnotation(markable, x, y));
+		return annotations;
 	}
 
-	private boolean dataIsMarked(Set<String> markings, Set<String> data)
+	private DraggableXYPointerAnnotation createLabelAnnotation(IMarkable markable, double x, double y)
 	{
-		for (String d : data)
-			if (markings.contains(d))
-				return true;
-		return false;
+		DraggableXYPointerAnnotation labelann = new DraggableXYPointerAnnotation(markable.getMarkableLabel(), x,
+				y, Math.PI * 4 / 3);
+		labelann.setBaseRadius(40.0);
+		labelann.setLabelOffset(5.0);
+		labelann.setBackgroundPaint(Color.white);
+		labelann.setOutlineVisible(false);
+		labelann.setFont(new java.awt.Font("Courier New", java.awt.Font.BOLD, 12));
+		labelann.setTipRadius(5);
+		labelann.setTextAnchor(TextAnchor.HALF_ASCENT_RIGHT);
+		return labelann;
 	}
 
 	private void setSliders(double minX, double maxX, double minY, double maxY)
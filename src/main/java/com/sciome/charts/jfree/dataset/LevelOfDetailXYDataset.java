@@ -0,0 +1,257 @@
+package com.sciome.charts.jfree.dataset;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.event.AxisChangeEvent;
+import org.jfree.chart.event.AxisChangeListener;
+import org.jfree.data.DomainInfo;
+import org.jfree.data.Range;
+import org.jfree.data.RangeInfo;
+import org.jfree.data.xy.AbstractXYZDataset;
+import org.jfree.data.xy.XYDomainInfo;
+import org.jfree.data.xy.XYRangeInfo;
+
+import com.sciome.charts.data.LevelOfDetailSampler;
+
+/*
+ * An xy(z) dataset that holds every point but only shows the ones LevelOfDetailSampler picks for the visible
+ * axis ranges. Item indexes of the dataset are the shown items, getSourceItem maps them back to the index in
+ * the series that was added, for tooltips and clicks. The bounds are those of all the points, so auto ranged
+ * axes do not move when the sample changes.
+ */
+public class LevelOfDetailXYDataset extends AbstractXYZDataset
+		implements DomainInfo, RangeInfo, XYDomainInfo, XYRangeInfo, AxisChangeListener
+{
+	private static final long				serialVersionUID	= 1L;
+
+	private final List<Comparable<?>>		seriesKeys			= new ArrayList<>();
+	private final List<double[]>			xValues				= new ArrayList<>();
+	private final List<double[]>			yValues				= new ArrayList<>();
+	private final List<double[]>			zValues				= new ArrayList<>();
+	private final List<LevelOfDetailSampler>	samplers			= new ArrayList<>();
+	private final List<int[]>				shown				= new ArrayList<>();
+	private final boolean					logX;
+	private final boolean					logY;
+	private final int						detailPoints;
+
+	private ValueAxis						domainAxis;
+	private ValueAxis						rangeAxis;
+
+	public LevelOfDetailXYDataset(boolean logX, boolean logY, int detailPoints)
+	{
+		this.logX = logX;
+		this.logY = logY;
+		this.detailPoints = detailPoints;
+	}
+
+	public void addSeries(Comparable<?> key, double[] x, double[] y, double[] z)
+	{
+		LevelOfDetailSampler sampler = new LevelOfDetailSampler(x, y, logX, logY, detailPoints);
+		seriesKeys.add(key);
+		xValues.add(x);
+		yValues.add(y);
+		zValues.add(z);
+		samplers.add(sampler);
+		shown.add(sampler.sample(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+				Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+		fireDatasetChanged();
+	}
+
+	/*
+	 * resample whenever one of the axes is zoomed or panned. Axes notify their listeners last added first, so
+	 * the dataset resamples before the plot hears about the change and redraws.
+	 */
+	public void attachAxes(ValueAxis domainAxis, ValueAxis rangeAxis)
+	{
+		if (this.domainAxis != null)
+			this.domainAxis.removeChangeListener(this);
+		if (this.rangeAxis != null)
+			this.rangeAxis.removeChangeListener(this);
+		this.domainAxis = domainAxis;
+		this.rangeAxis = rangeAxis;
+		domainAxis.addChangeListener(this);
+		rangeAxis.addChangeListener(this);
+		updateViewport(domainAxis.getRange(), rangeAxis.getRange());
+	}
+
+	@Override
+	public void axisChanged(AxisChangeEvent event)
+	{
+		// the plot redraws for the axis change itself, no need for a dataset change on top of it.
+		if (domainAxis != null && rangeAxis != null)
+			updateViewport(domainAxis.getRange(), rangeAxis.getRange(), false);
+	}
+
+	public void updateViewport(Range xRange, Range yRange)
+	{
+		updateViewport(xRange, yRange, true);
+	}
+
+	private void updateViewport(Range xRange, Range yRange, boolean notify)
+	{
+		boolean changed = false;
+		for (int s = 0; s < samplers.size(); s++)
+		{
+			int[] items = samplers.get(s).sample(xRange.getLowerBound(), xRange.getUpperBound(),
+					yRange.getLowerBound(), yRange.getUpperBound());
+			if (items != shown.get(s))
+			{
+				shown.set(s, items);
+				changed = true;
+			}
+		}
+		if (changed && notify)
+			fireDatasetChanged();
+	}
+
+	/*
+	 * the index in the added series of a shown item.
+	 */
+	public int getSourceItem(int series, int item)
+	{
+		return shown.get(series)[item];
+	}
+
+	@Override
+	public int getSeriesCount()
+	{
+		return seriesKeys.size();
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	public Comparable getSeriesKey(int series)
+	{
+		return seriesKeys.get(series);
+	}
+
+	@Override
+	public int getItemCount(int series)
+	{
+		return shown.get(series).length;
+	}
+
+	@Override
+	public Number getX(int series, int item)
+	{
+		return getXValue(series, item);
+	}
+
+	@Override
+	public double getXValue(int series, int item)
+	{
+		return xValues.get(series)[getSourceItem(series, item)];
+	}
+
+	@Override
+	public Number getY(int series, int item)
+	{
+		return getYValue(series, item);
+	}
+
+	@Override
+	public double getYValue(int series, int item)
+	{
+		return yValues.get(series)[getSourceItem(series, item)];
+	}
+
+	@Override
+	public Number getZ(int series, int item)
+	{
+		return getZValue(series, item);
+	}
+
+	@Override
+	public double getZValue(int series, int item)
+	{
+		double[] z = zValues.get(series);
+		return z == null ? Double.NaN : z[getSourceItem(series, item)];
+	}
+
+	@Override
+	public double getDomainLowerBound(boolean includeInterval)
+	{
+		Range range = getDomainBounds(includeInterval);
+		return range == null ? Double.NaN : range.getLowerBound();
+	}
+
+	@Override
+	public double getDomainUpperBound(boolean includeInterval)
+	{
+		Range range = getDomainBounds(includeInterval);
+		return range == null ? Double.NaN : range.getUpperBound();
+	}
+
+	@Override
+	public Range getDomainBounds(boolean includeInterval)
+	{
+		return findBounds(xValues, null, null, null);
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	public Range getDomainBounds(List visibleSeriesKeys, boolean includeInterval)
+	{
+		return findBounds(xValues, visibleSeriesKeys, null, null);
+	}
+
+	@Override
+	public double getRangeLowerBound(boolean includeInterval)
+	{
+		Range range = getRangeBounds(includeInterval);
+		return range == null ? Double.NaN : range.getLowerBound();
+	}
+
+	@Override
+	public double getRangeUpperBound(boolean includeInterval)
+	{
+		Range range = getRangeBounds(includeInterval);
+		return range == null ? Double.NaN : range.getUpperBound();
+	}
+
+	@Override
+	public Range getRangeBounds(boolean includeInterval)
+	{
+		return findBounds(yValues, null, null, null);
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	public Range getRangeBounds(List visibleSeriesKeys, Range xRange, boolean includeInterval)
+	{
+		return findBounds(yValues, visibleSeriesKeys, xValues, xRange);
+	}
+
+	/*
+	 * bounds of all points of the (visible) series, optionally only of the points whose x is in the given
+	 * range.
+	 */
+	@SuppressWarnings("rawtypes")
+	private Range findBounds(List<double[]> values, List visibleSeriesKeys, List<double[]> filterValues,
+			Range filterRange)
+	{
+		double low = Double.POSITIVE_INFINITY;
+		double high = Double.NEGATIVE_INFINITY;
+		for (int s = 0; s < seriesKeys.size(); s++)
+		{
+			if (visibleSeriesKeys != null && !visibleSeriesKeys.contains(seriesKeys.get(s)))
+				continue;
+			double[] v = values.get(s);
+			double[] f = filterValues == null ? null : filterValues.get(s);
+			for (int i = 0; i < v.length; i++)
+			{
+				if (f != null && !filterRange.contains(f[i]))
+					continue;
+				if (Double.isNaN(v[i]))
+					continue;
+				low = Math.min(low, v[i]);
+				high = Math.max(high, v[i]);
+			}
+		}
+		if (low > high)
+			return null;
+		return new Range(low, high);
+	}
+}
@@ -2,7 +2,7 @@ package com.sciome.charts.jfree.violin;
 
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -12,6 +12,8 @@ import org.jfree.chart.util.Args;
 import org.jfree.data.statistics.BoxAndWhiskerItem;
 import org.jfree.data.statistics.Statistics;
 
+import com.sciome.charts.data.KernelDensity;
+
 public class ViolinCalculator {
 	protected static final int NUM_MAX_VALUES = 100;
 	
@@ -57,31 +59,32 @@ public class ViolinCalculator {
 
         Args.nullNotPermitted(values, "values");
 
-        List vlist;
-        if (stripNullAndNaNItems) {
-            vlist = new ArrayList(values.size());
-            Iterator iterator = values.listIterator();
-            while (iterator.hasNext()) {
-                Object obj = iterator.next();
-                if (obj instanceof Number) {
-                    Number n = (Number) obj;
-                    double v = n.doubleValue();
-                    if (!Double.isNaN(v)) {
-                        vlist.add(n);
-                    }
+        // the values as a sorted primitive array, sorting boxed numbers is what made big categories slow.
+        double[] data = new double[values.size()];
+        int size = 0;
+        Iterator iterator = values.listIterator();
+        while (iterator.hasNext()) {
+            Object obj = iterator.next();
+            if (stripNullAndNaNItems) {
+                if (!(obj instanceof Number) || Double.isNaN(((Number) obj).doubleValue())) {
+                    continue;
                 }
             }
+            data[size++] = ((Number) obj).doubleValue();
         }
-        else {
-            vlist = values;
+        if (size < data.length) {
+            data = Arrays.copyOf(data, size);
         }
-        
-        Collections.sort(vlist);
-		
-        double mean = Statistics.calculateMean(vlist, false);
-        double median = Statistics.calculateMedian(vlist, false);
-        double q1 = calculateQ1(vlist);
-        double q3 = calculateQ3(vlist);
+        Arrays.sort(data);
+
+        double sum = 0.0;
+        for (double value : data) {
+            sum += value;
+        }
+        double mean = size > 0 ? sum / size : Double.NaN;
+        double median = calculateMedian(data, 0, size - 1);
+        double q1 = calculateQ1(data);
+        double q3 = calculateQ3(data);
 
         double interQuartileRange = q3 - q1;
 
@@ -94,18 +97,15 @@ public class ViolinCalculator {
         double maxOutlier = Double.NEGATIVE_INFINITY;
         List<Number> outliers = new ArrayList<Number>();
 
-        Iterator iterator = vlist.iterator();
-        while (iterator.hasNext()) {
-            Number number = (Number) iterator.next();
-            double value = number.doubleValue();
+        for (double value : data) {
             if (value > upperOutlierThreshold) {
-                outliers.add(number);
+                outliers.add(value);
                 if (value > maxOutlier) {
                     maxOutlier = value;
                 }
             }
             else if (value < lowerOutlierThreshold) {
-                outliers.add(number);
+                outliers.add(value);
                 if (value < minOutlier) {
                     minOutlier = value;
                 }
@@ -118,42 +118,32 @@ public class ViolinCalculator {
             maxOutlier = Math.max(maxOutlier, maxRegularValue);
         }
         
-        int size = vlist.size();
-        Number onePercentile = (Number)vlist.get((int)(Math.ceil(.01 * size)));
-        Number fivePercentile = (Number)vlist.get((int)(Math.ceil(.05 * size)));
-        Number tenPercentile = (Number)vlist.get((int)(Math.ceil(.10 * size)));
+        Number onePercentile = data[(int)(Math.ceil(.01 * size))];
+        Number fivePercentile = data[(int)(Math.ceil(.05 * size))];
+        Number tenPercentile = data[(int)(Math.ceil(.10 * size))];
         Number tenRank = null;
         Number twentyFiveRank = null;
         if(size > 10)
-        	tenRank = (Number)vlist.get(9);
+        	tenRank = data[9];
         if(size > 25)
-        	twentyFiveRank = (Number)vlist.get(24);
+        	twentyFiveRank = data[24];
         
         //Calculate kernel density estimation
         HashMap<Number, Point2D.Double> dist = new HashMap<Number, Point2D.Double>();
         
         StandardDeviation std = new StandardDeviation();
-        double[] data = new double[vlist.size()];
         double max = Double.MIN_VALUE;
-        for(int i = 0; i < vlist.size(); i++) {
-        	data[i] = (double)vlist.get(i);
-        	if(data[i] > max)
-        		max = data[i];
-        }
+        if(size > 0 && data[size - 1] > max)
+        	max = data[size - 1];
         if(bandwidth == null) {
 	        bandwidth = 1.06 * std.evaluate(data) * Math.pow(data.length, (-1/5));
 			bandwidth /= 10;
         }
 		
+        double step = max/(double)NUM_MAX_VALUES;
+        double[] density = KernelDensity.estimate(data, bandwidth, step, 0, NUM_MAX_VALUES);
 		for(int i = 0; i <= NUM_MAX_VALUES; i++) {
-			double x = i * (max/(double)NUM_MAX_VALUES);
-			double sum = 0;
-			for(int j = 0; j < data.length; j++) {
-				double gaussVal = gaussian((x - data[j]) / bandwidth);
-				sum += gaussVal;
-			}
-			double y = (1/(data.length * bandwidth)) * sum;
-			dist.put(i, new Point2D.Double(x,y));
+			dist.put(i, new Point2D.Double(i * step, density[i]));
 		}
         
         return new ViolinItem(new Double(mean), new Double(median),
@@ -169,6 +159,48 @@ public class ViolinCalculator {
 
     }
 
+    /*
+     * the first quartile of values sorted ascending, the same as calculateQ1 of a list.
+     */
+    private static double calculateQ1(double[] values) {
+        int count = values.length;
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count % 2 == 1) {
+            return calculateMedian(values, 0, count > 1 ? count / 2 : 0);
+        }
+        return calculateMedian(values, 0, count / 2 - 1);
+    }
+
+    /*
+     * the third quartile of values sorted ascending, the same as calculateQ3 of a list.
+     */
+    private static double calculateQ3(double[] values) {
+        int count = values.length;
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count % 2 == 1 && count == 1) {
+            return calculateMedian(values, 0, 0);
+        }
+        return calculateMedian(values, count / 2, count - 1);
+    }
+
+    /*
+     * the median of the sorted values from start to end inclusive.
+     */
+    private static double calculateMedian(double[] values, int start, int end) {
+        int count = end - start + 1;
+        if (count <= 0) {
+            return Double.NaN;
+        }
+        if (count % 2 == 1) {
+            return values[start + (count - 1) / 2];
+        }
+        return (values[start + count / 2 - 1] + values[start + count / 2]) / 2.0;
+    }
+
     /**
      * Calculates the first quartile for a list of numbers in ascending order.
      * If the items in the list are not in ascending order, the result is
@@ -235,8 +267,4 @@ public class ViolinCalculator {
         }
         return result;
     }
-    
-	private static double gaussian(double u) {
-		return (Math.exp(((-u * u) / 2.0))) / (Math.sqrt(2 * Math.PI));
-	}
 }
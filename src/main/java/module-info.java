@@ -16,6 +16,7 @@ module com.sciome.bmdexpress2 {
 	requires com.fasterxml.jackson.core;
 	requires com.fasterxml.jackson.databind;
 	requires java.management;
+	requires jdk.jfr;
 	requires javafx.swing;
 	requires javafx.web;
 	requires org.controlsfx.controls;
@@ -60,6 +61,8 @@ module com.sciome.bmdexpress2 {
     exports com.sciome.bmdexpress2.util.categoryanalysis.catmap;
     exports com.sciome.bmdexpress2.util.categoryanalysis.defined;
     exports com.sciome.bmdexpress2.util.prefilter;
+    exports com.sciome.bmdexpress2.util.metrics;
+    exports com.sciome.bmdexpress2.util.jobs;
     exports com.sciome.bmdexpress2.util.visualizations.curvefit;
     
 }
\ No newline at end of file
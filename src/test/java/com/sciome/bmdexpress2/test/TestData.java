@@ -0,0 +1,154 @@
+package com.sciome.bmdexpress2.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.LogTransformationEnum;
+import com.sciome.bmdexpress2.mvp.model.chip.ChipInfo;
+import com.sciome.bmdexpress2.mvp.model.info.AnalysisInfo;
+import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResult;
+import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResults;
+import com.sciome.bmdexpress2.mvp.model.prefilter.PrefilterResults;
+import com.sciome.bmdexpress2.mvp.model.probe.Probe;
+import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
+import com.sciome.bmdexpress2.mvp.model.probe.Treatment;
+import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
+import com.sciome.bmdexpress2.mvp.model.stat.PowerResult;
+import com.sciome.bmdexpress2.mvp.model.stat.ProbeStatResult;
+import com.sciome.bmdexpress2.mvp.model.stat.StatResult;
+
+/*
+ * Small datasets for the model tests. The responses are a function of the probe and treatment index, so a
+ * test can tell which value ended up where.
+ */
+public class TestData
+{
+	public static final float[]	DOSES		= { 0.0f, 1.0f, 10.0f, 100.0f };
+	public static final int		REPLICATES	= 3;
+
+	public static float response(int probe, int treatment)
+	{
+		return probe * 100.0f + treatment + 0.25f;
+	}
+
+	public static List<Treatment> createTreatments()
+	{
+		List<Treatment> treatments = new ArrayList<>();
+		for (int d = 0; d < DOSES.length; d++)
+			for (int r = 0; r < REPLICATES; r++)
+				treatments.add(new Treatment("D" + d + "_R" + (r + 1), DOSES[d]));
+		return treatments;
+	}
+
+	/*
+	 * probes with List<Float> responses, as the experiment had them before they were packed.
+	 */
+	public static List<ProbeResponse> createProbeResponses(int numProbes, int numTreatments)
+	{
+		List<ProbeResponse> probeResponses = new ArrayList<>();
+		for (int i = 0; i < numProbes; i++)
+		{
+			Probe probe = new Probe();
+			probe.setId("probe_" + i);
+
+			List<Float> responses = new ArrayList<>();
+			for (int j = 0; j < numTreatments; j++)
+				responses.add(response(i, j));
+
+			ProbeResponse probeResponse = new ProbeResponse();
+			probeResponse.setProbe(probe);
+			probeResponse.setResponses(responses);
+			probeResponses.add(probeResponse);
+		}
+		return probeResponses;
+	}
+
+	public static DoseResponseExperiment createExperiment(String name, int numProbes)
+	{
+		List<Treatment> treatments = createTreatments();
+
+		ChipInfo chip = new ChipInfo("Generic");
+		chip.setId("Generic");
+		chip.setProvider("Generic");
+		chip.setSpecies("Generic");
+
+		DoseResponseExperiment experiment = new DoseResponseExperiment();
+		experiment.setName(name);
+		experiment.setTreatments(treatments);
+		experiment.setProbeResponses(createProbeResponses(numProbes, treatments.size()));
+		experiment.setChip(chip);
+		experiment.setLogTransformation(LogTransformationEnum.BASE2);
+		experiment.setAnalysisInfo(new AnalysisInfo());
+		experiment.packResponses();
+		return experiment;
+	}
+
+	public static OneWayANOVAResults createANOVAResults(DoseResponseExperiment experiment)
+	{
+		List<OneWayANOVAResult> resultList = new ArrayList<>();
+		int i = 0;
+		for (ProbeResponse probeResponse : experiment.getProbeResponses())
+		{
+			OneWayANOVAResult result = new OneWayANOVAResult();
+			result.setProbeResponse(probeResponse);
+			result.setfValue(10.0 + i);
+			result.setpValue(0.001 * (i + 1));
+			result.setAdjustedPValue(0.002 * (i + 1));
+			result.setDegreesOfFreedomOne((short) (DOSES.length - 1));
+			result.setDegreesOfFreedomTwo((short) (DOSES.length * (REPLICATES - 1)));
+			resultList.add(result);
+			i++;
+		}
+
+		OneWayANOVAResults results = new OneWayANOVAResults();
+		results.setName(experiment.getName() + "_oneway");
+		results.setDoseResponseExperiement(experiment);
+		results.setOneWayANOVAResults(resultList);
+		results.setAnalysisInfo(new AnalysisInfo());
+		return results;
+	}
+
+	/*
+	 * a bmd result with one power model per probe as the best model.
+	 */
+	public static BMDResult createBMDResult(DoseResponseExperiment experiment, PrefilterResults prefilterResults,
+			String name)
+	{
+		List<ProbeStatResult> probeStatResults = new ArrayList<>();
+		int i = 0;
+		for (ProbeResponse probeResponse : experiment.getProbeResponses())
+		{
+			double bmd = 1.0 + i;
+
+			PowerResult powerResult = new PowerResult();
+			powerResult.setBMD(bmd);
+			powerResult.setBMDL(bmd / 2.0);
+			powerResult.setBMDU(bmd * 2.0);
+			powerResult.setFitPValue(0.5);
+			powerResult.setFitLogLikelihood(-5.0);
+			powerResult.setAIC(12.0);
+			powerResult.setAdverseDirection((short) 1);
+			powerResult.setCurveParameters(new double[] { 8.0, 0.5, 1.2 });
+			powerResult.setSuccess("true");
+
+			List<StatResult> statResults = new ArrayList<>();
+			statResults.add(powerResult);
+
+			ProbeStatResult probeStatResult = new ProbeStatResult();
+			probeStatResult.setProbeResponse(probeResponse);
+			probeStatResult.setStatResults(statResults);
+			probeStatResult.setBestStatResult(powerResult);
+			probeStatResults.add(probeStatResult);
+			i++;
+		}
+
+		BMDResult bmdResult = new BMDResult();
+		bmdResult.setName(name);
+		bmdResult.setDoseResponseExperiment(experiment);
+		bmdResult.setPrefilterResults(prefilterResults);
+		bmdResult.setProbeStatResults(probeStatResults);
+		bmdResult.setAnalysisInfo(new AnalysisInfo());
+		return bmdResult;
+	}
+}
@@ -0,0 +1,214 @@
+package com.sciome.bmdexpress2.test.annotation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sciome.bmdexpress2.util.annotation.AnnotationSync;
+import com.sciome.bmdexpress2.util.annotation.AnnotationSync.FileResult;
+import com.sciome.bmdexpress2.util.annotation.AnnotationSync.Status;
+import com.sciome.bmdexpress2.util.annotation.AnnotationSync.SyncReport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * the server answers like the update server: an ETag on every file, 304 when the If-None-Match matches and
+ * the rest of the file when a Range comes with a matching If-Range.
+ */
+public class AnnotationSyncTest
+{
+	private static final String			PROBE2GENE	= "arrays/Affymetrix/GPL1355/probe2gene.gz";
+	private static final String			CORRUPT		= "arrays/Affymetrix/GPL1355/gene2symbol.gz";
+	private static final String			ETAG		= "\"v1\"";
+
+	@Rule
+	public TemporaryFolder				folder		= new TemporaryFolder();
+
+	private HttpServer					server;
+	private Map<String, byte[]>			files		= new ConcurrentHashMap<>();
+	// the status code of the last answer for each file
+	private Map<String, Integer>		answers		= new ConcurrentHashMap<>();
+	private File						baseDir;
+
+	private static byte[] gzip(int size) throws Exception
+	{
+		byte[] content = new byte[size];
+		for (int i = 0; i < size; i++)
+			content[i] = (byte) ('a' + i % 26);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = new GZIPOutputStream(bytes))
+		{
+			out.write(content);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Before
+	public void startServer() throws Exception
+	{
+		baseDir = folder.newFolder("annotations");
+		files.put(PROBE2GENE, gzip(100000));
+		files.put(CORRUPT, "not a gzip file".getBytes("UTF-8"));
+
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", this::answer);
+		server.start();
+	}
+
+	@After
+	public void stopServer()
+	{
+		server.stop(0);
+	}
+
+	private void answer(HttpExchange exchange) throws IOException
+	{
+		String path = exchange.getRequestURI().getPath().substring(1);
+		byte[] content = files.get(path);
+		int from = 0;
+		int code;
+		if (content == null)
+			code = 404;
+		else if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match")))
+			code = 304;
+		else
+		{
+			code = 200;
+			String range = exchange.getRequestHeaders().getFirst("Range");
+			if (range != null && ETAG.equals(exchange.getRequestHeaders().getFirst("If-Range")))
+			{
+				from = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+				code = 206;
+				exchange.getResponseHeaders().set("Content-Range",
+						"bytes " + from + "-" + (content.length - 1) + "/" + content.length);
+			}
+			exchange.getResponseHeaders().set("ETag", ETAG);
+		}
+		answers.put(path, code);
+
+		if (code == 200 || code == 206)
+		{
+			exchange.sendResponseHeaders(code, content.length - from);
+			try (OutputStream out = exchange.getResponseBody())
+			{
+				out.write(content, from, content.length - from);
+			}
+		}
+		else
+		{
+			exchange.sendResponseHeaders(code, -1);
+			exchange.close();
+		}
+	}
+
+	private AnnotationSync createSync()
+	{
+		return new AnnotationSync("http://127.0.0.1:" + server.getAddress().getPort(), baseDir, 2);
+	}
+
+	private static FileResult result(SyncReport report, String relativePath)
+	{
+		for (FileResult result : report.getResults())
+			if (result.getRelativePath().equals(relativePath))
+				return result;
+		throw new AssertionError(relativePath + " is not in the report");
+	}
+
+	@Test
+	public void newFileIsDownloaded() throws Exception
+	{
+		SyncReport report = createSync().sync(Collections.singletonList(PROBE2GENE));
+
+		FileResult result = result(report, PROBE2GENE);
+		assertEquals(Status.DOWNLOADED, result.getStatus());
+		assertEquals(200, (int) answers.get(PROBE2GENE));
+		assertEquals(files.get(PROBE2GENE).length, result.getBytesTransferred());
+		assertArrayEquals(files.get(PROBE2GENE), Files.readAllBytes(new File(baseDir, PROBE2GENE).toPath()));
+		assertFalse(new File(baseDir, PROBE2GENE + ".part").exists());
+		assertTrue(report.getFailures().isEmpty());
+	}
+
+	@Test
+	public void unchangedFileIsSkipped() throws Exception
+	{
+		createSync().sync(Collections.singletonList(PROBE2GENE));
+
+		// a new sync reads the etag of the first one from its state file
+		SyncReport report = createSync().sync(Collections.singletonList(PROBE2GENE));
+		FileResult result = result(report, PROBE2GENE);
+		assertEquals(Status.UNCHANGED, result.getStatus());
+		assertEquals(304, (int) answers.get(PROBE2GENE));
+		assertEquals(0, result.getBytesTransferred());
+		assertEquals(files.get(PROBE2GENE).length, result.getBytesSkipped());
+	}
+
+	@Test
+	public void interruptedDownloadIsResumed() throws Exception
+	{
+		// what an interrupted download leaves: the first part of the file and the etag it started with
+		byte[] content = files.get(PROBE2GENE);
+		int partLength = content.length / 3;
+		File partFile = new File(baseDir, PROBE2GENE + ".part");
+		partFile.getParentFile().mkdirs();
+		try (OutputStream out = new FileOutputStream(partFile))
+		{
+			out.write(content, 0, partLength);
+		}
+		Properties state = new Properties();
+		state.setProperty(PROBE2GENE + ".part", ETAG);
+		try (OutputStream out = new FileOutputStream(new File(baseDir, "annotation_sync.properties")))
+		{
+			state.store(out, null);
+		}
+
+		SyncReport report = createSync().sync(Collections.singletonList(PROBE2GENE));
+		FileResult result = result(report, PROBE2GENE);
+		assertEquals(Status.DOWNLOADED, result.getStatus());
+		assertEquals(206, (int) answers.get(PROBE2GENE));
+		assertEquals(partLength, result.getBytesSkipped());
+		assertEquals(content.length - partLength, result.getBytesTransferred());
+		assertArrayEquals(content, Files.readAllBytes(new File(baseDir, PROBE2GENE).toPath()));
+		assertFalse(partFile.exists());
+
+		// and the hash of the whole file was kept, the next sync skips it
+		report = createSync().sync(Collections.singletonList(PROBE2GENE));
+		assertEquals(Status.UNCHANGED, result(report, PROBE2GENE).getStatus());
+	}
+
+	@Test
+	public void corruptGzipIsRejected() throws Exception
+	{
+		SyncReport report = createSync().sync(Arrays.asList(PROBE2GENE, CORRUPT));
+
+		assertEquals(Status.DOWNLOADED, result(report, PROBE2GENE).getStatus());
+		assertEquals(Status.FAILED, result(report, CORRUPT).getStatus());
+		assertFalse(new File(baseDir, CORRUPT).exists());
+		assertFalse(new File(baseDir, CORRUPT + ".part").exists());
+
+		List<String> failures = report.getFailures();
+		assertEquals(1, failures.size());
+		assertTrue(failures.get(0).startsWith(CORRUPT + ": "));
+	}
+}
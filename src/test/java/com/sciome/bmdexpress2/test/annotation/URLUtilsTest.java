@@ -0,0 +1,116 @@
+package com.sciome.bmdexpress2.test.annotation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sciome.bmdexpress2.util.annotation.FileInfo;
+import com.sciome.bmdexpress2.util.annotation.URLUtils;
+import com.sun.net.httpserver.HttpServer;
+
+public class URLUtilsTest
+{
+	private static final int	THREADS		= 8;
+
+	@Rule
+	public TemporaryFolder		folder		= new TemporaryFolder();
+
+	private HttpServer			server;
+	private AtomicInteger		requests	= new AtomicInteger();
+	private byte[]				content;
+
+	@Before
+	public void startServer() throws Exception
+	{
+		content = new byte[256 * 1024];
+		for (int i = 0; i < content.length; i++)
+			content[i] = (byte) (i * 31);
+
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/probe2gene.gz", exchange -> {
+			requests.incrementAndGet();
+			exchange.sendResponseHeaders(200, content.length);
+			try (OutputStream out = exchange.getResponseBody())
+			{
+				// slow enough that the threads ask for the file while it is downloaded
+				for (int i = 0; i < content.length; i += 16 * 1024)
+				{
+					out.write(content, i, 16 * 1024);
+					out.flush();
+					Thread.sleep(5);
+				}
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		});
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+	}
+
+	@After
+	public void stopServer()
+	{
+		server.stop(0);
+	}
+
+	private String url(String name)
+	{
+		return "http://127.0.0.1:" + server.getAddress().getPort() + "/" + name;
+	}
+
+	@Test
+	public void parallelRequestsDownloadTheFileOnce() throws Exception
+	{
+		File localFile = new File(folder.getRoot(), "probe2gene.gz");
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try
+		{
+			List<Future<byte[]>> reads = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++)
+				reads.add(executor.submit(() -> {
+					FileInfo fInfo = URLUtils.downloadIfMissing(url("probe2gene.gz"), localFile);
+					assertNull(fInfo.getException());
+					return Files.readAllBytes(localFile.toPath());
+				}));
+			for (Future<byte[]> read : reads)
+				assertArrayEquals(content, read.get());
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+
+		assertEquals(1, requests.get());
+		assertEquals(1, folder.getRoot().list().length);
+	}
+
+	@Test
+	public void failedDownloadLeavesNoFile()
+	{
+		File localFile = new File(folder.getRoot(), "missing.gz");
+		FileInfo fInfo = URLUtils.downloadIfMissing(url("missing.gz"), localFile);
+
+		assertNotNull(fInfo.getException());
+		assertEquals(0, folder.getRoot().list().length);
+	}
+}
@@ -0,0 +1,107 @@
+package com.sciome.bmdexpress2.test.bmdanalysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
+import com.sciome.bmdexpress2.mvp.model.stat.HillResult;
+import com.sciome.bmdexpress2.mvp.model.stat.ProbeStatResult;
+import com.sciome.bmdexpress2.service.ProjectNavigationService;
+import com.sciome.bmdexpress2.test.TestData;
+
+/*
+ * the best model export: the notes, a header and one row per probe, in the columns of the header.
+ */
+public class BestModelExportTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private List<String[]> export(BMDResult bmdResult) throws Exception
+	{
+		File file = folder.newFile("bestmodels.txt");
+		new ProjectNavigationService().exportBMDResultBestModel(bmdResult, file);
+
+		List<String> lines = Files.readAllLines(file.toPath(), Charset.defaultCharset());
+		List<String[]> rows = new ArrayList<>();
+		// the notes come before the header
+		for (String line : lines.subList(bmdResult.getAnalysisInfo().getNotes().size(), lines.size()))
+		{
+			assertFalse(line, line.endsWith("\t"));
+			rows.add(line.split("\t", -1));
+		}
+		return rows;
+	}
+
+	private static BMDResult createBMDResult()
+	{
+		DoseResponseExperiment experiment = TestData.createExperiment("experiment", 3);
+		BMDResult bmdResult = TestData.createBMDResult(experiment, null, "bmd");
+		bmdResult.getAnalysisInfo().setNotes(new ArrayList<>(Arrays.asList("BMDS", "Model: power")));
+		for (ProbeStatResult probeStatResult : bmdResult.getProbeStatResults())
+		{
+			probeStatResult.setGenes("gene");
+			probeStatResult.setGeneSymbols("symbol");
+		}
+		// probe 2 had no fit
+		bmdResult.getProbeStatResults().get(2).setBestStatResult(null);
+		return bmdResult;
+	}
+
+	@Test
+	public void rowsAreInTheColumnsOfTheHeader() throws Exception
+	{
+		List<String[]> rows = export(createBMDResult());
+
+		assertEquals(4, rows.size());
+		String[] header = rows.get(0);
+		assertEquals(13, header.length);
+		assertEquals("BMD", header[5]);
+
+		String[] power = rows.get(1);
+		assertEquals("probe_0", power[0]);
+		assertEquals("Power", power[1]);
+		assertEquals("", power[2]);
+		assertEquals("gene", power[3]);
+		assertEquals("1.0", power[5]);
+
+		String[] none = rows.get(3);
+		assertEquals(Arrays.asList("probe_2", "none", "", "gene", "symbol"), Arrays.asList(none));
+	}
+
+	@Test
+	public void otherModelsLeaveTheHillFlagEmpty() throws Exception
+	{
+		BMDResult bmdResult = createBMDResult();
+		HillResult hillResult = new HillResult();
+		hillResult.setBMD(0.5);
+		hillResult.setkFlag((short) 1);
+		hillResult.setSuccess("true");
+		hillResult.setCurveParameters(new double[] { 1.0, 2.0, 3.0, 4.0 });
+		bmdResult.getProbeStatResults().get(1).getStatResults().add(hillResult);
+		bmdResult.getProbeStatResults().get(1).setBestStatResult(hillResult);
+
+		List<String[]> rows = export(bmdResult);
+
+		String[] header = rows.get(0);
+		int flagColumn = Arrays.asList(header).indexOf("Flagged Hill");
+		assertEquals(header.length - 1, flagColumn);
+		assertEquals("", rows.get(1)[flagColumn]);
+		assertEquals("1", rows.get(2)[flagColumn]);
+		// the curve parameters of both models start after the flag
+		assertEquals("8.0", rows.get(1)[flagColumn + 1]);
+		assertEquals("1.0", rows.get(2)[flagColumn + 1]);
+	}
+}
@@ -0,0 +1,141 @@
+package com.sciome.bmdexpress2.test.bmdanalysis;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sciome.bmdexpress2.util.bmds.FitCacheStore;
+import com.sciome.bmdexpress2.util.bmds.ModelFitCache;
+
+public class FitCacheStoreTest
+{
+	// format version, success flag, length and two doubles
+	private static final int	ENTRY_BYTES	= 4 + 1 + 4 + 2 * 8;
+
+	@Rule
+	public TemporaryFolder		folder		= new TemporaryFolder();
+
+	private static String key(int i)
+	{
+		return String.format("%02x%062d", i, i);
+	}
+
+	private static ModelFitCache.Fit fit(int i)
+	{
+		return new ModelFitCache.Fit(new double[] { i, i + 0.5 }, i % 2 == 0);
+	}
+
+	private File file(String key)
+	{
+		return new File(new File(folder.getRoot(), key.substring(0, 2)), key);
+	}
+
+	/*
+	 * put the entries with last modified times a minute apart in the last hour, in the order of their index.
+	 */
+	private void put(FitCacheStore store, int from, int to)
+	{
+		long start = System.currentTimeMillis() - 60 * 60000L;
+		for (int i = from; i < to; i++)
+		{
+			store.put(key(i), fit(i));
+			file(key(i)).setLastModified(start + i * 60000L);
+		}
+	}
+
+	@Test
+	public void hitReturnsTheStoredFit()
+	{
+		FitCacheStore store = new FitCacheStore(folder.getRoot(), 1024 * 1024);
+		store.put(key(1), fit(1));
+
+		ModelFitCache.Fit fit = store.get(key(1));
+		assertNotNull(fit);
+		assertArrayEquals(new double[] { 1.0, 1.5 }, fit.getResults(), 0.0);
+		assertFalse(fit.isSuccess());
+		assertEquals(ENTRY_BYTES, store.getTotalBytes());
+	}
+
+	@Test
+	public void missReturnsNull()
+	{
+		FitCacheStore store = new FitCacheStore(folder.getRoot(), 1024 * 1024);
+		store.put(key(1), fit(1));
+
+		assertNull(store.get(key(2)));
+		assertEquals(1, store.size());
+	}
+
+	@Test
+	public void entriesSurviveARestart()
+	{
+		put(new FitCacheStore(folder.getRoot(), 1024 * 1024), 0, 3);
+
+		FitCacheStore store = new FitCacheStore(folder.getRoot(), 1024 * 1024);
+		assertEquals(3, store.size());
+		assertEquals(3 * ENTRY_BYTES, store.getTotalBytes());
+		assertArrayEquals(new double[] { 2.0, 2.5 }, store.get(key(2)).getResults(), 0.0);
+	}
+
+	@Test
+	public void leastRecentlyUsedEntriesAreEvicted()
+	{
+		FitCacheStore store = new FitCacheStore(folder.getRoot(), 4 * ENTRY_BYTES);
+		put(store, 0, 4);
+		assertEquals(4, store.size());
+
+		// the fifth entry goes over the limit, the store is trimmed to 90% of it.
+		store.put(key(4), fit(4));
+		assertEquals(3, store.size());
+		assertEquals(3 * ENTRY_BYTES, store.getTotalBytes());
+		assertNull(store.get(key(0)));
+		assertNull(store.get(key(1)));
+		assertFalse(file(key(0)).exists());
+		for (int i = 2; i < 5; i++)
+			assertNotNull(store.get(key(i)));
+	}
+
+	@Test
+	public void evictionCountsEntriesOfOtherStores()
+	{
+		FitCacheStore store = new FitCacheStore(folder.getRoot(), 4 * ENTRY_BYTES);
+		FitCacheStore other = new FitCacheStore(folder.getRoot(), 4 * ENTRY_BYTES);
+		put(other, 0, 3);
+
+		// this store only wrote two entries itself, the shared total has the other three as well.
+		put(store, 3, 5);
+		assertNull(store.get(key(0)));
+		assertNull(store.get(key(1)));
+		assertEquals(3, store.size());
+
+		// and it reads what the other store wrote.
+		assertNotNull(store.get(key(2)));
+		assertArrayEquals(new double[] { 2.0, 2.5 }, other.get(key(2)).getResults(), 0.0);
+	}
+
+	@Test
+	public void onlyStaleTempFilesAreDeleted() throws Exception
+	{
+		File subDirectory = new File(folder.getRoot(), "ab");
+		subDirectory.mkdirs();
+		File stale = new File(subDirectory, key(0xab) + ".stale.tmp");
+		File writing = new File(subDirectory, key(0xab) + ".writing.tmp");
+		assertTrue(stale.createNewFile());
+		assertTrue(writing.createNewFile());
+		stale.setLastModified(System.currentTimeMillis() - 2 * 60 * 60 * 1000L);
+
+		FitCacheStore store = new FitCacheStore(folder.getRoot(), 1024 * 1024);
+		assertFalse(stale.exists());
+		assertTrue(writing.exists());
+		assertEquals(0, store.size());
+	}
+}
@@ -0,0 +1,191 @@
+package com.sciome.bmdexpress2.test.bmdanalysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sciome.bmdexpress2.commandline.MergeShardsRunner;
+import com.sciome.bmdexpress2.commandline.ProcessableShard;
+import com.sciome.bmdexpress2.mvp.model.BMDProject;
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
+import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
+import com.sciome.bmdexpress2.mvp.model.stat.ProbeStatResult;
+import com.sciome.bmdexpress2.test.TestData;
+import com.sciome.bmdexpress2.util.bmds.ModelSelectionParameters;
+import com.sciome.bmdexpress2.util.bmds.shared.BestModelSelectionWithFlaggedHillModelEnum;
+
+/*
+ * the shards are made the way "analyze --shard i/N" makes them: every shard has its own copy of the project
+ * and a bmd result of the probes ProcessableShard gives it.
+ */
+public class MergeShardsTest
+{
+	private static final int	PROBES	= 7;
+	private static final int	SHARDS	= 3;
+
+	@Rule
+	public TemporaryFolder		folder	= new TemporaryFolder();
+
+	private static BMDProject createProject()
+	{
+		DoseResponseExperiment experiment = TestData.createExperiment("experiment", PROBES);
+		BMDResult bmdResult = TestData.createBMDResult(experiment, null, "bmd");
+		bmdResult.getAnalysisInfo().setNotes(new ArrayList<>(Arrays.asList("Model: power", "Run Time: 10")));
+		List<Float> wAUC = new ArrayList<>();
+		List<Float> logwAUC = new ArrayList<>();
+		for (int i = 0; i < PROBES; i++)
+		{
+			wAUC.add(i + 0.5f);
+			logwAUC.add(-i - 0.5f);
+		}
+		bmdResult.setwAUC(wAUC);
+		bmdResult.setLogwAUC(logwAUC);
+
+		BMDProject project = new BMDProject();
+		project.setName("project");
+		project.getDoseResponseExperiments().add(experiment);
+		project.getbMDResult().add(bmdResult);
+		return project;
+	}
+
+	private static BMDProject copy(BMDProject project) throws Exception
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+		{
+			out.writeObject(project);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+		{
+			return (BMDProject) in.readObject();
+		}
+	}
+
+	/*
+	 * the project of shard i: the bmd result only has the probes of the shard, with its own run time.
+	 */
+	private File writeShard(BMDProject unsharded, int shardIndex) throws Exception
+	{
+		BMDProject project = copy(unsharded);
+		DoseResponseExperiment experiment = project.getDoseResponseExperiments().get(0);
+		BMDResult bmdResult = project.getbMDResult().get(0);
+
+		Set<ProbeResponse> shardProbes = new HashSet<>(
+				new ProcessableShard(experiment, shardIndex, SHARDS).getProcessableProbeResponses());
+		List<ProbeStatResult> probeStatResults = new ArrayList<>();
+		List<Float> wAUC = new ArrayList<>();
+		List<Float> logwAUC = new ArrayList<>();
+		for (int i = 0; i < PROBES; i++)
+			if (shardProbes.contains(bmdResult.getProbeStatResults().get(i).getProbeResponse()))
+			{
+				probeStatResults.add(bmdResult.getProbeStatResults().get(i));
+				wAUC.add(bmdResult.getwAUC().get(i));
+				logwAUC.add(bmdResult.getLogwAUC().get(i));
+			}
+		bmdResult.setProbeStatResults(probeStatResults);
+		bmdResult.setwAUC(wAUC);
+		bmdResult.setLogwAUC(logwAUC);
+		bmdResult.getAnalysisInfo().getNotes().set(1, "Run Time: " + shardIndex);
+		bmdResult.getAnalysisInfo().getNotes().add(ProcessableShard.getNote(shardIndex, SHARDS));
+
+		File file = new File(folder.getRoot(), "project.shard" + shardIndex + "of" + SHARDS + ".bm2");
+		try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file)))
+		{
+			out.writeObject(project);
+		}
+		return file;
+	}
+
+	@Test
+	public void mergedShardsMatchTheUnshardedRun() throws Exception
+	{
+		BMDProject unsharded = createProject();
+		List<String> shardFiles = new ArrayList<>();
+		// the merge does not depend on the order the shard files are given in
+		for (int i = SHARDS - 1; i >= 0; i--)
+			shardFiles.add(writeShard(unsharded, i).getAbsolutePath());
+
+		File mergedFile = new File(folder.getRoot(), "merged.bm2");
+		new MergeShardsRunner().merge(mergedFile.getAbsolutePath(), shardFiles);
+		BMDProject merged;
+		try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(mergedFile)))
+		{
+			merged = (BMDProject) in.readObject();
+		}
+
+		BMDResult expected = unsharded.getbMDResult().get(0);
+		BMDResult result = merged.getbMDResult().get(0);
+		DoseResponseExperiment experiment = merged.getDoseResponseExperiments().get(0);
+		assertEquals(1, merged.getbMDResult().size());
+		assertSame(experiment, result.getDoseResponseExperiment());
+		assertEquals(PROBES, result.getProbeStatResults().size());
+		for (int i = 0; i < PROBES; i++)
+		{
+			ProbeStatResult expectedProbe = expected.getProbeStatResults().get(i);
+			ProbeStatResult probe = result.getProbeStatResults().get(i);
+			assertSame(experiment.getProbeResponses().get(i), probe.getProbeResponse());
+			assertEquals(expectedProbe.getProbeResponse().getProbe().getId(),
+					probe.getProbeResponse().getProbe().getId());
+			assertEquals(expectedProbe.getBestStatResult().getBMD(), probe.getBestStatResult().getBMD(), 0.0);
+			assertEquals(expectedProbe.getBestStatResult().getBMDL(), probe.getBestStatResult().getBMDL(), 0.0);
+			assertEquals(expectedProbe.getBestStatResult().getBMDU(), probe.getBestStatResult().getBMDU(), 0.0);
+		}
+		assertEquals(expected.getwAUC(), result.getwAUC());
+		assertEquals(expected.getLogwAUC(), result.getLogwAUC());
+
+		List<String> notes = result.getAnalysisInfo().getNotes();
+		assertTrue(notes.contains("Model: power"));
+		assertTrue(notes.contains("Merged From Shards: " + SHARDS));
+		assertTrue(notes.contains("Shard 0 Run Time: 0"));
+	}
+
+	@Test
+	public void flaggedHillSelectionsThatNeedAllProbesAreRejected()
+	{
+		ModelSelectionParameters parameters = new ModelSelectionParameters();
+		parameters.setFlagHillModel(true);
+		for (BestModelSelectionWithFlaggedHillModelEnum selection : BestModelSelectionWithFlaggedHillModelEnum
+				.values())
+		{
+			parameters.setBestModelSelectionWithFlaggedHill(selection);
+			boolean needsAllProbes = selection == BestModelSelectionWithFlaggedHillModelEnum.MODIFY_BMD_IF_FLAGGED_HILL_BEST
+					|| selection == BestModelSelectionWithFlaggedHillModelEnum.SELECT_NEXT_BEST_PVALUE_GREATER_OO5;
+			try
+			{
+				ProcessableShard.checkModelSelection(parameters);
+				if (needsAllProbes)
+					fail(selection + " was allowed in a shard");
+			}
+			catch (IllegalArgumentException e)
+			{
+				if (!needsAllProbes)
+					fail(selection + " was rejected in a shard");
+			}
+		}
+
+		// without flagging the selection does not matter
+		parameters.setFlagHillModel(false);
+		parameters.setBestModelSelectionWithFlaggedHill(
+				BestModelSelectionWithFlaggedHillModelEnum.MODIFY_BMD_IF_FLAGGED_HILL_BEST);
+		ProcessableShard.checkModelSelection(parameters);
+	}
+}
@@ -0,0 +1,54 @@
+package com.sciome.bmdexpress2.test.bmdanalysis;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
+import com.sciome.bmdexpress2.mvp.model.stat.HillResult;
+import com.sciome.bmdexpress2.test.TestData;
+import com.sciome.bmdexpress2.util.bmds.BMDSTool;
+import com.sciome.bmdexpress2.util.bmds.ModelSelectionParameters;
+
+/*
+ * a result whose flagged Hill fits had their BMD replaced by the best model selection can't be reselected,
+ * the fitted BMDs are gone.
+ */
+public class ReselectBestModelsTest
+{
+	private static BMDResult createBMDResult(short hillFlag)
+	{
+		DoseResponseExperiment experiment = TestData.createExperiment("experiment", 3);
+		BMDResult bmdResult = TestData.createBMDResult(experiment, null, "bmd");
+		HillResult hillResult = new HillResult();
+		hillResult.setBMD(0.5);
+		hillResult.setkFlag(hillFlag);
+		bmdResult.getProbeStatResults().get(1).getStatResults().add(hillResult);
+		return bmdResult;
+	}
+
+	@Test
+	public void flaggedHillsThatKeptTheirBMDCanBeReselected()
+	{
+		assertFalse(BMDSTool.hasModifiedFlaggedHills(createBMDResult((short) 0)));
+		assertFalse(BMDSTool.hasModifiedFlaggedHills(createBMDResult((short) 1)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void modifiedFlaggedHillsAreRefused()
+	{
+		BMDResult bmdResult = createBMDResult((short) 3);
+		assertTrue(BMDSTool.hasModifiedFlaggedHills(bmdResult));
+		new BMDSTool(bmdResult, new ModelSelectionParameters());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nextBestSelectedFlaggedHillsAreRefused()
+	{
+		BMDResult bmdResult = createBMDResult((short) 4);
+		assertTrue(BMDSTool.hasModifiedFlaggedHills(bmdResult));
+		new BMDSTool(bmdResult, new ModelSelectionParameters());
+	}
+}
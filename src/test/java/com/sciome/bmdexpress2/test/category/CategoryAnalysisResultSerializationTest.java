@@ -0,0 +1,176 @@
+package com.sciome.bmdexpress2.test.category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+import org.junit.Test;
+
+import com.sciome.bmdexpress2.mvp.model.category.CategoryAnalysisResult;
+import com.sciome.bmdexpress2.mvp.model.category.DefinedCategoryAnalysisResult;
+
+/*
+ * .bm2 files are java serialized projects. Categories are written with a field per statistic as before the
+ * statistics were kept in one array, so older versions read the same values and this version reads their
+ * files.
+ */
+public class CategoryAnalysisResultSerializationTest
+{
+	/*
+	 * the fields of a category as older versions wrote them, a part of them is enough. Serialized under these
+	 * names and read as the real classes.
+	 */
+	public static class LegacyCategoryAnalysisResult implements Serializable
+	{
+		private static final long	serialVersionUID				= -3651047352571831492L;
+
+		private Long				id								= 7L;
+		private Integer				geneAllCount					= 42;
+		private Double				percentage						= 12.5;
+		private Integer				fishersA						= 3;
+		private Double				fishersExactTwoTailPValue		= 0.01;
+		private Double				bmdMean							= 1.25;
+		private Double				bmdMedian						= null;
+		private Double				bmdSD							= 0.5;
+		private String				genesWithConflictingProbeSets	= "gene1;gene2";
+	}
+
+	public static class LegacyDefinedCategoryAnalysisResult extends LegacyCategoryAnalysisResult
+	{
+		private static final long serialVersionUID = -4039580979254405490L;
+	}
+
+	private static byte[] serialize(Object object) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+		{
+			out.writeObject(object);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialize(byte[] bytes) throws Exception
+	{
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)))
+		{
+			return in.readObject();
+		}
+	}
+
+	private static byte[] utf(String text) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		new DataOutputStream(bytes).writeUTF(text);
+		return bytes.toByteArray();
+	}
+
+	/*
+	 * replace the class name in the class descriptor of the stream.
+	 */
+	private static byte[] renameClass(byte[] stream, Class<?> from, Class<?> to) throws IOException
+	{
+		byte[] fromName = utf(from.getName());
+		byte[] toName = utf(to.getName());
+		for (int i = 0; i + fromName.length <= stream.length; i++)
+		{
+			int j = 0;
+			while (j < fromName.length && stream[i + j] == fromName[j])
+				j++;
+			if (j < fromName.length)
+				continue;
+
+			byte[] renamed = new byte[stream.length - fromName.length + toName.length];
+			System.arraycopy(stream, 0, renamed, 0, i);
+			System.arraycopy(toName, 0, renamed, i, toName.length);
+			System.arraycopy(stream, i + fromName.length, renamed, i + toName.length,
+					stream.length - i - fromName.length);
+			return renamed;
+		}
+		throw new IllegalArgumentException(from.getName() + " is not in the stream");
+	}
+
+	@Test
+	public void legacyFieldsAreReadIntoTheStatistics() throws Exception
+	{
+		byte[] stream = serialize(new LegacyDefinedCategoryAnalysisResult());
+		stream = renameClass(stream, LegacyDefinedCategoryAnalysisResult.class,
+				DefinedCategoryAnalysisResult.class);
+		stream = renameClass(stream, LegacyCategoryAnalysisResult.class, CategoryAnalysisResult.class);
+
+		Object read = deserialize(stream);
+		assertTrue(read instanceof DefinedCategoryAnalysisResult);
+		CategoryAnalysisResult result = (CategoryAnalysisResult) read;
+
+		assertEquals(Long.valueOf(7L), result.getID());
+		assertEquals(Integer.valueOf(42), result.getGeneAllCount());
+		assertEquals(Double.valueOf(12.5), result.getPercentage());
+		assertEquals(Integer.valueOf(3), result.getFishersA());
+		assertEquals(Double.valueOf(0.01), result.getFishersExactTwoTailPValue());
+		assertEquals(Double.valueOf(1.25), result.getBmdMean());
+		assertEquals(Double.valueOf(0.5), result.getBmdSD());
+		assertEquals("gene1;gene2", result.getGenesWithConflictingProbeSets());
+
+		// set to null in the file, or not in it at all
+		assertNull(result.getBmdMedian());
+		assertNull(result.getFishersC());
+		assertNull(result.getGenesDownBMDUSD());
+	}
+
+	@Test
+	public void statisticsSurviveTheRoundTrip() throws Exception
+	{
+		DefinedCategoryAnalysisResult result = new DefinedCategoryAnalysisResult();
+		result.setID(9L);
+		result.setGeneAllCount(17);
+		result.setBmdMean(2.5);
+		result.setBmdMedian(null);
+		result.setFishersA(0);
+
+		CategoryAnalysisResult read = (CategoryAnalysisResult) deserialize(serialize(result));
+		assertEquals(Long.valueOf(9L), read.getID());
+		assertEquals(Integer.valueOf(17), read.getGeneAllCount());
+		assertEquals(Double.valueOf(2.5), read.getBmdMean());
+		assertEquals(Integer.valueOf(0), read.getFishersA());
+		assertNull(read.getBmdMedian());
+		assertNull(read.getBmdSD());
+	}
+
+	@Test
+	public void olderVersionsReadTheStatistics() throws Exception
+	{
+		DefinedCategoryAnalysisResult result = new DefinedCategoryAnalysisResult();
+		result.setID(7L);
+		result.setGeneAllCount(42);
+		result.setPercentage(12.5);
+		result.setFishersA(3);
+		result.setFishersExactTwoTailPValue(0.01);
+		result.setBmdMean(1.25);
+		result.setBmdSD(0.5);
+		result.setGenesWithConflictingProbeSets("gene1;gene2");
+
+		byte[] stream = serialize(result);
+		stream = renameClass(stream, DefinedCategoryAnalysisResult.class,
+				LegacyDefinedCategoryAnalysisResult.class);
+		stream = renameClass(stream, CategoryAnalysisResult.class, LegacyCategoryAnalysisResult.class);
+
+		LegacyCategoryAnalysisResult read = (LegacyCategoryAnalysisResult) deserialize(stream);
+		assertEquals(Long.valueOf(7L), read.id);
+		assertEquals(Integer.valueOf(42), read.geneAllCount);
+		assertEquals(Double.valueOf(12.5), read.percentage);
+		assertEquals(Integer.valueOf(3), read.fishersA);
+		assertEquals(Double.valueOf(0.01), read.fishersExactTwoTailPValue);
+		assertEquals(Double.valueOf(1.25), read.bmdMean);
+		assertEquals(Double.valueOf(0.5), read.bmdSD);
+		assertEquals("gene1;gene2", read.genesWithConflictingProbeSets);
+		assertNull(read.bmdMedian);
+	}
+}
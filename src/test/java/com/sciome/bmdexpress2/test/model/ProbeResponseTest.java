@@ -0,0 +1,204 @@
+package com.sciome.bmdexpress2.test.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
+import com.sciome.bmdexpress2.test.TestData;
+
+/*
+ * the probes of a packed experiment are views of one response matrix. They have to give the same values as
+ * the List<Float> responses they were made from.
+ */
+public class ProbeResponseTest
+{
+	private static final int	PROBES	= 6;
+	private static final int	THREADS	= 8;
+
+	private static List<List<Float>> copyResponses(List<ProbeResponse> probeResponses)
+	{
+		List<List<Float>> responses = new ArrayList<>();
+		for (ProbeResponse probeResponse : probeResponses)
+			responses.add(new ArrayList<>(probeResponse.getResponses()));
+		return responses;
+	}
+
+	private static DoseResponseExperiment createUnpackedExperiment()
+	{
+		DoseResponseExperiment experiment = new DoseResponseExperiment();
+		experiment.setTreatments(TestData.createTreatments());
+		experiment.setProbeResponses(
+				TestData.createProbeResponses(PROBES, experiment.getTreatments().size()));
+		return experiment;
+	}
+
+	private static void assertSameResponses(List<List<Float>> expected, List<ProbeResponse> probeResponses)
+	{
+		assertEquals(expected.size(), probeResponses.size());
+		float[] buffer = null;
+		for (int i = 0; i < expected.size(); i++)
+		{
+			List<Float> values = expected.get(i);
+			ProbeResponse probeResponse = probeResponses.get(i);
+
+			assertEquals(values, probeResponse.getResponses());
+			assertEquals(values.size(), probeResponse.getResponseCount());
+			buffer = probeResponse.copyResponsesInto(buffer);
+			float[] array = probeResponse.getResponseArray();
+			for (int j = 0; j < values.size(); j++)
+			{
+				assertEquals(values.get(j), probeResponse.getResponse(j), 0.0f);
+				assertEquals(values.get(j), array[j], 0.0f);
+				assertEquals(values.get(j), buffer[j], 0.0f);
+				assertEquals(values.get(j), (Float) probeResponse.getRow().get(j + 1), 0.0f);
+			}
+		}
+	}
+
+	@Test
+	public void packedProbesGiveTheirOwnResponses()
+	{
+		DoseResponseExperiment experiment = createUnpackedExperiment();
+		List<List<Float>> expected = copyResponses(experiment.getProbeResponses());
+
+		experiment.packResponses();
+
+		float[] matrix = experiment.getResponseMatrix();
+		assertEquals(PROBES * experiment.getTreatments().size(), matrix.length);
+		for (ProbeResponse probeResponse : experiment.getProbeResponses())
+			assertSame(matrix, probeResponse.getResponseMatrix());
+		assertSameResponses(expected, experiment.getProbeResponses());
+	}
+
+	@Test
+	public void matrixIsRowMajorInProbeOrder()
+	{
+		DoseResponseExperiment experiment = createUnpackedExperiment();
+		experiment.packResponses();
+
+		int columns = experiment.getTreatments().size();
+		float[] matrix = experiment.getResponseMatrix();
+		for (int i = 0; i < PROBES; i++)
+			for (int j = 0; j < columns; j++)
+				assertEquals(TestData.response(i, j), matrix[i * columns + j], 0.0f);
+	}
+
+	@Test
+	public void copyResponsesIntoReusesAnArrayOfTheRightLength()
+	{
+		DoseResponseExperiment experiment = createUnpackedExperiment();
+		experiment.packResponses();
+
+		ProbeResponse first = experiment.getProbeResponses().get(0);
+		float[] buffer = new float[first.getResponseCount()];
+		assertSame(buffer, first.copyResponsesInto(buffer));
+		assertSame(buffer, experiment.getProbeResponses().get(1).copyResponsesInto(buffer));
+		assertEquals(TestData.response(1, 0), buffer[0], 0.0f);
+
+		float[] tooShort = new float[1];
+		assertNotSame(tooShort, first.copyResponsesInto(tooShort));
+	}
+
+	@Test
+	public void responseArrayOfAViewIsACopy()
+	{
+		DoseResponseExperiment experiment = createUnpackedExperiment();
+		experiment.packResponses();
+
+		ProbeResponse probeResponse = experiment.getProbeResponses().get(2);
+		float[] array = probeResponse.getResponseArray();
+		assertNotSame(experiment.getResponseMatrix(), array);
+		assertEquals(probeResponse.getResponseCount(), array.length);
+	}
+
+	@Test
+	public void threadsRepackingAfterAChangeShareOneMatrix() throws Exception
+	{
+		DoseResponseExperiment experiment = createUnpackedExperiment();
+		experiment.packResponses();
+		List<List<Float>> expected = copyResponses(experiment.getProbeResponses());
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try
+		{
+			for (int round = 0; round < 20; round++)
+			{
+				// a new probe list drops the matrix, the first reader repacks it
+				experiment.setProbeResponses(new ArrayList<>(experiment.getProbeResponses()));
+				List<Callable<float[]>> reads = new ArrayList<>();
+				for (int i = 0; i < THREADS; i++)
+					reads.add(experiment::getResponseMatrix);
+				List<Future<float[]>> matrices = executor.invokeAll(reads);
+				float[] matrix = experiment.getResponseMatrix();
+				for (Future<float[]> read : matrices)
+					assertSame(matrix, read.get());
+				for (ProbeResponse probeResponse : experiment.getProbeResponses())
+					assertSame(matrix, probeResponse.getResponseMatrix());
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		assertSameResponses(expected, experiment.getProbeResponses());
+	}
+
+	@Test
+	public void blobRoundTrip()
+	{
+		DoseResponseExperiment experiment = createUnpackedExperiment();
+		List<List<Float>> expected = copyResponses(experiment.getProbeResponses());
+		experiment.packResponses();
+
+		List<ProbeResponse> copies = new ArrayList<>();
+		for (ProbeResponse probeResponse : experiment.getProbeResponses())
+		{
+			ProbeResponse copy = new ProbeResponse();
+			copy.setProbe(probeResponse.getProbe());
+			copy.setResponsesBlob(probeResponse.getResponsesBlob());
+			copies.add(copy);
+		}
+		assertSameResponses(expected, copies);
+	}
+
+	@Test
+	public void serializedExperimentKeepsItsResponses() throws Exception
+	{
+		DoseResponseExperiment experiment = createUnpackedExperiment();
+		List<List<Float>> expected = copyResponses(experiment.getProbeResponses());
+		experiment.packResponses();
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+		{
+			out.writeObject(experiment);
+		}
+		DoseResponseExperiment read;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+		{
+			read = (DoseResponseExperiment) in.readObject();
+		}
+
+		assertSameResponses(expected, read.getProbeResponses());
+		float[] matrix = read.getResponseMatrix();
+		assertArrayEquals(experiment.getResponseMatrix(), matrix, 0.0f);
+		for (ProbeResponse probeResponse : read.getProbeResponses())
+			assertSame(matrix, probeResponse.getResponseMatrix());
+	}
+}
@@ -0,0 +1,180 @@
+package com.sciome.bmdexpress2.test.prefilter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.prefilter.PrefilterResult;
+import com.sciome.bmdexpress2.mvp.model.prefilter.WilliamsTrendResults;
+import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
+import com.sciome.bmdexpress2.service.PrefilterService;
+import com.sciome.bmdexpress2.test.TestData;
+import com.sciome.bmdexpress2.util.prefilter.FoldChange;
+import com.sciome.bmdexpress2.util.prefilter.PrefilterStatistics;
+
+/*
+ * a williams run that reuses the statistics of an earlier run on the same experiment has to give what a
+ * run on a fresh experiment gives with the same cutoffs.
+ */
+public class PrefilterStatisticsTest
+{
+	private static final String	REUSED			= "Test Statistics Reused From An Earlier Run: true";
+	private static final int	PROBES			= 60;
+	private static final int	PERMUTATIONS	= 50;
+
+	/*
+	 * every third probe goes up with the dose, the rest is noise. Every tenth is a control probe.
+	 */
+	private static DoseResponseExperiment createExperiment(long seed)
+	{
+		Random random = new Random(seed);
+		DoseResponseExperiment experiment = TestData.createExperiment("experiment", PROBES);
+		List<ProbeResponse> probeResponses = TestData.createProbeResponses(PROBES,
+				experiment.getTreatments().size());
+		for (int i = 0; i < PROBES; i++)
+		{
+			ProbeResponse probeResponse = probeResponses.get(i);
+			if (i % 10 == 0)
+				probeResponse.getProbe().setId("AFFX_" + i);
+			List<Float> responses = new ArrayList<>();
+			for (int j = 0; j < experiment.getTreatments().size(); j++)
+			{
+				float trend = i % 3 == 0 ? j / TestData.REPLICATES : 0.0f;
+				responses.add(8.0f + trend + (float) random.nextGaussian() * 0.3f);
+			}
+			probeResponse.setResponses(responses);
+		}
+		experiment.setProbeResponses(probeResponses);
+		experiment.packResponses();
+		return experiment;
+	}
+
+	private static WilliamsTrendResults williams(DoseResponseExperiment experiment, double pCutOff,
+			boolean multipleTestingCorrection, boolean filterOutControlGenes, boolean useFoldFilter)
+	{
+		return new PrefilterService().williamsTrendAnalysis(experiment, pCutOff, multipleTestingCorrection,
+				filterOutControlGenes, useFoldFilter, 1.2, PERMUTATIONS, 0.05, 1.0, 1, null, true);
+	}
+
+	private static boolean reused(WilliamsTrendResults results)
+	{
+		return results.getAnalysisInfo().getNotes().contains(REUSED);
+	}
+
+	private static void assertSameResults(WilliamsTrendResults expected, WilliamsTrendResults actual)
+	{
+		List<PrefilterResult> expectedRows = expected.getPrefilterResults();
+		List<PrefilterResult> actualRows = actual.getPrefilterResults();
+		assertEquals(expectedRows.size(), actualRows.size());
+		for (int i = 0; i < expectedRows.size(); i++)
+		{
+			PrefilterResult e = expectedRows.get(i);
+			PrefilterResult a = actualRows.get(i);
+			assertEquals(e.getProbeID(), a.getProbeID());
+			assertEquals(e.getProbeID(), e.getpValue(), a.getpValue(), 0.0);
+			assertEquals(e.getProbeID(), e.getAdjustedPValue(), a.getAdjustedPValue(), 0.0);
+			assertEquals(e.getProbeID(), e.getBestFoldChange(), a.getBestFoldChange());
+			assertEquals(e.getProbeID(), e.getFoldChanges(), a.getFoldChanges());
+			assertEquals(e.getProbeID(), e.getNoelDose(), a.getNoelDose());
+			assertEquals(e.getProbeID(), e.getLoelDose(), a.getLoelDose());
+		}
+	}
+
+	@Test
+	public void reusedStatisticsMatchAFreshRun()
+	{
+		DoseResponseExperiment experiment = createExperiment(1);
+		assertFalse(reused(williams(experiment, 1.0, false, false, false)));
+
+		boolean[][] filters = { { false, false, false }, { true, false, false }, { false, true, true },
+				{ true, true, true } };
+		for (double pCutOff : new double[] { 0.05, 0.5 })
+		{
+			for (boolean[] filter : filters)
+			{
+				WilliamsTrendResults reused = williams(experiment, pCutOff, filter[0], filter[1], filter[2]);
+				assertTrue(reused(reused));
+
+				// the same probes in a new experiment, nothing cached for it
+				WilliamsTrendResults fresh = williams(createExperiment(1), pCutOff, filter[0], filter[1],
+						filter[2]);
+				assertFalse(reused(fresh));
+				assertSameResults(fresh, reused);
+			}
+		}
+	}
+
+	@Test
+	public void changedProbesAreNotReused()
+	{
+		DoseResponseExperiment experiment = createExperiment(2);
+		williams(experiment, 0.05, false, false, false);
+
+		experiment.setProbeResponses(new ArrayList<>(experiment.getProbeResponses().subList(0, PROBES / 2)));
+		WilliamsTrendResults results = williams(experiment, 0.05, false, false, false);
+		assertFalse(reused(results));
+
+		DoseResponseExperiment fresh = createExperiment(2);
+		fresh.setProbeResponses(new ArrayList<>(fresh.getProbeResponses().subList(0, PROBES / 2)));
+		assertSameResults(williams(fresh, 0.05, false, false, false), results);
+	}
+
+	@Test
+	public void statisticsAreForTheSameProbesInTheSameOrder()
+	{
+		List<ProbeResponse> probeResponses = createExperiment(3).getProbeResponses();
+		PrefilterStatistics statistics = new PrefilterStatistics(probeResponses, new double[PROBES],
+				new double[PROBES], null);
+
+		assertTrue(statistics.isFor(probeResponses));
+		assertTrue(statistics.isFor(new ArrayList<>(probeResponses)));
+		List<ProbeResponse> reversed = new ArrayList<>(probeResponses);
+		Collections.reverse(reversed);
+		assertFalse(statistics.isFor(reversed));
+		assertFalse(statistics.isFor(probeResponses.subList(1, PROBES)));
+		// equal responses in another experiment are other probes
+		assertFalse(statistics.isFor(createExperiment(3).getProbeResponses()));
+
+		assertEquals(5, statistics.indexOf(probeResponses.get(5)));
+		assertEquals(-1, statistics.indexOf(new ProbeResponse()));
+		assertNull(statistics.getProfile(0));
+	}
+
+	@Test
+	public void foldChangesAndNoelLoelPValuesAreCopies()
+	{
+		DoseResponseExperiment experiment = createExperiment(4);
+		List<ProbeResponse> probeResponses = experiment.getProbeResponses();
+		PrefilterStatistics statistics = new PrefilterStatistics(probeResponses, new double[PROBES],
+				new double[PROBES], null);
+		FoldChange foldChange = new FoldChange(experiment.getTreatments(), true, 2.0);
+
+		List<Float> foldChanges = statistics.getFoldChanges(3, foldChange);
+		assertNotSame(foldChanges, statistics.getFoldChanges(3, foldChange));
+		foldChanges.clear();
+		assertFalse(statistics.getFoldChanges(3, foldChange).isEmpty());
+		assertEquals(foldChange.getBestFoldChangeValue(probeResponses.get(3).getResponses()),
+				statistics.getBestFoldChange(3, foldChange));
+
+		assertNull(statistics.getNoelLoelPValues(3, true));
+		List<Float> pValues = new ArrayList<>(Arrays.asList(0.5f, 0.01f, 0.001f));
+		statistics.setNoelLoelPValues(3, true, pValues);
+		pValues.clear();
+		assertEquals(Arrays.asList(0.5f, 0.01f, 0.001f), statistics.getNoelLoelPValues(3, true));
+		statistics.getNoelLoelPValues(3, true).clear();
+		assertEquals(3, statistics.getNoelLoelPValues(3, true).size());
+		// the t-test and Dunnett's p-values are kept apart
+		assertNull(statistics.getNoelLoelPValues(3, false));
+	}
+}
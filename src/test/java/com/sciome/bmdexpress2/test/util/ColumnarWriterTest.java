@@ -0,0 +1,132 @@
+package com.sciome.bmdexpress2.test.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sciome.bmdexpress2.mvp.model.BMDExpressAnalysisRow;
+import com.sciome.bmdexpress2.util.ColumnarWriter;
+
+public class ColumnarWriterTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static BMDExpressAnalysisRow row(Object... values)
+	{
+		return new BMDExpressAnalysisRow() {
+			@Override
+			public Object getObject()
+			{
+				return this;
+			}
+
+			@Override
+			public List<Object> getRow()
+			{
+				return Arrays.asList(values);
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Map<String, Object>> write(List<BMDExpressAnalysisRow> rows) throws Exception
+	{
+		File directory = folder.newFolder("out");
+		new ColumnarWriter().write(Arrays.asList("id", "count", "all", "genes"), () -> rows.iterator(),
+				directory);
+		Map<String, Object> schema = new ObjectMapper().readValue(new File(directory, ColumnarWriter.SCHEMA_FILE),
+				Map.class);
+		return (List<Map<String, Object>>) schema.get("columns");
+	}
+
+	private List<BMDExpressAnalysisRow> createRows()
+	{
+		List<BMDExpressAnalysisRow> rows = new ArrayList<>();
+		rows.add(row("a", 3, 7, "g1;g2"));
+		rows.add(row("b", null, 0, null));
+		rows.add(row("c", 0, 5, ""));
+		rows.add(row("d", 4, 9, "g2;g3;g1"));
+		return rows;
+	}
+
+	@Test
+	public void integerColumnWithMissingValuesIsFloat64() throws Exception
+	{
+		List<Map<String, Object>> columns = write(createRows());
+
+		assertEquals("float64", columns.get(1).get("type"));
+		double[] counts = readDoubles(new File(folder.getRoot(), "out/" + columns.get(1).get("file")));
+		assertEquals(3.0, counts[0], 0.0);
+		assertTrue(Double.isNaN(counts[1]));
+		assertEquals(0.0, counts[2], 0.0);
+
+		assertEquals("int32", columns.get(2).get("type"));
+		assertEquals("dictionary", columns.get(0).get("type"));
+	}
+
+	@Test
+	public void joinedValuesAreSplitIntoItems() throws Exception
+	{
+		List<Map<String, Object>> columns = write(createRows());
+		Map<String, Object> genes = columns.get(3);
+		assertEquals("list", genes.get("type"));
+
+		File directory = new File(folder.getRoot(), "out");
+		long[] offsets = readLongs(new File(directory, (String) genes.get("file")));
+		int[] items = readInts(new File(directory, (String) genes.get("items")));
+		List<String> dictionary = Files.readAllLines(new File(directory, (String) genes.get("dictionary")).toPath(),
+				StandardCharsets.UTF_8);
+
+		assertArrayEquals(new long[] { 0, 2, 2, 3, 6 }, offsets);
+		assertEquals(Arrays.asList("g1", "g2", "", "g3"), dictionary);
+		assertArrayEquals(new int[] { 0, 1, 2, 1, 3, 0 }, items);
+	}
+
+	private static ByteBuffer readNpy(File file) throws Exception
+	{
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+		int headerLength = buffer.getShort(8) & 0xffff;
+		buffer.position(10 + headerLength);
+		return buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static double[] readDoubles(File file) throws Exception
+	{
+		ByteBuffer buffer = readNpy(file);
+		double[] values = new double[buffer.remaining() / Double.BYTES];
+		buffer.asDoubleBuffer().get(values);
+		return values;
+	}
+
+	private static long[] readLongs(File file) throws Exception
+	{
+		ByteBuffer buffer = readNpy(file);
+		long[] values = new long[buffer.remaining() / Long.BYTES];
+		buffer.asLongBuffer().get(values);
+		return values;
+	}
+
+	private static int[] readInts(File file) throws Exception
+	{
+		ByteBuffer buffer = readNpy(file);
+		int[] values = new int[buffer.remaining() / Integer.BYTES];
+		buffer.asIntBuffer().get(values);
+		return values;
+	}
+}
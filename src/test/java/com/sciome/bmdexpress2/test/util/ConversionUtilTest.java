@@ -0,0 +1,248 @@
+package com.sciome.bmdexpress2.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+
+import org.ciit.data.ArrayMatrixData;
+import org.ciit.data.BMDMatrixData;
+import org.ciit.data.ModelParameters;
+import org.ciit.data.WSMatrixData;
+import org.ciit.io.ProjectReader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sciome.bmdexpress2.commandline.ConvertRunner;
+import com.sciome.bmdexpress2.mvp.model.BMDProject;
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.category.CategoryAnalysisResult;
+import com.sciome.bmdexpress2.mvp.model.category.ReferenceGeneProbeStatResult;
+import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
+import com.sciome.bmdexpress2.mvp.model.stat.ProbeStatResult;
+import com.sciome.bmdexpress2.util.ConversionUtil;
+
+/*
+ * a BMDExpress 1.x project is a list of tables that refer to each other by name. The tables are made in
+ * memory the way ProjectReader reads them, without a chip so nothing is downloaded.
+ */
+public class ConversionUtilTest
+{
+	private static final String[]	PROBES				= { "p1", "p2", "p3" };
+	private static final int		THREADS				= 4;
+
+	// the columns of a defined category table that the conversion reads by position.
+	private static final int		CATEGORY_COLUMNS	= 50;
+	private static final int		GENES_UP_LIST		= 28;
+	private static final int		GENES_DOWN_LIST		= 39;
+
+	@Rule
+	public TemporaryFolder			folder				= new TemporaryFolder();
+
+	private static class TablesReader extends ProjectReader
+	{
+		private final Vector<WSMatrixData> tables;
+
+		TablesReader(WSMatrixData... tables)
+		{
+			this.tables = new Vector<>(Arrays.asList(tables));
+		}
+
+		@Override
+		public Vector<WSMatrixData> getVectMData()
+		{
+			return tables;
+		}
+	}
+
+	/*
+	 * the first row has the doses, the responses of probe i are offset by the experiment.
+	 */
+	private static ArrayMatrixData experiment(String name, double offset)
+	{
+		String[] columns = { "Probe", "C1", "C2", "D1", "D2" };
+		Object[][] data = new Object[PROBES.length + 1][];
+		data[0] = new Object[] { "Dose", 0.0, 0.0, 10.0, 10.0 };
+		for (int i = 0; i < PROBES.length; i++)
+			data[i + 1] = new Object[] { PROBES[i], offset + i, offset + i, offset + i + 1, offset + i + 1 };
+		return new ArrayMatrixData(name, columns, data);
+	}
+
+	/*
+	 * a power fit of every probe with bmd offset + probe index.
+	 */
+	private static BMDMatrixData bmd(String name, String source, double offset)
+	{
+		ModelParameters parameters = new ModelParameters(new Vector<>(Arrays.asList("Power")));
+		parameters.setIdentifiers(PROBES);
+		double[][] fits = new double[PROBES.length][];
+		Object[][] data = new Object[PROBES.length][];
+		for (int i = 0; i < PROBES.length; i++)
+		{
+			fits[i] = new double[] { offset + i, offset + i - 0.5, 0.5, -10.0, 20.0, 1.0, 2.0, 1.5 };
+			data[i] = new Object[] { PROBES[i], offset + i, "Power", offset + i };
+		}
+		parameters.setModelParameters(0, fits);
+
+		BMDMatrixData table = new BMDMatrixData(name,
+				new String[] { "Probe ID", "BMD", "Best Model", "Best BMD" }, data);
+		table.setModelParameters(parameters);
+		table.addKeyValue(WSMatrixData.DATASOURCE, source);
+		return table;
+	}
+
+	private static WSMatrixData oneWay(String name, String source)
+	{
+		Object[][] data = new Object[PROBES.length][];
+		for (int i = 0; i < PROBES.length; i++)
+			data[i] = new Object[] { PROBES[i], 1, 2, 5.0, 0.01 * (i + 1), 0.02 * (i + 1) };
+		WSMatrixData table = new WSMatrixData(name,
+				new String[] { "Probe ID", "DF1", "DF2", "F", "P-Value", "Adjusted P-Value" }, data);
+		table.setType(1);
+		table.addKeyValue(WSMatrixData.DATASOURCE, source);
+		return table;
+	}
+
+	/*
+	 * one defined category with gene g1 on probe p1 going up and g2 on p2 going down.
+	 */
+	private static WSMatrixData category(String name, String source, String workSource)
+	{
+		String[] columns = new String[CATEGORY_COLUMNS];
+		for (int i = 0; i < CATEGORY_COLUMNS; i++)
+			columns[i] = "Column " + i;
+		columns[0] = "Category ID";
+		columns[1] = "Category Title";
+		columns[5] = "Gene IDs";
+		columns[6] = "Probe IDs";
+		columns[GENES_UP_LIST] = "Genes Up List";
+		columns[GENES_DOWN_LIST] = "Genes Down List";
+
+		Object[] row = new Object[CATEGORY_COLUMNS];
+		row[0] = "cat1";
+		row[1] = "category one";
+		row[2] = 10;
+		row[3] = 2;
+		row[4] = 20.0;
+		row[5] = "g1;g2";
+		row[6] = "p1;p2";
+		row[7] = 1.5;
+		row[GENES_UP_LIST] = "g1";
+		row[GENES_DOWN_LIST] = "g2";
+
+		WSMatrixData table = new WSMatrixData(name, columns, new Object[][] { row });
+		table.setType(3);
+		table.addKeyValue(WSMatrixData.DATASOURCE, source);
+		table.addKeyValue(WSMatrixData.WORKSOURCE, workSource);
+		return table;
+	}
+
+	private static ProbeStatResult probeStatResult(BMDResult bmdResult, String probe)
+	{
+		for (ProbeStatResult probeStatResult : bmdResult.getProbeStatResults())
+			if (probeStatResult.getProbeResponse().getProbe().getId().equals(probe))
+				return probeStatResult;
+		throw new AssertionError(probe + " is not in " + bmdResult.getName());
+	}
+
+	@Test
+	public void tablesAreLinkedByExperimentAndAnalysisName()
+	{
+		// both experiments have a bmd analysis named "bmd" on the same probe ids, the category of the file
+		// comes before the tables it refers to.
+		ProjectReader reader = new TablesReader(category("category", "expB", "bmd"), bmd("bmd", "expB", 100),
+				experiment("expA", 0), oneWay("anova", "expA"), bmd("bmd", "expA", 10), experiment("expB", 50));
+
+		ConversionUtil conversion = new ConversionUtil();
+		BMDProject project = conversion.convertOldToNew(reader, THREADS);
+		assertTrue(conversion.getFailedTables().isEmpty());
+
+		List<DoseResponseExperiment> experiments = project.getDoseResponseExperiments();
+		assertEquals(2, experiments.size());
+		assertEquals("expA", experiments.get(0).getName());
+		assertEquals("expB", experiments.get(1).getName());
+		assertEquals(50.0f, experiments.get(1).getProbeResponses().get(0).getResponses().get(0), 0.0f);
+
+		// in the order of the file, each on its own experiment's probes
+		List<BMDResult> bmdResults = project.getbMDResult();
+		assertEquals(2, bmdResults.size());
+		for (int e = 0; e < 2; e++)
+		{
+			BMDResult bmdResult = bmdResults.get(e);
+			DoseResponseExperiment experiment = experiments.get(1 - e);
+			assertSame(experiment, bmdResult.getDoseResponseExperiment());
+			for (int i = 0; i < PROBES.length; i++)
+			{
+				ProbeStatResult probeStatResult = bmdResult.getProbeStatResults().get(i);
+				assertSame(experiment.getProbeResponses().get(i), probeStatResult.getProbeResponse());
+				assertEquals((e == 0 ? 100 : 10) + i, probeStatResult.getBestStatResult().getBMD(), 0.0);
+			}
+		}
+
+		assertEquals(1, project.getOneWayANOVAResults().size());
+		assertSame(experiments.get(0), project.getOneWayANOVAResults().get(0).getDoseResponseExperiement());
+
+		// the category refers to the probes of the bmd analysis of expB
+		assertEquals(1, project.getCategoryAnalysisResults().size());
+		List<CategoryAnalysisResult> categories = project.getCategoryAnalysisResults().get(0)
+				.getCategoryAnalsyisResults();
+		assertEquals(1, categories.size());
+		List<ReferenceGeneProbeStatResult> genes = categories.get(0).getReferenceGeneProbeStatResults();
+		assertEquals(2, genes.size());
+		assertEquals("g1", genes.get(0).getReferenceGene().getId());
+		assertSame(probeStatResult(bmdResults.get(0), "p1"), genes.get(0).getProbeStatResults().get(0));
+		assertSame(probeStatResult(bmdResults.get(0), "p2"), genes.get(1).getProbeStatResults().get(0));
+		assertEquals("UP", genes.get(0).getAdverseDirection().name());
+		assertEquals("DOWN", genes.get(1).getAdverseDirection().name());
+	}
+
+	@Test
+	public void failedTablesAreReportedAndLeftOut()
+	{
+		// the anova of an experiment that is not in the file can't be converted
+		ProjectReader reader = new TablesReader(experiment("expA", 0), oneWay("lost", "missing"),
+				oneWay("anova", "expA"));
+
+		ConversionUtil conversion = new ConversionUtil();
+		BMDProject project = conversion.convertOldToNew(reader, THREADS);
+
+		List<String> failed = conversion.getFailedTables();
+		assertEquals(1, failed.size());
+		assertTrue(failed.get(0).startsWith("lost "));
+		assertEquals(1, project.getOneWayANOVAResults().size());
+		assertEquals("anova", project.getOneWayANOVAResults().get(0).getName());
+
+		// the failures of one conversion are not carried into the next
+		conversion.convertOldToNew(new TablesReader(experiment("expA", 0)), THREADS);
+		assertTrue(conversion.getFailedTables().isEmpty());
+	}
+
+	@Test
+	public void filesWithTheSameOutputNameAreRefused() throws Exception
+	{
+		File first = new File(folder.newFolder("first"), "project.bmd");
+		File second = new File(folder.newFolder("second"), "project.bmd");
+		assertTrue(first.createNewFile());
+		assertTrue(second.createNewFile());
+		File outDir = new File(folder.getRoot(), "out");
+
+		try
+		{
+			new ConvertRunner().convert(Arrays.asList(first.getPath(), second.getPath()), outDir.getPath(),
+					THREADS);
+			fail("both files were converted to project.bm2");
+		}
+		catch (IllegalArgumentException e)
+		{
+			assertTrue(e.getMessage().contains("project.bm2"));
+		}
+		assertFalse(outDir.exists());
+	}
+}
@@ -0,0 +1,172 @@
+package com.sciome.bmdexpress2.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.probe.ProbeResponse;
+import com.sciome.bmdexpress2.util.ExperimentFileUtil;
+
+/*
+ * the byte level importer has to give what the String based one gave: String.split("\t") on every tab
+ * delimited line, Float.valueOf on every response and the responses in dose order.
+ */
+public class ExperimentFileUtilTest
+{
+	// unsorted, with replicates, so the responses are reordered
+	private static final float[]	DOSES		= { 10.0f, 0.0f, 1.0f, 0.0f, 100.0f, 1.0f };
+
+	// values the fast path parses itself and values it hands to Float.parseFloat
+	private static final String[]	SPECIAL		= { "0", "-0", "0.0", "+2.5", ".5", "5.", "1E5", "2.5e+3",
+			"7e-3", "1.17549435E-38", "1.4E-45", "3.4028235E38", "3.4028236E38", "1e39", "123456789012345678",
+			"0.000000000000000000000001", "1.000000059604644775390625", "16777217", "NaN", "-Infinity",
+			"0x1p3", "1.5f", "2d" };
+
+	@Rule
+	public TemporaryFolder			folder		= new TemporaryFolder();
+
+	private static String format(Random random)
+	{
+		double value = Math.exp(random.nextGaussian() * 8) * (random.nextBoolean() ? 1 : -1);
+		switch (random.nextInt(5))
+		{
+			case 0:
+				return Float.toString((float) value);
+			case 1:
+				return Double.toString(value);
+			case 2:
+				return String.format(Locale.US, "%." + random.nextInt(12) + "f", value);
+			case 3:
+				return String.format(Locale.US, "%." + random.nextInt(17) + "e", value);
+			default:
+				return SPECIAL[random.nextInt(SPECIAL.length)];
+		}
+	}
+
+	private File writeFile(int probes, long seed) throws Exception
+	{
+		Random random = new Random(seed);
+		StringBuilder file = new StringBuilder();
+		file.append("a note without tabs\r\n");
+		file.append("Probe");
+		for (int i = 0; i < DOSES.length; i++)
+			file.append('\t').append("T").append(i);
+		file.append("\r\nDose");
+		for (float dose : DOSES)
+			file.append('\t').append(dose);
+		file.append("\n\n");
+		for (int p = 0; p < probes; p++)
+		{
+			file.append("probe_").append(p);
+			for (int i = 0; i < DOSES.length; i++)
+				file.append('\t').append(format(random));
+			// trailing tabs are dropped like String.split did
+			file.append(p % 7 == 0 ? "\t\t\n" : "\n");
+		}
+		File infile = folder.newFile("experiment" + seed + ".txt");
+		Files.write(infile.toPath(), file.toString().getBytes(StandardCharsets.UTF_8));
+		return infile;
+	}
+
+	/*
+	 * the responses of every probe the way the String based importer read them, in dose order.
+	 */
+	private static List<float[]> oldParse(File infile) throws Exception
+	{
+		List<String[]> lines = new ArrayList<>();
+		for (String line : Files.readAllLines(infile.toPath(), StandardCharsets.UTF_8))
+			if (line.indexOf("\t") >= 0 && !line.replaceAll("\\s*", "").equals(""))
+				lines.add(line.split("\t"));
+
+		String[] doseLine = lines.get(1);
+		Integer[] columns = new Integer[doseLine.length - 1];
+		for (int i = 0; i < columns.length; i++)
+			columns[i] = i;
+		Arrays.sort(columns, Comparator.comparing(i -> Float.valueOf(doseLine[i + 1])));
+
+		List<float[]> responses = new ArrayList<>();
+		for (String[] line : lines.subList(2, lines.size()))
+		{
+			float[] row = new float[columns.length];
+			for (int k = 0; k < columns.length; k++)
+				row[k] = Float.valueOf(line[columns[k] + 1]);
+			responses.add(row);
+		}
+		return responses;
+	}
+
+	private void assertSameAsOldParse(File infile, int numThreads) throws Exception
+	{
+		DoseResponseExperiment experiment = ExperimentFileUtil.getInstance().readFile(infile, null,
+				numThreads);
+		assertNotNull(experiment);
+		List<float[]> expected = oldParse(infile);
+
+		assertEquals(DOSES.length, experiment.getTreatments().size());
+		for (int i = 1; i < DOSES.length; i++)
+			assertTrue(experiment.getTreatments().get(i - 1).getDose() <= experiment.getTreatments().get(i)
+					.getDose());
+
+		assertEquals(expected.size(), experiment.getProbeResponses().size());
+		for (int p = 0; p < expected.size(); p++)
+		{
+			ProbeResponse probeResponse = experiment.getProbeResponses().get(p);
+			assertEquals("probe_" + p, probeResponse.getProbe().getId());
+			for (int j = 0; j < DOSES.length; j++)
+				assertEquals("probe_" + p + " column " + j, Float.floatToIntBits(expected.get(p)[j]),
+						Float.floatToIntBits(probeResponse.getResponse(j)));
+		}
+	}
+
+	@Test
+	public void singleThreadMatchesTheOldParse() throws Exception
+	{
+		assertSameAsOldParse(writeFile(500, 1), 1);
+	}
+
+	@Test
+	public void parallelChunksMatchTheOldParse() throws Exception
+	{
+		// enough probes for the file to be split into chunks
+		assertSameAsOldParse(writeFile(20000, 2), 4);
+	}
+
+	@Test
+	public void fastFloatParseMatchesFloatValueOf() throws Exception
+	{
+		// short decimals around the float rounding boundaries, one per line
+		Random random = new Random(3);
+		StringBuilder file = new StringBuilder("Probe\tT0\nDose\t0\n");
+		List<String> values = new ArrayList<>();
+		for (int i = 0; i < 100000; i++)
+		{
+			float f = Float.intBitsToFloat(random.nextInt() & 0x7F7FFFFF);
+			String value = random.nextBoolean() ? Float.toString(f)
+					: String.format(Locale.US, "%." + (1 + random.nextInt(14)) + "g", (double) f);
+			values.add(value);
+			file.append("p").append(i).append('\t').append(value).append('\n');
+		}
+		File infile = folder.newFile("floats.txt");
+		Files.write(infile.toPath(), file.toString().getBytes(StandardCharsets.UTF_8));
+
+		DoseResponseExperiment experiment = ExperimentFileUtil.getInstance().readFile(infile, null, 1);
+		for (int i = 0; i < values.size(); i++)
+			assertEquals(values.get(i), Float.floatToIntBits(Float.valueOf(values.get(i))),
+					Float.floatToIntBits(experiment.getProbeResponses().get(i).getResponse(0)));
+	}
+}
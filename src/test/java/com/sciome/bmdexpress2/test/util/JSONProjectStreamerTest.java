@@ -0,0 +1,137 @@
+package com.sciome.bmdexpress2.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sciome.bmdexpress2.mvp.model.BMDProject;
+import com.sciome.bmdexpress2.mvp.model.DoseResponseExperiment;
+import com.sciome.bmdexpress2.mvp.model.prefilter.OneWayANOVAResults;
+import com.sciome.bmdexpress2.mvp.model.stat.BMDResult;
+import com.sciome.bmdexpress2.test.TestData;
+import com.sciome.bmdexpress2.util.JSONProjectStreamer;
+
+public class JSONProjectStreamerTest
+{
+	private static final int	PROBES	= 5;
+
+	@Rule
+	public TemporaryFolder		folder	= new TemporaryFolder();
+
+	/*
+	 * two experiments, an anova of the first and two bmd analyses of it.
+	 */
+	private BMDProject createProject()
+	{
+		DoseResponseExperiment experiment = TestData.createExperiment("experiment", PROBES);
+		OneWayANOVAResults anova = TestData.createANOVAResults(experiment);
+
+		BMDProject project = new BMDProject();
+		project.setName("project");
+		project.getDoseResponseExperiments().add(experiment);
+		project.getDoseResponseExperiments().add(TestData.createExperiment("other", PROBES));
+		project.getOneWayANOVAResults().add(anova);
+		project.getbMDResult().add(TestData.createBMDResult(experiment, anova, "bmd1"));
+		project.getbMDResult().add(TestData.createBMDResult(experiment, anova, "bmd2"));
+		return project;
+	}
+
+	private File writeProject(BMDProject project) throws Exception
+	{
+		File file = folder.newFile("project.json");
+		new JSONProjectStreamer().writeProject(project, file, false);
+		return file;
+	}
+
+	@Test
+	public void childDataSetsShareTheProjectInstancesAfterImport() throws Exception
+	{
+		BMDProject project = new JSONProjectStreamer().readProject(writeProject(createProject()));
+
+		assertEquals(2, project.getDoseResponseExperiments().size());
+		assertEquals(1, project.getOneWayANOVAResults().size());
+		assertEquals(2, project.getbMDResult().size());
+
+		DoseResponseExperiment experiment = project.getDoseResponseExperiments().get(0);
+		OneWayANOVAResults anova = project.getOneWayANOVAResults().get(0);
+		assertSame(experiment, anova.getDoseResponseExperiement());
+		for (BMDResult bmdResult : project.getbMDResult())
+		{
+			assertSame(experiment, bmdResult.getDoseResponseExperiment());
+			assertSame(anova, bmdResult.getPrefilterResults());
+			for (int i = 0; i < PROBES; i++)
+				assertSame(experiment.getProbeResponses().get(i),
+						bmdResult.getProbeStatResults().get(i).getProbeResponse());
+		}
+		for (int i = 0; i < PROBES; i++)
+			assertSame(experiment.getProbeResponses().get(i),
+					anova.getOneWayANOVAResults().get(i).getProbeResponse());
+	}
+
+	@Test
+	public void responsesSurviveTheRoundTrip() throws Exception
+	{
+		BMDProject project = new JSONProjectStreamer().readProject(writeProject(createProject()));
+
+		DoseResponseExperiment experiment = project.getDoseResponseExperiments().get(1);
+		assertEquals("other", experiment.getName());
+		assertEquals(TestData.DOSES.length * TestData.REPLICATES, experiment.getTreatments().size());
+		for (int i = 0; i < PROBES; i++)
+		{
+			assertEquals("probe_" + i, experiment.getProbeResponses().get(i).getProbe().getId());
+			for (int j = 0; j < experiment.getTreatments().size(); j++)
+				assertEquals(TestData.response(i, j), experiment.getProbeResponses().get(i).getResponse(j),
+						0.0f);
+		}
+
+		// the experiment is packed by the import, not by the first reader
+		float[] matrix = experiment.getProbeResponses().get(0).getResponseMatrix();
+		for (int i = 0; i < PROBES; i++)
+			assertSame(matrix, experiment.getProbeResponses().get(i).getResponseMatrix());
+		assertSame(matrix, experiment.getResponseMatrix());
+	}
+
+	@Test
+	public void sharedExperimentIsWrittenOnce() throws Exception
+	{
+		String json = new String(Files.readAllBytes(writeProject(createProject()).toPath()),
+				StandardCharsets.UTF_8);
+
+		// both experiments have a probe_0, the anova and the bmd results refer to the first one's.
+		assertEquals(2, count(json, "\"probe_0\""));
+	}
+
+	@Test
+	public void readDataSetResolvesItsParents() throws Exception
+	{
+		File file = writeProject(createProject());
+
+		BMDResult bmdResult = new JSONProjectStreamer().readDataSet(file, BMDResult.class, "bmd2");
+		assertNotNull(bmdResult);
+		assertEquals("bmd2", bmdResult.getName());
+		DoseResponseExperiment experiment = bmdResult.getDoseResponseExperiment();
+		assertEquals("experiment", experiment.getName());
+		assertSame(experiment, ((OneWayANOVAResults) bmdResult.getPrefilterResults()).getDoseResponseExperiement());
+		assertSame(experiment.getProbeResponses().get(0),
+				bmdResult.getProbeStatResults().get(0).getProbeResponse());
+
+		assertNull(new JSONProjectStreamer().readDataSet(file, BMDResult.class, "missing"));
+	}
+
+	private static int count(String text, String part)
+	{
+		int count = 0;
+		for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + part.length()))
+			count++;
+		return count;
+	}
+}
@@ -0,0 +1,137 @@
+package com.sciome.bmdexpress2.test.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.sciome.charts.data.KernelDensity;
+
+/*
+ * the binned FFT and the truncated sums have to draw the density the direct sum of every kernel gives.
+ */
+public class KernelDensityTest
+{
+	private static double[] sample(int size, long seed)
+	{
+		Random random = new Random(seed);
+		double[] data = new double[size];
+		for (int i = 0; i < size; i++)
+			data[i] = random.nextBoolean() ? random.nextGaussian() : 2.5 + random.nextGaussian() * 0.3;
+		return data;
+	}
+
+	private static double bandwidth(double[] data)
+	{
+		// Silverman's rule on a standard deviation of about 1.3
+		return 1.06 * 1.3 * Math.pow(data.length, -0.2);
+	}
+
+	/*
+	 * every point within the tolerance of the peak of the direct density.
+	 */
+	private static void assertClose(double[] expected, double[] actual, double tolerance)
+	{
+		assertEquals(expected.length, actual.length);
+		double peak = 0.0;
+		for (double value : expected)
+			peak = Math.max(peak, value);
+		assertTrue(peak > 0.0);
+		for (int i = 0; i < expected.length; i++)
+		{
+			assertTrue(actual[i] >= 0.0);
+			assertEquals("point " + i, expected[i], actual[i], tolerance * peak);
+		}
+	}
+
+	@Test
+	public void fftMatchesTheDirectSum()
+	{
+		double[] data = sample(20000, 1);
+		double bandwidth = bandwidth(data);
+		double step = 8.0 / 512;
+		assertClose(KernelDensity.computeDirect(data, bandwidth, step, -256, 255),
+				KernelDensity.compute(data, bandwidth, step, -256, 255), 1e-3);
+	}
+
+	@Test
+	public void narrowBandwidthMatchesTheDirectSum()
+	{
+		// a kernel only a few grid steps wide, the binning error is largest
+		double[] data = sample(5000, 2);
+		double step = 8.0 / 512;
+		assertClose(KernelDensity.computeDirect(data, step * 2, step, -256, 255),
+				KernelDensity.compute(data, step * 2, step, -256, 255), 5e-3);
+	}
+
+	@Test
+	public void widelySpreadGridMatchesTheDirectSum()
+	{
+		// the grid reaches far past the data, too many bins for the transform, so only the values near each
+		// grid point are summed. The direct sum is checked on the ends of the grid.
+		double[] data = sample(2000, 3);
+		data[0] = 9000.0;
+		double bandwidth = bandwidth(data);
+		double step = 0.05;
+		int first = -100;
+		int last = 199900;
+		double[] density = KernelDensity.compute(data, bandwidth, step, first, last);
+		assertEquals(last - first + 1, density.length);
+
+		int[][] ranges = { { first, first + 299 }, { 179900, 180099 }, { last - 99, last } };
+		for (int[] range : ranges)
+		{
+			double[] direct = KernelDensity.computeDirect(data, bandwidth, step, range[0], range[1]);
+			for (int i = range[0]; i <= range[1]; i++)
+				assertEquals("point " + i, direct[i - range[0]], density[i - first], 1e-9);
+		}
+	}
+
+	@Test
+	public void smallSamplesAreSummedDirectly()
+	{
+		double[] data = sample(100, 4);
+		double bandwidth = bandwidth(data);
+		assertArrayEquals(KernelDensity.computeDirect(data, bandwidth, 0.1, -50, 50),
+				KernelDensity.compute(data, bandwidth, 0.1, -50, 50), 0.0);
+	}
+
+	@Test
+	public void cachedEstimatesAreCopies()
+	{
+		double[] data = sample(20000, 5);
+		double bandwidth = bandwidth(data);
+		double[] estimate = KernelDensity.estimate(data, bandwidth, 0.02, -250, 249);
+		assertArrayEquals(KernelDensity.compute(data, bandwidth, 0.02, -250, 249), estimate, 0.0);
+
+		estimate[0] = -1.0;
+		double[] again = KernelDensity.estimate(data, bandwidth, 0.02, -250, 249);
+		assertNotSame(estimate, again);
+		assertTrue(again[0] >= 0.0);
+	}
+
+	@Test
+	public void sortedOrderIsStable()
+	{
+		Random random = new Random(6);
+		double[] values = new double[1001];
+		for (int i = 0; i < values.length; i++)
+			values[i] = random.nextInt(50);
+
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < values.length; i++)
+			expected.add(i);
+		expected.sort(Comparator.comparingDouble(i -> values[i]));
+
+		int[] order = KernelDensity.sortedOrder(values);
+		for (int i = 0; i < values.length; i++)
+			assertEquals((int) expected.get(i), order[i]);
+	}
+}
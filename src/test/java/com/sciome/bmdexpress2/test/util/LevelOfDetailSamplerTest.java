@@ -0,0 +1,123 @@
+package com.sciome.bmdexpress2.test.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.sciome.charts.data.LevelOfDetailSampler;
+
+/*
+ * a dense cluster in the middle of the view with single points on its edges and corners and a few out of
+ * view. The sample has to keep the lone points, drop what is out of view and stay near the budget.
+ */
+public class LevelOfDetailSamplerTest
+{
+	private static final int		CLUSTER		= 200000;
+	private static final int		BUDGET		= 10000;
+
+	// on the edges and corners of the view 0..1 x 0..1, then out of view
+	private static final double[][]	EXTREMES	= { { 0.0, 0.5 }, { 1.0, 0.5 }, { 0.5, 0.0 }, { 0.5, 1.0 },
+			{ 0.0, 0.0 }, { 1.0, 1.0 } };
+	private static final double[][]	OUTSIDE		= { { 1.5, 0.5 }, { -0.1, 0.5 }, { 0.5, 1.0001 } };
+
+	private double[]				x;
+	private double[]				y;
+
+	private void createPoints(boolean positive)
+	{
+		Random random = new Random(7);
+		x = new double[CLUSTER + EXTREMES.length + OUTSIDE.length];
+		y = new double[x.length];
+		for (int i = 0; i < CLUSTER; i++)
+		{
+			x[i] = 0.5 + random.nextGaussian() * 0.05;
+			y[i] = 0.5 + random.nextGaussian() * 0.05;
+		}
+		for (int i = 0; i < EXTREMES.length; i++)
+		{
+			x[CLUSTER + i] = EXTREMES[i][0];
+			y[CLUSTER + i] = EXTREMES[i][1];
+		}
+		for (int i = 0; i < OUTSIDE.length; i++)
+		{
+			x[CLUSTER + EXTREMES.length + i] = OUTSIDE[i][0];
+			y[CLUSTER + EXTREMES.length + i] = OUTSIDE[i][1];
+		}
+		if (positive)
+			for (int i = 0; i < x.length; i++)
+			{
+				x[i] = Math.pow(10, x[i]);
+				y[i] = Math.pow(10, y[i]);
+			}
+	}
+
+	private void assertSample(int[] sample, double minX, double maxX, double minY, double maxY)
+	{
+		assertTrue(sample.length + " points", sample.length >= BUDGET / 2 && sample.length <= 2 * BUDGET);
+		for (int i = 1; i < sample.length; i++)
+			assertTrue(sample[i - 1] < sample[i]);
+		for (int i : sample)
+			assertTrue(i + " is out of view",
+					x[i] >= minX && x[i] <= maxX && y[i] >= minY && y[i] <= maxY);
+		for (int i = 0; i < EXTREMES.length; i++)
+			assertTrue("extreme " + i + " was dropped", Arrays.binarySearch(sample, CLUSTER + i) >= 0);
+		for (int i = 0; i < OUTSIDE.length; i++)
+			assertFalse(Arrays.binarySearch(sample, CLUSTER + EXTREMES.length + i) >= 0);
+	}
+
+	@Test
+	public void denseViewKeepsTheExtremes()
+	{
+		createPoints(false);
+		LevelOfDetailSampler sampler = new LevelOfDetailSampler(x, y, false, false, BUDGET);
+		assertSample(sampler.sample(0.0, 1.0, 0.0, 1.0), 0.0, 1.0, 0.0, 1.0);
+	}
+
+	@Test
+	public void logAxesKeepTheExtremes()
+	{
+		createPoints(true);
+		LevelOfDetailSampler sampler = new LevelOfDetailSampler(x, y, true, true, BUDGET);
+		assertSample(sampler.sample(1.0, 10.0, 1.0, 10.0), 1.0, 10.0, 1.0, 10.0);
+	}
+
+	@Test
+	public void zoomedViewKeepsEveryVisiblePoint()
+	{
+		createPoints(false);
+		LevelOfDetailSampler sampler = new LevelOfDetailSampler(x, y, false, false, BUDGET);
+
+		// few enough cluster points in this corner to draw them all
+		int[] sample = sampler.sample(0.6, 1.0, 0.6, 1.0);
+		int visible = 0;
+		for (int i = 0; i < x.length; i++)
+			if (x[i] >= 0.6 && x[i] <= 1.0 && y[i] >= 0.6 && y[i] <= 1.0)
+				assertEquals(i, sample[visible++]);
+		assertEquals(visible, sample.length);
+		assertTrue(visible < BUDGET);
+	}
+
+	@Test
+	public void smallSeriesAreDrawnWhole()
+	{
+		double[] values = { 3.0, -1.0, 0.0, 2.0 };
+		LevelOfDetailSampler sampler = new LevelOfDetailSampler(values, values, true, true, BUDGET);
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, sampler.sample(1.0, 2.0, 1.0, 2.0));
+	}
+
+	@Test
+	public void degenerateViewportDrawsEverything()
+	{
+		createPoints(false);
+		LevelOfDetailSampler sampler = new LevelOfDetailSampler(x, y, true, false, BUDGET);
+		// a log axis can't start at zero
+		assertEquals(x.length, sampler.sample(0.0, 1.0, 0.0, 1.0).length);
+		assertEquals(x.length, sampler.sample(1.0, 1.0, 0.0, 1.0).length);
+	}
+}
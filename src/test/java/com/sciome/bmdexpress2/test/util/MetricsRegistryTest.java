@@ -0,0 +1,67 @@
+package com.sciome.bmdexpress2.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.sciome.bmdexpress2.util.metrics.MetricsRegistry;
+import com.sciome.bmdexpress2.util.metrics.MetricsRegistry.StageStatistics;
+
+public class MetricsRegistryTest
+{
+	private static StageStatistics stage(String name)
+	{
+		for (StageStatistics stage : MetricsRegistry.getInstance().getStages())
+			if (stage.getStage().equals(name))
+				return stage;
+		return null;
+	}
+
+	private static void failingStage()
+	{
+		throw new IllegalStateException("the stage failed");
+	}
+
+	@Test
+	public void stoppedTimerIsRecordedOnce()
+	{
+		try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("test.stopped"))
+		{
+			timer.stop(5);
+			timer.stop(7);
+		}
+
+		StageStatistics stage = stage("test.stopped");
+		assertEquals(1, stage.getCount());
+		assertEquals(5, stage.getItems());
+	}
+
+	@Test
+	public void stageThatThrowsIsRecorded()
+	{
+		try (MetricsRegistry.Timer timer = MetricsRegistry.getInstance().start("test.throws"))
+		{
+			failingStage();
+			timer.stop(5);
+			fail("the stage did not throw");
+		}
+		catch (IllegalStateException e)
+		{
+			assertEquals("the stage failed", e.getMessage());
+		}
+
+		StageStatistics stage = stage("test.throws");
+		assertEquals(1, stage.getCount());
+		assertEquals(0, stage.getItems());
+	}
+
+	@Test
+	public void resetDropsTheStages()
+	{
+		MetricsRegistry.getInstance().record("test.reset", 1000, 1);
+		MetricsRegistry.getInstance().reset();
+		assertNull(stage("test.reset"));
+	}
+}